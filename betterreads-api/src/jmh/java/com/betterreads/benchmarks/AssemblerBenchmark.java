@@ -0,0 +1,55 @@
+package com.betterreads.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.hateoas.EntityModel;
+
+import com.betterreads.assemblers.AuthorsAssembler;
+import com.betterreads.assemblers.BooksAssembler;
+import com.betterreads.models.Author;
+import com.betterreads.models.Book;
+
+/**
+ * <p>
+ * Cost of mapping one document to an EntityModel, with its links expanded
+ * from the assembler's link templates
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class AssemblerBenchmark {
+
+    private BooksAssembler booksAssembler;
+
+    private AuthorsAssembler authorsAssembler;
+
+    private Book book;
+
+    private Author author;
+
+    @Setup
+    public void setup() {
+        booksAssembler = new BooksAssembler();
+        authorsAssembler = new AuthorsAssembler();
+        book = Fixtures.book();
+        author = Fixtures.authorWithBooks(10);
+    }
+
+    @Benchmark
+    public EntityModel<Book> bookToModel() {
+        return booksAssembler.toModel(book);
+    }
+
+    @Benchmark
+    public EntityModel<Author> authorToModel() {
+        return authorsAssembler.toModel(author);
+    }
+}
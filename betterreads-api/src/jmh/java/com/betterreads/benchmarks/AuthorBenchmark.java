@@ -0,0 +1,41 @@
+package com.betterreads.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.betterreads.models.Author;
+
+/**
+ * <p>
+ * Cost of the string formatting on Author
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class AuthorBenchmark {
+
+    private Author author;
+
+    @Setup
+    public void setup() {
+        author = Fixtures.authorWithBooks(10);
+    }
+
+    @Benchmark
+    public String formattedName() {
+        return author.getFormattedName();
+    }
+
+    @Benchmark
+    public String toStringWithBooks() {
+        return author.toString();
+    }
+}
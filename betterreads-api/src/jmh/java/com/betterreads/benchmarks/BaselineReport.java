@@ -0,0 +1,125 @@
+package com.betterreads.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * <p>
+ * Compares a JMH result file with the checked-in baseline and prints the
+ * change of every benchmark. Changes beyond the threshold are marked, but the
+ * build is not failed: results from different machines are not comparable, so
+ * refresh the baseline from the same machine before reading too much into
+ * them.
+ * </p>
+ */
+public final class BaselineReport {
+
+    /**
+     * The relative slowdown reported as a regression
+     */
+    static final double THRESHOLD = 0.10;
+
+    private BaselineReport() {
+    }
+
+    /**
+     * <p>
+     * Prints the comparison
+     * </p>
+     *
+     * @param args the baseline file and the result file
+     * @throws IOException if a file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (!new File(args[0]).exists()) {
+            System.out.printf("No baseline at %s, copy %s there to create one%n", args[0], args[1]);
+            return;
+        }
+
+        Map<String, JsonNode> baseline = read(new File(args[0]));
+        Map<String, JsonNode> results = read(new File(args[1]));
+        int regressions = 0;
+
+        System.out.printf("%-70s %14s %14s %9s %12s%n", "Benchmark", "Baseline", "Current", "Change", "B/op");
+
+        for (Map.Entry<String, JsonNode> result : results.entrySet()) {
+            JsonNode current = result.getValue().get("primaryMetric");
+            JsonNode before = baseline.containsKey(result.getKey())
+                    ? baseline.get(result.getKey()).get("primaryMetric")
+                    : null;
+
+            if (before == null) {
+                System.out.printf("%-70s %14s %14.3f %9s %12s%n", result.getKey(), "-",
+                        current.get("score").asDouble(), "new", allocated(result.getValue()));
+                continue;
+            }
+
+            double change = change(result.getValue().get("mode").asText(), before.get("score").asDouble(),
+                    current.get("score").asDouble());
+            boolean regressed = change > THRESHOLD;
+
+            if (regressed) {
+                regressions++;
+            }
+
+            System.out.printf("%-70s %14.3f %14.3f %+8.1f%% %12s%s%n", result.getKey(),
+                    before.get("score").asDouble(), current.get("score").asDouble(), change * 100,
+                    allocated(result.getValue()), regressed ? "  REGRESSION" : "");
+        }
+
+        System.out.printf("%d of %d benchmarks regressed by more than %.0f%%%n", regressions, results.size(),
+                THRESHOLD * 100);
+    }
+
+    /**
+     * <p>
+     * The relative slowdown between two scores. Throughput is better when
+     * higher, every other mode when lower.
+     * </p>
+     */
+    static double change(String mode, double before, double current) {
+        return "thrpt".equals(mode) ? (before - current) / before : (current - before) / before;
+    }
+
+    /**
+     * <p>
+     * The bytes a run allocated per operation, recorded when it ran with -prof
+     * gc
+     * </p>
+     */
+    static String allocated(JsonNode run) {
+        JsonNode secondary = run.get("secondaryMetrics");
+
+        if (secondary != null) {
+            for (Iterator<Map.Entry<String, JsonNode>> metrics = secondary.fields(); metrics.hasNext();) {
+                Map.Entry<String, JsonNode> metric = metrics.next();
+
+                // older JMH versions prefix the profiler's metrics with a middle dot
+                if (metric.getKey().endsWith("gc.alloc.rate.norm")) {
+                    return String.format("%.0f", metric.getValue().get("score").asDouble());
+                }
+            }
+        }
+
+        return "-";
+    }
+
+    private static Map<String, JsonNode> read(File file) throws IOException {
+        Map<String, JsonNode> runs = new LinkedHashMap<>();
+
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            String name = run.get("benchmark").asText().replace(BaselineReport.class.getPackageName() + ".", "");
+            JsonNode params = run.get("params");
+
+            runs.put(params == null ? name : name + params, run);
+        }
+
+        return runs;
+    }
+}
@@ -0,0 +1,100 @@
+package com.betterreads.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.bson.types.ObjectId;
+
+import com.betterreads.models.Author;
+import com.betterreads.models.Book;
+import com.betterreads.models.Publisher;
+
+/**
+ * <p>
+ * Documents shared by the benchmarks, shaped like the catalog's real data
+ * </p>
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    /**
+     * <p>
+     * A new id, as Mongo would generate it
+     * </p>
+     *
+     * @return the id
+     */
+    static String id() {
+        return new ObjectId().toHexString();
+    }
+
+    /**
+     * <p>
+     * A book with two authors and a publisher
+     * </p>
+     *
+     * @return the book
+     */
+    static Book book() {
+        Publisher publisher = Publisher.builder().id(id()).name("McGraw").build();
+
+        return Book.builder()
+                .id(id())
+                .isbn("978-0-00-555523-1")
+                .title("My Awesome Book")
+                .authors(List.of(author("Bluth", "George", "Michael"), author("Funke", "Tobias", null)))
+                .pages(351)
+                .genres(Arrays.asList("non-fiction", "autobiography"))
+                .publishedDate(new Date(0))
+                .publisher(publisher)
+                .language("en")
+                .build();
+    }
+
+    /**
+     * <p>
+     * An author without books
+     * </p>
+     *
+     * @param lastName   the last name
+     * @param firstName  the first name
+     * @param middleName the middle name, may be null
+     * @return the author
+     */
+    static Author author(String lastName, String firstName, String middleName) {
+        return Author.builder()
+                .id(id())
+                .firstName(firstName)
+                .middleName(middleName)
+                .lastName(lastName)
+                .suffix("Jr.")
+                .dateOfBirth(new Date(0))
+                .gender("M")
+                .city("Newport Beach")
+                .state("CA")
+                .books(new ArrayList<>())
+                .build();
+    }
+
+    /**
+     * <p>
+     * An author with a number of books
+     * </p>
+     *
+     * @param books the number of books
+     * @return the author
+     */
+    static Author authorWithBooks(int books) {
+        Author author = author("Bluth", "George", "Michael");
+
+        for (int i = 0; i < books; i++) {
+            author.getBooks().add(Book.builder().id(id()).title("Book " + i).build());
+        }
+
+        return author;
+    }
+}
@@ -0,0 +1,102 @@
+package com.betterreads.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.mediatype.MessageResolver;
+import org.springframework.hateoas.mediatype.hal.CurieProvider;
+import org.springframework.hateoas.mediatype.hal.Jackson2HalModule;
+import org.springframework.hateoas.server.core.EvoInflectorLinkRelationProvider;
+
+import com.betterreads.assemblers.BooksAssembler;
+import com.betterreads.configurations.JacksonConfig;
+import com.betterreads.controllers.BooksController;
+import com.betterreads.models.Book;
+import com.betterreads.services.CursorPage;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+/**
+ * <p>
+ * Cost of rendering a page of books as HAL, from assembling it to the last
+ * byte: EntityModels with links built through methodOn for every book, as the
+ * assemblers used to, against the EntityListModel they return now. Both write
+ * the same JSON. The jmh profile runs with -prof gc, so the results also hold
+ * the bytes allocated per page, gc.alloc.rate.norm.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ListRenderingBenchmark {
+
+    @Param({ "true", "false" })
+    private boolean indent;
+
+    @Param({ "20", "100" })
+    private int size;
+
+    private ObjectMapper mapper;
+
+    private BooksAssembler assembler;
+
+    private CursorPage<Book> page;
+
+    private final OutputStream out = OutputStream.nullOutputStream();
+
+    @Setup
+    public void setup() {
+        mapper = new ObjectMapper()
+                .registerModule(new Jackson2HalModule())
+                .registerModule(new JacksonConfig().referenceModule())
+                .configure(SerializationFeature.INDENT_OUTPUT, indent)
+                // like the response stream, out is written to again and again
+                .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        mapper.setHandlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(
+                new EvoInflectorLinkRelationProvider(), CurieProvider.NONE, MessageResolver.DEFAULTS_ONLY));
+
+        assembler = new BooksAssembler();
+
+        List<Book> books = IntStream.range(0, size).mapToObj(i -> Fixtures.book()).toList();
+        page = new CursorPage<>(books, null, null, size, books.get(size - 1).getId(), null);
+    }
+
+    @Benchmark
+    public void entityModels() throws IOException {
+        List<EntityModel<?>> content = page.getContent().stream()
+                .map(book -> EntityModel.of(book,
+                        linkTo(methodOn(BooksController.class).getById(book.getId(), null, null)).withSelfRel()
+                                .expand(),
+                        linkTo(methodOn(BooksController.class).getAll(null, null, null, null)).withRel("v1/books")
+                                .expand()))
+                .collect(Collectors.toList());
+
+        mapper.writeValue(out, CollectionModel.of(content,
+                linkTo(methodOn(BooksController.class).getAll(null, null, size, null)).withSelfRel().expand(),
+                linkTo(methodOn(BooksController.class).getAll(page.getNext(), null, size, null)).withRel("next")
+                        .expand()));
+    }
+
+    @Benchmark
+    public void streamed() throws IOException {
+        mapper.writeValue(out, assembler.toPagedModel(page, null));
+    }
+}
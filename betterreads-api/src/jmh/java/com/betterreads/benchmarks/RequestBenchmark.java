@@ -0,0 +1,126 @@
+package com.betterreads.benchmarks;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.betterreads.Application;
+import com.betterreads.models.Book;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+
+/**
+ * <p>
+ * Request throughput of the MVC endpoints on Tomcat's platform thread pool and
+ * on virtual threads. The pool is cut down to {@value #WORKERS} threads and
+ * driven by more concurrent clients than that, so the platform run shows the
+ * flat line at the worker count that a full 200 thread pool reaches in
+ * production. The virtual run needs Java 21: mvn -Pjava21,jmh verify
+ * -Djmh.args="RequestBenchmark".
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Threads(RequestBenchmark.CLIENTS)
+public class RequestBenchmark {
+
+    static final int CLIENTS = 32;
+
+    private static final int WORKERS = 8;
+
+    private static final int BOOKS = 200;
+
+    @Param({ "platform", "virtual" })
+    private String threads;
+
+    private MongoServer server;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient client;
+
+    private HttpRequest getBookById;
+
+    private HttpRequest getAllBooks;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+
+        context = new SpringApplicationBuilder(Application.class)
+                .run("--spring.data.mongodb.uri=mongodb://" + address.getHostString() + ":" + address.getPort()
+                        + "/betterreads",
+                        "--server.port=0",
+                        "--server.tomcat.threads.max=" + WORKERS,
+                        "--betterreads.threads.virtual=" + "virtual".equals(threads),
+                        "--spring.cache.type=none",
+                        "--spring.jackson.serialization.indent_output=false",
+                        "--betterreads.indexes.reconcile=false",
+                        "--betterreads.summaries.rebuild-on-startup=false",
+                        "--logging.level.root=WARN");
+
+        String bookId = seed(context.getBean(MongoTemplate.class));
+        String base = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        getBookById = HttpRequest.newBuilder(URI.create(base + "/v1/books/" + bookId)).build();
+        getAllBooks = HttpRequest.newBuilder(URI.create(base + "/v1/books?size=20")).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        server.shutdown();
+    }
+
+    @Benchmark
+    public int getBookById() throws IOException, InterruptedException {
+        return client.send(getBookById, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Benchmark
+    public int getAllBooks() throws IOException, InterruptedException {
+        return client.send(getAllBooks, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private String seed(MongoTemplate mongoTemplate) {
+        List<Book> books = new ArrayList<>();
+
+        for (int i = 0; i < BOOKS; i++) {
+            Book book = Fixtures.book();
+
+            mongoTemplate.insert(book.getPublisher());
+            mongoTemplate.insertAll(book.getAuthors());
+            books.add(book);
+        }
+
+        mongoTemplate.insertAll(books);
+
+        return books.get(BOOKS / 2).getId();
+    }
+}
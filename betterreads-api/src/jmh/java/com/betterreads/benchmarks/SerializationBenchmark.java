@@ -0,0 +1,75 @@
+package com.betterreads.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.mediatype.MessageResolver;
+import org.springframework.hateoas.mediatype.hal.CurieProvider;
+import org.springframework.hateoas.mediatype.hal.Jackson2HalModule;
+import org.springframework.hateoas.server.core.EvoInflectorLinkRelationProvider;
+
+import com.betterreads.assemblers.BooksAssembler;
+import com.betterreads.configurations.JacksonConfig;
+import com.betterreads.models.Book;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * <p>
+ * Cost of writing books as HAL, with and without the indent_output setting
+ * from application.yml
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({ "true", "false" })
+    private boolean indent;
+
+    private ObjectMapper mapper;
+
+    private EntityModel<Book> book;
+
+    private CollectionModel<EntityModel<Book>> page;
+
+    @Setup
+    public void setup() {
+        mapper = new ObjectMapper()
+                .registerModule(new Jackson2HalModule())
+                .registerModule(new JacksonConfig().referenceModule())
+                .configure(SerializationFeature.INDENT_OUTPUT, indent);
+        mapper.setHandlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(
+                new EvoInflectorLinkRelationProvider(), CurieProvider.NONE, MessageResolver.DEFAULTS_ONLY));
+
+        BooksAssembler assembler = new BooksAssembler();
+        List<EntityModel<Book>> books = IntStream.range(0, 20).mapToObj(i -> assembler.toModel(Fixtures.book()))
+                .toList();
+
+        book = books.get(0);
+        page = CollectionModel.of(books);
+    }
+
+    @Benchmark
+    public byte[] book() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(book);
+    }
+
+    @Benchmark
+    public byte[] pageOfTwenty() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(page);
+    }
+}
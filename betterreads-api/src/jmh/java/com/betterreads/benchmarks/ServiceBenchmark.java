@@ -0,0 +1,144 @@
+package com.betterreads.benchmarks;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+
+import com.betterreads.Application;
+import com.betterreads.models.Author;
+import com.betterreads.models.Book;
+import com.betterreads.models.Publisher;
+import com.betterreads.services.IService;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+
+/**
+ * <p>
+ * End-to-end service calls against an in-memory Mongo server speaking the wire
+ * protocol, so the driver, mapping, reference resolution and assembly are all
+ * measured. The cache is turned off so every call reaches the database.
+ * Absolute numbers say little about a real deployment; compare them against the
+ * baseline instead.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ServiceBenchmark {
+
+    private static final int PUBLISHERS = 20;
+
+    private static final int AUTHORS = 200;
+
+    private static final int BOOKS = 1000;
+
+    @Param({ "20", "100" })
+    private int size;
+
+    private MongoServer server;
+
+    private ConfigurableApplicationContext context;
+
+    private IService booksService;
+
+    private IService authorsService;
+
+    private String bookId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+
+        context = new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.data.mongodb.uri=mongodb://" + address.getHostString() + ":" + address.getPort()
+                        + "/betterreads",
+                        "--spring.cache.type=none",
+                        "--betterreads.indexes.reconcile=false",
+                        "--betterreads.summaries.rebuild-on-startup=false",
+                        "--logging.level.root=WARN");
+
+        seed(context.getBean(MongoTemplate.class));
+
+        booksService = context.getBean("booksService", IService.class);
+        authorsService = context.getBean("authorsService", IService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        server.shutdown();
+    }
+
+    @Benchmark
+    public CollectionModel<EntityModel<?>> getAllBooks() {
+        return booksService.getAll(null, null, size, null);
+    }
+
+    @Benchmark
+    public CollectionModel<EntityModel<?>> getAllBooksProjected() {
+        return booksService.getAll(null, null, size, "title,isbn");
+    }
+
+    @Benchmark
+    public CollectionModel<EntityModel<?>> getAllAuthors() {
+        return authorsService.getAll(null, null, size, null);
+    }
+
+    @Benchmark
+    public EntityModel<?> getBookById() {
+        return booksService.getById(bookId, null);
+    }
+
+    private void seed(MongoTemplate mongoTemplate) {
+        List<Publisher> publishers = new ArrayList<>();
+        List<Author> authors = new ArrayList<>();
+        List<Book> books = new ArrayList<>();
+
+        for (int i = 0; i < PUBLISHERS; i++) {
+            publishers.add(Publisher.builder().id(Fixtures.id()).name("Publisher " + i).build());
+        }
+
+        for (int i = 0; i < AUTHORS; i++) {
+            authors.add(Fixtures.author("Author " + i, "First", null));
+        }
+
+        for (int i = 0; i < BOOKS; i++) {
+            Book book = Fixtures.book();
+            Author first = authors.get(i % AUTHORS);
+            Author second = authors.get((i * 7 + 1) % AUTHORS);
+
+            book.setAuthors(List.of(first, second));
+            book.setPublisher(publishers.get(i % PUBLISHERS));
+            first.getBooks().add(book);
+            second.getBooks().add(book);
+            books.add(book);
+        }
+
+        mongoTemplate.insertAll(publishers);
+        mongoTemplate.insertAll(authors);
+        mongoTemplate.insertAll(books);
+
+        bookId = books.get(BOOKS / 2).getId();
+    }
+}
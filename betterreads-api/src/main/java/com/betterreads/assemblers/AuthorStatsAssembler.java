@@ -0,0 +1,73 @@
+package com.betterreads.assemblers;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.server.RepresentationModelAssembler;
+import org.springframework.stereotype.Component;
+
+import com.betterreads.controllers.AuthorStatsController;
+import com.betterreads.controllers.AuthorsController;
+import com.betterreads.models.AuthorStats;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+/**
+ * <p>
+ * Assembles an EntityModel from an AuthorStats
+ * </p>
+ */
+@Component
+public class AuthorStatsAssembler implements RepresentationModelAssembler<AuthorStats, EntityModel<AuthorStats>> {
+
+    /**
+     * <p>
+     * Maps an AuthorStats to an EntityModel linking to its author
+     * </p>
+     * 
+     * @param entity the author stats
+     * @return the mapped EntityModel
+     */
+    @Override
+    public EntityModel<AuthorStats> toModel(AuthorStats entity) {
+        return EntityModel.of(entity,
+                linkTo(methodOn(AuthorStatsController.class).getById(entity.getId())).withSelfRel().expand(),
+                linkTo(methodOn(AuthorsController.class).getById(entity.getId(), null, null)).withRel("v1/author")
+                        .expand());
+    }
+
+    /**
+     * <p>
+     * Maps the stats of the requested authors to a CollectionModel
+     * </p>
+     * 
+     * @param stats the stats
+     * @param ids   the requested ids
+     * @return the mapped CollectionModel
+     */
+    public CollectionModel<EntityModel<?>> toCollectionModel(List<AuthorStats> stats, List<String> ids) {
+        return CollectionModel.of(content(stats),
+                linkTo(methodOn(AuthorStatsController.class).getAll(ids)).withSelfRel().expand());
+    }
+
+    /**
+     * <p>
+     * Maps the stats of the authors with the most books to a CollectionModel
+     * </p>
+     * 
+     * @param stats the stats, most books first
+     * @param size  the requested number of authors
+     * @return the mapped CollectionModel
+     */
+    public CollectionModel<EntityModel<?>> toTopModel(List<AuthorStats> stats, int size) {
+        return CollectionModel.of(content(stats),
+                linkTo(methodOn(AuthorStatsController.class).getTop(size)).withSelfRel().expand());
+    }
+
+    private List<EntityModel<?>> content(List<AuthorStats> stats) {
+        return stats.stream().map(this::toModel).collect(Collectors.toList());
+    }
+}
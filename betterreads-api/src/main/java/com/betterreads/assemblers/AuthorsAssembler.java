@@ -1,11 +1,17 @@
 package com.betterreads.assemblers;
 
+import java.util.List;
+
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
 import org.springframework.hateoas.server.RepresentationModelAssembler;
 import org.springframework.stereotype.Component;
 
+import com.betterreads.assemblers.EntityListModel.EntityLink;
 import com.betterreads.controllers.AuthorsController;
 import com.betterreads.models.Author;
+import com.betterreads.services.CursorPage;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
@@ -18,6 +24,12 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 @Component
 public class AuthorsAssembler implements RepresentationModelAssembler<Author, EntityModel<Author>> {
 
+    private static final List<EntityLink> LINKS = List.of(
+            new EntityLink(IanaLinkRelations.SELF.value(),
+                    LinkTemplate.of(methodOn(AuthorsController.class).getById(LinkTemplate.ID, null, null))),
+            new EntityLink("v1/authors",
+                    LinkTemplate.of(methodOn(AuthorsController.class).getAll(null, null, null, null))));
+
     /**
      * <p>
      * Maps an Author to an EntityModel
@@ -28,8 +40,36 @@ public class AuthorsAssembler implements RepresentationModelAssembler<Author, En
      */
     @Override
     public EntityModel<Author> toModel(Author entity) {
-        return EntityModel.of(entity, linkTo(methodOn(AuthorsController.class).getById(entity.getId())).withSelfRel(),
-                linkTo(methodOn(AuthorsController.class).getAll()).withRel("v1/authors"));
+        return EntityListModel.toModel(entity, LINKS, LinkTemplate.base());
+    }
+
+    /**
+     * <p>
+     * Maps a page of authors to a CollectionModel with next and prev links
+     * </p>
+     * 
+     * @param page   the page of authors
+     * @param fields the fields the page was read with, kept on its links, may be
+     *               null
+     * @return the mapped CollectionModel
+     */
+    public CollectionModel<EntityModel<?>> toPagedModel(CursorPage<Author> page, String fields) {
+        CollectionModel<EntityModel<?>> model = new EntityListModel<>(page.getContent(), "authors", LINKS, List.of(
+                linkTo(methodOn(AuthorsController.class).getAll(page.getAfter(), page.getBefore(), page.getSize(),
+                        fields))
+                        .withSelfRel().expand()));
+
+        if (page.getNext() != null) {
+            model.add(linkTo(methodOn(AuthorsController.class).getAll(page.getNext(), null, page.getSize(), fields))
+                    .withRel(IanaLinkRelations.NEXT).expand());
+        }
+
+        if (page.getPrevious() != null) {
+            model.add(linkTo(methodOn(AuthorsController.class).getAll(null, page.getPrevious(), page.getSize(), fields))
+                    .withRel(IanaLinkRelations.PREV).expand());
+        }
+
+        return model;
     }
 
 }
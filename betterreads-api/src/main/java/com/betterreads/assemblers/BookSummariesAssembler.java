@@ -0,0 +1,134 @@
+package com.betterreads.assemblers;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.server.RepresentationModelAssembler;
+import org.springframework.stereotype.Component;
+
+import com.betterreads.controllers.BookSummariesController;
+import com.betterreads.controllers.BooksController;
+import com.betterreads.controllers.SearchController;
+import com.betterreads.models.BookSummary;
+import com.betterreads.services.CursorPage;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+/**
+ * <p>
+ * Assembles an EntityModel from a BookSummary
+ * </p>
+ */
+@Component
+public class BookSummariesAssembler implements RepresentationModelAssembler<BookSummary, EntityModel<BookSummary>> {
+
+    /**
+     * <p>
+     * Maps a BookSummary to an EntityModel linking to its book
+     * </p>
+     * 
+     * @param entity the book summary
+     * @return the mapped EntityModel
+     */
+    @Override
+    public EntityModel<BookSummary> toModel(BookSummary entity) {
+        return EntityModel.of(entity,
+                linkTo(methodOn(BooksController.class).getById(entity.getId(), null, null)).withRel("v1/book").expand());
+    }
+
+    /**
+     * <p>
+     * Maps a page of search hits to a CollectionModel with next and prev links
+     * </p>
+     * 
+     * @param hits the hits of the page
+     * @param text the search text
+     * @param page the zero-based page number
+     * @param size the page size
+     * @param more whether another page exists
+     * @return the mapped CollectionModel
+     */
+    public CollectionModel<EntityModel<?>> toPagedModel(List<BookSummary> hits, String text, int page, int size,
+            boolean more) {
+        List<EntityModel<?>> content = hits.stream().map(this::toModel).collect(Collectors.toList());
+        CollectionModel<EntityModel<?>> model = CollectionModel.of(content,
+                linkTo(methodOn(SearchController.class).search(text, page, size)).withSelfRel().expand());
+
+        if (more) {
+            model.add(linkTo(methodOn(SearchController.class).search(text, page + 1, size))
+                    .withRel(IanaLinkRelations.NEXT).expand());
+        }
+
+        if (page > 0) {
+            model.add(linkTo(methodOn(SearchController.class).search(text, page - 1, size))
+                    .withRel(IanaLinkRelations.PREV).expand());
+        }
+
+        return model;
+    }
+
+    /**
+     * <p>
+     * Maps a page of the summary list to a CollectionModel with next and prev
+     * links that keep the filters
+     * </p>
+     * 
+     * @param page      the page
+     * @param genre     the genre filter, may be null
+     * @param author    the author filter, may be null
+     * @param publisher the publisher filter, may be null
+     * @return the mapped CollectionModel
+     */
+    public CollectionModel<EntityModel<?>> toPagedModel(CursorPage<BookSummary> page, String genre, String author,
+            String publisher) {
+        List<EntityModel<?>> content = page.getContent().stream().map(this::toModel).collect(Collectors.toList());
+        CollectionModel<EntityModel<?>> model = CollectionModel.of(content,
+                linkTo(methodOn(BookSummariesController.class).getAll(page.getAfter(), page.getBefore(),
+                        page.getSize(), genre, author, publisher)).withSelfRel().expand());
+
+        if (page.getNext() != null) {
+            model.add(linkTo(methodOn(BookSummariesController.class).getAll(page.getNext(), null, page.getSize(),
+                    genre, author, publisher)).withRel(IanaLinkRelations.NEXT).expand());
+        }
+
+        if (page.getPrevious() != null) {
+            model.add(linkTo(methodOn(BookSummariesController.class).getAll(null, page.getPrevious(), page.getSize(),
+                    genre, author, publisher)).withRel(IanaLinkRelations.PREV).expand());
+        }
+
+        return model;
+    }
+
+    /**
+     * <p>
+     * Maps a page of the book list in the summary view to a CollectionModel
+     * with next and prev links that stay in that view
+     * </p>
+     * 
+     * @param page the page
+     * @return the mapped CollectionModel
+     */
+    public CollectionModel<EntityModel<?>> toBooksPagedModel(CursorPage<BookSummary> page) {
+        List<EntityModel<?>> content = page.getContent().stream().map(this::toModel).collect(Collectors.toList());
+        CollectionModel<EntityModel<?>> model = CollectionModel.of(content,
+                linkTo(methodOn(BookSummariesController.class).getBooks(page.getAfter(), page.getBefore(),
+                        page.getSize())).withSelfRel().expand());
+
+        if (page.getNext() != null) {
+            model.add(linkTo(methodOn(BookSummariesController.class).getBooks(page.getNext(), null, page.getSize()))
+                    .withRel(IanaLinkRelations.NEXT).expand());
+        }
+
+        if (page.getPrevious() != null) {
+            model.add(linkTo(methodOn(BookSummariesController.class).getBooks(null, page.getPrevious(),
+                    page.getSize())).withRel(IanaLinkRelations.PREV).expand());
+        }
+
+        return model;
+    }
+
+}
@@ -1,11 +1,17 @@
 package com.betterreads.assemblers;
 
+import java.util.List;
+
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
 import org.springframework.hateoas.server.RepresentationModelAssembler;
 import org.springframework.stereotype.Component;
 
+import com.betterreads.assemblers.EntityListModel.EntityLink;
 import com.betterreads.controllers.BooksController;
 import com.betterreads.models.Book;
+import com.betterreads.services.CursorPage;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
@@ -18,6 +24,12 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 @Component
 public class BooksAssembler implements RepresentationModelAssembler<Book, EntityModel<Book>> {
 
+    private static final List<EntityLink> LINKS = List.of(
+            new EntityLink(IanaLinkRelations.SELF.value(),
+                    LinkTemplate.of(methodOn(BooksController.class).getById(LinkTemplate.ID, null, null))),
+            new EntityLink("v1/books",
+                    LinkTemplate.of(methodOn(BooksController.class).getAll(null, null, null, null))));
+
     /**
      * <p>
      * Maps a Book to an EntityModel
@@ -28,8 +40,36 @@ public class BooksAssembler implements RepresentationModelAssembler<Book, Entity
      */
     @Override
     public EntityModel<Book> toModel(Book entity) {
-        return EntityModel.of(entity, linkTo(methodOn(BooksController.class).getById(entity.getId())).withSelfRel(),
-                linkTo(methodOn(BooksController.class).getAll()).withRel("v1/books"));
+        return EntityListModel.toModel(entity, LINKS, LinkTemplate.base());
+    }
+
+    /**
+     * <p>
+     * Maps a page of books to a CollectionModel with next and prev links
+     * </p>
+     * 
+     * @param page   the page of books
+     * @param fields the fields the page was read with, kept on its links, may be
+     *               null
+     * @return the mapped CollectionModel
+     */
+    public CollectionModel<EntityModel<?>> toPagedModel(CursorPage<Book> page, String fields) {
+        CollectionModel<EntityModel<?>> model = new EntityListModel<>(page.getContent(), "books", LINKS, List.of(
+                linkTo(methodOn(BooksController.class).getAll(page.getAfter(), page.getBefore(), page.getSize(),
+                        fields))
+                        .withSelfRel().expand()));
+
+        if (page.getNext() != null) {
+            model.add(linkTo(methodOn(BooksController.class).getAll(page.getNext(), null, page.getSize(), fields))
+                    .withRel(IanaLinkRelations.NEXT).expand());
+        }
+
+        if (page.getPrevious() != null) {
+            model.add(linkTo(methodOn(BooksController.class).getAll(null, page.getPrevious(), page.getSize(), fields))
+                    .withRel(IanaLinkRelations.PREV).expand());
+        }
+
+        return model;
     }
 
 }
@@ -0,0 +1,140 @@
+package com.betterreads.assemblers;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+
+import com.betterreads.models.Identifiable;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * <p>
+ * A page of documents whose per-document links come from link templates.
+ * Serialized by EntityListSerializer, which writes each document and its links
+ * straight to the JSON generator, so no EntityModel or Link is built per
+ * document. The JSON is the same HAL a CollectionModel of EntityModels
+ * renders. getContent still returns EntityModels, built when it is called.
+ * </p>
+ *
+ * @param <T> the document type
+ */
+@JsonSerialize(using = EntityListSerializer.class)
+public class EntityListModel<T extends Identifiable> extends CollectionModel<EntityModel<?>> {
+
+    private final List<T> entities;
+
+    private final String relation;
+
+    private final List<EntityLink> entityLinks;
+
+    /**
+     * <p>
+     * Creates the page
+     * </p>
+     *
+     * @param entities    the documents
+     * @param relation    the relation the documents are embedded under, as HAL
+     *                    names it
+     * @param entityLinks the links of each document
+     * @param links       the links of the page
+     */
+    public EntityListModel(List<T> entities, String relation, List<EntityLink> entityLinks, Iterable<Link> links) {
+        this.entities = entities;
+        this.relation = relation;
+        this.entityLinks = entityLinks;
+        add(links);
+    }
+
+    /**
+     * <p>
+     * Maps a document to an EntityModel with its links
+     * </p>
+     *
+     * @param entity      the document
+     * @param entityLinks the links of the document
+     * @param base        the base URI from LinkTemplate.base()
+     * @param <T>         the document type
+     * @return the EntityModel
+     */
+    public static <T extends Identifiable> EntityModel<T> toModel(T entity, List<EntityLink> entityLinks,
+            String base) {
+        Link[] links = new Link[entityLinks.size()];
+
+        for (int i = 0; i < links.length; i++) {
+            EntityLink link = entityLinks.get(i);
+            links[i] = Link.of(link.template().expand(base, entity.getId()), link.relation());
+        }
+
+        return EntityModel.of(entity, links);
+    }
+
+    public List<T> getEntities() {
+        return entities;
+    }
+
+    public String getRelation() {
+        return relation;
+    }
+
+    public List<EntityLink> getEntityLinks() {
+        return entityLinks;
+    }
+
+    @Override
+    public Collection<EntityModel<?>> getContent() {
+        String base = LinkTemplate.base();
+
+        return Collections.unmodifiableList(new AbstractList<EntityModel<?>>() {
+
+            @Override
+            public EntityModel<?> get(int index) {
+                return toModel(entities.get(index), entityLinks, base);
+            }
+
+            @Override
+            public int size() {
+                return entities.size();
+            }
+        });
+    }
+
+    @Override
+    public Iterator<EntityModel<?>> iterator() {
+        return getContent().iterator();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof EntityListModel<?> model && getLinks().equals(model.getLinks())
+                && entities.equals(model.entities) && relation.equals(model.relation)
+                && entityLinks.equals(model.entityLinks);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getLinks(), entities, relation, entityLinks);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("EntityListModel { relation: %s, entities: %s, %s }", relation, entities, getLinks());
+    }
+
+    /**
+     * <p>
+     * A link every document of a page has
+     * </p>
+     *
+     * @param relation the relation
+     * @param template the template of the href
+     */
+    public record EntityLink(String relation, LinkTemplate template) {
+    }
+}
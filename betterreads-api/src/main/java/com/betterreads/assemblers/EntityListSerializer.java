@@ -0,0 +1,94 @@
+package com.betterreads.assemblers;
+
+import java.io.IOException;
+
+import org.springframework.hateoas.Link;
+
+import com.betterreads.assemblers.EntityListModel.EntityLink;
+import com.betterreads.models.Identifiable;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.util.NameTransformer;
+
+/**
+ * <p>
+ * Streams a page of documents as HAL, in the same shape as a CollectionModel
+ * of EntityModels:
+ * </p>
+ *
+ * <pre>
+ * { "_embedded": { "books": [ { ...book, "_links": { "self": { "href": ... }, ... } } ] }, "_links": { ... } }
+ * </pre>
+ * <p>
+ * Each document is written by its own serializer, unwrapped, followed by its
+ * links expanded from the page's templates against a base URI resolved once
+ * per page.
+ * </p>
+ */
+public class EntityListSerializer extends StdSerializer<EntityListModel<?>> {
+
+    @SuppressWarnings("unchecked")
+    public EntityListSerializer() {
+        super((Class<EntityListModel<?>>) (Class<?>) EntityListModel.class);
+    }
+
+    @Override
+    public void serialize(EntityListModel<?> model, JsonGenerator gen, SerializerProvider provider)
+            throws IOException {
+        gen.writeStartObject(model);
+
+        if (!model.getEntities().isEmpty()) {
+            String base = LinkTemplate.base();
+            Class<?> type = null;
+            JsonSerializer<Object> fields = null;
+
+            gen.writeObjectFieldStart("_embedded");
+            gen.writeArrayFieldStart(model.getRelation());
+
+            for (Identifiable entity : model.getEntities()) {
+                // pages hold one type, so the unwrapping serializer is looked up once
+                if (entity.getClass() != type) {
+                    type = entity.getClass();
+                    fields = provider.findValueSerializer(type).unwrappingSerializer(NameTransformer.NOP);
+                }
+
+                gen.writeStartObject(entity);
+                fields.serialize(entity, gen, provider);
+                gen.writeObjectFieldStart("_links");
+
+                for (EntityLink link : model.getEntityLinks()) {
+                    gen.writeObjectFieldStart(link.relation());
+                    gen.writeStringField("href", link.template().expand(base, entity.getId()));
+                    gen.writeEndObject();
+                }
+
+                gen.writeEndObject();
+                gen.writeEndObject();
+            }
+
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+
+        if (model.hasLinks()) {
+            gen.writeObjectFieldStart("_links");
+
+            for (Link link : model.getLinks()) {
+                gen.writeObjectFieldStart(link.getRel().value());
+                gen.writeStringField("href", link.getHref());
+
+                if (link.isTemplated()) {
+                    gen.writeBooleanField("templated", true);
+                }
+
+                gen.writeEndObject();
+            }
+
+            gen.writeEndObject();
+        }
+
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,88 @@
+package com.betterreads.assemblers;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+
+/**
+ * <p>
+ * The path of a controller method's link, resolved once through methodOn
+ * instead of once per document. Building a link through methodOn proxies the
+ * controller and reflects over its mapping on every call; a template only
+ * concatenates the request's base URI, the path and the document's id.
+ * </p>
+ */
+public final class LinkTemplate {
+
+    /**
+     * Stands for the id when the template is resolved, pass it as the id
+     * argument of the methodOn invocation
+     */
+    public static final String ID = "__id__";
+
+    private final String prefix;
+
+    private final String suffix;
+
+    private final boolean identified;
+
+    private LinkTemplate(String path) {
+        int id = path.indexOf(ID);
+
+        this.identified = id >= 0;
+        this.prefix = identified ? path.substring(0, id) : path;
+        this.suffix = identified ? path.substring(id + ID.length()) : "";
+    }
+
+    /**
+     * <p>
+     * Resolves the path of a controller method
+     * </p>
+     *
+     * @param invocation the methodOn invocation, with ID for the id and null for
+     *                   the optional parameters
+     * @return the template
+     */
+    public static LinkTemplate of(Object invocation) {
+        // relative to the base, should it be resolved while serving a request
+        return new LinkTemplate(StringUtils.removeStart(linkTo(invocation).toUri().toString(), base()));
+    }
+
+    /**
+     * <p>
+     * Gets the base URI of the current request, as linkTo would start its links.
+     * Outside of a request the links are relative.
+     * </p>
+     *
+     * @return the base URI, without a trailing slash
+     */
+    public static String base() {
+        if (RequestContextHolder.getRequestAttributes() == null) {
+            return "";
+        }
+
+        return StringUtils.removeEnd(ServletUriComponentsBuilder.fromCurrentServletMapping().toUriString(), "/");
+    }
+
+    /**
+     * <p>
+     * Expands the template for a document
+     * </p>
+     *
+     * @param base the base URI from base()
+     * @param id   the document's id, ignored by a template without ID
+     * @return the href
+     */
+    public String expand(String base, String id) {
+        if (!identified) {
+            return base + prefix;
+        }
+
+        return base + prefix + (id == null ? "" : UriUtils.encodePathSegment(id, StandardCharsets.UTF_8)) + suffix;
+    }
+}
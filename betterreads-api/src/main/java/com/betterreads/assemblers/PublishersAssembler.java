@@ -1,11 +1,17 @@
 package com.betterreads.assemblers;
 
+import java.util.List;
+
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
 import org.springframework.hateoas.server.RepresentationModelAssembler;
 import org.springframework.stereotype.Component;
 
+import com.betterreads.assemblers.EntityListModel.EntityLink;
 import com.betterreads.controllers.PublishersController;
 import com.betterreads.models.Publisher;
+import com.betterreads.services.CursorPage;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
@@ -18,6 +24,12 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 @Component
 public class PublishersAssembler implements RepresentationModelAssembler<Publisher, EntityModel<Publisher>> {
 
+    private static final List<EntityLink> LINKS = List.of(
+            new EntityLink(IanaLinkRelations.SELF.value(),
+                    LinkTemplate.of(methodOn(PublishersController.class).getById(LinkTemplate.ID, null, null))),
+            new EntityLink("v1/publishers",
+                    LinkTemplate.of(methodOn(PublishersController.class).getAll(null, null, null, null))));
+
     /**
      * <p>
      * Maps a Publisher to an EntityModel
@@ -28,9 +40,36 @@ public class PublishersAssembler implements RepresentationModelAssembler<Publish
      */
     @Override
     public EntityModel<Publisher> toModel(Publisher entity) {
-        return EntityModel.of(entity,
-                linkTo(methodOn(PublishersController.class).getById(entity.getId())).withSelfRel(),
-                linkTo(methodOn(PublishersController.class).getAll()).withRel("v1/publishers"));
+        return EntityListModel.toModel(entity, LINKS, LinkTemplate.base());
+    }
+
+    /**
+     * <p>
+     * Maps a page of publishers to a CollectionModel with next and prev links
+     * </p>
+     * 
+     * @param page   the page of publishers
+     * @param fields the fields the page was read with, kept on its links, may be
+     *               null
+     * @return the mapped CollectionModel
+     */
+    public CollectionModel<EntityModel<?>> toPagedModel(CursorPage<Publisher> page, String fields) {
+        CollectionModel<EntityModel<?>> model = new EntityListModel<>(page.getContent(), "publishers", LINKS, List.of(
+                linkTo(methodOn(PublishersController.class).getAll(page.getAfter(), page.getBefore(), page.getSize(),
+                        fields))
+                        .withSelfRel().expand()));
+
+        if (page.getNext() != null) {
+            model.add(linkTo(methodOn(PublishersController.class).getAll(page.getNext(), null, page.getSize(), fields))
+                    .withRel(IanaLinkRelations.NEXT).expand());
+        }
+
+        if (page.getPrevious() != null) {
+            model.add(linkTo(methodOn(PublishersController.class).getAll(null, page.getPrevious(), page.getSize(), fields))
+                    .withRel(IanaLinkRelations.PREV).expand());
+        }
+
+        return model;
     }
 
 }
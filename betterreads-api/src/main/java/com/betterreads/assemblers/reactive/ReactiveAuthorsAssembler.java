@@ -0,0 +1,80 @@
+package com.betterreads.assemblers.reactive;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.stereotype.Component;
+
+import com.betterreads.controllers.reactive.ReactiveAuthorsController;
+import com.betterreads.models.Author;
+import com.betterreads.services.CursorPage;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.hateoas.server.reactive.WebFluxLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.reactive.WebFluxLinkBuilder.methodOn;
+
+/**
+ * <p>
+ * Assembles an EntityModel from an Author, with links built from the current
+ * exchange
+ * </p>
+ */
+@Component
+@Profile("reactive")
+public class ReactiveAuthorsAssembler {
+
+    /**
+     * <p>
+     * Maps an Author to an EntityModel
+     * </p>
+     * 
+     * @param entity the author
+     * @return the mapped EntityModel
+     */
+    public Mono<EntityModel<Author>> toModel(Author entity) {
+        return Mono.zip(
+                linkTo(methodOn(ReactiveAuthorsController.class).getById(entity.getId(), null, null)).withSelfRel()
+                        .toMono(Link::expand),
+                linkTo(methodOn(ReactiveAuthorsController.class).getAll(null, null, null, null)).withRel("v1/authors")
+                        .toMono(Link::expand))
+                .map(links -> EntityModel.of(entity, links.getT1(), links.getT2()));
+    }
+
+    /**
+     * <p>
+     * Maps a page of authors to a CollectionModel with next and prev links
+     * </p>
+     * 
+     * @param page   the page of authors
+     * @param fields the fields the page was read with, kept on its links, may be
+     *               null
+     * @return the mapped CollectionModel
+     */
+    public Mono<CollectionModel<EntityModel<?>>> toPagedModel(CursorPage<Author> page, String fields) {
+        List<Mono<Link>> links = new ArrayList<>();
+        links.add(linkTo(methodOn(ReactiveAuthorsController.class).getAll(page.getAfter(), page.getBefore(),
+                page.getSize(), fields)).withSelfRel().toMono(Link::expand));
+
+        if (page.getNext() != null) {
+            links.add(linkTo(methodOn(ReactiveAuthorsController.class).getAll(page.getNext(), null, page.getSize(),
+                    fields)).withRel(IanaLinkRelations.NEXT).toMono(Link::expand));
+        }
+
+        if (page.getPrevious() != null) {
+            links.add(linkTo(methodOn(ReactiveAuthorsController.class).getAll(null, page.getPrevious(),
+                    page.getSize(), fields)).withRel(IanaLinkRelations.PREV).toMono(Link::expand));
+        }
+
+        return Flux.fromIterable(page.getContent()).<EntityModel<?>>concatMap(this::toModel).collectList()
+                .zipWith(Flux.concat(links).collectList())
+                .map(model -> CollectionModel.of(model.getT1(), model.getT2()));
+    }
+
+}
@@ -0,0 +1,318 @@
+package com.betterreads.catalog;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.betterreads.queries.FieldType;
+
+/**
+ * <p>
+ * An index of one searchable field of a catalog table. The key of every row is
+ * computed once, when the index is built: strings as collation keys of the
+ * English, strength 2 collation of Collations.CASE_INSENSITIVE, references as
+ * their ids, and numbers and dates as longs. A search then compares keys
+ * instead of running the collator on every row, and finds the rows in a range
+ * of keys by binary search over the keys in order.
+ * </p>
+ * <p>
+ * An index is immutable. The index of a changed table only computes the keys
+ * of the rows that changed, and takes the others from the index it replaces.
+ * </p>
+ */
+public final class CatalogIndex {
+
+    /**
+     * Returned when two keys are of different types, which never match
+     */
+    public static final int MISMATCH = Integer.MIN_VALUE;
+
+    private static final Object[] NO_KEYS = new Object[0];
+
+    /**
+     * Shared by every index; a RuleBasedCollator synchronizes its own use
+     */
+    private static final Collator COLLATOR = collator();
+
+    private final FieldType type;
+
+    private final CatalogRow[] rows;
+
+    /**
+     * The key of each row by position: null when the field is missing, an
+     * Object[] for an array field
+     */
+    private final Object[] keys;
+
+    private final Object[] sorted;
+
+    private final int[] positions;
+
+    private CatalogIndex(FieldType type, CatalogRow[] rows, Object[] keys, Object[] sorted, int[] positions) {
+        this.type = type;
+        this.rows = rows;
+        this.keys = keys;
+        this.sorted = sorted;
+        this.positions = positions;
+    }
+
+    /**
+     * <p>
+     * Indexes one field of a table's rows
+     * </p>
+     *
+     * @param rows     the rows of the table, in id order
+     * @param field    the field
+     * @param type     the type of the field
+     * @param previous the index of the same field of the table this one
+     *                 replaces, whose keys are reused for the rows both share,
+     *                 may be null
+     * @return the index
+     */
+    static CatalogIndex build(CatalogRow[] rows, String field, FieldType type, CatalogIndex previous) {
+        Map<CatalogRow, Object> reused = new IdentityHashMap<>();
+
+        if (previous != null) {
+            for (int i = 0; i < previous.rows.length; i++) {
+                reused.put(previous.rows[i], previous.keys[i]);
+            }
+        }
+
+        // pooled strings repeat across rows, so each is collated once
+        Map<String, Object> pooled = new HashMap<>();
+        Object[] keys = new Object[rows.length];
+        List<Entry> entries = new ArrayList<>(rows.length);
+
+        for (int i = 0; i < rows.length; i++) {
+            Object key = reused.containsKey(rows[i]) ? reused.get(rows[i])
+                    : rowKey(type, rows[i].value(field), pooled);
+            keys[i] = key;
+
+            if (key instanceof Object[] elements) {
+                for (Object element : elements) {
+                    entries.add(new Entry(element, i));
+                }
+            } else if (key != null) {
+                entries.add(new Entry(key, i));
+            }
+        }
+
+        Comparator<Object> order = (left, right) -> compare(type, left, right);
+        entries.sort(Comparator.comparing(Entry::key, order));
+
+        Object[] sorted = new Object[entries.size()];
+        int[] positions = new int[entries.size()];
+
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = entries.get(i).key();
+            positions[i] = entries.get(i).position();
+        }
+
+        return new CatalogIndex(type, rows, keys, sorted, positions);
+    }
+
+    /**
+     * <p>
+     * Converts a value a search compares, as CatalogSearch normalizes it, to
+     * the key it is compared as
+     * </p>
+     *
+     * @param type  the type of the field
+     * @param value the value, may be null
+     * @return the key, null for null
+     */
+    public static Object key(FieldType type, Object value) {
+        if (value instanceof String text) {
+            return type == FieldType.REFERENCE ? text : COLLATOR.getCollationKey(text);
+        }
+
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+
+        return value;
+    }
+
+    /**
+     * <p>
+     * Compares two keys of a field
+     * </p>
+     *
+     * @param type  the type of the field
+     * @param left  a key
+     * @param right another key
+     * @return the comparison, or MISMATCH when the keys are of different types
+     */
+    public static int compare(FieldType type, Object left, Object right) {
+        if (left instanceof String text && right instanceof String other) {
+            return CatalogTable.ID_ORDER.compare(text, other);
+        }
+
+        if (left instanceof CollationKey text && right instanceof CollationKey other) {
+            return text.compareTo(other);
+        }
+
+        if (left instanceof Long number && right instanceof Long other) {
+            return Long.compare(number, other);
+        }
+
+        // keys of different types never match, like the type bracketing of Mongo queries
+        return MISMATCH;
+    }
+
+    /**
+     * <p>
+     * Gets the key of a row
+     * </p>
+     *
+     * @param position the position of the row in its table
+     * @return the key, null when the field is missing and an Object[] for an
+     *         array field
+     */
+    public Object key(int position) {
+        return keys[position];
+    }
+
+    /**
+     * <p>
+     * Gets the type of the indexed field
+     * </p>
+     *
+     * @return the type
+     */
+    public FieldType type() {
+        return type;
+    }
+
+    /**
+     * <p>
+     * Finds the rows with a key in a range. A row of an array field is found
+     * when any of its elements is in the range.
+     * </p>
+     *
+     * @param lower          the lower bound, null for none
+     * @param lowerInclusive whether the lower bound is in the range
+     * @param upper          the upper bound, null for none
+     * @param upperInclusive whether the upper bound is in the range
+     * @return the positions of the rows
+     */
+    public BitSet find(Object lower, boolean lowerInclusive, Object upper, boolean upperInclusive) {
+        BitSet found = new BitSet(rows.length);
+        int to = end(upper, upperInclusive);
+
+        for (int i = start(lower, lowerInclusive); i < to; i++) {
+            found.set(positions[i]);
+        }
+
+        return found;
+    }
+
+    /**
+     * <p>
+     * Counts the keys in a range, without finding their rows
+     * </p>
+     *
+     * @param lower          the lower bound, null for none
+     * @param lowerInclusive whether the lower bound is in the range
+     * @param upper          the upper bound, null for none
+     * @param upperInclusive whether the upper bound is in the range
+     * @return the number of keys, at least the number of rows found
+     */
+    public int count(Object lower, boolean lowerInclusive, Object upper, boolean upperInclusive) {
+        return Math.max(0, end(upper, upperInclusive) - start(lower, lowerInclusive));
+    }
+
+    private int start(Object lower, boolean inclusive) {
+        if (lower == null) {
+            return 0;
+        }
+
+        if (!comparable(lower)) {
+            return sorted.length;
+        }
+
+        return bound(lower, !inclusive);
+    }
+
+    private int end(Object upper, boolean inclusive) {
+        if (upper == null) {
+            return sorted.length;
+        }
+
+        if (!comparable(upper)) {
+            return 0;
+        }
+
+        return bound(upper, inclusive);
+    }
+
+    /**
+     * <p>
+     * The first position whose key is greater than the given one, or greater
+     * than or equal to it when equal keys are not skipped
+     * </p>
+     */
+    private int bound(Object key, boolean skipEqual) {
+        int low = 0;
+        int high = sorted.length;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int comparison = compare(type, sorted[middle], key);
+
+            if (comparison < 0 || (skipEqual && comparison == 0)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    private boolean comparable(Object key) {
+        return sorted.length == 0 || compare(type, sorted[0], key) != MISMATCH;
+    }
+
+    private static Object rowKey(FieldType type, Object value, Map<String, Object> pooled) {
+        if (!(value instanceof List<?> values)) {
+            return pooledKey(type, value, pooled);
+        }
+
+        if (values.isEmpty()) {
+            return NO_KEYS;
+        }
+
+        List<Object> elements = new ArrayList<>(values.size());
+
+        for (Object element : values) {
+            if (element != null) {
+                elements.add(pooledKey(type, element, pooled));
+            }
+        }
+
+        return elements.toArray();
+    }
+
+    private static Object pooledKey(FieldType type, Object value, Map<String, Object> pooled) {
+        return value instanceof String text ? pooled.computeIfAbsent(text, unused -> key(type, text))
+                : key(type, value);
+    }
+
+    private static Collator collator() {
+        Collator collator = Collator.getInstance(Locale.ENGLISH);
+        collator.setStrength(Collator.SECONDARY);
+
+        return collator;
+    }
+
+    private record Entry(Object key, int position) {
+    }
+}
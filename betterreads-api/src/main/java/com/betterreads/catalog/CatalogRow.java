@@ -0,0 +1,226 @@
+package com.betterreads.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.bson.Document;
+
+import com.betterreads.services.CursorPage;
+
+/**
+ * <p>
+ * One document of the in-memory catalog, held in a compact form: pooled
+ * strings, primitive numbers, dates as epoch days and references as the ids
+ * they point to
+ * </p>
+ */
+public interface CatalogRow {
+
+    /**
+     * Stands for a missing number, date or version
+     */
+    int NONE = Integer.MIN_VALUE;
+
+    /**
+     * Milliseconds per epoch day
+     */
+    long DAY = 86_400_000L;
+
+    /**
+     * <p>
+     * Gets the document's id
+     * </p>
+     *
+     * @return the id
+     */
+    String id();
+
+    /**
+     * <p>
+     * Gets the document's version
+     * </p>
+     *
+     * @return the version, or NONE for a document stored before versioning
+     */
+    long version();
+
+    /**
+     * <p>
+     * Rebuilds the stored document, with ids and references as they are stored
+     * in Mongo, so the mapping converter reads it as it would a query result
+     * </p>
+     *
+     * @return a new document
+     */
+    Document toDocument();
+
+    /**
+     * <p>
+     * Builds the entity the mapping converter would read from toDocument(),
+     * without building the document: reference ids are handed to the given
+     * references, which resolve them
+     * </p>
+     *
+     * @param references resolves the entity's references
+     * @return a new entity
+     */
+    Object toEntity(References references);
+
+    /**
+     * <p>
+     * Gets the value a search compares for a field: strings and reference ids as
+     * strings, integers as Integer and dates as epoch milliseconds. Array fields
+     * are lists.
+     * </p>
+     *
+     * @param field the searchable field
+     * @return the value, null when the field is missing
+     */
+    Object value(String field);
+
+    /**
+     * <p>
+     * Gets an array column as the mutable list an entity holds, like the
+     * mapping converter reads it
+     * </p>
+     *
+     * @param values the column, may be null
+     * @return a new list, null for null
+     */
+    static List<String> copy(String[] values) {
+        return values == null ? null : new ArrayList<>(Arrays.asList(values));
+    }
+
+    /**
+     * <p>
+     * Resolves the references of an entity built from a row
+     * </p>
+     */
+    interface References {
+
+        /**
+         * <p>
+         * Resolves a collection reference
+         * </p>
+         *
+         * @param field the reference property
+         * @param ids   the referenced ids, null when none were stored
+         * @param <E>   the referenced entity type
+         * @return the referenced entities, null when none were stored
+         */
+        <E> List<E> many(String field, String[] ids);
+
+        /**
+         * <p>
+         * Resolves a single reference
+         * </p>
+         *
+         * @param field the reference property
+         * @param id    the referenced id, null when none was stored
+         * @param <E>   the referenced entity type
+         * @return the referenced entity, null when none was stored
+         */
+        <E> E one(String field, String id);
+    }
+
+    /**
+     * <p>
+     * Converts a stored date to epoch days. The time of day is dropped: catalog
+     * dates are days.
+     * </p>
+     *
+     * @param value the stored value, may be null
+     * @return the epoch day, or NONE
+     */
+    static int epochDay(Object value) {
+        return value instanceof Date date ? (int) Math.floorDiv(date.getTime(), DAY) : NONE;
+    }
+
+    /**
+     * <p>
+     * Converts an epoch day back to the stored date
+     * </p>
+     *
+     * @param epochDay the epoch day, or NONE
+     * @return the date, null for NONE
+     */
+    static Date date(int epochDay) {
+        return epochDay == NONE ? null : new Date(epochDay * DAY);
+    }
+
+    /**
+     * <p>
+     * Converts an epoch day to the epoch milliseconds searches compare
+     * </p>
+     *
+     * @param epochDay the epoch day, or NONE
+     * @return the epoch milliseconds, null for NONE
+     */
+    static Long millis(int epochDay) {
+        return epochDay == NONE ? null : epochDay * DAY;
+    }
+
+    /**
+     * <p>
+     * Converts a stored number to a primitive int
+     * </p>
+     *
+     * @param value the stored value, may be null
+     * @return the number, or NONE
+     */
+    static int number(Object value) {
+        return value instanceof Number number ? number.intValue() : NONE;
+    }
+
+    /**
+     * <p>
+     * Converts reference ids back to the stored ObjectIds
+     * </p>
+     *
+     * @param ids the ids, may be null
+     * @return the stored references, null for null
+     */
+    static List<Object> keys(String[] ids) {
+        if (ids == null) {
+            return null;
+        }
+
+        List<Object> keys = new ArrayList<>(ids.length);
+
+        for (String id : ids) {
+            keys.add(CursorPage.toKey(id));
+        }
+
+        return keys;
+    }
+
+    /**
+     * <p>
+     * Gets an array column as the list a search compares
+     * </p>
+     *
+     * @param values the column, may be null
+     * @return the values, null for null
+     */
+    static List<String> list(String[] values) {
+        return values == null ? null : Arrays.asList(values);
+    }
+
+    /**
+     * <p>
+     * Adds a value to a document unless it is missing, like the mapping
+     * converter leaves out null properties
+     * </p>
+     *
+     * @param document the document
+     * @param key      the field
+     * @param value    the value, may be null
+     */
+    static void put(Document document, String key, Object value) {
+        if (value != null) {
+            document.put(key, value);
+        }
+    }
+}
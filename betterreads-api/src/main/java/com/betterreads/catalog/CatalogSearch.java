@@ -0,0 +1,360 @@
+package com.betterreads.catalog;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+
+import com.betterreads.models.SearchFilter;
+import com.betterreads.models.SearchRequest;
+import com.betterreads.models.SearchSort;
+import com.betterreads.queries.FieldType;
+
+/**
+ * <p>
+ * Runs a search request over a catalog table with the semantics of the query
+ * SearchQueryCompiler builds: strings compare with the English, strength 2
+ * collation of Collations.CASE_INSENSITIVE, a condition on an array field
+ * matches when any element does, and missing fields only equal null. The
+ * request must already have been compiled, which validates its fields,
+ * operators, values and limit.
+ * </p>
+ * <p>
+ * Rows are compared through the keys of the table's indexes, so no row is
+ * collated during a search. An equality, IN or range condition finds its
+ * candidate rows in its index: when every filter must match, the condition
+ * with the fewest candidates picks the rows to test; when any may, the
+ * candidates of every condition are joined, unless one of them cannot use its
+ * index. Other searches test every row.
+ * </p>
+ */
+public class CatalogSearch {
+
+    private final Map<String, FieldType> fields;
+
+    /**
+     * <p>
+     * Prepares a search over one collection
+     * </p>
+     *
+     * @param fields the searchable fields of the collection
+     */
+    public CatalogSearch(Map<String, FieldType> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * <p>
+     * Finds the rows matching the request. Without a sort the rows are tested
+     * in id order and the search stops at the limit; with one every candidate
+     * is tested and the matches sorted.
+     * </p>
+     *
+     * @param table   the table to search
+     * @param request the search request
+     * @param limit   the most rows to return
+     * @param <T>     the row type
+     * @return the matching rows
+     */
+    public <T extends CatalogRow> List<T> search(CatalogTable<T> table, SearchRequest request, int limit) {
+        List<SearchFilter> filters = request.getFilters() == null ? List.of() : request.getFilters();
+        boolean any = request.getMatch() == SearchRequest.Match.ANY;
+        List<Condition> conditions = new ArrayList<>(filters.size());
+
+        for (SearchFilter filter : filters) {
+            conditions.add(condition(table, filter));
+        }
+
+        IntPredicate matcher = matcher(conditions, any);
+        Comparator<Integer> order = order(table, request.getSort());
+        BitSet candidates = candidates(conditions, any);
+        List<Integer> matches = new ArrayList<>();
+
+        int position = candidates == null ? 0 : candidates.nextSetBit(0);
+
+        while (position >= 0 && position < table.size()) {
+            if (order == null && matches.size() == limit) {
+                break;
+            }
+
+            if (matcher.test(position)) {
+                matches.add(position);
+            }
+
+            position = candidates == null ? position + 1 : candidates.nextSetBit(position + 1);
+        }
+
+        if (order != null) {
+            matches.sort(order);
+        }
+
+        List<T> rows = new ArrayList<>(Math.min(limit, matches.size()));
+
+        for (int i = 0; i < matches.size() && i < limit; i++) {
+            rows.add(table.row(matches.get(i)));
+        }
+
+        return rows;
+    }
+
+    private IntPredicate matcher(List<Condition> conditions, boolean any) {
+        IntPredicate matcher = null;
+
+        for (Condition condition : conditions) {
+            if (matcher == null) {
+                matcher = condition.test();
+            } else {
+                matcher = any ? matcher.or(condition.test()) : matcher.and(condition.test());
+            }
+        }
+
+        return matcher == null ? position -> true : matcher;
+    }
+
+    /**
+     * <p>
+     * The positions of the rows worth testing, in id order
+     * </p>
+     *
+     * @return the positions, null to test every row
+     */
+    private BitSet candidates(List<Condition> conditions, boolean any) {
+        if (conditions.isEmpty()) {
+            return null;
+        }
+
+        if (any) {
+            BitSet candidates = new BitSet();
+
+            for (Condition condition : conditions) {
+                if (condition.candidates() == null) {
+                    return null;
+                }
+
+                candidates.or(condition.candidates().get());
+            }
+
+            return candidates;
+        }
+
+        Condition narrowest = null;
+
+        for (Condition condition : conditions) {
+            if (condition.candidates() != null && (narrowest == null || condition.count() < narrowest.count())) {
+                narrowest = condition;
+            }
+        }
+
+        return narrowest == null ? null : narrowest.candidates().get();
+    }
+
+    private Condition condition(CatalogTable<?> table, SearchFilter filter) {
+        CatalogIndex index = table.index(filter.getField(), fields.get(filter.getField()));
+
+        switch (filter.getOperator()) {
+            case EQ:
+                return equalTo(index, filter.getValue());
+            case NE:
+                return equalTo(index, filter.getValue()).negate();
+            case GT:
+                return range(index, filter.getValue(), false, null, false);
+            case GTE:
+                return range(index, filter.getValue(), true, null, false);
+            case LT:
+                return range(index, null, false, filter.getValue(), false);
+            case LTE:
+                return range(index, null, false, filter.getValue(), true);
+            case IN:
+                return in(index, (Collection<?>) filter.getValue());
+            case NIN:
+                return in(index, (Collection<?>) filter.getValue()).negate();
+            default:
+                throw new IllegalArgumentException("Unsupported operator " + filter.getOperator());
+        }
+    }
+
+    private Condition equalTo(CatalogIndex index, Object value) {
+        Object wanted = key(index, value);
+
+        if (wanted == null) {
+            return new Condition(position -> index.key(position) == null, null, 0);
+        }
+
+        return new Condition(position -> test(index, index.key(position), wanted, comparison -> comparison == 0),
+                () -> index.find(wanted, true, wanted, true), index.count(wanted, true, wanted, true));
+    }
+
+    private Condition in(CatalogIndex index, Collection<?> values) {
+        IntPredicate matcher = position -> false;
+        List<Supplier<BitSet>> candidates = new ArrayList<>();
+        int count = 0;
+
+        for (Object value : values) {
+            Condition condition = equalTo(index, value);
+            matcher = matcher.or(condition.test());
+
+            if (candidates != null && condition.candidates() != null) {
+                candidates.add(condition.candidates());
+                count += condition.count();
+            } else {
+                candidates = null;
+            }
+        }
+
+        if (candidates == null) {
+            return new Condition(matcher, null, 0);
+        }
+
+        List<Supplier<BitSet>> finds = candidates;
+
+        return new Condition(matcher, () -> {
+            BitSet found = new BitSet();
+            finds.forEach(find -> found.or(find.get()));
+
+            return found;
+        }, count);
+    }
+
+    private Condition range(CatalogIndex index, Object lower, boolean lowerInclusive, Object upper,
+            boolean upperInclusive) {
+        Object low = lower == null ? null : key(index, lower);
+        Object high = upper == null ? null : key(index, upper);
+        Object bound = lower == null ? high : low;
+
+        // a null bound compares with nothing, so the condition matches no row
+        if (bound == null) {
+            return new Condition(position -> false, BitSet::new, 0);
+        }
+
+        IntPredicate test = lower == null
+                ? position -> test(index, index.key(position), high,
+                        comparison -> upperInclusive ? comparison <= 0 : comparison < 0)
+                : position -> test(index, index.key(position), low,
+                        comparison -> lowerInclusive ? comparison >= 0 : comparison > 0);
+
+        return new Condition(test, () -> index.find(low, lowerInclusive, high, upperInclusive),
+                index.count(low, lowerInclusive, high, upperInclusive));
+    }
+
+    private Comparator<Integer> order(CatalogTable<?> table, List<SearchSort> sorts) {
+        if (sorts == null || sorts.isEmpty()) {
+            return null;
+        }
+
+        Comparator<Integer> order = null;
+
+        for (SearchSort sort : sorts) {
+            CatalogIndex index = table.index(sort.getField(), fields.get(sort.getField()));
+            boolean descending = sort.getDirection() == Sort.Direction.DESC;
+            Comparator<Object> keys = (left, right) -> {
+                int comparison = CatalogIndex.compare(index.type(), left, right);
+                return comparison == CatalogIndex.MISMATCH ? 0 : comparison;
+            };
+            Comparator<Integer> key = Comparator.comparing(
+                    position -> sortKey(index, index.key(position), descending), Comparator.nullsFirst(keys));
+
+            if (descending) {
+                key = key.reversed();
+            }
+
+            order = order == null ? key : order.thenComparing(key);
+        }
+
+        return order;
+    }
+
+    /**
+     * <p>
+     * The key an array sorts by: its smallest element ascending and its largest
+     * descending
+     * </p>
+     */
+    private Object sortKey(CatalogIndex index, Object key, boolean descending) {
+        if (!(key instanceof Object[] elements)) {
+            return key;
+        }
+
+        Object sortKey = null;
+
+        for (Object element : elements) {
+            if (sortKey == null || CatalogIndex.compare(index.type(), element, sortKey) * (descending ? -1 : 1) < 0) {
+                sortKey = element;
+            }
+        }
+
+        return sortKey;
+    }
+
+    /**
+     * <p>
+     * Tests a row's key, any of its elements for an array field
+     * </p>
+     */
+    private boolean test(CatalogIndex index, Object stored, Object wanted, IntPredicate test) {
+        if (stored instanceof Object[] elements) {
+            for (Object element : elements) {
+                if (test(index, element, wanted, test)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        int comparison = stored == null ? CatalogIndex.MISMATCH : CatalogIndex.compare(index.type(), stored, wanted);
+
+        return comparison != CatalogIndex.MISMATCH && test.test(comparison);
+    }
+
+    /**
+     * <p>
+     * Converts a request value to the key the index compares
+     * </p>
+     */
+    private static Object key(CatalogIndex index, Object value) {
+        return CatalogIndex.key(index.type(), normalize(index.type().convert(value)));
+    }
+
+    /**
+     * <p>
+     * Converts a compiled request value to the form CatalogRow.value returns
+     * </p>
+     */
+    private static Object normalize(Object value) {
+        if (value instanceof Date date) {
+            return date.getTime();
+        }
+
+        if (value instanceof ObjectId id) {
+            return id.toHexString();
+        }
+
+        return value;
+    }
+
+    /**
+     * <p>
+     * One filter of a search: its test of a row, and how to find the rows it
+     * may match in its index
+     * </p>
+     *
+     * @param test       tests a row by position
+     * @param candidates finds a superset of the matching rows, null when the
+     *                   index cannot narrow them
+     * @param count      the number of keys the candidates come from
+     */
+    private record Condition(IntPredicate test, Supplier<BitSet> candidates, int count) {
+
+        Condition negate() {
+            return new Condition(test.negate(), null, 0);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.betterreads.catalog;
+
+import com.betterreads.models.Author;
+import com.betterreads.models.Book;
+import com.betterreads.models.Publisher;
+
+/**
+ * <p>
+ * The books, authors and publishers tables the in-memory catalog serves from
+ * at one point in time
+ * </p>
+ *
+ * @param books      the books
+ * @param authors    the authors
+ * @param publishers the publishers
+ */
+public record CatalogSnapshot(CatalogTable<CompactBook> books, CatalogTable<CompactAuthor> authors,
+        CatalogTable<CompactPublisher> publishers) {
+
+    /**
+     * <p>
+     * Gets the table of an entity type
+     * </p>
+     *
+     * @param type the entity type
+     * @return the table, null for a type the catalog does not hold
+     */
+    public CatalogTable<? extends CatalogRow> table(Class<?> type) {
+        if (type == Book.class) {
+            return books;
+        }
+
+        if (type == Author.class) {
+            return authors;
+        }
+
+        return type == Publisher.class ? publishers : null;
+    }
+
+    /**
+     * <p>
+     * Builds the snapshot with one table replaced
+     * </p>
+     *
+     * @param type  the entity type of the table
+     * @param table the new table
+     * @return the new snapshot
+     */
+    @SuppressWarnings("unchecked")
+    public CatalogSnapshot with(Class<?> type, CatalogTable<? extends CatalogRow> table) {
+        if (type == Book.class) {
+            return new CatalogSnapshot((CatalogTable<CompactBook>) table, authors, publishers);
+        }
+
+        if (type == Author.class) {
+            return new CatalogSnapshot(books, (CatalogTable<CompactAuthor>) table, publishers);
+        }
+
+        return type == Publisher.class ? new CatalogSnapshot(books, authors, (CatalogTable<CompactPublisher>) table)
+                : this;
+    }
+}
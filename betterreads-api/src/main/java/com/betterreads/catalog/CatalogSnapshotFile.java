@@ -0,0 +1,113 @@
+package com.betterreads.catalog;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * The catalog snapshot file at betterreads.catalog.snapshot.path, in
+ * CatalogSnapshotFormat. The file is memory-mapped to read it and replaced
+ * atomically to write it, so a reader never sees half a file.
+ * </p>
+ */
+@Component
+@Slf4j
+public class CatalogSnapshotFile {
+
+    @Value("${betterreads.catalog.snapshot.path:}")
+    private String path;
+
+    /**
+     * <p>
+     * Whether a snapshot file is configured
+     * </p>
+     *
+     * @return true when betterreads.catalog.snapshot.path is set
+     */
+    public boolean isEnabled() {
+        return path != null && !path.isBlank();
+    }
+
+    /**
+     * <p>
+     * Reads the snapshot file. A missing, unreadable or outdated file is
+     * logged and ignored.
+     * </p>
+     *
+     * @param pool the pool the strings are shared through
+     * @return the snapshot, empty when there is no usable file
+     */
+    public Optional<CatalogSnapshot> read(StringPool pool) {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+
+        Path file = Path.of(path);
+
+        if (!Files.isRegularFile(file)) {
+            log.info("No catalog snapshot at {}", file);
+            return Optional.empty();
+        }
+
+        long started = System.nanoTime();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            CatalogSnapshot snapshot = CatalogSnapshotFormat.read(
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), pool);
+
+            log.info("Read {} books, {} authors and {} publishers from {} ({} bytes, written {}) in {} ms",
+                    snapshot.books().size(), snapshot.authors().size(), snapshot.publishers().size(), file,
+                    channel.size(), Files.getLastModifiedTime(file),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+
+            return Optional.of(snapshot);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring catalog snapshot {}: {}", file, e.toString());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * <p>
+     * Writes the snapshot file, through a temporary file next to it that
+     * replaces it once complete
+     * </p>
+     *
+     * @param snapshot the snapshot
+     */
+    public void write(CatalogSnapshot snapshot) {
+        Path file = Path.of(path).toAbsolutePath();
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        long started = System.nanoTime();
+
+        try {
+            Files.createDirectories(file.getParent());
+
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16)) {
+                CatalogSnapshotFormat.write(snapshot, out);
+            }
+
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write catalog snapshot " + file, e);
+        }
+
+        log.info("Wrote {} books, {} authors and {} publishers to {} in {} ms", snapshot.books().size(),
+                snapshot.authors().size(), snapshot.publishers().size(), file,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+}
@@ -0,0 +1,308 @@
+package com.betterreads.catalog;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * <p>
+ * Reads and writes a catalog snapshot as a binary file, for warm starts that
+ * should not read every document back from Mongo. The file is versioned and
+ * columnar:
+ * </p>
+ *
+ * <pre>
+ * magic "BRCS", format version
+ * string count, then each distinct string as a UTF-8 length and bytes
+ * books, authors, publishers: row count, then each column in turn
+ * </pre>
+ * <p>
+ * A string column holds an index into the strings per row, -1 for null. An
+ * array column holds a length per row, -1 for null, followed by the indexes of
+ * all the elements. Number columns hold the row's int or long, NONE for a
+ * missing value. All numbers are big-endian.
+ * </p>
+ * <p>
+ * A file of another format version is refused, so a change of columns only
+ * needs FORMAT_VERSION bumped: the next startup reads Mongo instead and the
+ * next write replaces the file.
+ * </p>
+ */
+public final class CatalogSnapshotFormat {
+
+    /**
+     * "BRCS", the first four bytes of every snapshot file
+     */
+    public static final int MAGIC = 0x42524353;
+
+    /**
+     * The version of the columns written, bumped whenever they change
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    private static final int NULL = -1;
+
+    private CatalogSnapshotFormat() {
+    }
+
+    /**
+     * <p>
+     * Writes a snapshot. The stream is not closed.
+     * </p>
+     *
+     * @param snapshot the snapshot
+     * @param out      the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public static void write(CatalogSnapshot snapshot, OutputStream out) throws IOException {
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+
+        // the first pass only numbers the strings, the second writes the columns with those numbers
+        columns(snapshot, new Writer(new DataOutputStream(OutputStream.nullOutputStream()), dictionary));
+
+        DataOutputStream data = new DataOutputStream(out);
+
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        data.writeInt(dictionary.size());
+
+        for (String value : dictionary.keySet()) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            data.writeInt(bytes.length);
+            data.write(bytes);
+        }
+
+        columns(snapshot, new Writer(data, dictionary));
+        data.flush();
+    }
+
+    /**
+     * <p>
+     * Reads a snapshot, typically from a memory-mapped file. The strings are
+     * shared through the pool, so later changes reuse them.
+     * </p>
+     *
+     * @param buffer the snapshot, read from its position
+     * @param pool   the pool the strings are shared through
+     * @return the snapshot
+     * @throws IllegalArgumentException if the buffer is not a snapshot of this
+     *                                  format version
+     */
+    public static CatalogSnapshot read(ByteBuffer buffer, StringPool pool) {
+        if (buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("not a catalog snapshot");
+        }
+
+        int version = buffer.getInt();
+
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("unsupported snapshot format version " + version);
+        }
+
+        String[] dictionary = new String[buffer.getInt()];
+
+        for (int i = 0; i < dictionary.length; i++) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            dictionary[i] = pool.intern(new String(bytes, StandardCharsets.UTF_8));
+        }
+
+        Reader reader = new Reader(buffer, dictionary);
+
+        int count = buffer.getInt();
+        String[] ids = reader.strings(count);
+        long[] versions = reader.longs(count);
+        String[] isbns = reader.strings(count);
+        String[] titles = reader.strings(count);
+        String[][] bookAuthors = reader.arrays(count);
+        int[] publishedDays = reader.ints(count);
+        String[][] genres = reader.arrays(count);
+        int[] pages = reader.ints(count);
+        String[] bookPublishers = reader.strings(count);
+        String[] languages = reader.strings(count);
+
+        List<CompactBook> books = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            books.add(new CompactBook(ids[i], versions[i], isbns[i], titles[i], bookAuthors[i], publishedDays[i],
+                    genres[i], pages[i], bookPublishers[i], languages[i]));
+        }
+
+        count = buffer.getInt();
+        ids = reader.strings(count);
+        versions = reader.longs(count);
+        String[] firstNames = reader.strings(count);
+        String[] middleNames = reader.strings(count);
+        String[] lastNames = reader.strings(count);
+        String[] suffixes = reader.strings(count);
+        int[] datesOfBirth = reader.ints(count);
+        String[] genders = reader.strings(count);
+        String[] cities = reader.strings(count);
+        String[] states = reader.strings(count);
+        String[][] authorBooks = reader.arrays(count);
+
+        List<CompactAuthor> authors = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            authors.add(new CompactAuthor(ids[i], versions[i], firstNames[i], middleNames[i], lastNames[i],
+                    suffixes[i], datesOfBirth[i], genders[i], cities[i], states[i], authorBooks[i]));
+        }
+
+        count = buffer.getInt();
+        ids = reader.strings(count);
+        versions = reader.longs(count);
+        String[] names = reader.strings(count);
+        String[][] publisherBooks = reader.arrays(count);
+
+        List<CompactPublisher> publishers = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            publishers.add(new CompactPublisher(ids[i], versions[i], names[i], publisherBooks[i]));
+        }
+
+        return new CatalogSnapshot(CatalogTable.of(books), CatalogTable.of(authors), CatalogTable.of(publishers));
+    }
+
+    private static void columns(CatalogSnapshot snapshot, Writer writer) throws IOException {
+        List<CompactBook> books = snapshot.books().rows();
+        writer.data.writeInt(books.size());
+        writer.strings(books, CompactBook::id);
+        writer.longs(books, CompactBook::version);
+        writer.strings(books, CompactBook::isbn);
+        writer.strings(books, CompactBook::title);
+        writer.arrays(books, CompactBook::authors);
+        writer.ints(books, CompactBook::publishedDay);
+        writer.arrays(books, CompactBook::genres);
+        writer.ints(books, CompactBook::pages);
+        writer.strings(books, CompactBook::publisher);
+        writer.strings(books, CompactBook::language);
+
+        List<CompactAuthor> authors = snapshot.authors().rows();
+        writer.data.writeInt(authors.size());
+        writer.strings(authors, CompactAuthor::id);
+        writer.longs(authors, CompactAuthor::version);
+        writer.strings(authors, CompactAuthor::firstName);
+        writer.strings(authors, CompactAuthor::middleName);
+        writer.strings(authors, CompactAuthor::lastName);
+        writer.strings(authors, CompactAuthor::suffix);
+        writer.ints(authors, CompactAuthor::dateOfBirth);
+        writer.strings(authors, CompactAuthor::gender);
+        writer.strings(authors, CompactAuthor::city);
+        writer.strings(authors, CompactAuthor::state);
+        writer.arrays(authors, CompactAuthor::books);
+
+        List<CompactPublisher> publishers = snapshot.publishers().rows();
+        writer.data.writeInt(publishers.size());
+        writer.strings(publishers, CompactPublisher::id);
+        writer.longs(publishers, CompactPublisher::version);
+        writer.strings(publishers, CompactPublisher::name);
+        writer.arrays(publishers, CompactPublisher::books);
+    }
+
+    private record Writer(DataOutputStream data, Map<String, Integer> dictionary) {
+
+        <T> void strings(List<T> rows, Function<T, String> column) throws IOException {
+            for (T row : rows) {
+                data.writeInt(index(column.apply(row)));
+            }
+        }
+
+        <T> void arrays(List<T> rows, Function<T, String[]> column) throws IOException {
+            for (T row : rows) {
+                String[] values = column.apply(row);
+                data.writeInt(values == null ? NULL : values.length);
+            }
+
+            for (T row : rows) {
+                String[] values = column.apply(row);
+
+                if (values != null) {
+                    for (String value : values) {
+                        data.writeInt(index(value));
+                    }
+                }
+            }
+        }
+
+        <T> void ints(List<T> rows, ToIntFunction<T> column) throws IOException {
+            for (T row : rows) {
+                data.writeInt(column.applyAsInt(row));
+            }
+        }
+
+        <T> void longs(List<T> rows, ToLongFunction<T> column) throws IOException {
+            for (T row : rows) {
+                data.writeLong(column.applyAsLong(row));
+            }
+        }
+
+        private int index(String value) {
+            return value == null ? NULL : dictionary.computeIfAbsent(value, key -> dictionary.size());
+        }
+    }
+
+    private record Reader(ByteBuffer buffer, String[] dictionary) {
+
+        String[] strings(int count) {
+            String[] values = new String[count];
+
+            for (int i = 0; i < count; i++) {
+                values[i] = string(buffer.getInt());
+            }
+
+            return values;
+        }
+
+        String[][] arrays(int count) {
+            String[][] values = new String[count][];
+
+            for (int i = 0; i < count; i++) {
+                int length = buffer.getInt();
+                values[i] = length == NULL ? null : new String[length];
+            }
+
+            for (String[] array : values) {
+                if (array != null) {
+                    for (int i = 0; i < array.length; i++) {
+                        array[i] = string(buffer.getInt());
+                    }
+                }
+            }
+
+            return values;
+        }
+
+        int[] ints(int count) {
+            int[] values = new int[count];
+
+            for (int i = 0; i < count; i++) {
+                values[i] = buffer.getInt();
+            }
+
+            return values;
+        }
+
+        long[] longs(int count) {
+            long[] values = new long[count];
+
+            for (int i = 0; i < count; i++) {
+                values[i] = buffer.getLong();
+            }
+
+            return values;
+        }
+
+        private String string(int index) {
+            return index == NULL ? null : dictionary[index];
+        }
+    }
+}
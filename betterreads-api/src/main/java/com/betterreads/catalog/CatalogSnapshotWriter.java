@@ -0,0 +1,27 @@
+package com.betterreads.catalog;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * <p>
+ * Writes the catalog snapshot file every
+ * betterreads.catalog.snapshot.write-interval, for the next startup of this
+ * instance or of any instance the file is copied to
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "betterreads.catalog.snapshot.write", havingValue = "true")
+public class CatalogSnapshotWriter {
+
+    @Autowired
+    private InMemoryCatalog catalog;
+
+    @Scheduled(fixedDelayString = "${betterreads.catalog.snapshot.write-interval:PT1H}",
+            initialDelayString = "${betterreads.catalog.snapshot.write-interval:PT1H}")
+    public void write() {
+        catalog.writeSnapshot();
+    }
+}
@@ -0,0 +1,244 @@
+package com.betterreads.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bson.types.ObjectId;
+
+import com.betterreads.queries.FieldType;
+
+/**
+ * <p>
+ * An immutable collection of the in-memory catalog: its rows in one array,
+ * ordered by id like Mongo orders _id, so a lookup is a binary search and a
+ * page is a slice. Changes produce a new table, so readers never see a
+ * partial update.
+ * </p>
+ * <p>
+ * The indexes of searchable fields are built on first use and kept with the
+ * table. A changed table builds its indexes from those of the table it
+ * replaces, so only the changed rows have their keys computed again.
+ * </p>
+ *
+ * @param <T> the row type
+ */
+public final class CatalogTable<T extends CatalogRow> {
+
+    /**
+     * The order of _id in Mongo: string ids sort before ObjectIds, and
+     * ObjectIds sort as their hex strings do
+     */
+    public static final Comparator<String> ID_ORDER = Comparator.comparing(ObjectId::isValid)
+            .thenComparing(Comparator.naturalOrder());
+
+    private final String[] ids;
+
+    private final CatalogRow[] rows;
+
+    private final Map<String, CatalogIndex> indexes = new ConcurrentHashMap<>();
+
+    /**
+     * The indexes of the table this one replaces, by field, until this table
+     * builds its own
+     */
+    private final Map<String, CatalogIndex> inherited;
+
+    private CatalogTable(CatalogRow[] rows) {
+        this(rows, Map.of());
+    }
+
+    private CatalogTable(CatalogRow[] rows, Map<String, CatalogIndex> inherited) {
+        this.rows = rows;
+        this.inherited = new ConcurrentHashMap<>(inherited);
+        this.ids = new String[rows.length];
+
+        for (int i = 0; i < rows.length; i++) {
+            ids[i] = rows[i].id();
+        }
+    }
+
+    /**
+     * <p>
+     * Builds a table from rows in any order. Of rows with the same id, the last
+     * one is kept.
+     * </p>
+     *
+     * @param rows the rows
+     * @param <T>  the row type
+     * @return the table
+     */
+    public static <T extends CatalogRow> CatalogTable<T> of(Collection<T> rows) {
+        return new CatalogTable<>(sort(rows));
+    }
+
+    private static CatalogRow[] sort(Collection<? extends CatalogRow> rows) {
+        CatalogRow[] sorted = rows.toArray(new CatalogRow[0]);
+        Arrays.sort(sorted, Comparator.comparing(CatalogRow::id, ID_ORDER));
+
+        int kept = 0;
+
+        for (int i = 0; i < sorted.length; i++) {
+            if (kept > 0 && sorted[kept - 1].id().equals(sorted[i].id())) {
+                kept--;
+            }
+
+            sorted[kept++] = sorted[i];
+        }
+
+        return kept == sorted.length ? sorted : Arrays.copyOf(sorted, kept);
+    }
+
+    /**
+     * <p>
+     * Gets a row by id
+     * </p>
+     *
+     * @param id the id
+     * @return the row, null when there is none
+     */
+    @SuppressWarnings("unchecked")
+    public T get(String id) {
+        int index = Arrays.binarySearch(ids, id, ID_ORDER);
+
+        return index < 0 ? null : (T) rows[index];
+    }
+
+    /**
+     * <p>
+     * Reads a keyset window like a Mongo query sorted on _id: ascending after
+     * the given id, or descending before it
+     * </p>
+     *
+     * @param after  read the rows after this id, may be null
+     * @param before read the rows before this id, may be null
+     * @param count  the most rows to read
+     * @return the rows, descending when reading before
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> window(String after, String before, int count) {
+        List<T> window = new ArrayList<>(Math.min(count, rows.length));
+
+        if (before != null) {
+            for (int i = lowerBound(before) - 1; i >= 0 && window.size() < count; i--) {
+                window.add((T) rows[i]);
+            }
+        } else {
+            int start = after == null ? 0 : upperBound(after);
+
+            for (int i = start; i < rows.length && window.size() < count; i++) {
+                window.add((T) rows[i]);
+            }
+        }
+
+        return window;
+    }
+
+    /**
+     * <p>
+     * Gets every row in id order
+     * </p>
+     *
+     * @return an unmodifiable view of the rows
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> rows() {
+        return Collections.unmodifiableList((List<T>) Arrays.asList(rows));
+    }
+
+    /**
+     * <p>
+     * Gets a row by its position in id order, as the positions of an index
+     * </p>
+     *
+     * @param position the position
+     * @return the row
+     */
+    @SuppressWarnings("unchecked")
+    public T row(int position) {
+        return (T) rows[position];
+    }
+
+    /**
+     * <p>
+     * Gets the index of a searchable field, building it on first use
+     * </p>
+     *
+     * @param field the field
+     * @param type  the type of the field
+     * @return the index
+     */
+    public CatalogIndex index(String field, FieldType type) {
+        return indexes.computeIfAbsent(field, key -> {
+            CatalogIndex index = CatalogIndex.build(rows, field, type, inherited.get(field));
+            inherited.remove(field);
+
+            return index;
+        });
+    }
+
+    /**
+     * <p>
+     * The number of rows
+     * </p>
+     *
+     * @return the size of the table
+     */
+    public int size() {
+        return rows.length;
+    }
+
+    /**
+     * <p>
+     * Builds the table that follows a change: rows are added or replaced and
+     * ids removed. Unchanged rows are shared with this table.
+     * </p>
+     *
+     * @param upserts the added or replaced rows
+     * @param removed the ids of the removed rows
+     * @return the new table
+     */
+    @SuppressWarnings("unchecked")
+    public CatalogTable<T> with(Collection<T> upserts, Collection<String> removed) {
+        if (upserts.isEmpty() && removed.isEmpty()) {
+            return this;
+        }
+
+        Set<String> dropped = new HashSet<>(removed);
+        upserts.forEach(row -> dropped.add(row.id()));
+
+        List<T> kept = new ArrayList<>(rows.length + upserts.size());
+
+        for (CatalogRow row : rows) {
+            if (!dropped.contains(row.id())) {
+                kept.add((T) row);
+            }
+        }
+
+        kept.addAll(upserts);
+
+        Map<String, CatalogIndex> previous = new ConcurrentHashMap<>(inherited);
+        previous.putAll(indexes);
+
+        return new CatalogTable<>(sort(kept), previous);
+    }
+
+    private int lowerBound(String id) {
+        int index = Arrays.binarySearch(ids, id, ID_ORDER);
+
+        return index < 0 ? -index - 1 : index;
+    }
+
+    private int upperBound(String id) {
+        int index = Arrays.binarySearch(ids, id, ID_ORDER);
+
+        return index < 0 ? -index - 1 : index + 1;
+    }
+}
@@ -0,0 +1,104 @@
+package com.betterreads.catalog;
+
+import org.bson.Document;
+
+import com.betterreads.models.Author;
+import com.betterreads.services.CursorPage;
+
+/**
+ * <p>
+ * An author of the in-memory catalog
+ * </p>
+ *
+ * @param id          the id
+ * @param version     the version, or NONE
+ * @param firstName   the first name
+ * @param middleName  the middle name
+ * @param lastName    the last name
+ * @param suffix      the suffix
+ * @param dateOfBirth the date of birth as an epoch day, or NONE
+ * @param gender      the gender
+ * @param city        the city
+ * @param state       the state
+ * @param books       the ids of the books
+ */
+public record CompactAuthor(String id, long version, String firstName, String middleName, String lastName,
+        String suffix, int dateOfBirth, String gender, String city, String state, String[] books)
+        implements CatalogRow {
+
+    /**
+     * <p>
+     * Compacts a stored author
+     * </p>
+     *
+     * @param document the stored author
+     * @param pool     the pool the strings are shared through
+     * @return the compacted author
+     */
+    public static CompactAuthor of(Document document, StringPool pool) {
+        return new CompactAuthor(
+                pool.intern(document.get("_id")),
+                document.get("version") instanceof Number version ? version.longValue() : NONE,
+                pool.intern(document.get("firstName")),
+                pool.intern(document.get("middleName")),
+                pool.intern(document.get("lastName")),
+                pool.intern(document.get("suffix")),
+                CatalogRow.epochDay(document.get("dateOfBirth")),
+                pool.intern(document.get("gender")),
+                pool.intern(document.get("city")),
+                pool.intern(document.get("state")),
+                pool.internAll(document.getList("books", Object.class)));
+    }
+
+    @Override
+    public Document toDocument() {
+        Document document = new Document("_id", CursorPage.toKey(id));
+
+        CatalogRow.put(document, "version", version == NONE ? null : version);
+        CatalogRow.put(document, "firstName", firstName);
+        CatalogRow.put(document, "middleName", middleName);
+        CatalogRow.put(document, "lastName", lastName);
+        CatalogRow.put(document, "suffix", suffix);
+        CatalogRow.put(document, "dateOfBirth", CatalogRow.date(dateOfBirth));
+        CatalogRow.put(document, "gender", gender);
+        CatalogRow.put(document, "city", city);
+        CatalogRow.put(document, "state", state);
+        CatalogRow.put(document, "books", CatalogRow.keys(books));
+
+        return document;
+    }
+
+    @Override
+    public Author toEntity(References references) {
+        return Author.builder()
+                .id(id)
+                .version(version == NONE ? null : version)
+                .firstName(firstName)
+                .middleName(middleName)
+                .lastName(lastName)
+                .suffix(suffix)
+                .dateOfBirth(CatalogRow.date(dateOfBirth))
+                .gender(gender)
+                .city(city)
+                .state(state)
+                .books(references.many("books", books))
+                .build();
+    }
+
+    @Override
+    public Object value(String field) {
+        return switch (field) {
+            case "id" -> id;
+            case "firstName" -> firstName;
+            case "middleName" -> middleName;
+            case "lastName" -> lastName;
+            case "suffix" -> suffix;
+            case "dateOfBirth" -> CatalogRow.millis(dateOfBirth);
+            case "gender" -> gender;
+            case "city" -> city;
+            case "state" -> state;
+            case "books" -> CatalogRow.list(books);
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,98 @@
+package com.betterreads.catalog;
+
+import org.bson.Document;
+
+import com.betterreads.models.Book;
+import com.betterreads.services.CursorPage;
+
+/**
+ * <p>
+ * A book of the in-memory catalog
+ * </p>
+ *
+ * @param id           the id
+ * @param version      the version, or NONE
+ * @param isbn         the ISBN
+ * @param title        the title
+ * @param authors      the ids of the authors
+ * @param publishedDay the publication date as an epoch day, or NONE
+ * @param genres       the genres
+ * @param pages        the number of pages, or NONE
+ * @param publisher    the id of the publisher
+ * @param language     the language
+ */
+public record CompactBook(String id, long version, String isbn, String title, String[] authors, int publishedDay,
+        String[] genres, int pages, String publisher, String language) implements CatalogRow {
+
+    /**
+     * <p>
+     * Compacts a stored book
+     * </p>
+     *
+     * @param document the stored book
+     * @param pool     the pool the strings are shared through
+     * @return the compacted book
+     */
+    public static CompactBook of(Document document, StringPool pool) {
+        return new CompactBook(
+                pool.intern(document.get("_id")),
+                document.get("version") instanceof Number version ? version.longValue() : NONE,
+                pool.intern(document.get("isbn")),
+                pool.intern(document.get("title")),
+                pool.internAll(document.getList("authors", Object.class)),
+                CatalogRow.epochDay(document.get("publishedDate")),
+                pool.internAll(document.getList("genres", Object.class)),
+                CatalogRow.number(document.get("pages")),
+                pool.intern(document.get("publisher")),
+                pool.intern(document.get("language")));
+    }
+
+    @Override
+    public Document toDocument() {
+        Document document = new Document("_id", CursorPage.toKey(id));
+
+        CatalogRow.put(document, "version", version == NONE ? null : version);
+        CatalogRow.put(document, "isbn", isbn);
+        CatalogRow.put(document, "title", title);
+        CatalogRow.put(document, "authors", CatalogRow.keys(authors));
+        CatalogRow.put(document, "publishedDate", CatalogRow.date(publishedDay));
+        CatalogRow.put(document, "genres", CatalogRow.list(genres));
+        CatalogRow.put(document, "pages", pages == NONE ? null : pages);
+        CatalogRow.put(document, "publisher", publisher == null ? null : CursorPage.toKey(publisher));
+        CatalogRow.put(document, "language", language);
+
+        return document;
+    }
+
+    @Override
+    public Book toEntity(References references) {
+        return Book.builder()
+                .id(id)
+                .version(version == NONE ? null : version)
+                .isbn(isbn)
+                .title(title)
+                .authors(references.many("authors", authors))
+                .publishedDate(CatalogRow.date(publishedDay))
+                .genres(CatalogRow.copy(genres))
+                .pages(pages == NONE ? null : pages)
+                .publisher(references.one("publisher", publisher))
+                .language(language)
+                .build();
+    }
+
+    @Override
+    public Object value(String field) {
+        return switch (field) {
+            case "id" -> id;
+            case "isbn" -> isbn;
+            case "title" -> title;
+            case "authors" -> CatalogRow.list(authors);
+            case "publishedDate" -> CatalogRow.millis(publishedDay);
+            case "genres" -> CatalogRow.list(genres);
+            case "pages" -> pages == NONE ? null : pages;
+            case "publisher" -> publisher;
+            case "language" -> language;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,67 @@
+package com.betterreads.catalog;
+
+import org.bson.Document;
+
+import com.betterreads.models.Publisher;
+import com.betterreads.services.CursorPage;
+
+/**
+ * <p>
+ * A publisher of the in-memory catalog
+ * </p>
+ *
+ * @param id      the id
+ * @param version the version, or NONE
+ * @param name    the name
+ * @param books   the ids of the books
+ */
+public record CompactPublisher(String id, long version, String name, String[] books) implements CatalogRow {
+
+    /**
+     * <p>
+     * Compacts a stored publisher
+     * </p>
+     *
+     * @param document the stored publisher
+     * @param pool     the pool the strings are shared through
+     * @return the compacted publisher
+     */
+    public static CompactPublisher of(Document document, StringPool pool) {
+        return new CompactPublisher(
+                pool.intern(document.get("_id")),
+                document.get("version") instanceof Number version ? version.longValue() : NONE,
+                pool.intern(document.get("name")),
+                pool.internAll(document.getList("books", Object.class)));
+    }
+
+    @Override
+    public Document toDocument() {
+        Document document = new Document("_id", CursorPage.toKey(id));
+
+        CatalogRow.put(document, "version", version == NONE ? null : version);
+        CatalogRow.put(document, "name", name);
+        CatalogRow.put(document, "books", CatalogRow.keys(books));
+
+        return document;
+    }
+
+    @Override
+    public Publisher toEntity(References references) {
+        return Publisher.builder()
+                .id(id)
+                .version(version == NONE ? null : version)
+                .name(name)
+                .books(references.many("books", books))
+                .build();
+    }
+
+    @Override
+    public Object value(String field) {
+        return switch (field) {
+            case "id" -> id;
+            case "name" -> name;
+            case "books" -> CatalogRow.list(books);
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,638 @@
+package com.betterreads.catalog;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.mapping.context.MappingContext;
+import org.springframework.data.mongodb.core.MongoExceptionTranslator;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.LazyLoadingProxyFactory;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.betterreads.events.CatalogChangedEvent;
+import com.betterreads.models.Author;
+import com.betterreads.models.Book;
+import com.betterreads.models.Identifiable;
+import com.betterreads.models.Publisher;
+import com.betterreads.models.SearchRequest;
+import com.betterreads.queries.FieldType;
+import com.betterreads.queries.Projection;
+import com.betterreads.queries.SearchFields;
+import com.betterreads.services.CursorPage;
+import com.betterreads.services.DocumentExporter;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * Holds the whole books, authors and publishers collections in memory, for
+ * read replicas that should answer getById, list and search without a round
+ * trip to Mongo. Switched on by betterreads.catalog.in-memory; until the
+ * catalog is loaded, and whenever it is off, the services read from Mongo.
+ * </p>
+ * <p>
+ * Mongo stays the source of truth. Every CatalogChangedEvent, from this
+ * instance's writes and from the change stream when it is enabled, records
+ * what changed, and a background job reloads the changed documents every
+ * betterreads.catalog.change-delay, so the writing thread never reads them
+ * back. The whole catalog is reloaded every
+ * betterreads.catalog.refresh-interval. Each change builds a new snapshot, so
+ * reads never wait and never see half of a change; changes are applied one at
+ * a time.
+ * </p>
+ * <p>
+ * With betterreads.catalog.snapshot.path set, startup reads the catalog from
+ * that file instead and only reads the documents changed since it was written,
+ * and CatalogSnapshotWriter rewrites the file in the background.
+ * </p>
+ */
+@Component
+@Slf4j
+public class InMemoryCatalog implements ApplicationRunner {
+
+    private static final Map<Class<?>, BiFunction<Document, StringPool, CatalogRow>> ROWS = Map.of(
+            Book.class, CompactBook::of,
+            Author.class, CompactAuthor::of,
+            Publisher.class, CompactPublisher::of);
+
+    private static final List<Class<?>> TYPES = List.of(Book.class, Author.class, Publisher.class);
+
+    private static final Map<Class<?>, Map<String, FieldType>> SEARCHABLE = Map.of(
+            Book.class, SearchFields.BOOKS,
+            Author.class, SearchFields.AUTHORS,
+            Publisher.class, SearchFields.PUBLISHERS);
+
+    private static final LazyLoadingProxyFactory PROXIES = new LazyLoadingProxyFactory(
+            new MongoExceptionTranslator());
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CatalogSnapshotFile snapshotFile;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Value("${betterreads.catalog.in-memory:false}")
+    private boolean enabled;
+
+    @Value("${betterreads.catalog.snapshot.prefill-caches:false}")
+    private boolean prefillCaches;
+
+    @Value("${betterreads.catalog.snapshot.prefill-size:10000}")
+    private int prefillSize;
+
+    private volatile CatalogSnapshot snapshot;
+
+    private StringPool pool = new StringPool();
+
+    /**
+     * The ids changed since the last run of applyChanges, by type
+     */
+    private final Map<Class<?>, Set<String>> changed = new ConcurrentHashMap<>();
+
+    /**
+     * The types changed as a whole since the last run of applyChanges
+     */
+    private final Set<Class<?>> changedAll = ConcurrentHashMap.newKeySet();
+
+    /**
+     * <p>
+     * Loads the catalog at startup when it is enabled, from the snapshot file
+     * when there is one
+     * </p>
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled || prefillCaches) {
+            warmStart();
+        }
+    }
+
+    /**
+     * <p>
+     * Reads the snapshot file and brings it up to date: only the documents
+     * whose version differs from Mongo's are read again. Without a usable file
+     * an enabled catalog is loaded from Mongo. The result then fills the
+     * document caches when betterreads.catalog.snapshot.prefill-caches is set.
+     * </p>
+     */
+    public synchronized void warmStart() {
+        long started = System.nanoTime();
+        StringPool fresh = new StringPool();
+        CatalogSnapshot loaded = snapshotFile.read(fresh).map(imported -> catchUp(imported, fresh)).orElse(null);
+
+        if (loaded != null) {
+            log.info("Caught up the catalog snapshot with Mongo, ready in {} ms",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        }
+
+        if (enabled) {
+            if (loaded == null) {
+                reload();
+            } else {
+                index(loaded);
+                snapshot = loaded;
+                pool = fresh;
+            }
+
+            loaded = snapshot;
+        }
+
+        if (prefillCaches && loaded != null) {
+            prefill(loaded);
+        }
+    }
+
+    /**
+     * <p>
+     * Reloads the whole catalog, which also drops the strings no document uses
+     * any more
+     * </p>
+     */
+    @Scheduled(fixedDelayString = "${betterreads.catalog.refresh-interval:PT15M}",
+            initialDelayString = "${betterreads.catalog.refresh-interval:PT15M}")
+    public void refresh() {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    /**
+     * <p>
+     * Reads every book, author and publisher and replaces the served snapshot
+     * </p>
+     */
+    public synchronized void reload() {
+        long started = System.nanoTime();
+        StringPool fresh = new StringPool();
+        CatalogSnapshot loaded = loadAll(fresh);
+        index(loaded);
+
+        snapshot = loaded;
+        pool = fresh;
+
+        log.info("Loaded {} books, {} authors and {} publishers into memory in {} ms, {} distinct strings",
+                loaded.books().size(), loaded.authors().size(), loaded.publishers().size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), fresh.size());
+    }
+
+    /**
+     * <p>
+     * Whether reads can be served from memory
+     * </p>
+     *
+     * @return true once the catalog is loaded
+     */
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    /**
+     * <p>
+     * Records the changed documents for the next run of applyChanges
+     * </p>
+     *
+     * @param event the change
+     */
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        CatalogSnapshot current = snapshot;
+
+        if (current == null || current.table(event.getType()) == null) {
+            return;
+        }
+
+        if (event.isAll()) {
+            changedAll.add(event.getType());
+            return;
+        }
+
+        // compute is atomic per key, so no id is added to a set applyChanges has already taken
+        changed.compute(event.getType(), (type, ids) -> {
+            Set<String> pending = ids == null ? new HashSet<>() : ids;
+            pending.addAll(event.getIds());
+
+            return pending;
+        });
+    }
+
+    /**
+     * <p>
+     * Reloads the documents changed since the last run into a new snapshot, a
+     * whole table for a collection-wide change. Changed ids that are no longer
+     * stored are removed.
+     * </p>
+     *
+     * @return whether anything was reloaded
+     */
+    @Scheduled(fixedDelayString = "${betterreads.catalog.change-delay:PT1S}")
+    public synchronized boolean applyChanges() {
+        boolean applied = false;
+
+        for (Class<?> type : TYPES) {
+            Set<String> ids = changed.remove(type);
+            boolean all = changedAll.remove(type);
+            CatalogSnapshot current = snapshot;
+
+            if ((ids == null && !all) || current == null) {
+                continue;
+            }
+
+            CatalogTable<? extends CatalogRow> table = all ? load(type, pool)
+                    : refreshed(type, current.table(type), ids, List.of(), pool);
+            index(type, table);
+            snapshot = current.with(type, table);
+            applied = true;
+
+            if (all) {
+                log.debug("Reloaded all {} into memory", mongoTemplate.getCollectionName(type));
+            } else {
+                log.debug("Reloaded {} changed {} into memory", ids.size(), mongoTemplate.getCollectionName(type));
+            }
+        }
+
+        return applied;
+    }
+
+    /**
+     * <p>
+     * Writes the served catalog to the snapshot file, or a copy read from Mongo
+     * when the catalog is not served from memory. Does nothing without
+     * betterreads.catalog.snapshot.path.
+     * </p>
+     */
+    public void writeSnapshot() {
+        if (!snapshotFile.isEnabled()) {
+            return;
+        }
+
+        CatalogSnapshot current = snapshot;
+
+        snapshotFile.write(current != null ? current : loadAll(new StringPool()));
+    }
+
+    /**
+     * <p>
+     * Gets a document by id
+     * </p>
+     *
+     * @param type       the entity type
+     * @param id         the id
+     * @param projection the fields to read
+     * @param <T>        the entity type
+     * @return the document with its references resolved, empty when there is
+     *         none
+     */
+    public <T> Optional<T> findById(Class<T> type, String id, Projection projection) {
+        CatalogSnapshot current = snapshot;
+        CatalogRow row = current.table(type).get(id);
+
+        return row == null ? Optional.empty() : Optional.of(read(current, type, List.of(row), projection).get(0));
+    }
+
+    /**
+     * <p>
+     * Gets one page of documents ordered by id, like CursorPage.fetch
+     * </p>
+     *
+     * @param type       the entity type
+     * @param projection the fields to read
+     * @param after      read the documents after this id, may be null
+     * @param before     read the documents before this id, may be null
+     * @param size       the requested page size
+     * @param <T>        the entity type
+     * @return the page, with references resolved
+     */
+    public <T extends Identifiable> CursorPage<T> page(Class<T> type, Projection projection, String after,
+            String before, int size) {
+        CatalogSnapshot current = snapshot;
+        int limit = CursorPage.clamp(size);
+
+        return CursorPage.of(read(current, type, current.table(type).window(after, before, limit + 1), projection),
+                after, before, limit);
+    }
+
+    /**
+     * <p>
+     * Searches the documents. The request must already have been compiled by
+     * SearchQueryCompiler, which validates it and sets the limit.
+     * </p>
+     *
+     * @param type       the entity type
+     * @param request    the search request
+     * @param fields     the searchable fields of the collection
+     * @param limit      the most documents to return
+     * @param projection the fields to read
+     * @param <T>        the entity type
+     * @return the matching documents, with references resolved
+     */
+    public <T> List<T> search(Class<T> type, SearchRequest request, Map<String, FieldType> fields, int limit,
+            Projection projection) {
+        CatalogSnapshot current = snapshot;
+
+        return read(current, type, new CatalogSearch(fields).search(current.table(type), request, limit),
+                projection);
+    }
+
+    private CatalogSnapshot loadAll(StringPool strings) {
+        return new CatalogSnapshot(load(Book.class, strings), load(Author.class, strings),
+                load(Publisher.class, strings));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends CatalogRow> CatalogTable<T> load(Class<?> type, StringPool strings) {
+        List<T> rows = new ArrayList<>();
+        Query query = new Query().cursorBatchSize(DocumentExporter.BATCH_SIZE);
+
+        try (Stream<Document> documents = mongoTemplate.stream(query, Document.class,
+                mongoTemplate.getCollectionName(type))) {
+            Iterator<Document> iterator = documents.iterator();
+
+            while (iterator.hasNext()) {
+                rows.add((T) ROWS.get(type).apply(iterator.next(), strings));
+            }
+        }
+
+        return CatalogTable.of(rows);
+    }
+
+    private CatalogSnapshot catchUp(CatalogSnapshot imported, StringPool strings) {
+        CatalogSnapshot caughtUp = imported;
+
+        for (Class<?> type : TYPES) {
+            caughtUp = caughtUp.with(type, catchUp(type, imported.table(type), strings));
+        }
+
+        return caughtUp;
+    }
+
+    /**
+     * <p>
+     * Compares the version of every row with the stored one, streaming only _id
+     * and version from Mongo, and reads again the documents that were added or
+     * changed since the snapshot was written. Documents changed without a new
+     * version are only seen by the next full reload.
+     * </p>
+     */
+    private <T extends CatalogRow> CatalogTable<T> catchUp(Class<?> type, CatalogTable<T> table,
+            StringPool strings) {
+        Map<String, Long> stored = new HashMap<>();
+        Query query = new Query().cursorBatchSize(DocumentExporter.BATCH_SIZE);
+        query.fields().include("version");
+
+        try (Stream<Document> documents = mongoTemplate.stream(query, Document.class,
+                mongoTemplate.getCollectionName(type))) {
+            documents.forEach(document -> stored.put(document.get("_id").toString(),
+                    document.get("version") instanceof Number version ? version.longValue() : (long) CatalogRow.NONE));
+        }
+
+        List<String> changed = new ArrayList<>();
+        List<String> deleted = new ArrayList<>();
+
+        for (T row : table.rows()) {
+            Long version = stored.remove(row.id());
+
+            if (version == null) {
+                deleted.add(row.id());
+            } else if (version != row.version()) {
+                changed.add(row.id());
+            }
+        }
+
+        changed.addAll(stored.keySet());
+
+        log.info("{} {} changed or added and {} deleted since the catalog snapshot", changed.size(),
+                mongoTemplate.getCollectionName(type), deleted.size());
+
+        return refreshed(type, table, changed, deleted, strings);
+    }
+
+    /**
+     * <p>
+     * Reads the changed documents again, in batches, into a new table. Changed
+     * ids that are no longer stored are removed, as are the deleted ones.
+     * </p>
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends CatalogRow> CatalogTable<T> refreshed(Class<?> type, CatalogTable<T> table,
+            Collection<String> changed, Collection<String> deleted, StringPool strings) {
+        List<String> ids = new ArrayList<>(changed);
+        List<T> upserts = new ArrayList<>();
+        Set<String> removed = new HashSet<>(ids);
+        removed.addAll(deleted);
+
+        for (int from = 0; from < ids.size(); from += DocumentExporter.BATCH_SIZE) {
+            List<String> batch = ids.subList(from, Math.min(from + DocumentExporter.BATCH_SIZE, ids.size()));
+            Query query = new Query(Criteria.where("_id").in(batch.stream().map(CursorPage::toKey).toList()));
+
+            for (Document document : mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(type))) {
+                T row = (T) ROWS.get(type).apply(document, strings);
+                upserts.add(row);
+                removed.remove(row.id());
+            }
+        }
+
+        return table.with(upserts, removed);
+    }
+
+    /**
+     * <p>
+     * Puts the most recent documents, those with the highest ids, into the
+     * books, authors and publishers caches, as the repositories would have
+     * cached them. At most betterreads.catalog.snapshot.prefill-size of each.
+     * </p>
+     */
+    private void prefill(CatalogSnapshot loaded) {
+        MongoConverter converter = mongoTemplate.getConverter();
+
+        for (Class<?> type : TYPES) {
+            Cache cache = cacheManager.getCache(mongoTemplate.getCollectionName(type));
+
+            if (cache == null) {
+                continue;
+            }
+
+            List<? extends CatalogRow> rows = loaded.table(type).rows();
+            List<? extends CatalogRow> recent = rows.subList(Math.max(0, rows.size() - prefillSize), rows.size());
+
+            for (CatalogRow row : recent) {
+                cache.put(row.id(), converter.read(type, row.toDocument()));
+            }
+
+            log.info("Prefilled cache {} with {} documents", cache.getName(), recent.size());
+        }
+    }
+
+    /**
+     * <p>
+     * Builds the entities of rows, as a query would read them, and resolves
+     * their references from the same snapshot. References of the referenced
+     * documents stay lazy and are rendered as ids, like RelationLoader leaves
+     * them.
+     * </p>
+     */
+    private <T> List<T> read(CatalogSnapshot current, Class<T> type, List<? extends CatalogRow> rows,
+            Projection projection) {
+        MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> context = mongoTemplate
+                .getConverter().getMappingContext();
+        MongoPersistentEntity<?> entity = context.getRequiredPersistentEntity(type);
+        SnapshotReferences references = new SnapshotReferences(current, context, entity, projection);
+        List<T> entities = new ArrayList<>(rows.size());
+
+        for (CatalogRow row : rows) {
+            T item = type.cast(row.toEntity(references));
+
+            if (!projection.isAll()) {
+                PersistentPropertyAccessor<T> accessor = entity.getPropertyAccessor(item);
+
+                for (MongoPersistentProperty property : entity) {
+                    if (!projection.includes(property.getName())) {
+                        accessor.setProperty(property, null);
+                    }
+                }
+            }
+
+            entities.add(item);
+        }
+
+        return entities;
+    }
+
+    /**
+     * <p>
+     * Builds the indexes of every searchable field of the snapshot, so the
+     * first searches do not wait for them
+     * </p>
+     */
+    private void index(CatalogSnapshot loaded) {
+        for (Class<?> type : TYPES) {
+            index(type, loaded.table(type));
+        }
+    }
+
+    private void index(Class<?> type, CatalogTable<? extends CatalogRow> table) {
+        SEARCHABLE.get(type).forEach(table::index);
+    }
+
+    /**
+     * <p>
+     * Resolves references from one snapshot. With a projection, the references
+     * it includes are loaded, each referenced document once per read. Without
+     * one, references become lazy proxies over the stored ids, which load from
+     * the same snapshot when used.
+     * </p>
+     */
+    private static final class SnapshotReferences implements CatalogRow.References {
+
+        private final CatalogSnapshot snapshot;
+
+        private final MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> context;
+
+        private final MongoPersistentEntity<?> entity;
+
+        private final Projection projection;
+
+        private final Map<Class<?>, Map<String, Object>> loaded = new HashMap<>();
+
+        private SnapshotReferences(CatalogSnapshot snapshot,
+                MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> context,
+                MongoPersistentEntity<?> entity, Projection projection) {
+            this.snapshot = snapshot;
+            this.context = context;
+            this.entity = entity;
+            this.projection = projection;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <E> List<E> many(String field, String[] ids) {
+            if (ids == null || (projection != null && !projection.includes(field))) {
+                return null;
+            }
+
+            MongoPersistentProperty property = entity.getRequiredPersistentProperty(field);
+
+            if (projection == null) {
+                return (List<E>) proxy(property, ids, CatalogRow.keys(ids));
+            }
+
+            List<E> resolved = new ArrayList<>(ids.length);
+
+            for (String id : ids) {
+                E referenced = load(property, id);
+
+                if (referenced != null) {
+                    resolved.add(referenced);
+                }
+            }
+
+            return resolved;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <E> E one(String field, String id) {
+            if (id == null || (projection != null && !projection.includes(field))) {
+                return null;
+            }
+
+            MongoPersistentProperty property = entity.getRequiredPersistentProperty(field);
+
+            return projection == null ? (E) proxy(property, new String[] { id }, CursorPage.toKey(id))
+                    : load(property, id);
+        }
+
+        @SuppressWarnings("unchecked")
+        private <E> E load(MongoPersistentProperty property, String id) {
+            Map<String, Object> byId = loaded.computeIfAbsent(property.getActualType(), type -> new HashMap<>());
+
+            if (!byId.containsKey(id)) {
+                CatalogRow row = snapshot.table(property.getActualType()).get(id);
+                MongoPersistentEntity<?> target = context.getRequiredPersistentEntity(property.getActualType());
+
+                byId.put(id, row == null ? null
+                        : row.toEntity(new SnapshotReferences(snapshot, context, target, null)));
+            }
+
+            return (E) byId.get(id);
+        }
+
+        private Object proxy(MongoPersistentProperty property, String[] ids, Object source) {
+            return PROXIES.createLazyLoadingProxy(property, unused -> {
+                SnapshotReferences resolving = new SnapshotReferences(snapshot, context, entity,
+                        Projection.ALL);
+
+                return property.isCollectionLike() ? resolving.many(property.getName(), ids)
+                        : resolving.one(property.getName(), ids[0]);
+            }, source);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.betterreads.catalog;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * Hands out one shared instance per distinct string, so values repeated across
+ * the catalog, such as languages, genres, cities and the ids that references
+ * repeat, are held once. Unlike String.intern the pool is dropped with the
+ * catalog it was built for. Not thread-safe.
+ * </p>
+ */
+public class StringPool {
+
+    private final Map<String, String> strings = new HashMap<>();
+
+    /**
+     * <p>
+     * Gets the pooled instance of a value's string form
+     * </p>
+     *
+     * @param value the value, may be null
+     * @return the pooled string, null for null
+     */
+    public String intern(Object value) {
+        if (value == null) {
+            return null;
+        }
+
+        String text = value.toString();
+        String pooled = strings.putIfAbsent(text, text);
+
+        return pooled == null ? text : pooled;
+    }
+
+    /**
+     * <p>
+     * Gets the pooled instances of a list of values
+     * </p>
+     *
+     * @param values the values, may be null
+     * @return the pooled strings, null for null
+     */
+    public String[] internAll(List<?> values) {
+        if (values == null) {
+            return null;
+        }
+
+        String[] pooled = new String[values.size()];
+
+        for (int i = 0; i < pooled.length; i++) {
+            pooled[i] = intern(values.get(i));
+        }
+
+        return pooled;
+    }
+
+    /**
+     * <p>
+     * The number of distinct strings held
+     * </p>
+     *
+     * @return the size of the pool
+     */
+    public int size() {
+        return strings.size();
+    }
+}
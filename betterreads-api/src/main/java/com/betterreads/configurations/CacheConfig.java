@@ -0,0 +1,47 @@
+package com.betterreads.configurations;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * <p>
+ * Configuration for the read-through document caches. The provider, size and
+ * expiry are set under spring.cache; the caches are named after the collections
+ * they hold documents of.
+ * </p>
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String BOOKS = "books";
+
+    public static final String AUTHORS = "authors";
+
+    public static final String PUBLISHERS = "publishers";
+
+    public static final String FACETS = "facets";
+
+    /**
+     * <p>
+     * Gives the facets cache its own short expiry. Facet counts change with any
+     * book, so they are only kept long enough to absorb repeated page loads.
+     * </p>
+     */
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> facetsCache(
+            @Value("${betterreads.facets.ttl:30s}") String ttl) {
+        return cacheManager -> cacheManager.registerCustomCache(FACETS, Caffeine.newBuilder()
+                .maximumSize(1000)
+                .expireAfterWrite(DurationStyle.detectAndParse(ttl))
+                .recordStats()
+                .build());
+    }
+}
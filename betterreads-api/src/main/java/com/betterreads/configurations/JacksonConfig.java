@@ -0,0 +1,44 @@
+package com.betterreads.configurations;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.convert.LazyLoadingProxy;
+
+import com.betterreads.models.Versioned;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+/**
+ * <p>
+ * Configuration for JSON serialization of documents
+ * </p>
+ */
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * <p>
+     * Registers the serializer for unresolved document references, and the
+     * deserializer that reads them back, with the application's ObjectMapper
+     * </p>
+     */
+    @Bean
+    public Module referenceModule() {
+        return new SimpleModule("references")
+                .addSerializer(LazyLoadingProxy.class, new ReferenceSerializer())
+                .setDeserializerModifier(new BeanDeserializerModifier() {
+
+                    @Override
+                    public JsonDeserializer<?> modifyDeserializer(DeserializationConfig config,
+                            BeanDescription description, JsonDeserializer<?> deserializer) {
+                        return Versioned.class.isAssignableFrom(description.getBeanClass())
+                                ? new ReferenceDeserializer(deserializer)
+                                : deserializer;
+                    }
+                });
+    }
+}
@@ -0,0 +1,50 @@
+package com.betterreads.configurations;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.deser.std.DelegatingDeserializer;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+/**
+ * <p>
+ * Reads a document reference written as its id, the way ReferenceSerializer
+ * writes an unresolved one, as a document holding only that id. A document
+ * read with GET, references inside its resolved references included, can then
+ * be sent back with PUT. Saving a reference only stores its id.
+ * </p>
+ */
+public class ReferenceDeserializer extends DelegatingDeserializer {
+
+    private static final long serialVersionUID = 1L;
+
+    public ReferenceDeserializer(JsonDeserializer<?> delegate) {
+        super(delegate);
+    }
+
+    @Override
+    protected JsonDeserializer<?> newDelegatingInstance(JsonDeserializer<?> delegate) {
+        return new ReferenceDeserializer(delegate);
+    }
+
+    @Override
+    public Object deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        if (!parser.hasToken(JsonToken.VALUE_STRING)) {
+            return super.deserialize(parser, context);
+        }
+
+        TokenBuffer document = context.bufferForInputBuffering(parser);
+        document.writeStartObject();
+        document.writeStringField("id", parser.getText());
+        document.writeEndObject();
+
+        try (JsonParser id = document.asParser(parser.getCodec())) {
+            id.nextToken();
+
+            return super.deserialize(id, context);
+        }
+    }
+}
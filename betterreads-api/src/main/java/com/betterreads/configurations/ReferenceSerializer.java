@@ -0,0 +1,44 @@
+package com.betterreads.configurations;
+
+import java.io.IOException;
+import java.util.Collection;
+
+import org.springframework.data.mongodb.core.convert.LazyLoadingProxy;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * <p>
+ * Writes an unresolved document reference as the id, or ids, it points to.
+ * Serializing a reference must not resolve it: that would cost a query per
+ * reference and could follow author to book to author forever.
+ * </p>
+ */
+public class ReferenceSerializer extends StdSerializer<LazyLoadingProxy> {
+
+    public ReferenceSerializer() {
+        super(LazyLoadingProxy.class);
+    }
+
+    @Override
+    public void serialize(LazyLoadingProxy value, JsonGenerator gen, SerializerProvider provider)
+            throws IOException {
+        Object source = value.getSource();
+
+        if (source instanceof Collection<?> ids) {
+            gen.writeStartArray();
+
+            for (Object id : ids) {
+                gen.writeString(String.valueOf(id));
+            }
+
+            gen.writeEndArray();
+        } else if (source == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(String.valueOf(source));
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.betterreads.configurations;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * <p>
+ * Configuration for the periodic jobs, such as the author stats refresh. Each
+ * job is switched on by its own property.
+ * </p>
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,84 @@
+package com.betterreads.configurations;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+/**
+ * <p>
+ * Runs Tomcat request handling and Spring MVC's async work, such as the
+ * streamed exports, on one virtual thread per task instead of the bounded
+ * worker pool. The repository and template calls made while handling a
+ * request block only their virtual thread, so concurrency is no longer capped
+ * by server.tomcat.threads.max; the Mongo connection pool becomes the limit
+ * instead and is sized by betterreads.threads.mongo-pool-size.
+ * </p>
+ * <p>
+ * Needs Java 21 at runtime, e.g. a build with the java21 Maven profile.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "betterreads.threads.virtual", havingValue = "true")
+public class VirtualThreadConfig {
+
+    /**
+     * <p>
+     * The executor for MVC async requests and @Async methods, which Tomcat's
+     * request handling shares
+     * </p>
+     */
+    @Bean(name = { TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, "taskExecutor" })
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * <p>
+     * Hands Tomcat's connectors the virtual thread executor
+     * </p>
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandler(AsyncTaskExecutor applicationTaskExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(applicationTaskExecutor);
+    }
+
+    /**
+     * <p>
+     * Sizes the Mongo connection pool for the number of requests that may now
+     * wait on it at once
+     * </p>
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer virtualThreadConnectionPool(
+            @Value("${betterreads.threads.mongo-pool-size:100}") int size) {
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool.maxSize(size));
+    }
+
+    /**
+     * <p>
+     * Creates an executor that starts a virtual thread per task. The default
+     * build targets Java 17, where the factory method does not exist, so it is
+     * looked up at runtime.
+     * </p>
+     *
+     * @return the executor
+     * @throws IllegalStateException when the JVM has no virtual threads
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("betterreads.threads.virtual needs Java 21 or later, running on "
+                    + Runtime.version(), ex);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.betterreads.controllers;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.betterreads.models.AuthorStats;
+import com.betterreads.services.AuthorStatsService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+
+/**
+ * API for author statistics, aggregated from the books in Mongo
+ */
+@RestController
+@Profile("!reactive")
+@RequestMapping("/v1")
+public class AuthorStatsController extends BaseController {
+
+    @Autowired
+    private AuthorStatsService authorStatsService;
+
+    /**
+     * <p>
+     * Gets an author's book count, page totals, genre distribution and first and
+     * last publication dates
+     * </p>
+     * 
+     * @param id the author's id
+     * @return the author's statistics, or 404 Not Found for an unknown author
+     */
+    @Operation(summary = "Gets the statistics of an author's books")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Computed the statistics", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = AuthorStats.class)) }),
+            @ApiResponse(responseCode = "404", description = "Author not found", content = @Content)
+    })
+    @GetMapping(path = "/authors/{id}/stats")
+    public ResponseEntity<EntityModel<AuthorStats>> getById(@PathVariable("id") String id) {
+        EntityModel<AuthorStats> stats = authorStatsService.getById(id);
+
+        return stats == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(stats);
+    }
+
+    /**
+     * <p>
+     * Gets the statistics of several authors at once
+     * </p>
+     * 
+     * @param ids the authors' ids
+     * @return the statistics of the authors that have books
+     */
+    @Operation(summary = "Gets the statistics of several authors' books")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Computed the statistics", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = AuthorStats.class)) }),
+            @ApiResponse(responseCode = "400", description = "No ids or too many ids", content = @Content)
+    })
+    @GetMapping(path = "/authors/stats")
+    public CollectionModel<EntityModel<?>> getAll(@RequestParam(name = "ids") List<String> ids) {
+        return authorStatsService.getAll(ids);
+    }
+
+    /**
+     * <p>
+     * Gets the statistics of the authors with the most books
+     * </p>
+     * 
+     * @param size the number of authors
+     * @return the statistics, most books first
+     */
+    @Operation(summary = "Gets the statistics of the authors with the most books")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found the statistics", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = AuthorStats.class)) })
+    })
+    @GetMapping(path = "/authors/stats/top")
+    public CollectionModel<EntityModel<?>> getTop(
+            @RequestParam(name = "size", required = false, defaultValue = "${betterreads.pagination.default-size:20}") Integer size) {
+        return authorStatsService.getTop(size);
+    }
+}
@@ -1,23 +1,39 @@
 package com.betterreads.controllers;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.betterreads.models.Author;
+import com.betterreads.models.BatchResult;
+import com.betterreads.models.DeleteResult;
+import com.betterreads.models.SearchRequest;
+import com.betterreads.queries.MergePatchCompiler;
 import com.betterreads.services.IService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -33,29 +49,57 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
  * API for handling authors
  */
 @RestController
+@Profile("!reactive")
 @RequestMapping("/v1")
 public class AuthorsController extends BaseController {
 
     @Autowired
     private IService authorsService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
      * <p>
-     * Gets authors from the data store
+     * Gets one page of authors from the data store
      * </p>
      * 
-     * @return all authors
+     * @param after  the id to read after
+     * @param before the id to read before
+     * @param size   the page size
+     * @param fields the comma-separated fields to return, all when absent
+     * @return one page of authors
      */
-    @Operation(summary = "Gets all authors from the data store")
+    @Operation(summary = "Gets a page of authors from the data store")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Found authors", content = {
                     @Content(mediaType = "application/json", schema = @Schema(implementation = Author.class)) })
     })
     @GetMapping(path = "/authors")
-    public CollectionModel<EntityModel<?>> getAll() {
-        List<EntityModel<?>> authors = authorsService.getAll();
+    public CollectionModel<EntityModel<?>> getAll(@RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "before", required = false) String before,
+            @RequestParam(name = "size", required = false, defaultValue = "${betterreads.pagination.default-size:20}") Integer size,
+            @RequestParam(name = "fields", required = false) String fields) {
+        return authorsService.getAll(after, before, size, fields);
+    }
+
+    /**
+     * <p>
+     * Streams every author as newline-delimited JSON
+     * </p>
+     * 
+     * @return the streaming response body
+     */
+    @Operation(summary = "Exports all authors from the data store as newline-delimited JSON")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Exported authors", content = {
+                    @Content(mediaType = "application/x-ndjson") })
+    })
+    @GetMapping(path = "/authors/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export() {
+        StreamingResponseBody body = out -> authorsService.export(out);
 
-        return CollectionModel.of(authors, linkTo(methodOn(AuthorsController.class).getAll()).withSelfRel());
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     /**
@@ -63,46 +107,64 @@ public class AuthorsController extends BaseController {
      * Gets authors by id
      * <p>
      * 
-     * @param id id of the author to retrieve
-     * @return the author
+     * @param id          id of the author to retrieve
+     * @param fields      the comma-separated fields to return, all when absent
+     * @param ifNoneMatch the entity tag of the copy the client holds, if any
+     * @return the author, or 304 Not Modified when the client's copy is current
      */
     @Operation(summary = "Gets an author from the data store by its id")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Found the author", content = {
                     @Content(mediaType = "application/json", schema = @Schema(implementation = Author.class)) }),
+            @ApiResponse(responseCode = "304", description = "The client holds the current version", content = {
+                    @Content }),
             @ApiResponse(responseCode = "404", description = "No author found for the id", content = {
                     @Content
             })
     })
     @GetMapping(path = "/authors/{id}")
-    public ResponseEntity<?> getById(@PathVariable("id") String id) {
-        EntityModel<?> entity = authorsService.getById(id);
+    public ResponseEntity<?> getById(@PathVariable("id") String id,
+            @RequestParam(name = "fields", required = false) String fields,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        EntityModel<?> entity = authorsService.getById(id, fields);
 
         if (entity == null) {
             return ResponseEntity.notFound().build();
         }
 
-        return ResponseEntity.ok(entity);
+        // a projection is another representation, so only whole authors are tagged
+        return fields == null ? conditional(entity, ifNoneMatch) : ResponseEntity.ok(entity);
     }
 
     /**
      * <p>
-     * Searches for all authors based on the provided criteria
+     * Searches for authors matching a set of typed filters, or explains how the
+     * search would be served when the request asks for it
      * </p>
      * 
      * @param request the search request parameters
-     * @return all authors that match the search criteria
+     * @param fields  the comma-separated fields to return, all when absent
+     * @return all authors that match the search criteria, or the query plan
      */
     @Operation(summary = "Searches for authors based on a set of criteria")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Found results", content = {
-                    @Content(mediaType = "application/json", schema = @Schema(implementation = Author.class)) })
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = Author.class)) }),
+            @ApiResponse(responseCode = "400", description = "The request names an unknown field or an invalid value", content = {
+                    @Content })
     })
     @PostMapping(path = "/authors/search")
-    public CollectionModel<EntityModel<?>> search(@RequestBody Author request) {
-        List<EntityModel<?>> authors = authorsService.search(request);
+    public ResponseEntity<?> search(@RequestBody SearchRequest request,
+            @RequestParam(name = "fields", required = false) String fields) {
+        if (request.isExplain()) {
+            return ResponseEntity.ok(authorsService.explain(request));
+        }
+
+        List<EntityModel<?>> authors = authorsService.search(request, fields);
 
-        return CollectionModel.of(authors, linkTo(methodOn(AuthorsController.class).search(request)).withSelfRel());
+        return ResponseEntity.ok(
+                CollectionModel.of(authors,
+                        linkTo(methodOn(AuthorsController.class).search(request, fields)).withSelfRel().expand()));
     }
 
     /**
@@ -122,7 +184,32 @@ public class AuthorsController extends BaseController {
     public ResponseEntity<?> add(@Valid @RequestBody Author author) {
         EntityModel<?> entity = authorsService.add(author);
 
-        return ResponseEntity.created(entity.getRequiredLink(IanaLinkRelations.SELF).toUri()).body(entity);
+        return tagged(ResponseEntity.created(entity.getRequiredLink(IanaLinkRelations.SELF).toUri()), entity)
+            .body(entity);
+    }
+
+    /**
+     * <p>
+     * Saves a batch of authors in the repository
+     * </p>
+     * 
+     * @param body a JSON array or newline-delimited JSON of authors
+     * @return one result per author, in request order
+     * @throws IOException if the body cannot be read
+     */
+    @Operation(summary = "Adds or replaces a batch of authors in the data store")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Wrote the batch", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = BatchResult.class)) }),
+            @ApiResponse(responseCode = "400", description = "The body could not be parsed", content = {
+                    @Content })
+    })
+    @PostMapping(path = "/authors/batch", consumes = { MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_NDJSON_VALUE })
+    public ResponseEntity<List<BatchResult>> addAll(InputStream body) throws IOException {
+        try (MappingIterator<Author> authors = objectMapper.readerFor(Author.class).readValues(body)) {
+            return ResponseEntity.ok(authorsService.addAll(authors));
+        }
     }
 
     /**
@@ -130,20 +217,53 @@ public class AuthorsController extends BaseController {
      * Updates an author in the repository by the provided id
      * </p>
      * 
-     * @param id     the id of the author
-     * @param author the author to update
+     * @param id      the id of the author
+     * @param author  the author to update
+     * @param ifMatch the entity tag of the version the client read, if any
      * @return the updated author
      */
     @Operation(summary = "Updates an author in the data store by its id")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Updated the author", content = {
-                    @Content(mediaType = "application/json", schema = @Schema(implementation = Author.class)) })
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = Author.class)) }),
+            @ApiResponse(responseCode = "412", description = "The author changed since the If-Match version", content = {
+                    @Content })
     })
     @PutMapping(path = "/authors/{id}")
-    public ResponseEntity<?> update(@PathVariable("id") String id, @Valid @RequestBody Author author) {
-        EntityModel<?> entity = authorsService.update(id, author);
+    public ResponseEntity<?> update(@PathVariable("id") String id, @Valid @RequestBody Author author,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        EntityModel<?> entity = authorsService.update(id, author, versions(ifMatch));
+
+        return tagged(ResponseEntity.created(entity.getRequiredLink(IanaLinkRelations.SELF).toUri()), entity)
+            .body(entity);
+    }
+
+    /**
+     * <p>
+     * Changes only the fields of an author named in a JSON Merge Patch; a null
+     * member removes the field
+     * </p>
+     * 
+     * @param id      the id of the author
+     * @param patch   the merge patch
+     * @param ifMatch the entity tag of the version the client read, if any
+     * @return the patched author
+     */
+    @Operation(summary = "Changes some fields of an author in the data store by its id")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Patched the author", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = Author.class)) }),
+            @ApiResponse(responseCode = "400", description = "The patch names an unknown field or an invalid value", content = {
+                    @Content }),
+            @ApiResponse(responseCode = "412", description = "The author changed since the If-Match version", content = {
+                    @Content })
+    })
+    @PatchMapping(path = "/authors/{id}", consumes = { MergePatchCompiler.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<?> patch(@PathVariable("id") String id, @RequestBody JsonNode patch,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        EntityModel<?> entity = authorsService.patch(id, patch, versions(ifMatch));
 
-        return ResponseEntity.created(entity.getRequiredLink(IanaLinkRelations.SELF).toUri()).body(entity);
+        return tagged(ResponseEntity.ok(), entity).body(entity);
     }
 
     /**
@@ -165,6 +285,44 @@ public class AuthorsController extends BaseController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * <p>
+     * Deletes authors by id, in chunks for long lists
+     * </p>
+     * 
+     * @param ids the ids of the authors to delete
+     * @return the number of authors deleted
+     */
+    @Operation(summary = "Deletes authors from the data store by their ids")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Deleted the authors", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = DeleteResult.class)) })
+    })
+    @DeleteMapping(path = "/authors", params = "ids")
+    public DeleteResult delete(@RequestParam(name = "ids") List<String> ids) {
+        return new DeleteResult(authorsService.delete(ids));
+    }
+
+    /**
+     * <p>
+     * Deletes the authors matching a set of typed filters
+     * </p>
+     * 
+     * @param request the search request parameters
+     * @return the number of authors deleted
+     */
+    @Operation(summary = "Deletes the authors matching a set of criteria")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Deleted the matching authors", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = DeleteResult.class)) }),
+            @ApiResponse(responseCode = "400", description = "The request has no filters, or names an unknown field or an invalid value", content = {
+                    @Content })
+    })
+    @PostMapping(path = "/authors/delete")
+    public DeleteResult deleteMatching(@RequestBody SearchRequest request) {
+        return new DeleteResult(authorsService.deleteMatching(request));
+    }
+
     /**
      * <p>
      * Deletes all authors in the repository
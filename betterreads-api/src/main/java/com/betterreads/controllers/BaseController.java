@@ -1,20 +1,35 @@
 package com.betterreads.controllers;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.hateoas.EntityModel;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+import com.betterreads.exceptions.InvalidRequestException;
+import com.betterreads.models.Versioned;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+
 /**
  * <p>
  * Abstract base controller to handle common logic
  * </p>
  */
 public abstract class BaseController {
+
+    private static final int MAX_VERSION_DIGITS = String.valueOf(Long.MAX_VALUE).length() - 1;
+
     /**
      * <p>
      * Handles validation exceptions and returns them to the user
@@ -36,4 +51,171 @@ public abstract class BaseController {
 
         return errors;
     }
+
+    /**
+     * <p>
+     * Handles request bodies that are read by the controller and cannot be parsed
+     * </p>
+     * 
+     * @param ex the thrown exception
+     * @return Map of the body and its parse error
+     */
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler({ JsonProcessingException.class, RuntimeJsonMappingException.class })
+    public Map<String, String> handleUnreadableBody(Exception ex) {
+        Map<String, String> errors = new HashMap<>();
+
+        errors.put("body", ex.getMessage());
+
+        return errors;
+    }
+
+    /**
+     * <p>
+     * Handles requests that parse but cannot be executed, e.g. a search on an
+     * unknown field
+     * </p>
+     * 
+     * @param ex the thrown exception
+     * @return Map of the offending field and its error message
+     */
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(InvalidRequestException.class)
+    public Map<String, String> handleInvalidRequest(InvalidRequestException ex) {
+        Map<String, String> errors = new HashMap<>();
+
+        errors.put(ex.getField(), ex.getMessage());
+
+        return errors;
+    }
+
+    /**
+     * <p>
+     * Handles writes whose expected version is no longer the stored one
+     * </p>
+     * 
+     * @param ex the thrown exception
+     * @return Map of the version and its error message
+     */
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public Map<String, String> handleStaleVersion(OptimisticLockingFailureException ex) {
+        Map<String, String> errors = new HashMap<>();
+
+        errors.put("version", "The document was changed since it was read");
+
+        return errors;
+    }
+
+    /**
+     * <p>
+     * Gets the entity tag of a document, its quoted version
+     * </p>
+     * 
+     * @param entity the document
+     * @return the entity tag, or null when the document has no version
+     */
+    protected static String eTag(EntityModel<?> entity) {
+        if (entity.getContent() instanceof Versioned document && document.getVersion() != null) {
+            return "\"" + document.getVersion() + "\"";
+        }
+
+        return null;
+    }
+
+    /**
+     * <p>
+     * Answers a read with 304 Not Modified when the client already holds the
+     * current version, and with the document and its entity tag otherwise
+     * </p>
+     * 
+     * @param entity      the document
+     * @param ifNoneMatch the If-None-Match header, may be null
+     * @return the response
+     */
+    protected static ResponseEntity<?> conditional(EntityModel<?> entity, String ifNoneMatch) {
+        String eTag = eTag(entity);
+
+        // If-None-Match compares weakly, so W/"3" matches "3"
+        boolean matched = eTag != null && ifNoneMatch != null && Arrays.stream(ifNoneMatch.split(","))
+                .map(tag -> StringUtils.removeStart(tag.trim(), "W/"))
+                .anyMatch(tag -> tag.equals("*") || tag.equals(eTag));
+
+        if (matched) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+
+        return tagged(ResponseEntity.ok(), entity).body(entity);
+    }
+
+    /**
+     * <p>
+     * Adds the entity tag of a document to a response, when it has one
+     * </p>
+     * 
+     * @param <B>     the builder type
+     * @param builder the response builder
+     * @param entity  the document
+     * @return the builder
+     */
+    protected static <B extends ResponseEntity.HeadersBuilder<B>> B tagged(B builder, EntityModel<?> entity) {
+        String eTag = eTag(entity);
+
+        return eTag == null ? builder : builder.eTag(eTag);
+    }
+
+    /**
+     * <p>
+     * Reads the versions a write expects from its If-Match header, a list of
+     * entity tags. If-Match compares strongly, so a weak tag never matches, and
+     * neither does a tag this API never sends.
+     * </p>
+     * 
+     * @param ifMatch the If-Match header, may be null
+     * @return the versions, any of which may be current, or null when the write
+     *         is unconditional
+     * @throws InvalidRequestException           if the header is not a list of
+     *                                           entity tags
+     * @throws OptimisticLockingFailureException if none of the tags can match
+     */
+    protected static List<Long> versions(String ifMatch) {
+        if (StringUtils.isBlank(ifMatch) || ifMatch.trim().equals("*")) {
+            return null;
+        }
+
+        List<Long> versions = new ArrayList<>();
+        int start = 0;
+
+        while (start < ifMatch.length()) {
+            char next = ifMatch.charAt(start);
+
+            if (next == ',' || Character.isWhitespace(next)) {
+                start++;
+                continue;
+            }
+
+            boolean weak = ifMatch.startsWith("W/", start);
+            int open = weak ? start + 2 : start;
+            // an entity tag is quoted and may itself hold commas
+            int close = open < ifMatch.length() && ifMatch.charAt(open) == '"' ? ifMatch.indexOf('"', open + 1) : -1;
+
+            if (close < 0) {
+                throw new InvalidRequestException("If-Match", "Malformed entity tag " + ifMatch);
+            }
+
+            String tag = ifMatch.substring(open + 1, close);
+
+            if (!weak && StringUtils.isNumeric(tag) && tag.length() <= MAX_VERSION_DIGITS) {
+                versions.add(Long.valueOf(tag));
+            }
+
+            start = close + 1;
+        }
+
+        if (versions.isEmpty()) {
+            throw new OptimisticLockingFailureException("No entity tag of " + ifMatch + " can match");
+        }
+
+        return versions;
+    }
 }
@@ -0,0 +1,69 @@
+package com.betterreads.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.betterreads.models.BookFacets;
+import com.betterreads.models.SearchRequest;
+import com.betterreads.services.BookFacetsService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+
+/**
+ * API for browsing the catalog by facet counts
+ */
+@RestController
+@Profile("!reactive")
+@RequestMapping("/v1")
+public class BookFacetsController extends BaseController {
+
+    @Autowired
+    private BookFacetsService bookFacetsService;
+
+    /**
+     * <p>
+     * Counts all books by genre, language, publisher and decade
+     * </p>
+     * 
+     * @return the total and the facet counts
+     */
+    @Operation(summary = "Counts all books by genre, language, publisher and decade")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Counted the books", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = BookFacets.class)) })
+    })
+    @GetMapping(path = "/books/facets")
+    public BookFacets getFacets() {
+        return bookFacetsService.getFacets(new SearchRequest());
+    }
+
+    /**
+     * <p>
+     * Counts the books matching a search by genre, language, publisher and
+     * decade. The filters are the same as for /books/search.
+     * </p>
+     * 
+     * @param request the search request parameters
+     * @return the total and the facet counts of the matching books
+     */
+    @Operation(summary = "Counts the books matching a search by genre, language, publisher and decade")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Counted the books", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = BookFacets.class)) }),
+            @ApiResponse(responseCode = "400", description = "The request names an unknown field or an invalid value", content = {
+                    @Content })
+    })
+    @PostMapping(path = "/books/facets")
+    public BookFacets search(@RequestBody SearchRequest request) {
+        return bookFacetsService.getFacets(request);
+    }
+}
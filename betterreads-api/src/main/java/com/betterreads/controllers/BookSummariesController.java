@@ -0,0 +1,130 @@
+package com.betterreads.controllers;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.betterreads.models.BookSummary;
+import com.betterreads.models.SearchRequest;
+import com.betterreads.services.BookSummariesService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+/**
+ * API for book list views, served from the denormalized book summaries, both
+ * under /summaries and as the summary view of /books and /books/search
+ */
+@RestController
+@Profile("!reactive")
+@RequestMapping("/v1")
+public class BookSummariesController extends BaseController {
+
+    /**
+     * The value of the view parameter that serves /books and /books/search from
+     * the book summaries
+     */
+    public static final String SUMMARY_VIEW = "summary";
+
+    @Autowired
+    private BookSummariesService bookSummariesService;
+
+    /**
+     * <p>
+     * Gets one page of book summaries, each with its author names and publisher
+     * name
+     * </p>
+     * 
+     * @param after     the id to read after
+     * @param before    the id to read before
+     * @param size      the page size
+     * @param genre     only books of this genre
+     * @param author    only books by the author with this formatted name
+     * @param publisher only books from the publisher with this name
+     * @return one page of book summaries
+     */
+    @Operation(summary = "Lists books with their author and publisher names from a single collection")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found book summaries", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = BookSummary.class)) })
+    })
+    @GetMapping(path = "/summaries")
+    public CollectionModel<EntityModel<?>> getAll(@RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "before", required = false) String before,
+            @RequestParam(name = "size", required = false, defaultValue = "${betterreads.pagination.default-size:20}") Integer size,
+            @RequestParam(name = "genre", required = false) String genre,
+            @RequestParam(name = "author", required = false) String author,
+            @RequestParam(name = "publisher", required = false) String publisher) {
+        return bookSummariesService.getAll(after, before, size, genre, author, publisher);
+    }
+
+    /**
+     * <p>
+     * Gets one page of books as summaries, in the same order and with the same
+     * cursor as the full book list. Served instead of BooksController when the
+     * request asks for view=summary.
+     * </p>
+     * 
+     * @param after  the id to read after
+     * @param before the id to read before
+     * @param size   the page size
+     * @return one page of book summaries
+     */
+    @Operation(summary = "Lists books as summaries with their author and publisher names")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found book summaries", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = BookSummary.class)) })
+    })
+    @GetMapping(path = "/books", params = "view=" + SUMMARY_VIEW)
+    public CollectionModel<EntityModel<?>> getBooks(@RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "before", required = false) String before,
+            @RequestParam(name = "size", required = false, defaultValue = "${betterreads.pagination.default-size:20}") Integer size) {
+        return bookSummariesService.getBooks(after, before, size);
+    }
+
+    /**
+     * <p>
+     * Searches the book summaries, or explains how the search would be served.
+     * Filters and sorts may name id, title, genres, authorNames and
+     * publisherName. Served instead of BooksController when the request asks
+     * for view=summary.
+     * </p>
+     * 
+     * @param request the search request parameters
+     * @return the matching book summaries, or the query plan
+     */
+    @Operation(summary = "Searches the book summaries based on a set of criteria")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found results", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = BookSummary.class)) }),
+            @ApiResponse(responseCode = "400", description = "The request names an unknown field or an invalid value", content = {
+                    @Content })
+    })
+    @PostMapping(path = "/books/search", params = "view=" + SUMMARY_VIEW)
+    public ResponseEntity<?> searchBooks(@RequestBody SearchRequest request) {
+        if (request.isExplain()) {
+            return ResponseEntity.ok(bookSummariesService.explain(request));
+        }
+
+        List<EntityModel<?>> summaries = bookSummariesService.search(request);
+
+        return ResponseEntity.ok(CollectionModel.of(summaries,
+                linkTo(methodOn(BookSummariesController.class).searchBooks(request)).withSelfRel().expand()));
+    }
+}
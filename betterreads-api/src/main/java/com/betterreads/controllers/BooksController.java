@@ -1,23 +1,39 @@
 package com.betterreads.controllers;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.betterreads.models.BatchResult;
 import com.betterreads.models.Book;
+import com.betterreads.models.DeleteResult;
+import com.betterreads.models.SearchRequest;
+import com.betterreads.queries.MergePatchCompiler;
 import com.betterreads.services.IService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -33,30 +49,57 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
  * API for handling books
  */
 @RestController
+@Profile("!reactive")
 @RequestMapping("/v1")
 public class BooksController extends BaseController {
 
     @Autowired
     private IService booksService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
      * <p>
-     * Gets books from the data store
+     * Gets one page of books from the data store
      * </p>
      * 
-     * @return all books
+     * @param after  the id to read after
+     * @param before the id to read before
+     * @param size   the page size
+     * @param fields the comma-separated fields to return, all when absent
+     * @return one page of books
      */
-    @Operation(summary = "Gets all books from the data store")
+    @Operation(summary = "Gets a page of books from the data store")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Found books", content = {
                     @Content(mediaType = "application/json", schema = @Schema(implementation = Book.class)) })
     })
     @GetMapping(path = "/books")
-    public CollectionModel<EntityModel<?>> getAll() {
+    public CollectionModel<EntityModel<?>> getAll(@RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "before", required = false) String before,
+            @RequestParam(name = "size", required = false, defaultValue = "${betterreads.pagination.default-size:20}") Integer size,
+            @RequestParam(name = "fields", required = false) String fields) {
+        return booksService.getAll(after, before, size, fields);
+    }
 
-        List<EntityModel<?>> books = booksService.getAll();
+    /**
+     * <p>
+     * Streams every book as newline-delimited JSON
+     * </p>
+     * 
+     * @return the streaming response body
+     */
+    @Operation(summary = "Exports all books from the data store as newline-delimited JSON")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Exported books", content = {
+                    @Content(mediaType = "application/x-ndjson") })
+    })
+    @GetMapping(path = "/books/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export() {
+        StreamingResponseBody body = out -> booksService.export(out);
 
-        return CollectionModel.of(books, linkTo(methodOn(BooksController.class).getAll()).withSelfRel());
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     /**
@@ -64,46 +107,64 @@ public class BooksController extends BaseController {
      * Gets books by id
      * <p>
      * 
-     * @param id id of the book to retrieve
-     * @return the book
+     * @param id          id of the book to retrieve
+     * @param fields      the comma-separated fields to return, all when absent
+     * @param ifNoneMatch the entity tag of the copy the client holds, if any
+     * @return the book, or 304 Not Modified when the client's copy is current
      */
     @Operation(summary = "Gets a book from the data store by its id")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Found the book", content = {
                     @Content(mediaType = "application/json", schema = @Schema(implementation = Book.class)) }),
+            @ApiResponse(responseCode = "304", description = "The client holds the current version", content = {
+                    @Content }),
             @ApiResponse(responseCode = "404", description = "No book found for the id", content = {
                     @Content
             })
     })
     @GetMapping(path = "/books/{id}")
-    public ResponseEntity<?> getById(@PathVariable("id") String id) {
-        EntityModel<?> entity = booksService.getById(id);
+    public ResponseEntity<?> getById(@PathVariable("id") String id,
+            @RequestParam(name = "fields", required = false) String fields,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        EntityModel<?> entity = booksService.getById(id, fields);
 
         if (entity == null) {
             return ResponseEntity.notFound().build();
         }
 
-        return ResponseEntity.ok(entity);
+        // a projection is another representation, so only whole books are tagged
+        return fields == null ? conditional(entity, ifNoneMatch) : ResponseEntity.ok(entity);
     }
 
     /**
      * <p>
-     * Searches for all books based on the provided criteria
+     * Searches for books matching a set of typed filters, or explains how the
+     * search would be served when the request asks for it
      * </p>
      * 
      * @param request the search request parameters
-     * @return all books that match the search criteria
+     * @param fields  the comma-separated fields to return, all when absent
+     * @return all books that match the search criteria, or the query plan
      */
     @Operation(summary = "Searches for books based on a set of criteria")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Found results", content = {
-                    @Content(mediaType = "application/json", schema = @Schema(implementation = Book.class)) })
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = Book.class)) }),
+            @ApiResponse(responseCode = "400", description = "The request names an unknown field or an invalid value", content = {
+                    @Content })
     })
     @PostMapping(path = "/books/search")
-    public CollectionModel<EntityModel<?>> search(@RequestBody Book request) {
-        List<EntityModel<?>> books = booksService.search(request);
+    public ResponseEntity<?> search(@RequestBody SearchRequest request,
+            @RequestParam(name = "fields", required = false) String fields) {
+        if (request.isExplain()) {
+            return ResponseEntity.ok(booksService.explain(request));
+        }
 
-        return CollectionModel.of(books, linkTo(methodOn(BooksController.class).search(request)).withSelfRel());
+        List<EntityModel<?>> books = booksService.search(request, fields);
+
+        return ResponseEntity.ok(
+                CollectionModel.of(books,
+                        linkTo(methodOn(BooksController.class).search(request, fields)).withSelfRel().expand()));
     }
 
     /**
@@ -123,7 +184,32 @@ public class BooksController extends BaseController {
     public ResponseEntity<?> add(@Valid @RequestBody Book book) {
         EntityModel<?> entity = booksService.add(book);
 
-        return ResponseEntity.created(entity.getRequiredLink(IanaLinkRelations.SELF).toUri()).body(entity);
+        return tagged(ResponseEntity.created(entity.getRequiredLink(IanaLinkRelations.SELF).toUri()), entity)
+            .body(entity);
+    }
+
+    /**
+     * <p>
+     * Saves a batch of books in the repository
+     * </p>
+     * 
+     * @param body a JSON array or newline-delimited JSON of books
+     * @return one result per book, in request order
+     * @throws IOException if the body cannot be read
+     */
+    @Operation(summary = "Adds or replaces a batch of books in the data store")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Wrote the batch", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = BatchResult.class)) }),
+            @ApiResponse(responseCode = "400", description = "The body could not be parsed", content = {
+                    @Content })
+    })
+    @PostMapping(path = "/books/batch", consumes = { MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_NDJSON_VALUE })
+    public ResponseEntity<List<BatchResult>> addAll(InputStream body) throws IOException {
+        try (MappingIterator<Book> books = objectMapper.readerFor(Book.class).readValues(body)) {
+            return ResponseEntity.ok(booksService.addAll(books));
+        }
     }
 
     /**
@@ -131,20 +217,53 @@ public class BooksController extends BaseController {
      * Updates a book in the repository by the provided id
      * </p>
      * 
-     * @param id   the id of the book
-     * @param book the book to update
+     * @param id      the id of the book
+     * @param book    the book to update
+     * @param ifMatch the entity tag of the version the client read, if any
      * @return the updated book
      */
     @Operation(summary = "Updates a book in the data store by its id")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Updated the book", content = {
-                    @Content(mediaType = "application/json", schema = @Schema(implementation = Book.class)) })
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = Book.class)) }),
+            @ApiResponse(responseCode = "412", description = "The book changed since the If-Match version", content = {
+                    @Content })
     })
     @PutMapping(path = "/books/{id}")
-    public ResponseEntity<?> update(@PathVariable("id") String id, @Valid @RequestBody Book book) {
-        EntityModel<?> entity = booksService.update(id, book);
+    public ResponseEntity<?> update(@PathVariable("id") String id, @Valid @RequestBody Book book,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        EntityModel<?> entity = booksService.update(id, book, versions(ifMatch));
 
-        return ResponseEntity.created(entity.getRequiredLink(IanaLinkRelations.SELF).toUri()).body(entity);
+        return tagged(ResponseEntity.created(entity.getRequiredLink(IanaLinkRelations.SELF).toUri()), entity)
+            .body(entity);
+    }
+
+    /**
+     * <p>
+     * Changes only the fields of a book named in a JSON Merge Patch; a null
+     * member removes the field
+     * </p>
+     * 
+     * @param id      the id of the book
+     * @param patch   the merge patch
+     * @param ifMatch the entity tag of the version the client read, if any
+     * @return the patched book
+     */
+    @Operation(summary = "Changes some fields of a book in the data store by its id")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Patched the book", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = Book.class)) }),
+            @ApiResponse(responseCode = "400", description = "The patch names an unknown field or an invalid value", content = {
+                    @Content }),
+            @ApiResponse(responseCode = "412", description = "The book changed since the If-Match version", content = {
+                    @Content })
+    })
+    @PatchMapping(path = "/books/{id}", consumes = { MergePatchCompiler.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<?> patch(@PathVariable("id") String id, @RequestBody JsonNode patch,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        EntityModel<?> entity = booksService.patch(id, patch, versions(ifMatch));
+
+        return tagged(ResponseEntity.ok(), entity).body(entity);
     }
 
     /**
@@ -166,6 +285,44 @@ public class BooksController extends BaseController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * <p>
+     * Deletes books by id, in chunks for long lists
+     * </p>
+     * 
+     * @param ids the ids of the books to delete
+     * @return the number of books deleted
+     */
+    @Operation(summary = "Deletes books from the data store by their ids")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Deleted the books", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = DeleteResult.class)) })
+    })
+    @DeleteMapping(path = "/books", params = "ids")
+    public DeleteResult delete(@RequestParam(name = "ids") List<String> ids) {
+        return new DeleteResult(booksService.delete(ids));
+    }
+
+    /**
+     * <p>
+     * Deletes the books matching a set of typed filters
+     * </p>
+     * 
+     * @param request the search request parameters
+     * @return the number of books deleted
+     */
+    @Operation(summary = "Deletes the books matching a set of criteria")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Deleted the matching books", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = DeleteResult.class)) }),
+            @ApiResponse(responseCode = "400", description = "The request has no filters, or names an unknown field or an invalid value", content = {
+                    @Content })
+    })
+    @PostMapping(path = "/books/delete")
+    public DeleteResult deleteMatching(@RequestBody SearchRequest request) {
+        return new DeleteResult(booksService.deleteMatching(request));
+    }
+
     /**
      * <p>
      * Deletes all books in the repository
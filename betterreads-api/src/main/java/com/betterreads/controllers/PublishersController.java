@@ -1,23 +1,39 @@
 package com.betterreads.controllers;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.betterreads.models.BatchResult;
+import com.betterreads.models.DeleteResult;
 import com.betterreads.models.Publisher;
+import com.betterreads.models.SearchRequest;
+import com.betterreads.queries.MergePatchCompiler;
 import com.betterreads.services.IService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -33,31 +49,57 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
  * API for handling publishers
  */
 @RestController
+@Profile("!reactive")
 @RequestMapping("/v1")
 public class PublishersController extends BaseController {
 
         @Autowired
         private IService publishersService;
 
+        @Autowired
+        private ObjectMapper objectMapper;
+
         /**
          * <p>
-         * Gets publishers from the data store
+         * Gets one page of publishers from the data store
          * </p>
          * 
-         * @return all publishers
+         * @param after  the id to read after
+         * @param before the id to read before
+         * @param size   the page size
+         * @param fields the comma-separated fields to return, all when absent
+         * @return one page of publishers
          */
-        @Operation(summary = "Gets all publishers from the data store")
+        @Operation(summary = "Gets a page of publishers from the data store")
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "200", description = "Found publishers", content = {
                                         @Content(mediaType = "application/json", schema = @Schema(implementation = Publisher.class)) })
         })
         @GetMapping(path = "/publishers")
-        public CollectionModel<EntityModel<?>> getAll() {
+        public CollectionModel<EntityModel<?>> getAll(@RequestParam(name = "after", required = false) String after,
+                        @RequestParam(name = "before", required = false) String before,
+                        @RequestParam(name = "size", required = false, defaultValue = "${betterreads.pagination.default-size:20}") Integer size,
+                        @RequestParam(name = "fields", required = false) String fields) {
+                return publishersService.getAll(after, before, size, fields);
+        }
 
-                List<EntityModel<?>> publishers = publishersService.getAll();
+        /**
+         * <p>
+         * Streams every publisher as newline-delimited JSON
+         * </p>
+         * 
+         * @return the streaming response body
+         */
+        @Operation(summary = "Exports all publishers from the data store as newline-delimited JSON")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Exported publishers", content = {
+                                        @Content(mediaType = "application/x-ndjson") })
+        })
+        @GetMapping(path = "/publishers/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+        public ResponseEntity<StreamingResponseBody> export() {
+                StreamingResponseBody body = out -> publishersService.export(out);
 
-                return CollectionModel.of(publishers,
-                                linkTo(methodOn(PublishersController.class).getAll()).withSelfRel());
+                return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
         }
 
         /**
@@ -65,47 +107,64 @@ public class PublishersController extends BaseController {
          * Gets publishers by id
          * <p>
          * 
-         * @param id id of the publisher to retrieve
-         * @return the publisher
+         * @param id          id of the publisher to retrieve
+         * @param fields      the comma-separated fields to return, all when absent
+         * @param ifNoneMatch the entity tag of the copy the client holds, if any
+         * @return the publisher, or 304 Not Modified when the client's copy is current
          */
         @Operation(summary = "Gets a publisher from the data store by its id")
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "200", description = "Found the publisher", content = {
                                         @Content(mediaType = "application/json", schema = @Schema(implementation = Publisher.class)) }),
+                        @ApiResponse(responseCode = "304", description = "The client holds the current version", content = {
+                                        @Content }),
                         @ApiResponse(responseCode = "404", description = "No publisher found for the id", content = {
                                         @Content
                         })
         })
         @GetMapping(path = "/publishers/{id}")
-        public ResponseEntity<?> getById(@PathVariable("id") String id) {
-                EntityModel<?> entity = publishersService.getById(id);
+        public ResponseEntity<?> getById(@PathVariable("id") String id,
+                        @RequestParam(name = "fields", required = false) String fields,
+                        @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+                EntityModel<?> entity = publishersService.getById(id, fields);
 
                 if (entity == null) {
                         return ResponseEntity.notFound().build();
                 }
 
-                return ResponseEntity.ok(entity);
+                // a projection is another representation, so only whole publishers are tagged
+                return fields == null ? conditional(entity, ifNoneMatch) : ResponseEntity.ok(entity);
         }
 
         /**
          * <p>
-         * Searches for all publishers based on the provided criteria
+         * Searches for publishers matching a set of typed filters, or explains how the
+         * search would be served when the request asks for it
          * </p>
          * 
          * @param request the search request parameters
-         * @return all publishers that match the search criteria
+         * @param fields  the comma-separated fields to return, all when absent
+         * @return all publishers that match the search criteria, or the query plan
          */
         @Operation(summary = "Searches for publishers based on a set of criteria")
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "200", description = "Found results", content = {
-                                        @Content(mediaType = "application/json", schema = @Schema(implementation = Publisher.class)) })
+                                        @Content(mediaType = "application/json", schema = @Schema(implementation = Publisher.class)) }),
+                        @ApiResponse(responseCode = "400", description = "The request names an unknown field or an invalid value", content = {
+                                        @Content })
         })
         @PostMapping(path = "/publishers/search")
-        public CollectionModel<EntityModel<?>> search(@RequestBody Publisher request) {
-                List<EntityModel<?>> publishers = publishersService.search(request);
+        public ResponseEntity<?> search(@RequestBody SearchRequest request,
+                        @RequestParam(name = "fields", required = false) String fields) {
+                if (request.isExplain()) {
+                        return ResponseEntity.ok(publishersService.explain(request));
+                }
 
-                return CollectionModel.of(publishers,
-                                linkTo(methodOn(PublishersController.class).search(request)).withSelfRel());
+                List<EntityModel<?>> publishers = publishersService.search(request, fields);
+
+                return ResponseEntity.ok(CollectionModel.of(publishers,
+                                linkTo(methodOn(PublishersController.class).search(request, fields)).withSelfRel()
+                                                .expand()));
         }
 
         /**
@@ -125,7 +184,32 @@ public class PublishersController extends BaseController {
         public ResponseEntity<?> add(@Valid @RequestBody Publisher publisher) {
                 EntityModel<?> entity = publishersService.add(publisher);
 
-                return ResponseEntity.created(entity.getRequiredLink(IanaLinkRelations.SELF).toUri()).body(entity);
+                return tagged(ResponseEntity.created(entity.getRequiredLink(IanaLinkRelations.SELF).toUri()), entity)
+                        .body(entity);
+        }
+
+        /**
+         * <p>
+         * Saves a batch of publishers in the repository
+         * </p>
+         * 
+         * @param body a JSON array or newline-delimited JSON of publishers
+         * @return one result per publisher, in request order
+         * @throws IOException if the body cannot be read
+         */
+        @Operation(summary = "Adds or replaces a batch of publishers in the data store")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Wrote the batch", content = {
+                                        @Content(mediaType = "application/json", schema = @Schema(implementation = BatchResult.class)) }),
+                        @ApiResponse(responseCode = "400", description = "The body could not be parsed", content = {
+                                        @Content })
+        })
+        @PostMapping(path = "/publishers/batch", consumes = { MediaType.APPLICATION_JSON_VALUE,
+                        MediaType.APPLICATION_NDJSON_VALUE })
+        public ResponseEntity<List<BatchResult>> addAll(InputStream body) throws IOException {
+                try (MappingIterator<Publisher> publishers = objectMapper.readerFor(Publisher.class).readValues(body)) {
+                        return ResponseEntity.ok(publishersService.addAll(publishers));
+                }
         }
 
         /**
@@ -135,18 +219,51 @@ public class PublishersController extends BaseController {
          * 
          * @param id        the id of the publisher
          * @param publisher the publisher to update
+         * @param ifMatch   the entity tag of the version the client read, if any
          * @return the updated publisher
          */
         @Operation(summary = "Updates a publisher in the data store by its id")
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "201", description = "Updated the publisher", content = {
-                                        @Content(mediaType = "application/json", schema = @Schema(implementation = Publisher.class)) })
+                                        @Content(mediaType = "application/json", schema = @Schema(implementation = Publisher.class)) }),
+                        @ApiResponse(responseCode = "412", description = "The publisher changed since the If-Match version", content = {
+                                        @Content })
         })
         @PutMapping(path = "/publishers/{id}")
-        public ResponseEntity<?> update(@PathVariable("id") String id, @Valid @RequestBody Publisher publisher) {
-                EntityModel<?> entity = publishersService.update(id, publisher);
+        public ResponseEntity<?> update(@PathVariable("id") String id, @Valid @RequestBody Publisher publisher,
+                        @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+                EntityModel<?> entity = publishersService.update(id, publisher, versions(ifMatch));
 
-                return ResponseEntity.created(entity.getRequiredLink(IanaLinkRelations.SELF).toUri()).body(entity);
+                return tagged(ResponseEntity.created(entity.getRequiredLink(IanaLinkRelations.SELF).toUri()), entity)
+                        .body(entity);
+        }
+
+        /**
+         * <p>
+         * Changes only the fields of a publisher named in a JSON Merge Patch; a null
+         * member removes the field
+         * </p>
+         * 
+         * @param id      the id of the publisher
+         * @param patch   the merge patch
+         * @param ifMatch the entity tag of the version the client read, if any
+         * @return the patched publisher
+         */
+        @Operation(summary = "Changes some fields of a publisher in the data store by its id")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Patched the publisher", content = {
+                                        @Content(mediaType = "application/json", schema = @Schema(implementation = Publisher.class)) }),
+                        @ApiResponse(responseCode = "400", description = "The patch names an unknown field or an invalid value", content = {
+                                        @Content }),
+                        @ApiResponse(responseCode = "412", description = "The publisher changed since the If-Match version", content = {
+                                        @Content })
+        })
+        @PatchMapping(path = "/publishers/{id}", consumes = { MergePatchCompiler.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE })
+        public ResponseEntity<?> patch(@PathVariable("id") String id, @RequestBody JsonNode patch,
+                        @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+                EntityModel<?> entity = publishersService.patch(id, patch, versions(ifMatch));
+
+                return tagged(ResponseEntity.ok(), entity).body(entity);
         }
 
         /**
@@ -168,6 +285,44 @@ public class PublishersController extends BaseController {
                 return ResponseEntity.noContent().build();
         }
 
+        /**
+         * <p>
+         * Deletes publishers by id, in chunks for long lists
+         * </p>
+         * 
+         * @param ids the ids of the publishers to delete
+         * @return the number of publishers deleted
+         */
+        @Operation(summary = "Deletes publishers from the data store by their ids")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Deleted the publishers", content = {
+                                        @Content(mediaType = "application/json", schema = @Schema(implementation = DeleteResult.class)) })
+        })
+        @DeleteMapping(path = "/publishers", params = "ids")
+        public DeleteResult delete(@RequestParam(name = "ids") List<String> ids) {
+                return new DeleteResult(publishersService.delete(ids));
+        }
+
+        /**
+         * <p>
+         * Deletes the publishers matching a set of typed filters
+         * </p>
+         * 
+         * @param request the search request parameters
+         * @return the number of publishers deleted
+         */
+        @Operation(summary = "Deletes the publishers matching a set of criteria")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Deleted the matching publishers", content = {
+                                        @Content(mediaType = "application/json", schema = @Schema(implementation = DeleteResult.class)) }),
+                        @ApiResponse(responseCode = "400", description = "The request has no filters, or names an unknown field or an invalid value", content = {
+                                        @Content })
+        })
+        @PostMapping(path = "/publishers/delete")
+        public DeleteResult deleteMatching(@RequestBody SearchRequest request) {
+                return new DeleteResult(publishersService.deleteMatching(request));
+        }
+
         /**
          * <p>
          * Deletes all publishers in the repository
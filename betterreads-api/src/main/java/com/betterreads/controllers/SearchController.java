@@ -0,0 +1,55 @@
+package com.betterreads.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.betterreads.models.BookSummary;
+import com.betterreads.services.TextSearchService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+
+/**
+ * API for full-text search across the catalog
+ */
+@RestController
+@Profile("!reactive")
+@RequestMapping("/v1")
+public class SearchController extends BaseController {
+
+    @Autowired
+    private TextSearchService textSearchService;
+
+    /**
+     * <p>
+     * Searches book titles, author names, genres and publisher names
+     * </p>
+     * 
+     * @param q    the words to search for
+     * @param page the zero-based page number
+     * @param size the page size
+     * @return one page of scored hits, best match first
+     */
+    @Operation(summary = "Searches books by title, author, genre and publisher, ranked by relevance")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found results", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = BookSummary.class)) }),
+            @ApiResponse(responseCode = "400", description = "The search text is missing", content = {
+                    @Content })
+    })
+    @GetMapping(path = "/search")
+    public CollectionModel<EntityModel<?>> search(@RequestParam(name = "q", required = false) String q,
+            @RequestParam(name = "page", required = false, defaultValue = "0") Integer page,
+            @RequestParam(name = "size", required = false, defaultValue = "${betterreads.pagination.default-size:20}") Integer size) {
+        return textSearchService.search(q, page, size);
+    }
+}
@@ -0,0 +1,221 @@
+package com.betterreads.controllers.reactive;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.betterreads.exceptions.ItemNotFoundException;
+import com.betterreads.models.Author;
+import com.betterreads.models.BatchResult;
+import com.betterreads.models.SearchRequest;
+import com.betterreads.queries.MergePatchCompiler;
+import com.betterreads.services.reactive.IReactiveService;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import jakarta.validation.Valid;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.hateoas.server.reactive.WebFluxLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.reactive.WebFluxLinkBuilder.methodOn;
+
+/**
+ * API for handling authors on the reactive runtime, with the same routes and
+ * representations as the Spring MVC AuthorsController
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/v1")
+public class ReactiveAuthorsController extends ReactiveBaseController {
+
+    @Autowired
+    private IReactiveService reactiveAuthorsService;
+
+    /**
+     * <p>
+     * Gets one page of authors from the data store
+     * </p>
+     * 
+     * @param after  the id to read after
+     * @param before the id to read before
+     * @param size   the page size
+     * @param fields the comma-separated fields to return, all when absent
+     * @return one page of authors
+     */
+    @GetMapping(path = "/authors")
+    public Mono<CollectionModel<EntityModel<?>>> getAll(@RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "before", required = false) String before,
+            @RequestParam(name = "size", required = false, defaultValue = "${betterreads.pagination.default-size:20}") Integer size,
+            @RequestParam(name = "fields", required = false) String fields) {
+        return reactiveAuthorsService.getAll(after, before, size, fields);
+    }
+
+    /**
+     * <p>
+     * Streams every author as newline-delimited JSON
+     * </p>
+     * 
+     * @return the streamed authors
+     */
+    @GetMapping(path = "/authors/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<DataBuffer>> export() {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(reactiveAuthorsService.export());
+    }
+
+    /**
+     * <p>
+     * Gets authors by id
+     * <p>
+     * 
+     * @param id          id of the author to retrieve
+     * @param fields      the comma-separated fields to return, all when absent
+     * @param ifNoneMatch the entity tag of the copy the client holds, if any
+     * @return the author, or 304 Not Modified when the client's copy is current
+     */
+    @GetMapping(path = "/authors/{id}")
+    public Mono<ResponseEntity<?>> getById(@PathVariable("id") String id,
+            @RequestParam(name = "fields", required = false) String fields,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return reactiveAuthorsService.getById(id, fields)
+                .<ResponseEntity<?>>map(
+                        entity -> fields == null ? conditional(entity, ifNoneMatch) : ResponseEntity.ok(entity))
+                .onErrorResume(ItemNotFoundException.class, ex -> Mono.just(ResponseEntity.notFound().build()));
+    }
+
+    /**
+     * <p>
+     * Searches for authors matching a set of typed filters, or explains how the
+     * search would be served when the request asks for it
+     * </p>
+     * 
+     * @param request the search request parameters
+     * @param fields  the comma-separated fields to return, all when absent
+     * @return all authors that match the search criteria, or the query plan
+     */
+    @PostMapping(path = "/authors/search")
+    public Mono<ResponseEntity<?>> search(@RequestBody SearchRequest request,
+            @RequestParam(name = "fields", required = false) String fields) {
+        if (request.isExplain()) {
+            return reactiveAuthorsService.explain(request).map(ResponseEntity::ok);
+        }
+
+        return reactiveAuthorsService.search(request, fields).collectList()
+                .zipWith(linkTo(methodOn(ReactiveAuthorsController.class).search(request, fields)).withSelfRel()
+                        .toMono(Link::expand))
+                .map(authors -> ResponseEntity.ok(CollectionModel.of(authors.getT1(), authors.getT2())));
+    }
+
+    /**
+     * <p>
+     * Saves an author in the repository
+     * <p>
+     * 
+     * @param author the author to save
+     * @return the author that was saved
+     */
+    @PostMapping(path = "/authors")
+    public Mono<ResponseEntity<?>> add(@Valid @RequestBody Author author) {
+        return reactiveAuthorsService.add(author).map(entity -> tagged(
+                ResponseEntity.created(entity.getRequiredLink(IanaLinkRelations.SELF).toUri()), entity).body(entity));
+    }
+
+    /**
+     * <p>
+     * Saves a batch of authors in the repository
+     * </p>
+     * 
+     * @param authors a JSON array or newline-delimited JSON of authors
+     * @return one result per author, in request order
+     */
+    @PostMapping(path = "/authors/batch", consumes = { MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_NDJSON_VALUE })
+    public Mono<ResponseEntity<List<BatchResult>>> addAll(@RequestBody Flux<Author> authors) {
+        return reactiveAuthorsService.addAll(authors).map(ResponseEntity::ok);
+    }
+
+    /**
+     * <p>
+     * Updates an author in the repository by the provided id
+     * </p>
+     * 
+     * @param id      the id of the author
+     * @param author  the author to update
+     * @param ifMatch the entity tag of the version the client read, if any
+     * @return the updated author
+     */
+    @PutMapping(path = "/authors/{id}")
+    public Mono<ResponseEntity<?>> update(@PathVariable("id") String id, @Valid @RequestBody Author author,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        List<Long> versions = versions(ifMatch);
+
+        return reactiveAuthorsService.update(id, author, versions)
+                .map(entity -> tagged(ResponseEntity.created(entity.getRequiredLink(IanaLinkRelations.SELF).toUri()),
+                        entity).body(entity));
+    }
+
+    /**
+     * <p>
+     * Changes only the fields of an author named in a JSON Merge Patch; a null
+     * member removes the field
+     * </p>
+     * 
+     * @param id      the id of the author
+     * @param patch   the merge patch
+     * @param ifMatch the entity tag of the version the client read, if any
+     * @return the patched author
+     */
+    @PatchMapping(path = "/authors/{id}", consumes = { MergePatchCompiler.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE })
+    public Mono<ResponseEntity<?>> patch(@PathVariable("id") String id, @RequestBody JsonNode patch,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        List<Long> versions = versions(ifMatch);
+
+        return reactiveAuthorsService.patch(id, patch, versions)
+                .<ResponseEntity<?>>map(entity -> tagged(ResponseEntity.ok(), entity).body(entity))
+                .onErrorResume(ItemNotFoundException.class, ex -> Mono.just(ResponseEntity.notFound().build()));
+    }
+
+    /**
+     * <p>
+     * Deletes the author associated with the provided id
+     * </p>
+     * 
+     * @param id the id of the author to delete
+     * @return no content once the author is deleted
+     */
+    @DeleteMapping(path = "/authors/{id}")
+    public Mono<ResponseEntity<?>> delete(@PathVariable("id") String id) {
+        return reactiveAuthorsService.delete(id).thenReturn(ResponseEntity.noContent().build());
+    }
+
+    /**
+     * <p>
+     * Deletes all authors in the repository
+     * </p>
+     * 
+     * @return no content once the authors are deleted
+     */
+    @DeleteMapping(path = "/authors")
+    public Mono<ResponseEntity<?>> deleteAll() {
+        return reactiveAuthorsService.deleteAll().thenReturn(ResponseEntity.noContent().build());
+    }
+}
@@ -0,0 +1,42 @@
+package com.betterreads.controllers.reactive;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.support.WebExchangeBindException;
+
+import com.betterreads.controllers.BaseController;
+
+/**
+ * <p>
+ * Abstract base controller for the WebFlux controllers, which report
+ * validation errors with their own exception type
+ * </p>
+ */
+public abstract class ReactiveBaseController extends BaseController {
+    /**
+     * <p>
+     * Handles validation exceptions and returns them to the user
+     * </p>
+     * 
+     * @param ex the thrown exception
+     * @return Map of errors and error messages
+     */
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(WebExchangeBindException.class)
+    public Map<String, String> handleBindExceptions(WebExchangeBindException ex) {
+        Map<String, String> errors = new HashMap<>();
+
+        ex.getBindingResult().getAllErrors().forEach((error) -> {
+            String fieldName = ((FieldError) error).getField();
+            String errorMessage = error.getDefaultMessage();
+            errors.put(fieldName, errorMessage);
+        });
+
+        return errors;
+    }
+}
@@ -0,0 +1,105 @@
+package com.betterreads.events;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.betterreads.models.BatchResult;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * <p>
+ * Published by the services after documents were created, replaced or deleted,
+ * and by the change stream for the writes of every instance
+ * </p>
+ */
+@Getter
+@AllArgsConstructor
+public class CatalogChangedEvent {
+
+    /**
+     * The entity type of the changed collection
+     */
+    private final Class<?> type;
+
+    /**
+     * The ids of the changed documents, or null when the whole collection
+     * changed
+     */
+    private final Collection<String> ids;
+
+    /**
+     * Whether the change was seen on the change stream rather than made by this
+     * instance
+     */
+    private final boolean remote;
+
+    /**
+     * <p>
+     * An event for the given documents
+     * </p>
+     *
+     * @param type the entity type
+     * @param ids  the changed ids
+     * @return the event
+     */
+    public static CatalogChangedEvent of(Class<?> type, String... ids) {
+        return new CatalogChangedEvent(type, List.of(ids), false);
+    }
+
+    /**
+     * <p>
+     * An event for the documents a batch created or replaced
+     * </p>
+     *
+     * @param type    the entity type
+     * @param results the results of the batch
+     * @return the event
+     */
+    public static CatalogChangedEvent written(Class<?> type, List<BatchResult> results) {
+        return new CatalogChangedEvent(type, results.stream()
+                .filter(result -> result.getStatus() == BatchResult.Status.CREATED
+                        || result.getStatus() == BatchResult.Status.UPDATED)
+                .map(BatchResult::getId)
+                .collect(Collectors.toList()), false);
+    }
+
+    /**
+     * <p>
+     * An event for the whole collection
+     * </p>
+     *
+     * @param type the entity type
+     * @return the event
+     */
+    public static CatalogChangedEvent all(Class<?> type) {
+        return new CatalogChangedEvent(type, null, false);
+    }
+
+    /**
+     * <p>
+     * An event for documents that any instance changed, read from the change
+     * stream
+     * </p>
+     *
+     * @param type the entity type
+     * @param ids  the changed ids, or null when the whole collection changed
+     * @return the event
+     */
+    public static CatalogChangedEvent remote(Class<?> type, Collection<String> ids) {
+        return new CatalogChangedEvent(type, ids, true);
+    }
+
+    /**
+     * <p>
+     * Whether every document of the collection may have changed
+     * </p>
+     *
+     * @return true for a collection-wide change
+     */
+    public boolean isAll() {
+        return ids == null;
+    }
+}
@@ -0,0 +1,19 @@
+package com.betterreads.exceptions;
+
+import lombok.Getter;
+
+/**
+ * <p>
+ * Custom exception for when a request is well-formed but cannot be executed.
+ * </p>
+ */
+@Getter
+public class InvalidRequestException extends RuntimeException {
+
+    private final String field;
+
+    public InvalidRequestException(String field, String message) {
+        super(message);
+        this.field = field;
+    }
+}
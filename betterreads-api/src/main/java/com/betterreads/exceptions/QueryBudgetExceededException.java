@@ -0,0 +1,13 @@
+package com.betterreads.exceptions;
+
+/**
+ * <p>
+ * Custom exception for when a request sends more Mongo commands than its
+ * budget allows.
+ * </p>
+ */
+public class QueryBudgetExceededException extends RuntimeException {
+    public QueryBudgetExceededException(String request, int commands, int budget) {
+        super(request + " sent " + commands + " Mongo commands, over the budget of " + budget);
+    }
+}
@@ -0,0 +1,79 @@
+package com.betterreads.indexes;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition;
+
+import com.betterreads.models.Author;
+import com.betterreads.models.Book;
+import com.betterreads.models.BookSummary;
+import com.betterreads.models.Publisher;
+import com.betterreads.queries.Collations;
+
+/**
+ * <p>
+ * The indexes each collection needs for its query paths. Indexes on strings use
+ * the same collation as search queries, otherwise the planner cannot use them
+ * for a case-insensitive search.
+ * </p>
+ */
+public final class IndexCatalog {
+
+    /**
+     * The declared indexes, by entity type
+     */
+    public static final Map<Class<?>, List<IndexDefinition>> INDEXES;
+
+    static {
+        Map<Class<?>, List<IndexDefinition>> indexes = new LinkedHashMap<>();
+
+        indexes.put(Book.class, List.of(
+                new Index().on("isbn", Sort.Direction.ASC).named("isbn_ci").unique()
+                        .collation(Collations.CASE_INSENSITIVE),
+                new Index().on("title", Sort.Direction.ASC).named("title_ci").collation(Collations.CASE_INSENSITIVE),
+                new Index().on("publisher", Sort.Direction.ASC).named("publisher_1"),
+                new Index().on("authors", Sort.Direction.ASC).named("authors_1")));
+
+        // deletes pull a book's id out of the authors and publishers that list it
+        indexes.put(Author.class, List.of(
+                new Index().on("lastName", Sort.Direction.ASC).on("firstName", Sort.Direction.ASC)
+                        .named("lastName_firstName_ci").collation(Collations.CASE_INSENSITIVE),
+                new Index().on("books", Sort.Direction.ASC).named("books_1")));
+
+        indexes.put(Publisher.class, List.of(
+                new Index().on("name", Sort.Direction.ASC).named("name_ci").collation(Collations.CASE_INSENSITIVE),
+                new Index().on("books", Sort.Direction.ASC).named("books_1")));
+
+        // a collection has at most one text index, so every searchable field goes into it, weighted by how much a
+        // match on that field says about the book
+        indexes.put(BookSummary.class, List.of(
+                TextIndexDefinition.builder()
+                        .named("summary_text")
+                        .onField("title", 10F)
+                        .onField("authorNames", 5F)
+                        .onField("genres", 2F)
+                        .onField("publisherName", 1F)
+                        .build(),
+                // the list filters match one field and page by _id, so each index ends with _id to serve the page
+                // without a sort
+                new Index().on("genres", Sort.Direction.ASC).on("_id", Sort.Direction.ASC).named("genres_id_ci")
+                        .collation(Collations.CASE_INSENSITIVE),
+                new Index().on("authorNames", Sort.Direction.ASC).on("_id", Sort.Direction.ASC)
+                        .named("authorNames_id_ci").collation(Collations.CASE_INSENSITIVE),
+                new Index().on("publisherName", Sort.Direction.ASC).on("_id", Sort.Direction.ASC)
+                        .named("publisherName_id_ci").collation(Collations.CASE_INSENSITIVE),
+                // searches in the summary view filter and sort on the title, as a book search does
+                new Index().on("title", Sort.Direction.ASC).named("title_ci").collation(Collations.CASE_INSENSITIVE)));
+
+        INDEXES = Collections.unmodifiableMap(indexes);
+    }
+
+    private IndexCatalog() {
+    }
+}
@@ -0,0 +1,252 @@
+package com.betterreads.indexes;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.stereotype.Component;
+
+import com.betterreads.models.IndexDrift;
+import com.mongodb.MongoException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * Reconciles the declared indexes against the live collections at startup
+ * </p>
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "betterreads.indexes.reconcile", havingValue = "true", matchIfMissing = true)
+public class IndexReconciler implements ApplicationRunner {
+
+    private static final String ID_INDEX = "_id_";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        reconcile(IndexCatalog.INDEXES);
+    }
+
+    /**
+     * <p>
+     * Creates every declared index that is missing and reports the rest of the
+     * drift. Conflicting and undeclared indexes are only logged: dropping or
+     * rebuilding an index on a large collection is left to an operator.
+     * </p>
+     *
+     * @param catalog the declared indexes, by entity type
+     * @return the drift that was found
+     */
+    public List<IndexDrift> reconcile(Map<Class<?>, List<IndexDefinition>> catalog) {
+        List<IndexDrift> drift = new ArrayList<>();
+
+        for (Map.Entry<Class<?>, List<IndexDefinition>> entry : catalog.entrySet()) {
+            drift.addAll(reconcile(entry.getKey(), entry.getValue()));
+        }
+
+        for (IndexDrift item : drift) {
+            if (item.getKind() == IndexDrift.Kind.CREATED) {
+                log.info("Index drift on {}: {} {} {}", item.getCollection(), item.getIndex(), item.getKind(),
+                        item.getDetail());
+            } else {
+                log.warn("Index drift on {}: {} {} {}", item.getCollection(), item.getIndex(), item.getKind(),
+                        item.getDetail());
+            }
+        }
+
+        log.info("Reconciled indexes of {} collections, {} differences", catalog.size(), drift.size());
+
+        return drift;
+    }
+
+    private List<IndexDrift> reconcile(Class<?> type, List<IndexDefinition> declared) {
+        String collection = mongoTemplate.getCollectionName(type);
+        List<Document> live = mongoTemplate.getCollection(collection).listIndexes().into(new ArrayList<>());
+        List<IndexDrift> drift = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+
+        for (IndexDefinition index : declared) {
+            Document options = index.getIndexOptions();
+            String name = options.getString("name");
+            Document existing = find(live, name);
+
+            names.add(name);
+
+            if (existing == null) {
+                drift.add(create(type, collection, index, name));
+            } else if (!matches(index, existing)) {
+                drift.add(drift(collection, name, IndexDrift.Kind.CONFLICTING,
+                        "declared " + describe(index.getIndexKeys(), options) + ", found "
+                                + describe(existing.get("key", Document.class), existing)));
+            }
+        }
+
+        for (Document index : live) {
+            String name = index.getString("name");
+
+            if (!ID_INDEX.equals(name) && !names.contains(name)) {
+                drift.add(drift(collection, name, IndexDrift.Kind.UNDECLARED,
+                        describe(index.get("key", Document.class), index)));
+            }
+        }
+
+        return drift;
+    }
+
+    private IndexDrift create(Class<?> type, String collection, IndexDefinition index, String name) {
+        String description = describe(index.getIndexKeys(), index.getIndexOptions());
+
+        try {
+            mongoTemplate.indexOps(type).ensureIndex(index);
+
+            return drift(collection, name, IndexDrift.Kind.CREATED, description);
+        } catch (MongoException | DataAccessException ex) {
+            return drift(collection, name, IndexDrift.Kind.FAILED, description + ": " + ex.getMessage());
+        }
+    }
+
+    private static Document find(List<Document> indexes, String name) {
+        return indexes.stream().filter(index -> name.equals(index.getString("name"))).findFirst().orElse(null);
+    }
+
+    private static boolean matches(IndexDefinition index, Document existing) {
+        Document options = index.getIndexOptions();
+        boolean sameKeys = isText(index.getIndexKeys())
+                ? sameWeights(index.getIndexKeys(), options.get("weights", Document.class),
+                        existing.get("weights", Document.class))
+                : sameKeys(index.getIndexKeys(), existing.get("key", Document.class));
+
+        return sameKeys
+                && options.getBoolean("unique", false) == existing.getBoolean("unique", false)
+                && sameCollation(options.get("collation", Document.class), existing.get("collation", Document.class));
+    }
+
+    /**
+     * <p>
+     * Compares keys in order, by field and direction. Directions may come back
+     * as doubles when an index was created from the shell.
+     * </p>
+     */
+    private static boolean sameKeys(Document declared, Document live) {
+        if (live == null || declared.size() != live.size()) {
+            return false;
+        }
+
+        Iterator<Map.Entry<String, Object>> expected = declared.entrySet().iterator();
+        Iterator<Map.Entry<String, Object>> actual = live.entrySet().iterator();
+
+        while (expected.hasNext()) {
+            Map.Entry<String, Object> left = expected.next();
+            Map.Entry<String, Object> right = actual.next();
+
+            if (!left.getKey().equals(right.getKey()) || !sameDirection(left.getValue(), right.getValue())) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isText(Document keys) {
+        return keys.containsValue("text");
+    }
+
+    /**
+     * <p>
+     * Compares the fields of a text index and their weights. The server lists a
+     * text index under the generated keys _fts and _ftsx and keeps the fields in
+     * its weights, with 1 for the fields declared without a weight.
+     * </p>
+     */
+    private static boolean sameWeights(Document keys, Document declared, Document live) {
+        if (live == null || !keys.keySet().equals(live.keySet())) {
+            return false;
+        }
+
+        for (String field : keys.keySet()) {
+            if (weight(declared, field) != weight(live, field)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static double weight(Document weights, String field) {
+        Object weight = weights == null ? null : weights.get(field);
+
+        return weight instanceof Number number ? number.doubleValue() : 1;
+    }
+
+    private static boolean sameDirection(Object declared, Object live) {
+        if (declared instanceof Number left && live instanceof Number right) {
+            return Math.signum(left.doubleValue()) == Math.signum(right.doubleValue());
+        }
+
+        return Objects.equals(declared, live);
+    }
+
+    /**
+     * <p>
+     * Compares locale and strength only; the server fills in defaults for the
+     * other collation options.
+     * </p>
+     */
+    private static boolean sameCollation(Document declared, Document live) {
+        String declaredLocale = declared == null ? "simple" : declared.getString("locale");
+        String liveLocale = live == null ? "simple" : live.getString("locale");
+
+        if (!declaredLocale.equals(liveLocale)) {
+            return false;
+        }
+
+        return declared == null || live == null || strength(declared) == strength(live);
+    }
+
+    private static int strength(Document collation) {
+        Object strength = collation.get("strength");
+
+        return strength instanceof Number number ? number.intValue() : 3;
+    }
+
+    private static String describe(Document keys, Document options) {
+        StringBuilder sb = new StringBuilder(keys.toJson());
+        Document weights = options.get("weights", Document.class);
+
+        if (weights != null) {
+            sb.append(" weights ").append(weights.toJson());
+        }
+
+        if (options.getBoolean("unique", false)) {
+            sb.append(" unique");
+        }
+
+        Document collation = options.get("collation", Document.class);
+
+        if (collation != null) {
+            sb.append(" collation ").append(collation.getString("locale")).append('/').append(strength(collation));
+        }
+
+        return sb.toString();
+    }
+
+    private static IndexDrift drift(String collection, String name, IndexDrift.Kind kind, String detail) {
+        return IndexDrift.builder().collection(collection).index(name).kind(kind).detail(detail).build();
+    }
+}
@@ -0,0 +1,72 @@
+package com.betterreads.metrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import com.betterreads.exceptions.QueryBudgetExceededException;
+
+/**
+ * <p>
+ * Checks a request's tally against the budget once its queries are done and
+ * before its body is written, which is the last point a response can still
+ * fail or take headers
+ * </p>
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "betterreads.query-budget.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryBudgetAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String COMMANDS = "X-Query-Commands";
+
+    public static final String DOCUMENTS = "X-Query-Documents";
+
+    public static final String BYTES = "X-Query-Bytes";
+
+    @Value("${betterreads.query-budget.fail:false}")
+    private boolean fail;
+
+    @Value("${betterreads.query-budget.headers:false}")
+    private boolean headers;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    /**
+     * <p>
+     * Adds the tally headers when betterreads.query-budget.headers is set
+     * </p>
+     *
+     * @throws QueryBudgetExceededException if the request is over the budget and
+     *                                      betterreads.query-budget.fail is set
+     */
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType contentType,
+            Class<? extends HttpMessageConverter<?>> converterType, ServerHttpRequest request,
+            ServerHttpResponse response) {
+        QueryTally tally = QueryTally.current();
+
+        if (tally != null) {
+            if (fail && tally.isOverBudget()) {
+                throw new QueryBudgetExceededException(request.getMethod() + " " + request.getURI().getPath(),
+                        tally.getCommands(), tally.getBudget());
+            }
+
+            if (headers) {
+                response.getHeaders().set(COMMANDS, String.valueOf(tally.getCommands()));
+                response.getHeaders().set(DOCUMENTS, String.valueOf(tally.getDocuments()));
+                response.getHeaders().set(BYTES, String.valueOf(tally.getBytes()));
+            }
+        }
+
+        return body;
+    }
+}
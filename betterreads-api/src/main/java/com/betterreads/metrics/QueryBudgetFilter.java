@@ -0,0 +1,55 @@
+package com.betterreads.metrics;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * Tallies the Mongo commands of each request and logs the requests that are
+ * slower than betterreads.query-budget.slow-threshold or over the command
+ * budget, with their breakdown as key=value pairs
+ * </p>
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "betterreads.query-budget.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    @Value("${betterreads.query-budget.max-commands:50}")
+    private int maxCommands = 50;
+
+    @Value("${betterreads.query-budget.slow-threshold:500ms}")
+    private Duration slowThreshold = Duration.ofMillis(500);
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryTally tally = QueryTally.begin(maxCommands);
+        long start = System.nanoTime();
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            QueryTally.end();
+
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+            if (tally.isOverBudget() || elapsed.compareTo(slowThreshold) > 0) {
+                log.warn("expensive request method={} uri={} status={} elapsedMs={} {} overBudget={}",
+                        request.getMethod(), request.getRequestURI(), response.getStatus(), elapsed.toMillis(), tally,
+                        tally.isOverBudget());
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.betterreads.metrics;
+
+import lombok.Getter;
+
+/**
+ * <p>
+ * What one request asked of Mongo: the commands sent, the documents they
+ * returned and the bytes of their replies. The synchronous driver runs a
+ * command and its listeners on the calling thread, so the tally of the request
+ * being served is held per thread between begin and end.
+ * </p>
+ */
+@Getter
+public class QueryTally {
+
+    private static final ThreadLocal<QueryTally> CURRENT = new ThreadLocal<>();
+
+    private final int budget;
+
+    private int commands;
+
+    private long documents;
+
+    private long bytes;
+
+    public QueryTally(int budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * <p>
+     * Starts tallying the commands sent by the current thread
+     * </p>
+     *
+     * @param budget the commands the request may send
+     * @return the new tally
+     */
+    public static QueryTally begin(int budget) {
+        QueryTally tally = new QueryTally(budget);
+        CURRENT.set(tally);
+
+        return tally;
+    }
+
+    /**
+     * <p>
+     * Gets the tally of the current thread
+     * </p>
+     *
+     * @return the tally, or null outside a request
+     */
+    public static QueryTally current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * <p>
+     * Stops tallying the commands sent by the current thread
+     * </p>
+     */
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * <p>
+     * Adds one command's reply to the tally
+     * </p>
+     *
+     * @param returned the documents in the reply
+     * @param size     the size of the reply in bytes
+     */
+    public void add(int returned, long size) {
+        commands++;
+        documents += returned;
+        bytes += size;
+    }
+
+    /**
+     * <p>
+     * Checks whether more commands were sent than the budget allows
+     * </p>
+     *
+     * @return true if the tally is over its budget
+     */
+    public boolean isOverBudget() {
+        return commands > budget;
+    }
+
+    @Override
+    public String toString() {
+        return "commands=" + commands + " documents=" + documents + " bytes=" + bytes;
+    }
+}
@@ -0,0 +1,79 @@
+package com.betterreads.metrics;
+
+import org.bson.BsonArray;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+
+/**
+ * <p>
+ * Adds each Mongo command to the tally of the thread that sent it. Commands
+ * sent outside a request, or by another thread such as the async exports, are
+ * not counted.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "betterreads.query-budget.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryTallyListener implements CommandListener, MongoClientSettingsBuilderCustomizer {
+
+    private static final BsonArray NO_DOCUMENTS = new BsonArray();
+
+    @Override
+    public void customize(MongoClientSettings.Builder settings) {
+        settings.addCommandListener(this);
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        QueryTally tally = QueryTally.current();
+
+        if (tally != null) {
+            tally.add(returned(event.getResponse()), sizeOf(event.getResponse()));
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        QueryTally tally = QueryTally.current();
+
+        if (tally != null) {
+            tally.add(0, 0);
+        }
+    }
+
+    private static int returned(BsonDocument response) {
+        if (response.isDocument("cursor")) {
+            BsonDocument cursor = response.getDocument("cursor");
+
+            return cursor.getArray("firstBatch", cursor.getArray("nextBatch", NO_DOCUMENTS)).size();
+        }
+
+        // findAndModify returns the document it changed as value
+        BsonValue value = response.get("value");
+
+        return value != null && value.isDocument() ? 1 : 0;
+    }
+
+    private static long sizeOf(BsonDocument response) {
+        if (response instanceof RawBsonDocument raw) {
+            return raw.getByteBuffer().remaining();
+        }
+
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        new BsonDocumentCodec().encode(new BsonBinaryWriter(buffer), response, EncoderContext.builder().build());
+
+        return buffer.getPosition();
+    }
+}
@@ -0,0 +1,96 @@
+package com.betterreads.metrics;
+
+import java.util.Collection;
+import java.util.Set;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * <p>
+ * Times every call to the books, authors and publishers services and counts
+ * the ones that fail. The result sizes of getAll and search are recorded as
+ * well. Mongo command and repository latencies come from Spring Boot's own
+ * mongodb.driver.commands and spring.data.repository.invocations meters, so a
+ * slow call can be told apart from the queries it ran.
+ * </p>
+ */
+@Aspect
+@Component
+public class ServiceMetrics {
+
+    /**
+     * Timer of each service call, tagged by service, method, outcome and
+     * exception
+     */
+    public static final String CALLS = "betterreads.service.calls";
+
+    /**
+     * Counter of the service calls that threw, tagged by service, method and
+     * exception
+     */
+    public static final String ERRORS = "betterreads.service.errors";
+
+    /**
+     * Distribution of the number of documents getAll and search returned,
+     * tagged by service and method
+     */
+    public static final String RESULTS = "betterreads.service.results";
+
+    private static final Set<String> LISTINGS = Set.of("getAll", "search");
+
+    @Autowired
+    private MeterRegistry registry;
+
+    /**
+     * <p>
+     * Records one service call
+     * </p>
+     *
+     * @param call the intercepted call
+     * @return what the service returned
+     * @throws Throwable whatever the service threw
+     */
+    @Around("execution(public * com.betterreads.services.IService+.*(..))")
+    public Object measure(ProceedingJoinPoint call) throws Throwable {
+        String method = call.getSignature().getName();
+        Tags tags = Tags.of("service", ClassUtils.getUserClass(call.getTarget()).getSimpleName(), "method", method);
+        Timer.Sample sample = Timer.start(registry);
+        String exception = "none";
+
+        try {
+            Object result = call.proceed();
+
+            if (LISTINGS.contains(method)) {
+                registry.summary(RESULTS, tags).record(sizeOf(result));
+            }
+
+            return result;
+        } catch (Throwable ex) {
+            exception = ex.getClass().getSimpleName();
+            registry.counter(ERRORS, tags.and("exception", exception)).increment();
+
+            throw ex;
+        } finally {
+            sample.stop(registry.timer(CALLS, tags.and("outcome", "none".equals(exception) ? "success" : "error",
+                    "exception", exception)));
+        }
+    }
+
+    private static int sizeOf(Object result) {
+        if (result instanceof CollectionModel<?> model) {
+            return model.getContent().size();
+        }
+
+        return result instanceof Collection<?> list ? list.size() : 0;
+    }
+}
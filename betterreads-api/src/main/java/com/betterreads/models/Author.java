@@ -8,9 +8,13 @@ import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.DocumentReference;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -25,11 +29,16 @@ import lombok.Data;
 @Data
 @AllArgsConstructor
 @Builder
-public class Author {
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class Author implements Versioned {
 
     @Id
     private String id;
 
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
     private String firstName;
 
     private String middleName;
@@ -47,7 +56,7 @@ public class Author {
 
     private String state;
 
-    @DocumentReference
+    @DocumentReference(lazy = true)
     private List<Book> books;
 
     @Override
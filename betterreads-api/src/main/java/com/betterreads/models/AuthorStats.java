@@ -0,0 +1,55 @@
+package com.betterreads.models;
+
+import java.util.Date;
+import java.util.Map;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.hateoas.server.core.Relation;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * <p>
+ * Figures about an Author's books, aggregated from the books collection. The id
+ * is the id of the author.
+ * </p>
+ */
+@Document(collection = "author_stats")
+@Data
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Relation(collectionRelation = "authorStats")
+public class AuthorStats implements Identifiable {
+
+    @Id
+    private String id;
+
+    private int bookCount;
+
+    private long totalPages;
+
+    /**
+     * The average over the books that have a page count
+     */
+    private Double averagePages;
+
+    /**
+     * The number of the author's books in each genre
+     */
+    private Map<String, Integer> genres;
+
+    private Date firstPublished;
+
+    private Date lastPublished;
+
+    /**
+     * When the stats were materialized, only set on stored stats
+     */
+    private Date refreshedAt;
+}
@@ -0,0 +1,38 @@
+package com.betterreads.models;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * <p>
+ * The outcome of writing one element of a batch request
+ * </p>
+ */
+@Data
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchResult {
+
+    /**
+     * <p>
+     * What happened to the element
+     * </p>
+     */
+    public enum Status {
+        CREATED, UPDATED, INVALID, FAILED
+    }
+
+    private int index;
+
+    private String id;
+
+    private Status status;
+
+    private Map<String, String> errors;
+}
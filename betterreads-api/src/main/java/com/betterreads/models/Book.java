@@ -8,9 +8,13 @@ import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.DocumentReference;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -25,10 +29,15 @@ import lombok.Data;
 @Data
 @AllArgsConstructor
 @Builder
-public class Book {
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class Book implements Versioned {
     @Id
     private String id;
 
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
     @NotBlank(message = "ISBN is required")
     private String isbn;
 
@@ -42,7 +51,7 @@ public class Book {
 
     private List<String> genres;
 
-    private int pages;
+    private Integer pages;
 
     @DocumentReference(lazy = true)
     private Publisher publisher;
@@ -0,0 +1,29 @@
+package com.betterreads.models;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * <p>
+ * Counts of the books matching a search, by genre, language, publisher and
+ * decade of publication
+ * </p>
+ */
+@Data
+@AllArgsConstructor
+@Builder
+public class BookFacets {
+
+    private long total;
+
+    private List<FacetCount> genres;
+
+    private List<FacetCount> languages;
+
+    private List<FacetCount> publishers;
+
+    private List<FacetCount> decades;
+}
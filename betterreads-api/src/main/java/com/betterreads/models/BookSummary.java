@@ -0,0 +1,44 @@
+package com.betterreads.models;
+
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.TextScore;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * <p>
+ * A denormalized, searchable view of a Book with its author and publisher names.
+ * The id is the id of the book.
+ * </p>
+ */
+@Document(collection = "book_summaries")
+@Data
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookSummary implements Identifiable {
+
+    @Id
+    private String id;
+
+    private String title;
+
+    private List<String> genres;
+
+    private List<String> authorNames;
+
+    private String publisherName;
+
+    /**
+     * The relevance of the summary to a text search, only set on search results
+     */
+    @TextScore
+    private Float score;
+}
@@ -0,0 +1,21 @@
+package com.betterreads.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * <p>
+ * The outcome of a bulk delete
+ * </p>
+ */
+@Data
+@AllArgsConstructor
+@Builder
+public class DeleteResult {
+
+    /**
+     * The number of documents deleted
+     */
+    private long deleted;
+}
@@ -0,0 +1,28 @@
+package com.betterreads.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * <p>
+ * The number of matching books that share one value of a facet
+ * </p>
+ */
+@Data
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FacetCount {
+
+    private String value;
+
+    /**
+     * The display name of the value, only set when the value is an id
+     */
+    private String label;
+
+    private long count;
+}
@@ -0,0 +1,27 @@
+package com.betterreads.models;
+
+/**
+ * <p>
+ * A document that can be addressed by its id
+ * </p>
+ */
+public interface Identifiable {
+
+    /**
+     * <p>
+     * Gets the document's id
+     * </p>
+     * 
+     * @return the id
+     */
+    String getId();
+
+    /**
+     * <p>
+     * Sets the document's id
+     * </p>
+     * 
+     * @param id the id
+     */
+    void setId(String id);
+}
@@ -0,0 +1,48 @@
+package com.betterreads.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * <p>
+ * A difference between the declared and the live indexes of a collection
+ * </p>
+ */
+@Data
+@AllArgsConstructor
+@Builder
+public class IndexDrift {
+
+    /**
+     * <p>
+     * What differs
+     * </p>
+     */
+    public enum Kind {
+        /**
+         * Declared but not found; it was created
+         */
+        CREATED,
+        /**
+         * Declared but not found, and it could not be created
+         */
+        FAILED,
+        /**
+         * Found under the declared name with different keys or options
+         */
+        CONFLICTING,
+        /**
+         * Found but not declared
+         */
+        UNDECLARED
+    }
+
+    private String collection;
+
+    private String index;
+
+    private Kind kind;
+
+    private String detail;
+}
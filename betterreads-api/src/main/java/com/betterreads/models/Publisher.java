@@ -3,9 +3,13 @@ package com.betterreads.models;
 import java.util.List;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.DocumentReference;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -20,15 +24,20 @@ import lombok.Data;
 @Data
 @AllArgsConstructor
 @Builder
-public class Publisher {
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class Publisher implements Versioned {
 
     @Id
     private String id;
 
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
     @NotBlank(message = "Name is required")
     private String name;
 
-    @DocumentReference
+    @DocumentReference(lazy = true)
     private List<Book> books;
 
     @Override
@@ -0,0 +1,31 @@
+package com.betterreads.models;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * <p>
+ * How the database planned a search request
+ * </p>
+ */
+@Data
+@AllArgsConstructor
+@Builder
+public class SearchExplanation {
+
+    private String collection;
+
+    private Map<String, Object> query;
+
+    private Map<String, Object> sort;
+
+    private String indexName;
+
+    private List<String> stages;
+
+    private Map<String, Object> winningPlan;
+}
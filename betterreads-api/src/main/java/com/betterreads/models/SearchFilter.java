@@ -0,0 +1,33 @@
+package com.betterreads.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * <p>
+ * A single condition of a search request
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SearchFilter {
+
+    /**
+     * <p>
+     * How the field is compared to the value
+     * </p>
+     */
+    public enum Operator {
+        EQ, NE, GT, GTE, LT, LTE, IN, NIN
+    }
+
+    private String field;
+
+    private Operator operator;
+
+    private Object value;
+}
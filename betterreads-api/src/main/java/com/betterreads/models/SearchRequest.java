@@ -0,0 +1,39 @@
+package com.betterreads.models;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * <p>
+ * A typed search over one collection
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SearchRequest {
+
+    /**
+     * <p>
+     * Whether all or any of the filters must match
+     * </p>
+     */
+    public enum Match {
+        ALL, ANY
+    }
+
+    private List<SearchFilter> filters;
+
+    private Match match;
+
+    private List<SearchSort> sort;
+
+    private Integer limit;
+
+    private boolean explain;
+}
@@ -0,0 +1,24 @@
+package com.betterreads.models;
+
+import org.springframework.data.domain.Sort;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * <p>
+ * A sort key of a search request
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SearchSort {
+
+    private String field;
+
+    private Sort.Direction direction;
+}
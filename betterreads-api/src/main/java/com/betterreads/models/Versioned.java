@@ -0,0 +1,27 @@
+package com.betterreads.models;
+
+/**
+ * <p>
+ * A document that is versioned for optimistic concurrency
+ * </p>
+ */
+public interface Versioned extends Identifiable {
+
+    /**
+     * <p>
+     * Gets the document's version, which every write increments
+     * </p>
+     * 
+     * @return the version, null for a document that was never stored
+     */
+    Long getVersion();
+
+    /**
+     * <p>
+     * Sets the document's version
+     * </p>
+     * 
+     * @param version the version
+     */
+    void setVersion(Long version);
+}
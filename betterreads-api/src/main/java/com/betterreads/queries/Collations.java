@@ -0,0 +1,21 @@
+package com.betterreads.queries;
+
+import org.springframework.data.mongodb.core.query.Collation;
+
+/**
+ * <p>
+ * Collations shared by queries and the indexes that serve them. A query only
+ * uses an index on a string field when both have the same collation.
+ * </p>
+ */
+public final class Collations {
+
+    /**
+     * English, strength 2: compares letters and accents but ignores case
+     */
+    public static final Collation CASE_INSENSITIVE = Collation.of("en")
+            .strength(Collation.ComparisonLevel.secondary());
+
+    private Collations() {
+    }
+}
@@ -0,0 +1,110 @@
+package com.betterreads.queries;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+
+import org.bson.types.ObjectId;
+
+/**
+ * <p>
+ * The stored type of a searchable field, used to convert request values to the
+ * values in the database
+ * </p>
+ */
+public enum FieldType {
+
+    /**
+     * Compared with the case-insensitive collation
+     */
+    STRING {
+        @Override
+        Object convertValue(Object value) {
+            if (value instanceof String || value instanceof Number || value instanceof Boolean) {
+                return value.toString();
+            }
+
+            throw new IllegalArgumentException("expected a string");
+        }
+    },
+
+    INTEGER {
+        @Override
+        Object convertValue(Object value) {
+            if (value instanceof Number number && number.doubleValue() == number.intValue()) {
+                return number.intValue();
+            }
+
+            if (value instanceof String text) {
+                try {
+                    return Integer.parseInt(text.trim());
+                } catch (NumberFormatException ex) {
+                    throw new IllegalArgumentException("expected an integer");
+                }
+            }
+
+            throw new IllegalArgumentException("expected an integer");
+        }
+    },
+
+    /**
+     * An ISO-8601 date (2001-09-11) or instant, or epoch milliseconds
+     */
+    DATE {
+        @Override
+        Object convertValue(Object value) {
+            if (value instanceof Number number) {
+                return new Date(number.longValue());
+            }
+
+            if (value instanceof String text) {
+                try {
+                    return Date.from(Instant.parse(text));
+                } catch (DateTimeParseException ex) {
+                    // not an instant, try a plain date
+                }
+
+                try {
+                    return Date.from(LocalDate.parse(text).atStartOfDay(ZoneOffset.UTC).toInstant());
+                } catch (DateTimeParseException ex) {
+                    throw new IllegalArgumentException("expected an ISO-8601 date");
+                }
+            }
+
+            throw new IllegalArgumentException("expected an ISO-8601 date");
+        }
+    },
+
+    /**
+     * The id or a reference to another document. Generated ids are stored as
+     * ObjectIds, which the query mapper does not convert for every operator.
+     */
+    REFERENCE {
+        @Override
+        Object convertValue(Object value) {
+            if (value instanceof String text) {
+                return ObjectId.isValid(text) ? new ObjectId(text) : text;
+            }
+
+            throw new IllegalArgumentException("expected an id");
+        }
+    };
+
+    abstract Object convertValue(Object value);
+
+    /**
+     * <p>
+     * Converts a request value to the stored value. Nulls are kept, so a filter
+     * can match missing fields.
+     * </p>
+     *
+     * @param value the value from the request
+     * @return the value to query with
+     * @throws IllegalArgumentException if the value does not fit the type
+     */
+    public Object convert(Object value) {
+        return value == null ? null : convertValue(value);
+    }
+}
@@ -0,0 +1,118 @@
+package com.betterreads.queries;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.betterreads.exceptions.InvalidRequestException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * <p>
+ * Compiles JSON Merge Patch (RFC 7396) documents into Mongo updates
+ * </p>
+ */
+@Component
+public class MergePatchCompiler {
+
+    /**
+     * The media type of a JSON Merge Patch body
+     */
+    public static final String MEDIA_TYPE = "application/merge-patch+json";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    /**
+     * <p>
+     * Builds an update that touches only the members of the patch: a null member
+     * becomes an $unset and any other member a $set of the value read as the
+     * property's type. Every property of these documents is a scalar, a list or
+     * a reference, so members replace their property whole. Values are checked
+     * against the document's constraints, so a required field cannot be removed.
+     * </p>
+     *
+     * @param patch the merge patch
+     * @param type  the document type
+     * @return the update, empty when the patch has no members
+     * @throws InvalidRequestException if the patch is not an object, names the
+     *                                 id, the version or an unknown field, or a
+     *                                 value does not fit its field
+     */
+    public Update compile(JsonNode patch, Class<?> type) {
+        if (patch == null || !patch.isObject()) {
+            throw new InvalidRequestException("body", "A merge patch must be a JSON object");
+        }
+
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(type);
+        Update update = new Update();
+
+        for (Iterator<Map.Entry<String, JsonNode>> members = patch.fields(); members.hasNext();) {
+            Map.Entry<String, JsonNode> member = members.next();
+            String field = member.getKey();
+            MongoPersistentProperty property = entity.getPersistentProperty(field);
+
+            if (property == null) {
+                throw new InvalidRequestException(field, "Unknown field " + field);
+            }
+
+            if (property.isIdProperty()) {
+                throw new InvalidRequestException(field, "The id cannot be changed");
+            }
+
+            if (property.isVersionProperty()) {
+                throw new InvalidRequestException(field, "The version is sent in the If-Match header");
+            }
+
+            Object value = read(member.getValue(), property);
+            validate(type, field, value);
+
+            if (value == null) {
+                update.unset(field);
+            } else {
+                update.set(field, value);
+            }
+        }
+
+        return update;
+    }
+
+    private Object read(JsonNode value, MongoPersistentProperty property) {
+        if (value.isNull()) {
+            return null;
+        }
+
+        try {
+            return objectMapper.convertValue(value,
+                    objectMapper.getTypeFactory().constructType(property.getField().getGenericType()));
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidRequestException(property.getName(), "Invalid value for " + property.getName());
+        }
+    }
+
+    private <T> void validate(Class<T> type, String field, Object value) {
+        Set<ConstraintViolation<T>> violations = validator.validateValue(type, field, value);
+
+        if (!violations.isEmpty()) {
+            throw new InvalidRequestException(field, violations.iterator().next().getMessage());
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.betterreads.queries;
+
+import java.util.Collections;
+import java.util.Set;
+
+import org.springframework.data.mongodb.core.query.Query;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * <p>
+ * The fields a reader asked for. Fields that are not included are not read
+ * from the database, so their references are not resolved either.
+ * </p>
+ */
+@Getter
+@AllArgsConstructor
+public class Projection {
+
+    /**
+     * Every field of the document
+     */
+    public static final Projection ALL = new Projection(Collections.emptySet());
+
+    private final Set<String> fields;
+
+    /**
+     * <p>
+     * Whether the whole document is read
+     * </p>
+     *
+     * @return true when no fields were named
+     */
+    public boolean isAll() {
+        return fields.isEmpty();
+    }
+
+    /**
+     * <p>
+     * Whether a field is read. The id always is.
+     * </p>
+     *
+     * @param field the field
+     * @return true when the field is read
+     */
+    public boolean includes(String field) {
+        return isAll() || "id".equals(field) || fields.contains(field);
+    }
+
+    /**
+     * <p>
+     * Restricts the query to the named fields. The id is always returned.
+     * </p>
+     *
+     * @param query the query
+     * @return the same query
+     */
+    public Query apply(Query query) {
+        fields.forEach(field -> query.fields().include(field));
+
+        return query;
+    }
+
+    /**
+     * <p>
+     * The fields as a request parameter, for links that must keep them
+     * </p>
+     *
+     * @return the comma-separated fields, or null for every field
+     */
+    public String toParameter() {
+        return isAll() ? null : String.join(",", fields);
+    }
+}
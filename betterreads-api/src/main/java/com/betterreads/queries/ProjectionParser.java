@@ -0,0 +1,58 @@
+package com.betterreads.queries;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.stereotype.Component;
+
+import com.betterreads.exceptions.InvalidRequestException;
+
+/**
+ * <p>
+ * Parses the fields parameter of the read endpoints into projections
+ * </p>
+ */
+@Component
+public class ProjectionParser {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * <p>
+     * Parses a comma-separated list of field names. Each name must be a property
+     * of the document; the id is returned whether it is named or not.
+     * </p>
+     *
+     * @param fields the fields parameter, may be null or blank for every field
+     * @param type   the document type
+     * @return the projection
+     * @throws InvalidRequestException if a field is not a property of the
+     *                                 document
+     */
+    public Projection parse(String fields, Class<?> type) {
+        if (StringUtils.isBlank(fields)) {
+            return Projection.ALL;
+        }
+
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(type);
+        Set<String> names = new LinkedHashSet<>();
+
+        for (String field : Arrays.stream(fields.split(",")).map(String::trim).filter(StringUtils::isNotEmpty)
+                .toList()) {
+            if (entity.getPersistentProperty(field) == null) {
+                throw new InvalidRequestException("fields", "Unknown field " + field);
+            }
+
+            names.add(field);
+        }
+
+        return new Projection(names);
+    }
+}
@@ -0,0 +1,106 @@
+package com.betterreads.queries;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.betterreads.models.SearchExplanation;
+import com.mongodb.ExplainVerbosity;
+import com.mongodb.client.FindIterable;
+
+/**
+ * <p>
+ * Asks the query planner how a query would be served
+ * </p>
+ */
+@Component
+public class QueryExplainer {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * <p>
+     * Explains the query against the entity's collection without running it. The
+     * index name is null when the winning plan scans the collection.
+     * </p>
+     *
+     * @param query the query to explain
+     * @param type  the entity type of the collection
+     * @return the winning plan and the index it uses
+     */
+    public SearchExplanation explain(Query query, Class<?> type) {
+        QueryMapper mapper = new QueryMapper(mongoTemplate.getConverter());
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext().getPersistentEntity(type);
+        String collection = mongoTemplate.getCollectionName(type);
+
+        Document filter = mapper.getMappedObject(query.getQueryObject(), entity);
+        Document sort = mapper.getMappedSort(query.getSortObject(), entity);
+
+        FindIterable<Document> find = mongoTemplate.getCollection(collection).find(filter).sort(sort)
+                .limit(query.getLimit());
+        query.getCollation().ifPresent(collation -> find.collation(collation.toMongoCollation()));
+
+        Document explain = find.explain(ExplainVerbosity.QUERY_PLANNER);
+        Document winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+
+        List<String> stages = new ArrayList<>();
+        String indexName = walk(winningPlan, stages);
+
+        return SearchExplanation.builder()
+                .collection(collection)
+                .query(filter)
+                .sort(sort)
+                .indexName(indexName)
+                .stages(stages)
+                .winningPlan(winningPlan)
+                .build();
+    }
+
+    /**
+     * <p>
+     * Collects the stages of a plan from the root down and returns the first
+     * index it reads. Newer servers nest the classic plan under queryPlan.
+     * </p>
+     */
+    private String walk(Document plan, List<String> stages) {
+        String indexName = plan.getString("indexName");
+
+        if (plan.containsKey("stage")) {
+            stages.add(plan.getString("stage"));
+        }
+
+        List<Document> children = new ArrayList<>();
+
+        for (String key : List.of("queryPlan", "inputStage")) {
+            if (plan.get(key) instanceof Document child) {
+                children.add(child);
+            }
+        }
+
+        if (plan.get("inputStages") instanceof List<?> inputs) {
+            for (Object input : inputs) {
+                if (input instanceof Document child) {
+                    children.add(child);
+                }
+            }
+        }
+
+        for (Document child : children) {
+            String childIndex = walk(child, stages);
+
+            if (indexName == null) {
+                indexName = childIndex;
+            }
+        }
+
+        return indexName;
+    }
+}
@@ -0,0 +1,49 @@
+package com.betterreads.queries;
+
+import java.util.Map;
+
+/**
+ * <p>
+ * The fields each collection can be searched and sorted on
+ * </p>
+ */
+public final class SearchFields {
+
+    public static final Map<String, FieldType> BOOKS = Map.of(
+            "id", FieldType.REFERENCE,
+            "isbn", FieldType.STRING,
+            "title", FieldType.STRING,
+            "authors", FieldType.REFERENCE,
+            "publishedDate", FieldType.DATE,
+            "genres", FieldType.STRING,
+            "pages", FieldType.INTEGER,
+            "publisher", FieldType.REFERENCE,
+            "language", FieldType.STRING);
+
+    public static final Map<String, FieldType> AUTHORS = Map.of(
+            "id", FieldType.REFERENCE,
+            "firstName", FieldType.STRING,
+            "middleName", FieldType.STRING,
+            "lastName", FieldType.STRING,
+            "suffix", FieldType.STRING,
+            "dateOfBirth", FieldType.DATE,
+            "gender", FieldType.STRING,
+            "city", FieldType.STRING,
+            "state", FieldType.STRING,
+            "books", FieldType.REFERENCE);
+
+    public static final Map<String, FieldType> PUBLISHERS = Map.of(
+            "id", FieldType.REFERENCE,
+            "name", FieldType.STRING,
+            "books", FieldType.REFERENCE);
+
+    public static final Map<String, FieldType> BOOK_SUMMARIES = Map.of(
+            "id", FieldType.REFERENCE,
+            "title", FieldType.STRING,
+            "genres", FieldType.STRING,
+            "authorNames", FieldType.STRING,
+            "publisherName", FieldType.STRING);
+
+    private SearchFields() {
+    }
+}
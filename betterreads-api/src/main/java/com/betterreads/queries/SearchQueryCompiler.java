@@ -0,0 +1,160 @@
+package com.betterreads.queries;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.betterreads.exceptions.InvalidRequestException;
+import com.betterreads.models.SearchFilter;
+import com.betterreads.models.SearchRequest;
+import com.betterreads.models.SearchSort;
+
+/**
+ * <p>
+ * Compiles search requests into Mongo queries
+ * </p>
+ */
+@Component
+public class SearchQueryCompiler {
+
+    /**
+     * The number of results returned when the request has no limit
+     */
+    public static final int DEFAULT_LIMIT = 50;
+
+    /**
+     * The largest limit a caller can request
+     */
+    public static final int MAX_LIMIT = 500;
+
+    /**
+     * <p>
+     * Builds a query from the request. Each filter becomes one equality, range or
+     * membership condition on a known field, so the query can be served by an
+     * index instead of the regular expressions an example query needs. String
+     * comparisons and sorting ignore case through the query collation.
+     * </p>
+     *
+     * @param request the search request
+     * @param fields  the searchable fields of the collection
+     * @return the query
+     * @throws InvalidRequestException if the request names an unknown field or a
+     *                                 value does not fit its field
+     */
+    public Query compile(SearchRequest request, Map<String, FieldType> fields) {
+        Query query = new Query().collation(Collations.CASE_INSENSITIVE).limit(limit(request.getLimit()));
+        List<Criteria> criteria = new ArrayList<>();
+        List<SearchFilter> filters = request.getFilters() == null ? List.of() : request.getFilters();
+
+        for (int i = 0; i < filters.size(); i++) {
+            criteria.add(compile(filters.get(i), "filters[" + i + "]", fields));
+        }
+
+        if (criteria.size() == 1) {
+            query.addCriteria(criteria.get(0));
+        } else if (criteria.size() > 1) {
+            query.addCriteria(request.getMatch() == SearchRequest.Match.ANY
+                    ? new Criteria().orOperator(criteria)
+                    : new Criteria().andOperator(criteria));
+        }
+
+        List<SearchSort> sorts = request.getSort() == null ? List.of() : request.getSort();
+
+        for (int i = 0; i < sorts.size(); i++) {
+            SearchSort sort = sorts.get(i);
+            Sort.Direction direction = sort.getDirection() == null ? Sort.Direction.ASC : sort.getDirection();
+
+            query.with(Sort.by(direction, field(sort.getField(), "sort[" + i + "].field", fields)));
+        }
+
+        return query;
+    }
+
+    private int limit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new InvalidRequestException("limit", "Limit must be between 1 and " + MAX_LIMIT);
+        }
+
+        return limit;
+    }
+
+    private String field(String name, String path, Map<String, FieldType> fields) {
+        if (name == null || !fields.containsKey(name)) {
+            throw new InvalidRequestException(path, "Unknown field '" + name + "', expected one of "
+                    + fields.keySet().stream().sorted().toList());
+        }
+
+        return name;
+    }
+
+    private Criteria compile(SearchFilter filter, String path, Map<String, FieldType> fields) {
+        String name = field(filter.getField(), path + ".field", fields);
+        FieldType type = fields.get(name);
+        Criteria criteria = Criteria.where(name);
+
+        if (filter.getOperator() == null) {
+            throw new InvalidRequestException(path + ".operator", "Operator is required");
+        }
+
+        switch (filter.getOperator()) {
+            case EQ:
+                return criteria.is(convert(type, filter.getValue(), path));
+            case NE:
+                return criteria.ne(convert(type, filter.getValue(), path));
+            case GT:
+                return criteria.gt(convert(type, required(filter.getValue(), path), path));
+            case GTE:
+                return criteria.gte(convert(type, required(filter.getValue(), path), path));
+            case LT:
+                return criteria.lt(convert(type, required(filter.getValue(), path), path));
+            case LTE:
+                return criteria.lte(convert(type, required(filter.getValue(), path), path));
+            case IN:
+                return criteria.in(convertAll(type, filter.getValue(), path));
+            case NIN:
+                return criteria.nin(convertAll(type, filter.getValue(), path));
+            default:
+                throw new InvalidRequestException(path + ".operator", "Unsupported operator " + filter.getOperator());
+        }
+    }
+
+    private Object required(Object value, String path) {
+        if (value == null) {
+            throw new InvalidRequestException(path + ".value", "Value is required for range operators");
+        }
+
+        return value;
+    }
+
+    private List<Object> convertAll(FieldType type, Object value, String path) {
+        if (!(value instanceof Collection<?> values)) {
+            throw new InvalidRequestException(path + ".value", "Value must be an array for IN and NIN");
+        }
+
+        List<Object> converted = new ArrayList<>(values.size());
+
+        for (Object item : values) {
+            converted.add(convert(type, item, path));
+        }
+
+        return converted;
+    }
+
+    private Object convert(FieldType type, Object value, String path) {
+        try {
+            return type.convert(value);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidRequestException(path + ".value", "Invalid value " + value + ", " + ex.getMessage());
+        }
+    }
+}
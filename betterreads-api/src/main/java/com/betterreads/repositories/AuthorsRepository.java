@@ -1,8 +1,11 @@
 package com.betterreads.repositories;
 
-import org.springframework.data.mongodb.repository.MongoRepository;
+import java.util.Optional;
+
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Repository;
 
+import com.betterreads.configurations.CacheConfig;
 import com.betterreads.models.Author;
 
 /**
@@ -11,6 +14,16 @@ import com.betterreads.models.Author;
  * </p>
  */
 @Repository
-public interface AuthorsRepository extends MongoRepository<Author, String> {
+public interface AuthorsRepository extends CursorPagingRepository<Author> {
 
+    /**
+     * <p>
+     * Finds an author by id, reading through the author cache. Missing
+     * authors are not cached. Entries are evicted by the CacheInvalidator when
+     * the services write.
+     * </p>
+     */
+    @Override
+    @Cacheable(cacheNames = CacheConfig.AUTHORS, unless = "#result == null")
+    Optional<Author> findById(String id);
 }
@@ -1,8 +1,11 @@
 package com.betterreads.repositories;
 
-import org.springframework.data.mongodb.repository.MongoRepository;
+import java.util.Optional;
+
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Repository;
 
+import com.betterreads.configurations.CacheConfig;
 import com.betterreads.models.Book;
 
 /**
@@ -11,6 +14,16 @@ import com.betterreads.models.Book;
  * </p>
  */
 @Repository
-public interface BooksRepository extends MongoRepository<Book, String> {
+public interface BooksRepository extends CursorPagingRepository<Book> {
 
+    /**
+     * <p>
+     * Finds a book by id, reading through the book cache. Missing
+     * books are not cached. Entries are evicted by the CacheInvalidator when
+     * the services write.
+     * </p>
+     */
+    @Override
+    @Cacheable(cacheNames = CacheConfig.BOOKS, unless = "#result == null")
+    Optional<Book> findById(String id);
 }
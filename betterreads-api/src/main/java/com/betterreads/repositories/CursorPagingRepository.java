@@ -0,0 +1,50 @@
+package com.betterreads.repositories;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.repository.NoRepositoryBean;
+
+/**
+ * <p>
+ * Base MongoDB repository with keyset (cursor) queries on the _id index
+ * </p>
+ *
+ * @param <T> the document type
+ */
+@NoRepositoryBean
+public interface CursorPagingRepository<T> extends MongoRepository<T, String> {
+
+    /**
+     * <p>
+     * Gets the first window of documents without a count query
+     * </p>
+     * 
+     * @param pageable the window size and sort
+     * @return the documents
+     */
+    List<T> findAllBy(Pageable pageable);
+
+    /**
+     * <p>
+     * Gets the window of documents whose id is greater than the cursor
+     * </p>
+     * 
+     * @param id       the cursor
+     * @param pageable the window size and sort
+     * @return the documents
+     */
+    List<T> findByIdGreaterThan(Object id, Pageable pageable);
+
+    /**
+     * <p>
+     * Gets the window of documents whose id is less than the cursor
+     * </p>
+     * 
+     * @param id       the cursor
+     * @param pageable the window size and sort
+     * @return the documents
+     */
+    List<T> findByIdLessThan(Object id, Pageable pageable);
+}
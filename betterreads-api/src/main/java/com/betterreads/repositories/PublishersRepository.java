@@ -1,8 +1,11 @@
 package com.betterreads.repositories;
 
-import org.springframework.data.mongodb.repository.MongoRepository;
+import java.util.Optional;
+
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Repository;
 
+import com.betterreads.configurations.CacheConfig;
 import com.betterreads.models.Publisher;
 
 /**
@@ -11,6 +14,16 @@ import com.betterreads.models.Publisher;
  * </p>
  */
 @Repository
-public interface PublishersRepository extends MongoRepository<Publisher, String> {
+public interface PublishersRepository extends CursorPagingRepository<Publisher> {
 
+    /**
+     * <p>
+     * Finds a publisher by id, reading through the publisher cache. Missing
+     * publishers are not cached. Entries are evicted by the CacheInvalidator when
+     * the services write.
+     * </p>
+     */
+    @Override
+    @Cacheable(cacheNames = CacheConfig.PUBLISHERS, unless = "#result == null")
+    Optional<Publisher> findById(String id);
 }
@@ -0,0 +1,14 @@
+package com.betterreads.repositories.reactive;
+
+import org.springframework.stereotype.Repository;
+
+import com.betterreads.models.Author;
+
+/**
+ * <p>
+ * Reactive MongoDB repository for Authors collection
+ * </p>
+ */
+@Repository
+public interface ReactiveAuthorsRepository extends ReactiveCursorPagingRepository<Author> {
+}
@@ -0,0 +1,14 @@
+package com.betterreads.repositories.reactive;
+
+import org.springframework.stereotype.Repository;
+
+import com.betterreads.models.Book;
+
+/**
+ * <p>
+ * Reactive MongoDB repository for Books collections
+ * </p>
+ */
+@Repository
+public interface ReactiveBooksRepository extends ReactiveCursorPagingRepository<Book> {
+}
@@ -0,0 +1,51 @@
+package com.betterreads.repositories.reactive;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.data.repository.NoRepositoryBean;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * <p>
+ * Base reactive MongoDB repository with keyset (cursor) queries on the _id
+ * index
+ * </p>
+ *
+ * @param <T> the document type
+ */
+@NoRepositoryBean
+public interface ReactiveCursorPagingRepository<T> extends ReactiveMongoRepository<T, String> {
+
+    /**
+     * <p>
+     * Gets the first window of documents without a count query
+     * </p>
+     * 
+     * @param pageable the window size and sort
+     * @return the documents
+     */
+    Flux<T> findAllBy(Pageable pageable);
+
+    /**
+     * <p>
+     * Gets the window of documents whose id is greater than the cursor
+     * </p>
+     * 
+     * @param id       the cursor
+     * @param pageable the window size and sort
+     * @return the documents
+     */
+    Flux<T> findByIdGreaterThan(Object id, Pageable pageable);
+
+    /**
+     * <p>
+     * Gets the window of documents whose id is less than the cursor
+     * </p>
+     * 
+     * @param id       the cursor
+     * @param pageable the window size and sort
+     * @return the documents
+     */
+    Flux<T> findByIdLessThan(Object id, Pageable pageable);
+}
@@ -0,0 +1,14 @@
+package com.betterreads.repositories.reactive;
+
+import org.springframework.stereotype.Repository;
+
+import com.betterreads.models.Publisher;
+
+/**
+ * <p>
+ * Reactive MongoDB repository for Publishers collections
+ * </p>
+ */
+@Repository
+public interface ReactivePublishersRepository extends ReactiveCursorPagingRepository<Publisher> {
+}
@@ -0,0 +1,25 @@
+package com.betterreads.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * <p>
+ * Refreshes the materialized author_stats at startup and then every
+ * betterreads.author-stats.refresh-interval
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "betterreads.author-stats.materialize", havingValue = "true")
+public class AuthorStatsRefresher {
+
+    @Autowired
+    private AuthorStatsService authorStatsService;
+
+    @Scheduled(fixedDelayString = "${betterreads.author-stats.refresh-interval:PT10M}")
+    public void refresh() {
+        authorStatsService.refresh();
+    }
+}
@@ -0,0 +1,203 @@
+package com.betterreads.services;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.stereotype.Service;
+
+import com.betterreads.assemblers.AuthorStatsAssembler;
+import com.betterreads.exceptions.InvalidRequestException;
+import com.betterreads.models.Author;
+import com.betterreads.models.AuthorStats;
+import com.betterreads.models.Book;
+import com.betterreads.queries.FieldType;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * Computes author statistics in Mongo with one aggregation over the books
+ * collection, which is served by the books index on authors. The most prolific
+ * authors can also be kept in author_stats, refreshed by
+ * AuthorStatsRefresher.
+ * </p>
+ */
+@Service
+@Slf4j
+public class AuthorStatsService {
+
+    /**
+     * The most authors one bulk request may name
+     */
+    public static final int MAX_IDS = 100;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private AuthorStatsAssembler assembler;
+
+    @Value("${betterreads.author-stats.materialize:false}")
+    private boolean materialize;
+
+    @Value("${betterreads.author-stats.top:100}")
+    private int top = 100;
+
+    /**
+     * <p>
+     * Gets the statistics of one author
+     * </p>
+     *
+     * @param id the author's id
+     * @return the statistics, all zero when the author has no books and null
+     *         when the author does not exist
+     */
+    public EntityModel<AuthorStats> getById(String id) {
+        List<AuthorStats> stats = aggregate(List.of(id));
+
+        if (!stats.isEmpty()) {
+            return assembler.toModel(stats.get(0));
+        }
+
+        if (!mongoTemplate.exists(new Query(Criteria.where("_id").is(FieldType.REFERENCE.convert(id))),
+                Author.class)) {
+            return null;
+        }
+
+        return assembler.toModel(AuthorStats.builder().id(id).genres(Map.of()).build());
+    }
+
+    /**
+     * <p>
+     * Gets the statistics of several authors with one aggregation
+     * </p>
+     *
+     * @param ids the authors' ids
+     * @return the statistics of the authors that have books, ordered by id
+     * @throws InvalidRequestException if no ids or more than {@value #MAX_IDS}
+     *                                 are given
+     */
+    public CollectionModel<EntityModel<?>> getAll(List<String> ids) {
+        if (ids.isEmpty() || ids.size() > MAX_IDS) {
+            throw new InvalidRequestException("ids", "Between 1 and " + MAX_IDS + " ids are required");
+        }
+
+        return assembler.toCollectionModel(aggregate(ids), ids);
+    }
+
+    /**
+     * <p>
+     * Gets the authors with the most books, from author_stats when it is
+     * materialized and from the books otherwise
+     * </p>
+     *
+     * @param size the number of authors
+     * @return the statistics, most books first
+     */
+    public CollectionModel<EntityModel<?>> getTop(int size) {
+        List<AuthorStats> stats;
+
+        if (materialize) {
+            stats = mongoTemplate.find(new Query()
+                    .with(Sort.by(Sort.Direction.DESC, "bookCount").and(Sort.by("id")))
+                    .limit(size), AuthorStats.class);
+        } else {
+            stats = mongoTemplate.aggregate(Aggregation.newAggregation(ranked(size)),
+                    mongoTemplate.getCollectionName(Book.class), AuthorStats.class).getMappedResults();
+        }
+
+        return assembler.toTopModel(stats, size);
+    }
+
+    /**
+     * <p>
+     * Replaces author_stats with the statistics of the betterreads.author-stats.top
+     * authors with the most books. $out swaps the collection in whole, so readers
+     * never see a partial refresh.
+     * </p>
+     */
+    public void refresh() {
+        List<AggregationOperation> operations = new ArrayList<>(ranked(top));
+        operations.add(context -> new Document("$addFields", new Document("refreshedAt", new Date())));
+        operations.add(Aggregation.out(mongoTemplate.getCollectionName(AuthorStats.class)));
+
+        mongoTemplate.aggregate(Aggregation.newAggregation(operations), mongoTemplate.getCollectionName(Book.class),
+                Document.class);
+
+        log.info("Refreshed the stats of the top {} authors", top);
+    }
+
+    private List<AuthorStats> aggregate(List<String> ids) {
+        Criteria authors = Criteria.where("authors")
+                .in(ids.stream().map(FieldType.REFERENCE::convert).collect(Collectors.toList()));
+        List<AggregationOperation> operations = new ArrayList<>();
+
+        operations.add(Aggregation.match(authors));
+        operations.add(Aggregation.unwind("authors"));
+        // a book also names its other authors, which the unwind turned into rows of their own
+        operations.add(Aggregation.match(authors));
+        operations.add(totals());
+        operations.add(Aggregation.sort(Sort.by("_id")));
+        operations.addAll(genres());
+
+        return mongoTemplate.aggregate(Aggregation.newAggregation(operations),
+                mongoTemplate.getCollectionName(Book.class), AuthorStats.class).getMappedResults();
+    }
+
+    private static List<AggregationOperation> ranked(int size) {
+        List<AggregationOperation> operations = new ArrayList<>();
+
+        operations.add(Aggregation.unwind("authors"));
+        operations.add(totals());
+        operations.add(Aggregation.sort(Sort.by(Sort.Direction.DESC, "bookCount").and(Sort.by("_id"))));
+        operations.add(Aggregation.limit(size));
+        operations.addAll(genres());
+
+        return operations;
+    }
+
+    private static AggregationOperation totals() {
+        return Aggregation.group("authors")
+                .count().as("bookCount")
+                .sum("pages").as("totalPages")
+                .avg("pages").as("averagePages")
+                .min("publishedDate").as("firstPublished")
+                .max("publishedDate").as("lastPublished")
+                .push("genres").as("genres");
+    }
+
+    /**
+     * <p>
+     * Turns the pushed genre lists of each author into a count per genre
+     * </p>
+     */
+    private static List<AggregationOperation> genres() {
+        Document flattened = new Document("$reduce", new Document("input", "$genres")
+                .append("initialValue", List.of())
+                .append("in", new Document("$concatArrays", List.of("$$value",
+                        new Document("$ifNull", List.of("$$this", List.of()))))));
+        Document counted = new Document("$arrayToObject", new Document("$map", new Document("input",
+                new Document("$setUnion", List.of("$genres")))
+                .append("as", "genre")
+                .append("in", new Document("k", "$$genre").append("v", new Document("$size",
+                        new Document("$filter", new Document("input", "$genres")
+                                .append("cond", new Document("$eq", List.of("$$this", "$$genre")))))))));
+
+        return List.of(context -> new Document("$addFields", new Document("genres", flattened)),
+                context -> new Document("$addFields", new Document("genres", counted)));
+    }
+}
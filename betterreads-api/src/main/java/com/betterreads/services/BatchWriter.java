@@ -0,0 +1,168 @@
+package com.betterreads.services;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.betterreads.models.BatchResult;
+import com.betterreads.models.Versioned;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * <p>
+ * Validates and writes batches of documents with chunked, unordered bulk writes
+ * </p>
+ */
+@Component
+public class BatchWriter {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${betterreads.batch.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    /**
+     * <p>
+     * Writes every element. Elements without an id are inserted with a generated
+     * id at version 0, elements with an id replace the stored document, moving
+     * its version on, or are upserted. Invalid
+     * elements are reported and skipped; the rest are sent in chunks of
+     * chunk-size operations per round trip.
+     * </p>
+     *
+     * @param type     the entity type of the collection
+     * @param entities the elements to write
+     * @return one result per element, in request order
+     */
+    public List<BatchResult> write(Class<?> type, Iterator<?> entities) {
+        List<BatchResult> results = new ArrayList<>();
+        List<Versioned> pending = new ArrayList<>(chunkSize);
+        List<BatchResult> pendingResults = new ArrayList<>(chunkSize);
+
+        while (entities.hasNext()) {
+            Versioned entity = (Versioned) entities.next();
+            BatchResult result = BatchResult.builder().index(results.size()).id(entity.getId()).build();
+            Map<String, String> errors = validate(entity);
+
+            results.add(result);
+
+            if (!errors.isEmpty()) {
+                result.setStatus(BatchResult.Status.INVALID);
+                result.setErrors(errors);
+                continue;
+            }
+
+            pending.add(entity);
+            pendingResults.add(result);
+
+            if (pending.size() >= chunkSize) {
+                flush(type, pending, pendingResults);
+            }
+        }
+
+        flush(type, pending, pendingResults);
+
+        return results;
+    }
+
+    private Map<String, String> validate(Object entity) {
+        Map<String, String> errors = new LinkedHashMap<>();
+
+        for (ConstraintViolation<Object> violation : validator.validate(entity)) {
+            errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+
+        return errors;
+    }
+
+    private void flush(Class<?> type, List<Versioned> entities, List<BatchResult> results) {
+        if (entities.isEmpty()) {
+            return;
+        }
+
+        BulkOperations operations = mongoTemplate.bulkOps(BulkMode.UNORDERED, type);
+
+        for (int i = 0; i < entities.size(); i++) {
+            Versioned entity = entities.get(i);
+            BatchResult result = results.get(i);
+
+            if (entity.getId() == null) {
+                entity.setId(new ObjectId().toHexString());
+                result.setId(entity.getId());
+                result.setStatus(BatchResult.Status.CREATED);
+                entity.setVersion(0L);
+                operations.insert(entity);
+            } else {
+                result.setStatus(BatchResult.Status.UPDATED);
+                operations.upsert(new Query(Criteria.where("id").is(entity.getId())), replacement(entity));
+            }
+        }
+
+        BulkWriteResult outcome;
+        List<BulkWriteError> failures;
+
+        try {
+            outcome = operations.execute();
+            failures = List.of();
+        } catch (BulkOperationException ex) {
+            outcome = ex.getResult();
+            failures = ex.getErrors();
+        }
+
+        for (BulkWriteUpsert upsert : outcome.getUpserts()) {
+            results.get(upsert.getIndex()).setStatus(BatchResult.Status.CREATED);
+        }
+
+        for (BulkWriteError failure : failures) {
+            BatchResult result = results.get(failure.getIndex());
+            result.setStatus(BatchResult.Status.FAILED);
+            result.setErrors(Map.of("write", failure.getMessage()));
+        }
+
+        entities.clear();
+        results.clear();
+    }
+
+    /**
+     * <p>
+     * Replaces the stored document with the element in a pipeline update, so
+     * the version moves on from the stored one, or starts at 0 on an upsert,
+     * instead of being dropped as a plain replacement would
+     * </p>
+     */
+    private AggregationUpdate replacement(Versioned entity) {
+        Document document = new Document();
+        mongoTemplate.getConverter().write(entity, document);
+        document.remove("version");
+
+        Document version = new Document("version",
+                new Document("$add", List.of(new Document("$ifNull", List.of("$version", -1)), 1)));
+
+        return AggregationUpdate.from(List.of(context -> new Document("$replaceWith",
+                new Document("$mergeObjects", List.of(new Document("$literal", document), version)))));
+    }
+}
@@ -0,0 +1,138 @@
+package com.betterreads.services;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.betterreads.configurations.CacheConfig;
+import com.betterreads.models.Book;
+import com.betterreads.models.BookFacets;
+import com.betterreads.models.FacetCount;
+import com.betterreads.models.Publisher;
+import com.betterreads.models.SearchRequest;
+import com.betterreads.queries.Collations;
+import com.betterreads.queries.SearchFields;
+import com.betterreads.queries.SearchQueryCompiler;
+
+/**
+ * <p>
+ * Counts the books matching a search by genre, language, publisher and decade
+ * with one $facet aggregation, so a browse page gets its facets without
+ * loading the books
+ * </p>
+ */
+@Service
+public class BookFacetsService {
+
+    /**
+     * The most values returned for the genre, language and publisher facets
+     */
+    public static final int MAX_VALUES = 20;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private SearchQueryCompiler compiler;
+
+    /**
+     * <p>
+     * Counts the books matching the request's filters. The sort and limit of the
+     * request do not apply. Identical filters are answered from the facets
+     * cache, which expires after betterreads.facets.ttl and is cleared when a
+     * book or publisher changes.
+     * </p>
+     *
+     * @param request the search request, without filters for all books
+     * @return the total and the facet counts, most frequent values first and
+     *         decades in order
+     */
+    @Cacheable(cacheNames = CacheConfig.FACETS, key = "{#request.filters, #request.match}")
+    public BookFacets getFacets(SearchRequest request) {
+        Query filter = compiler.compile(request, SearchFields.BOOKS);
+        // an aggregation stage is sent as written, so the filter is mapped as a query on books would be, id to _id
+        MongoPersistentEntity<?> book = mongoTemplate.getConverter().getMappingContext()
+                .getPersistentEntity(Book.class);
+        Document match = new QueryMapper(mongoTemplate.getConverter()).getMappedObject(filter.getQueryObject(), book);
+        Document facets = new Document("total", List.of(count(null)))
+                .append("genres", List.of(new Document("$unwind", "$genres"), count("$genres"),
+                        ranking(), new Document("$limit", MAX_VALUES)))
+                .append("languages", List.of(present("language"), count("$language"), ranking(),
+                        new Document("$limit", MAX_VALUES)))
+                .append("publishers", List.of(present("publisher"), count("$publisher"), ranking(),
+                        new Document("$limit", MAX_VALUES),
+                        new Document("$lookup", new Document("from", mongoTemplate.getCollectionName(Publisher.class))
+                                .append("localField", "_id")
+                                .append("foreignField", "_id")
+                                .append("as", "publisher")),
+                        new Document("$addFields", new Document("label",
+                                new Document("$arrayElemAt", List.of("$publisher.name", 0))))))
+                .append("decades", List.of(new Document("$match", new Document("publishedDate",
+                        new Document("$type", "date"))),
+                        count(new Document("$subtract", List.of(new Document("$year", "$publishedDate"),
+                                new Document("$mod", List.of(new Document("$year", "$publishedDate"), 10))))),
+                        new Document("$sort", new Document("_id", 1))));
+        Aggregation aggregation = Aggregation.newAggregation(
+                context -> new Document("$match", match),
+                context -> new Document("$facet", facets))
+                .withOptions(AggregationOptions.builder().collation(Collations.CASE_INSENSITIVE).build());
+
+        Document result = mongoTemplate.aggregate(aggregation, mongoTemplate.getCollectionName(Book.class),
+                Document.class).getUniqueMappedResult();
+
+        if (result == null) {
+            result = new Document();
+        }
+
+        List<Document> total = result.getList("total", Document.class, List.of());
+
+        return BookFacets.builder()
+                .total(total.isEmpty() ? 0 : total.get(0).get("count", Number.class).longValue())
+                .genres(counts(result, "genres"))
+                .languages(counts(result, "languages"))
+                .publishers(counts(result, "publishers"))
+                .decades(counts(result, "decades"))
+                .build();
+    }
+
+    private static Document count(Object key) {
+        return new Document("$group", new Document("_id", key).append("count", new Document("$sum", 1)));
+    }
+
+    private static Document ranking() {
+        return new Document("$sort", new Document("count", -1).append("_id", 1));
+    }
+
+    private static Document present(String field) {
+        return new Document("$match", new Document(field, new Document("$ne", null)));
+    }
+
+    /**
+     * <p>
+     * Writes decades as whole years, however the server typed the arithmetic
+     * </p>
+     */
+    private static String value(Object id) {
+        return id instanceof Number ? String.valueOf(((Number) id).longValue()) : String.valueOf(id);
+    }
+
+    private static List<FacetCount> counts(Document result, String facet) {
+        return result.getList(facet, Document.class, List.of()).stream()
+                .map(bucket -> FacetCount.builder()
+                        .value(value(bucket.get("_id")))
+                        .label(bucket.getString("label"))
+                        .count(bucket.get("count", Number.class).longValue())
+                        .build())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,131 @@
+package com.betterreads.services;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.stereotype.Service;
+
+import com.betterreads.assemblers.BookSummariesAssembler;
+import com.betterreads.models.BookSummary;
+import com.betterreads.models.SearchExplanation;
+import com.betterreads.models.SearchRequest;
+import com.betterreads.queries.Collations;
+import com.betterreads.queries.QueryExplainer;
+import com.betterreads.queries.SearchFields;
+import com.betterreads.queries.SearchQueryCompiler;
+
+/**
+ * <p>
+ * Service for listing books from the book_summaries read model, which carries
+ * everything a list view shows without reading authors or publishers
+ * </p>
+ */
+@Service
+public class BookSummariesService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private BookSummariesAssembler assembler;
+
+    @Autowired
+    private SearchQueryCompiler compiler;
+
+    @Autowired
+    private QueryExplainer explainer;
+
+    /**
+     * <p>
+     * Gets one page of book summaries, optionally narrowed to a genre, an
+     * author's formatted name or a publisher's name. Names match regardless of
+     * case, through the same collation as their indexes.
+     * </p>
+     *
+     * @param after     the id to read after
+     * @param before    the id to read before
+     * @param size      the page size
+     * @param genre     the genre, may be null
+     * @param author    the author's formatted name, may be null
+     * @param publisher the publisher's name, may be null
+     * @return one page of summaries
+     */
+    public CollectionModel<EntityModel<?>> getAll(String after, String before, int size, String genre, String author,
+            String publisher) {
+        Query filter = new Query();
+
+        if (genre != null) {
+            filter.addCriteria(Criteria.where("genres").is(genre));
+        }
+
+        if (author != null) {
+            filter.addCriteria(Criteria.where("authorNames").is(author));
+        }
+
+        if (publisher != null) {
+            filter.addCriteria(Criteria.where("publisherName").is(publisher));
+        }
+
+        // an unfiltered page reads the _id index, which has the default collation
+        if (!filter.getQueryObject().isEmpty()) {
+            filter.collation(Collations.CASE_INSENSITIVE);
+        }
+
+        CursorPage<BookSummary> page = CursorPage.fetch(mongoTemplate, BookSummary.class, filter, after, before,
+                size);
+
+        return assembler.toPagedModel(page, genre, author, publisher);
+    }
+
+    /**
+     * <p>
+     * Gets one page of the book list as summaries, with links that page through
+     * /books in the summary view
+     * </p>
+     *
+     * @param after  the id to read after
+     * @param before the id to read before
+     * @param size   the page size
+     * @return one page of summaries
+     */
+    public CollectionModel<EntityModel<?>> getBooks(String after, String before, int size) {
+        CursorPage<BookSummary> page = CursorPage.fetch(mongoTemplate, BookSummary.class, new Query(), after, before,
+                size);
+
+        return assembler.toBooksPagedModel(page);
+    }
+
+    /**
+     * <p>
+     * Searches the book summaries with the same typed filters as a book search,
+     * on the title, genres, author names and publisher name they carry
+     * </p>
+     *
+     * @param request the search request
+     * @return the matching summaries
+     */
+    public List<EntityModel<?>> search(SearchRequest request) {
+        Query query = compiler.compile(request, SearchFields.BOOK_SUMMARIES);
+
+        return mongoTemplate.find(query, BookSummary.class).stream().map(assembler::toModel)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * <p>
+     * Explains how a search of the book summaries would be served
+     * </p>
+     *
+     * @param request the search request
+     * @return the winning plan and the index it uses
+     */
+    public SearchExplanation explain(SearchRequest request) {
+        return explainer.explain(compiler.compile(request, SearchFields.BOOK_SUMMARIES), BookSummary.class);
+    }
+}
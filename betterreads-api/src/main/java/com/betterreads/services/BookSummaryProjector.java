@@ -0,0 +1,451 @@
+package com.betterreads.services;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.betterreads.events.CatalogChangedEvent;
+import com.betterreads.models.Author;
+import com.betterreads.models.Book;
+import com.betterreads.models.BookSummary;
+import com.betterreads.models.Publisher;
+import com.betterreads.queries.FieldType;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * Keeps the book_summaries collection in step with books, authors and
+ * publishers
+ * </p>
+ * <p>
+ * Changes of known documents are projected on the writing thread, a chunk of
+ * books at a time. Collection-wide changes, and summaries found out of step at
+ * startup, only ask for a full rebuild, which the scheduler runs in the
+ * background. A lease in summary_rebuilds lets one instance rebuild at a time.
+ * </p>
+ */
+@Component
+@Slf4j
+public class BookSummaryProjector implements ApplicationRunner {
+
+    /**
+     * Books projected per round trip
+     */
+    public static final int CHUNK_SIZE = 500;
+
+    /**
+     * The collection holding the rebuild lease
+     */
+    public static final String LEASES = "summary_rebuilds";
+
+    /**
+     * How long a rebuild holds the lease without renewing it, renewed after every
+     * chunk
+     */
+    public static final Duration LEASE = Duration.ofMinutes(5);
+
+    /**
+     * Returned by rebuildAll when the lease could not be renewed
+     */
+    public static final long LEASE_LOST = -1;
+
+    private static final String LEASE_ID = "book_summaries";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${betterreads.summaries.rebuild-on-startup:true}")
+    private boolean rebuildOnStartup = true;
+
+    private final String owner = UUID.randomUUID().toString();
+
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+
+    private final AtomicBoolean checkRequested = new AtomicBoolean();
+
+    /**
+     * <p>
+     * Asks for the summaries to be checked against the books, e.g. on the first
+     * start or after the data was loaded outside the API. The check and any
+     * rebuild run in the background, so startup does not wait for them.
+     * </p>
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (rebuildOnStartup) {
+            checkRequested.set(true);
+        }
+    }
+
+    /**
+     * <p>
+     * Updates the summaries affected by a change. Known documents are projected
+     * on the writing thread, so a write is searchable once the request that made
+     * it has returned; collection-wide changes ask for a background rebuild.
+     * Changes from the change stream are skipped: the summaries are shared, and
+     * the instance that made the write has already projected it.
+     * </p>
+     *
+     * @param event the change
+     */
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.isRemote()) {
+            return;
+        }
+
+        if (event.getType() != Book.class && event.getType() != Author.class && event.getType() != Publisher.class) {
+            return;
+        }
+
+        if (event.isAll()) {
+            rebuildRequested.set(true);
+        } else if (event.getType() == Book.class) {
+            rebuild(event.getIds());
+        } else {
+            rebuild(referencing(event.getType() == Author.class ? "authors" : "publisher", event.getIds()));
+        }
+    }
+
+    /**
+     * <p>
+     * Runs the rebuild asked for since the last run, when this instance gets the
+     * lease. Otherwise it is tried again on the next run.
+     * </p>
+     *
+     * @return whether the summaries were rebuilt
+     */
+    @Scheduled(fixedDelayString = "${betterreads.summaries.rebuild-delay:PT5S}")
+    public boolean rebuildIfRequested() {
+        boolean rebuild = rebuildRequested.get();
+        boolean check = checkRequested.get();
+
+        if (!rebuild && !check) {
+            return false;
+        }
+
+        if (!lease()) {
+            log.debug("Another instance is rebuilding the book summaries");
+            return false;
+        }
+
+        boolean leased = true;
+
+        try {
+            rebuildRequested.set(false);
+            checkRequested.set(false);
+
+            if (!rebuild) {
+                long books = mongoTemplate.count(new Query(), Book.class);
+                long summaries = mongoTemplate.count(new Query(), BookSummary.class);
+
+                if (books == summaries) {
+                    return false;
+                }
+
+                log.info("Found {} book summaries for {} books, rebuilding", summaries, books);
+            }
+
+            leased = rebuildAll() != LEASE_LOST;
+
+            return leased;
+        } finally {
+            // a lost lease may already belong to another instance, which must keep it
+            if (leased) {
+                release();
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * Projects every book, reading the books with a cursor and their authors and
+     * publishers with one query per chunk, and then removes the summaries of
+     * books that no longer exist. The summaries are replaced in place, so search
+     * keeps serving them while the rebuild runs. The lease is renewed after
+     * every chunk; when that fails another instance may have taken it, so the
+     * rebuild stops, before removing anything, and is asked for again.
+     * </p>
+     *
+     * @return the number of summaries written, or LEASE_LOST when the rebuild
+     *         stopped
+     */
+    public long rebuildAll() {
+        Query query = new Query().cursorBatchSize(CHUNK_SIZE);
+        long count = 0;
+
+        try (Stream<Document> books = mongoTemplate.stream(query, Document.class,
+                mongoTemplate.getCollectionName(Book.class))) {
+            Iterator<Document> iterator = books.iterator();
+            List<Document> chunk = new ArrayList<>(CHUNK_SIZE);
+
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+
+                if (chunk.size() == CHUNK_SIZE || !iterator.hasNext()) {
+                    count += write(chunk);
+                    chunk.clear();
+
+                    if (!lease()) {
+                        log.warn("Lost the book summaries rebuild lease after {} summaries, stopping", count);
+                        rebuildRequested.set(true);
+
+                        return LEASE_LOST;
+                    }
+                }
+            }
+        }
+
+        long removed = removeOrphans();
+
+        log.info("Rebuilt {} book summaries, removed {}", count, removed);
+
+        return count;
+    }
+
+    /**
+     * <p>
+     * Projects the given books and removes the summaries of books that no longer
+     * exist, a chunk of CHUNK_SIZE ids per round trip
+     * </p>
+     *
+     * @param ids the ids of the books
+     */
+    public void rebuild(Collection<String> ids) {
+        List<String> chunk = new ArrayList<>(Math.min(ids.size(), CHUNK_SIZE));
+
+        for (String id : ids) {
+            chunk.add(id);
+
+            if (chunk.size() == CHUNK_SIZE) {
+                project(chunk);
+                chunk.clear();
+            }
+        }
+
+        project(chunk);
+    }
+
+    private void project(List<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        List<Document> books = mongoTemplate.find(new Query(Criteria.where("_id").in(keys(ids))), Document.class,
+                mongoTemplate.getCollectionName(Book.class));
+        Set<String> missing = new HashSet<>(ids);
+
+        books.forEach(book -> missing.remove(book.get("_id").toString()));
+        write(books);
+
+        if (!missing.isEmpty()) {
+            mongoTemplate.remove(new Query(Criteria.where("id").in(keys(missing))), BookSummary.class);
+        }
+    }
+
+    private long removeOrphans() {
+        Query query = new Query().cursorBatchSize(CHUNK_SIZE);
+        query.fields().include("_id");
+        long removed = 0;
+
+        try (Stream<Document> summaries = mongoTemplate.stream(query, Document.class,
+                mongoTemplate.getCollectionName(BookSummary.class))) {
+            Iterator<Document> iterator = summaries.iterator();
+            Set<String> chunk = new HashSet<>();
+
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next().get("_id").toString());
+
+                if (chunk.size() == CHUNK_SIZE || !iterator.hasNext()) {
+                    removed += removeMissing(chunk);
+                    chunk.clear();
+                }
+            }
+        }
+
+        return removed;
+    }
+
+    private long removeMissing(Set<String> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        Query query = new Query(Criteria.where("_id").in(keys(ids)));
+        query.fields().include("_id");
+        Set<String> missing = new HashSet<>(ids);
+
+        mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Book.class))
+                .forEach(book -> missing.remove(book.get("_id").toString()));
+
+        if (!missing.isEmpty()) {
+            mongoTemplate.remove(new Query(Criteria.where("id").in(keys(missing))), BookSummary.class);
+        }
+
+        return missing.size();
+    }
+
+    /**
+     * <p>
+     * Takes or renews the rebuild lease. The upsert fails on the lease's _id
+     * while another instance holds it.
+     * </p>
+     */
+    private boolean lease() {
+        Date now = new Date();
+        Query query = new Query(Criteria.where("_id").is(LEASE_ID)
+                .orOperator(Criteria.where("owner").is(owner), Criteria.where("until").lt(now)));
+        Update update = new Update().set("owner", owner).set("until", new Date(now.getTime() + LEASE.toMillis()));
+
+        try {
+            return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().upsert(true).returnNew(true),
+                    Document.class, LEASES) != null;
+        } catch (DuplicateKeyException ex) {
+            return false;
+        }
+    }
+
+    private void release() {
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(LEASE_ID).and("owner").is(owner)),
+                new Update().set("until", new Date()), LEASES);
+    }
+
+    private List<String> referencing(String field, Collection<String> ids) {
+        Query query = new Query(Criteria.where(field).in(keys(ids)));
+        query.fields().include("_id");
+
+        return mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Book.class)).stream()
+                .map(book -> book.get("_id").toString())
+                .collect(Collectors.toList());
+    }
+
+    private int write(List<Document> books) {
+        if (books.isEmpty()) {
+            return 0;
+        }
+
+        Set<String> authorIds = new LinkedHashSet<>();
+        Set<String> publisherIds = new LinkedHashSet<>();
+
+        for (Document book : books) {
+            references(book.get("authors")).forEach(authorIds::add);
+            references(book.get("publisher")).forEach(publisherIds::add);
+        }
+
+        Map<String, String> authorNames = authorNames(authorIds);
+        Map<String, String> publisherNames = names(Publisher.class, publisherIds);
+        BulkOperations operations = mongoTemplate.bulkOps(BulkMode.UNORDERED, BookSummary.class);
+
+        for (Document book : books) {
+            String id = book.get("_id").toString();
+            List<String> publisher = references(book.get("publisher"));
+            BookSummary summary = BookSummary.builder()
+                    .id(id)
+                    .title(book.getString("title"))
+                    .genres(book.getList("genres", String.class))
+                    .authorNames(references(book.get("authors")).stream()
+                            .map(authorNames::get)
+                            .filter(name -> name != null)
+                            .collect(Collectors.toList()))
+                    .publisherName(publisher.isEmpty() ? null : publisherNames.get(publisher.get(0)))
+                    .build();
+
+            operations.replaceOne(new Query(Criteria.where("id").is(id)), summary,
+                    FindAndReplaceOptions.options().upsert());
+        }
+
+        operations.execute();
+
+        return books.size();
+    }
+
+    private Map<String, String> authorNames(Collection<String> ids) {
+        Map<String, String> names = new HashMap<>();
+
+        for (Document author : lookup(Author.class, ids, "firstName", "middleName", "lastName", "suffix")) {
+            names.put(author.get("_id").toString(), Author.builder()
+                    .firstName(author.getString("firstName"))
+                    .middleName(author.getString("middleName"))
+                    .lastName(author.getString("lastName"))
+                    .suffix(author.getString("suffix"))
+                    .build()
+                    .getFormattedName());
+        }
+
+        return names;
+    }
+
+    private Map<String, String> names(Class<?> type, Collection<String> ids) {
+        Map<String, String> names = new HashMap<>();
+
+        for (Document document : lookup(type, ids, "name")) {
+            names.put(document.get("_id").toString(), document.getString("name"));
+        }
+
+        return names;
+    }
+
+    private List<Document> lookup(Class<?> type, Collection<String> ids, String... fields) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Query query = new Query(Criteria.where("_id").in(keys(ids)));
+        query.fields().include(fields);
+
+        return mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(type));
+    }
+
+    /**
+     * <p>
+     * Reads the ids out of a stored reference, which is a single id or a list of
+     * them
+     * </p>
+     */
+    private static List<String> references(Object value) {
+        if (value == null) {
+            return List.of();
+        }
+
+        if (value instanceof Collection<?> values) {
+            return values.stream().filter(item -> item != null).map(Object::toString).collect(Collectors.toList());
+        }
+
+        return List.of(value.toString());
+    }
+
+    private static List<Object> keys(Collection<String> ids) {
+        return ids.stream().map(FieldType.REFERENCE::convert).collect(Collectors.toList());
+    }
+}
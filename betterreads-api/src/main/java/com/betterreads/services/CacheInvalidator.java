@@ -0,0 +1,67 @@
+package com.betterreads.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.betterreads.configurations.CacheConfig;
+import com.betterreads.events.CatalogChangedEvent;
+import com.betterreads.models.Book;
+import com.betterreads.models.Publisher;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * Evicts changed documents from the document caches, and the facet counts when
+ * books or publishers change
+ * </p>
+ */
+@Component
+@Slf4j
+public class CacheInvalidator {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * <p>
+     * Evicts exactly the changed ids, or clears the cache of the collection when
+     * all of its documents changed. Runs after the write, on the writing thread,
+     * and again for every instance's writes on the change stream's thread when
+     * change streams are enabled.
+     * </p>
+     *
+     * @param event the change
+     */
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.getType() == Book.class || event.getType() == Publisher.class) {
+            Cache facets = cacheManager.getCache(CacheConfig.FACETS);
+
+            if (facets != null) {
+                facets.clear();
+            }
+        }
+
+        Cache cache = cacheManager.getCache(mongoTemplate.getCollectionName(event.getType()));
+
+        if (cache == null) {
+            return;
+        }
+
+        if (event.isAll()) {
+            cache.clear();
+            log.debug("Cleared cache {}", cache.getName());
+        } else {
+            event.getIds().forEach(cache::evict);
+            log.debug("Evicted {} entries from cache {}", event.getIds().size(), cache.getName());
+        }
+    }
+}
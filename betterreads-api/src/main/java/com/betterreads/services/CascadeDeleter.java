@@ -0,0 +1,246 @@
+package com.betterreads.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.betterreads.events.CatalogChangedEvent;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * Deletes documents together with the references other collections hold to
+ * them, so no document is left pointing at a deleted one. The referencing
+ * properties are found from the mapping, like RelationLoader does.
+ * </p>
+ */
+@Component
+@Slf4j
+public class CascadeDeleter {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Value("${betterreads.batch.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    @Value("${betterreads.deletes.transactional:false}")
+    private boolean transactional;
+
+    private TransactionTemplate transactions;
+
+    /**
+     * <p>
+     * Deletes documents by id in chunks of chunk-size. Each chunk costs one
+     * updateMany per referencing property, pulling the chunk's ids, and one
+     * deleteMany, in one transaction when betterreads.deletes.transactional is
+     * set.
+     * </p>
+     *
+     * @param type the entity type of the collection
+     * @param ids  the ids of the documents to delete
+     * @return the number of documents deleted
+     */
+    public long delete(Class<?> type, Collection<String> ids) {
+        List<String> chunk = new ArrayList<>(chunkSize);
+        long deleted = 0;
+
+        for (String id : ids) {
+            chunk.add(id);
+
+            if (chunk.size() >= chunkSize) {
+                deleted += deleteChunk(type, chunk);
+            }
+        }
+
+        return deleted + deleteChunk(type, chunk);
+    }
+
+    /**
+     * <p>
+     * Deletes the documents matching a filter, reading their ids with a cursor
+     * and deleting them a chunk at a time. The filter names properties, like a
+     * repository query, and is mapped to the stored fields, so id matches _id.
+     * The limit and sort of the filter do not apply.
+     * </p>
+     *
+     * @param type   the entity type of the collection
+     * @param filter the filter
+     * @return the number of documents deleted
+     */
+    public long delete(Class<?> type, Query filter) {
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext().getPersistentEntity(type);
+        Query query = new BasicQuery(new QueryMapper(mongoTemplate.getConverter())
+                .getMappedObject(filter.getQueryObject(), entity)).cursorBatchSize(chunkSize);
+        filter.getCollation().ifPresent(query::collation);
+        query.fields().include("_id");
+
+        List<String> chunk = new ArrayList<>(chunkSize);
+        long deleted = 0;
+
+        try (Stream<Document> documents = mongoTemplate.stream(query, Document.class,
+                mongoTemplate.getCollectionName(type))) {
+            Iterator<Document> iterator = documents.iterator();
+
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next().get("_id").toString());
+
+                if (chunk.size() >= chunkSize) {
+                    deleted += deleteChunk(type, chunk);
+                }
+            }
+        }
+
+        return deleted + deleteChunk(type, chunk);
+    }
+
+    /**
+     * <p>
+     * Deletes every document of a collection and empties the references to
+     * them with one updateMany per referencing property
+     * </p>
+     *
+     * @param type the entity type of the collection
+     * @return the number of documents deleted
+     */
+    public long deleteAll(Class<?> type) {
+        String collection = mongoTemplate.getCollectionName(type);
+        List<Reference> references = references(type);
+        List<Class<?>> changed = new ArrayList<>();
+
+        long deleted = inTransaction(() -> {
+            for (Reference reference : references) {
+                Query query = new Query(Criteria.where(reference.field()).exists(true)
+                        .ne(reference.many() ? List.of() : null));
+                Update update = reference.many() ? new Update().set(reference.field(), List.of())
+                        : new Update().unset(reference.field());
+
+                if (mongoTemplate.updateMulti(query, update.inc("version", 1), reference.collection())
+                        .getModifiedCount() > 0) {
+                    changed.add(reference.type());
+                }
+            }
+
+            return mongoTemplate.remove(new Query(), collection).getDeletedCount();
+        });
+
+        events.publishEvent(CatalogChangedEvent.all(type));
+        changed.forEach(referencing -> events.publishEvent(CatalogChangedEvent.all(referencing)));
+
+        return deleted;
+    }
+
+    private long deleteChunk(Class<?> type, List<String> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        String collection = mongoTemplate.getCollectionName(type);
+        List<Object> keys = ids.stream().map(CursorPage::toKey).collect(Collectors.toList());
+        List<Reference> references = references(type);
+        List<CatalogChangedEvent> changed = new ArrayList<>();
+
+        long deleted = inTransaction(() -> {
+            changed.clear();
+
+            for (Reference reference : references) {
+                Query query = new Query(Criteria.where(reference.field()).in(keys));
+                // the referencing ids are read first so their cached documents and summaries can be refreshed
+                List<String> referencing = referencing(query, reference.collection());
+
+                if (referencing.isEmpty()) {
+                    continue;
+                }
+
+                Update update = reference.many() ? new Update().pullAll(reference.field(), keys.toArray())
+                        : new Update().unset(reference.field());
+
+                mongoTemplate.updateMulti(query, update.inc("version", 1), reference.collection());
+                changed.add(CatalogChangedEvent.of(reference.type(), referencing.toArray(String[]::new)));
+            }
+
+            return mongoTemplate.remove(new Query(Criteria.where("_id").in(keys)), collection).getDeletedCount();
+        });
+
+        events.publishEvent(CatalogChangedEvent.of(type, ids.toArray(String[]::new)));
+        changed.forEach(events::publishEvent);
+
+        log.debug("Deleted {} {} and pulled them from {} referencing collections", deleted, collection,
+                changed.size());
+
+        ids.clear();
+
+        return deleted;
+    }
+
+    private List<String> referencing(Query query, String collection) {
+        Query ids = Query.of(query);
+        ids.fields().include("_id");
+
+        return mongoTemplate.find(ids, Document.class, collection).stream()
+                .map(document -> document.get("_id").toString())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * <p>
+     * Finds the reference properties of every mapped collection that point at
+     * the given type
+     * </p>
+     */
+    private List<Reference> references(Class<?> type) {
+        List<Reference> references = new ArrayList<>();
+
+        for (MongoPersistentEntity<?> entity : mongoTemplate.getConverter().getMappingContext()
+                .getPersistentEntities()) {
+            for (MongoPersistentProperty property : entity) {
+                if (property.isDocumentReference() && property.getActualType() == type) {
+                    references.add(new Reference(entity.getType(), entity.getCollection(), property.getFieldName(),
+                            property.isCollectionLike()));
+                }
+            }
+        }
+
+        return references;
+    }
+
+    private long inTransaction(Supplier<Long> work) {
+        if (!transactional) {
+            return work.get();
+        }
+
+        if (transactions == null) {
+            transactions = new TransactionTemplate(
+                    new MongoTransactionManager(mongoTemplate.getMongoDatabaseFactory()));
+        }
+
+        return transactions.execute(status -> work.get());
+    }
+
+    private record Reference(Class<?> type, String collection, String field, boolean many) {
+    }
+}
@@ -0,0 +1,301 @@
+package com.betterreads.services;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.betterreads.events.CatalogChangedEvent;
+import com.betterreads.models.Author;
+import com.betterreads.models.Book;
+import com.betterreads.models.Publisher;
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * Follows the change stream of the books, authors and publishers collections
+ * and republishes every write, whichever instance made it, as a remote
+ * CatalogChangedEvent, so the in-process caches of each instance drop what
+ * another one changed. Change streams need a replica set; a single-node one
+ * is enough.
+ * </p>
+ * <p>
+ * The resume token is stored per instance in change_stream_tokens after each
+ * batch of changes, so a restart carries on where the stream was left. A
+ * crash replays at most the batch in flight, and eviction is idempotent. A
+ * token older than the oplog cannot be resumed from; the stream then starts
+ * from now and every cache and in-memory copy is reloaded, since the changes
+ * in between are lost.
+ * </p>
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "betterreads.change-streams.enabled", havingValue = "true")
+public class CatalogChangeStream implements SmartLifecycle {
+
+    /**
+     * The collection holding the resume token of each instance
+     */
+    public static final String TOKENS = "change_stream_tokens";
+
+    /**
+     * The watched document types
+     */
+    public static final List<Class<?>> TYPES = List.of(Book.class, Author.class, Publisher.class);
+
+    /**
+     * The server error codes of a resume token that has fallen off the oplog:
+     * ChangeStreamHistoryLost, and ChangeStreamFatalError from servers before 4.4
+     */
+    private static final Set<Integer> HISTORY_LOST = Set.of(286, 280);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Value("${betterreads.change-streams.instance:${HOSTNAME:local}}")
+    private String instance = "local";
+
+    @Value("${betterreads.change-streams.retry-delay:5s}")
+    private Duration retryDelay = Duration.ofSeconds(5);
+
+    private volatile boolean running;
+
+    private boolean invalidated;
+
+    private volatile MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor;
+
+    private Thread worker;
+
+    @Override
+    public void start() {
+        running = true;
+        worker = new Thread(this::follow, "catalog-change-stream");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        close();
+
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * <p>
+     * Opens the change stream of the watched collections, after the stored
+     * resume token when there is one and from now otherwise
+     * </p>
+     *
+     * @return the cursor
+     */
+    public MongoChangeStreamCursor<ChangeStreamDocument<Document>> open() {
+        Set<String> collections = new LinkedHashSet<>();
+        TYPES.forEach(type -> collections.add(mongoTemplate.getCollectionName(type)));
+
+        ChangeStreamIterable<Document> stream = mongoTemplate.getDb()
+                .watch(List.of(Aggregates.match(Filters.in("ns.coll", collections))))
+                .maxAwaitTime(1, TimeUnit.SECONDS);
+        BsonDocument token = loadToken();
+        invalidated = false;
+
+        if (token != null) {
+            log.info("Resuming the catalog change stream of {}", instance);
+            stream = stream.resumeAfter(token);
+        }
+
+        return stream.cursor();
+    }
+
+    /**
+     * <p>
+     * Publishes the changes the cursor has buffered, one event per collection,
+     * and then stores the resume token. Waits up to a second for a change when
+     * none is buffered. After an invalidate the stored token is dropped and the
+     * stream has to be opened again.
+     * </p>
+     *
+     * @param changes the change stream cursor
+     * @return the number of changes read
+     */
+    public int drain(MongoChangeStreamCursor<ChangeStreamDocument<Document>> changes) {
+        Map<Class<?>, Set<String>> changed = new LinkedHashMap<>();
+        Set<Class<?>> cleared = new HashSet<>();
+        int count = 0;
+        ChangeStreamDocument<Document> change;
+
+        while ((change = changes.tryNext()) != null) {
+            count++;
+            collect(change, changed, cleared);
+        }
+
+        for (Class<?> type : cleared) {
+            events.publishEvent(CatalogChangedEvent.remote(type, null));
+            changed.remove(type);
+        }
+
+        changed.forEach((type, ids) -> events.publishEvent(CatalogChangedEvent.remote(type, new ArrayList<>(ids))));
+
+        BsonDocument token = changes.getResumeToken();
+
+        if (count > 0 && token != null && !invalidated) {
+            saveToken(token);
+        }
+
+        return count;
+    }
+
+    /**
+     * <p>
+     * Recovers from a failure of the stream. When the stored resume token is no
+     * longer in the oplog, resuming after it fails every time, so it is dropped
+     * and every watched type is published as changed, and the next stream starts
+     * from now.
+     * </p>
+     *
+     * @param ex the failure
+     * @return whether the stream can be opened again at once, rather than after
+     *         the retry delay
+     */
+    public boolean recover(RuntimeException ex) {
+        if (!(ex instanceof MongoException mongo) || !HISTORY_LOST.contains(mongo.getCode())) {
+            return false;
+        }
+
+        log.warn("The catalog change stream of {} cannot resume, starting from now and reloading everything",
+                instance, ex);
+        mongoTemplate.getCollection(TOKENS).deleteOne(Filters.eq("_id", instance));
+        // the changes since the token are lost, so nothing cached can be trusted
+        TYPES.forEach(type -> events.publishEvent(CatalogChangedEvent.remote(type, null)));
+
+        return true;
+    }
+
+    private void follow() {
+        while (running) {
+            try {
+                cursor = open();
+
+                while (running && !invalidated) {
+                    drain(cursor);
+                }
+            } catch (MongoException | IllegalStateException ex) {
+                if (running && !recover(ex)) {
+                    log.warn("The catalog change stream failed, reopening in {}", retryDelay, ex);
+                    pause();
+                }
+            } finally {
+                close();
+            }
+        }
+    }
+
+    private void collect(ChangeStreamDocument<Document> change, Map<Class<?>, Set<String>> changed,
+            Set<Class<?>> cleared) {
+        switch (change.getOperationType()) {
+            case INSERT, UPDATE, REPLACE, DELETE -> {
+                Class<?> type = typeOf(change.getNamespace().getCollectionName());
+
+                if (type != null) {
+                    changed.computeIfAbsent(type, key -> new LinkedHashSet<>())
+                            .add(idOf(change.getDocumentKey().get("_id")));
+                }
+            }
+            case DROP, RENAME -> {
+                Class<?> type = typeOf(change.getNamespace().getCollectionName());
+
+                if (type != null) {
+                    cleared.add(type);
+                }
+            }
+            case INVALIDATE, DROP_DATABASE -> {
+                // the stream ends here and cannot resume past it, so the next one starts from now
+                cleared.addAll(TYPES);
+                invalidated = true;
+                mongoTemplate.getCollection(TOKENS).deleteOne(Filters.eq("_id", instance));
+            }
+            default -> log.debug("Ignoring change stream event {}", change.getOperationType());
+        }
+    }
+
+    private Class<?> typeOf(String collection) {
+        return TYPES.stream()
+                .filter(type -> mongoTemplate.getCollectionName(type).equals(collection))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static String idOf(BsonValue id) {
+        if (id.isObjectId()) {
+            return id.asObjectId().getValue().toHexString();
+        }
+
+        return id.isString() ? id.asString().getValue() : id.toString();
+    }
+
+    private BsonDocument loadToken() {
+        BsonDocument stored = mongoTemplate.getCollection(TOKENS).withDocumentClass(BsonDocument.class)
+                .find(Filters.eq("_id", instance)).first();
+
+        return stored == null ? null : stored.getDocument("token", null);
+    }
+
+    private void saveToken(BsonDocument token) {
+        mongoTemplate.getCollection(TOKENS).replaceOne(Filters.eq("_id", instance),
+                new Document("_id", instance).append("token", token).append("updatedAt", new Date()),
+                new ReplaceOptions().upsert(true));
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(retryDelay.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void close() {
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> open = cursor;
+
+        if (open != null) {
+            cursor = null;
+            open.close();
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.betterreads.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.betterreads.models.Identifiable;
+import com.betterreads.queries.Projection;
+import com.betterreads.repositories.CursorPagingRepository;
+import com.betterreads.repositories.reactive.ReactiveCursorPagingRepository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * <p>
+ * A bounded window of documents read with keyset pagination on _id
+ * </p>
+ *
+ * @param <T> the document type
+ */
+@Getter
+@AllArgsConstructor
+public class CursorPage<T extends Identifiable> {
+
+    /**
+     * The largest page a caller can request
+     */
+    public static final int MAX_SIZE = 100;
+
+    private List<T> content;
+
+    private String after;
+
+    private String before;
+
+    private int size;
+
+    private String next;
+
+    private String previous;
+
+    /**
+     * <p>
+     * Reads one page from the repository. One extra document is read to find out
+     * whether another page exists, so no count query is needed.
+     * </p>
+     *
+     * @param repository the repository to read from
+     * @param after      read the documents after this id, may be null
+     * @param before     read the documents before this id, may be null
+     * @param size       the requested page size
+     * @param <T>        the document type
+     * @return the page
+     */
+    public static <T extends Identifiable> CursorPage<T> fetch(CursorPagingRepository<T> repository, String after,
+            String before, int size) {
+        int limit = clamp(size);
+        boolean backward = before != null;
+        Pageable window = window(limit, backward);
+
+        List<T> rows;
+
+        if (backward) {
+            rows = repository.findByIdLessThan(toKey(before), window);
+        } else if (after != null) {
+            rows = repository.findByIdGreaterThan(toKey(after), window);
+        } else {
+            rows = repository.findAllBy(window);
+        }
+
+        return of(rows, after, before, limit);
+    }
+
+    /**
+     * <p>
+     * Reads one page of the named fields. Derived repository queries cannot
+     * take a field list, so projected pages are read through the template with
+     * the same keyset conditions.
+     * </p>
+     *
+     * @param mongoTemplate the template to read with
+     * @param type          the document type
+     * @param projection    the fields to read
+     * @param after         read the documents after this id, may be null
+     * @param before        read the documents before this id, may be null
+     * @param size          the requested page size
+     * @param <T>           the document type
+     * @return the page
+     */
+    public static <T extends Identifiable> CursorPage<T> fetch(MongoTemplate mongoTemplate, Class<T> type,
+            Projection projection, String after, String before, int size) {
+        int limit = clamp(size);
+
+        return of(mongoTemplate.find(keyset(projection.apply(new Query()), after, before, limit), type), after,
+                before, limit);
+    }
+
+    /**
+     * <p>
+     * Reads one page of the documents matching a filter. The window is still
+     * ordered by _id, so an index that starts with the filtered field and ends
+     * with _id serves the page in one read.
+     * </p>
+     *
+     * @param mongoTemplate the template to read with
+     * @param type          the document type
+     * @param filter        the conditions the documents must meet
+     * @param after         read the documents after this id, may be null
+     * @param before        read the documents before this id, may be null
+     * @param size          the requested page size
+     * @param <T>           the document type
+     * @return the page
+     */
+    public static <T extends Identifiable> CursorPage<T> fetch(MongoTemplate mongoTemplate, Class<T> type,
+            Query filter, String after, String before, int size) {
+        int limit = clamp(size);
+
+        return of(mongoTemplate.find(keyset(filter, after, before, limit), type), after, before, limit);
+    }
+
+    /**
+     * <p>
+     * Reads one page from a reactive repository, like the blocking fetch
+     * </p>
+     *
+     * @param repository the repository to read from
+     * @param after      read the documents after this id, may be null
+     * @param before     read the documents before this id, may be null
+     * @param size       the requested page size
+     * @param <T>        the document type
+     * @return the page
+     */
+    public static <T extends Identifiable> Mono<CursorPage<T>> fetch(ReactiveCursorPagingRepository<T> repository,
+            String after, String before, int size) {
+        int limit = clamp(size);
+        Pageable window = window(limit, before != null);
+        Flux<T> rows;
+
+        if (before != null) {
+            rows = repository.findByIdLessThan(toKey(before), window);
+        } else if (after != null) {
+            rows = repository.findByIdGreaterThan(toKey(after), window);
+        } else {
+            rows = repository.findAllBy(window);
+        }
+
+        return rows.collectList().map(list -> of(list, after, before, limit));
+    }
+
+    /**
+     * <p>
+     * Reads one page of the named fields through the reactive template
+     * </p>
+     *
+     * @param mongoTemplate the template to read with
+     * @param type          the document type
+     * @param projection    the fields to read
+     * @param after         read the documents after this id, may be null
+     * @param before        read the documents before this id, may be null
+     * @param size          the requested page size
+     * @param <T>           the document type
+     * @return the page
+     */
+    public static <T extends Identifiable> Mono<CursorPage<T>> fetch(ReactiveMongoTemplate mongoTemplate,
+            Class<T> type, Projection projection, String after, String before, int size) {
+        int limit = clamp(size);
+
+        return mongoTemplate.find(keyset(projection.apply(new Query()), after, before, limit), type).collectList()
+                .map(list -> of(list, after, before, limit));
+    }
+
+    private static Query keyset(Query query, String after, String before, int limit) {
+        query.with(window(limit, before != null));
+
+        if (before != null) {
+            query.addCriteria(Criteria.where("id").lt(toKey(before)));
+        } else if (after != null) {
+            query.addCriteria(Criteria.where("id").gt(toKey(after)));
+        }
+
+        return query;
+    }
+
+    private static Pageable window(int limit, boolean backward) {
+        return PageRequest.of(0, limit + 1, Sort.by(backward ? Sort.Direction.DESC : Sort.Direction.ASC, "id"));
+    }
+
+    /**
+     * <p>
+     * Builds a page from a window of up to limit + 1 documents, read ascending
+     * after the cursor or descending before it
+     * </p>
+     *
+     * @param rows   the window
+     * @param after  the cursor read after, may be null
+     * @param before the cursor read before, may be null
+     * @param limit  the page size
+     * @param <T>    the document type
+     * @return the page
+     */
+    public static <T extends Identifiable> CursorPage<T> of(List<T> rows, String after, String before, int limit) {
+        boolean backward = before != null;
+        boolean more = rows.size() > limit;
+        List<T> content = new ArrayList<>(more ? rows.subList(0, limit) : rows);
+
+        if (backward) {
+            Collections.reverse(content);
+        }
+
+        String first = content.isEmpty() ? null : content.get(0).getId();
+        String last = content.isEmpty() ? null : content.get(content.size() - 1).getId();
+
+        String next = backward || more ? last : null;
+        String previous = backward ? (more ? first : null) : (after != null ? first : null);
+
+        return new CursorPage<>(content, after, before, limit, next, previous);
+    }
+
+    /**
+     * <p>
+     * Bounds a requested page size to [1, MAX_SIZE]
+     * </p>
+     *
+     * @param size the requested size
+     * @return the bounded size
+     */
+    public static int clamp(int size) {
+        return Math.min(Math.max(size, 1), MAX_SIZE);
+    }
+
+    /**
+     * <p>
+     * Converts a cursor to the value stored in _id. Generated ids are ObjectIds,
+     * and range operators are not converted by the query mapper.
+     * </p>
+     *
+     * @param cursor the cursor
+     * @return the _id value
+     */
+    public static Object toKey(String cursor) {
+        return ObjectId.isValid(cursor) ? new ObjectId(cursor) : cursor;
+    }
+}
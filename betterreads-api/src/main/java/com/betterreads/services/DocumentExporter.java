@@ -0,0 +1,84 @@
+package com.betterreads.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+/**
+ * <p>
+ * Streams a collection as newline-delimited JSON straight from a Mongo cursor
+ * </p>
+ */
+@Component
+public class DocumentExporter {
+
+    /**
+     * Documents fetched from the server per cursor round trip
+     */
+    public static final int BATCH_SIZE = 500;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Relaxed extended JSON with ids as hex strings and dates as ISO-8601
+     */
+    public static final JsonWriterSettings SETTINGS = JsonWriterSettings.builder()
+            .outputMode(JsonMode.RELAXED)
+            .objectIdConverter((value, writer) -> writer.writeString(value.toHexString()))
+            .dateTimeConverter((value, writer) -> writer.writeString(Instant.ofEpochMilli(value).toString()))
+            .build();
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * <p>
+     * Writes every document of the entity's collection to the stream, one JSON
+     * document per line. Only one cursor batch and the write buffer are held in
+     * memory; a slow reader blocks the writes, which in turn stops the cursor
+     * from fetching the next batch.
+     * </p>
+     *
+     * @param type the entity type of the collection
+     * @param out  the stream to write to
+     * @return the number of documents written
+     * @throws IOException if the stream cannot be written, e.g. the client went
+     *                     away
+     */
+    public long export(Class<?> type, OutputStream out) throws IOException {
+        Query query = new Query().cursorBatchSize(BATCH_SIZE);
+        query.fields().exclude("_class");
+
+        long count = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+
+        try (Stream<Document> documents = mongoTemplate.stream(query, Document.class,
+                mongoTemplate.getCollectionName(type))) {
+            Iterator<Document> iterator = documents.iterator();
+
+            while (iterator.hasNext()) {
+                writer.write(iterator.next().toJson(SETTINGS));
+                writer.write('\n');
+                count++;
+            }
+        }
+
+        writer.flush();
+
+        return count;
+    }
+}
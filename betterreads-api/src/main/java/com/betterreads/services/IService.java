@@ -1,9 +1,20 @@
 package com.betterreads.services;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.List;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 
+import com.betterreads.exceptions.InvalidRequestException;
+import com.betterreads.models.BatchResult;
+import com.betterreads.models.SearchExplanation;
+import com.betterreads.models.SearchRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+
 /**
  * <p>
  * Interface for services that provide basic CRUD operations
@@ -13,32 +24,58 @@ public interface IService {
 
     /**
      * <p>
-     * Gets all documenents
+     * Gets one page of documents ordered by id
      * </p>
      * 
-     * @return The documents
+     * @param after  the id to read after, may be null
+     * @param before the id to read before, may be null
+     * @param size   the page size
+     * @param fields the comma-separated fields to read, may be null for all
+     * @return The documents with next and prev links
      */
-    List<EntityModel<?>> getAll();
+    CollectionModel<EntityModel<?>> getAll(String after, String before, int size, String fields);
 
     /**
      * <p>
      * Gets document by id
      * </p>
      * 
-     * @param id the document's id in the database
+     * @param id     the document's id in the database
+     * @param fields the comma-separated fields to read, may be null for all
      * @return List of documents
      */
-    EntityModel<?> getById(String id);
+    EntityModel<?> getById(String id, String fields);
 
     /**
      * <p>
-     * Searches for an document with the given parameters
+     * Searches for documents matching the request's filters
      * <p>
      * 
      * @param request The search request
+     * @param fields  the comma-separated fields to read, may be null for all
      * @return List of documents
      */
-    List<EntityModel<?>> search(Object request);
+    List<EntityModel<?>> search(SearchRequest request, String fields);
+
+    /**
+     * <p>
+     * Explains how a search would be served, without running it
+     * </p>
+     * 
+     * @param request The search request
+     * @return the winning plan and the index it uses
+     */
+    SearchExplanation explain(SearchRequest request);
+
+    /**
+     * <p>
+     * Streams all documents as newline-delimited JSON
+     * </p>
+     * 
+     * @param out the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    void export(OutputStream out) throws IOException;
 
     /**
      * <p>
@@ -50,20 +87,50 @@ public interface IService {
      */
     EntityModel<?> add(Object entity);
 
+    /**
+     * <p>
+     * Creates or replaces a batch of documents
+     * </p>
+     * 
+     * @param entities the documents to write
+     * @return one result per document, in request order
+     */
+    List<BatchResult> addAll(Iterator<?> entities);
+
     /**
      * <p>
      * Updates a document
      * </p>
      * 
-     * @param id     the id of the document to update
-     * @param entity the updated document
+     * @param id       the id of the document to update
+     * @param entity   the updated document
+     * @param versions the versions the client read, any of which may be current,
+     *                 or null to replace whatever is stored
      * @return the updated document
+     * @throws OptimisticLockingFailureException if the stored version is none of
+     *                                           them
+     */
+    EntityModel<?> update(String id, Object entity, List<Long> versions);
+
+    /**
+     * <p>
+     * Changes only the fields named in a JSON Merge Patch
+     * </p>
+     * 
+     * @param id       the id of the document to patch
+     * @param patch    the merge patch
+     * @param versions the versions the client read, any of which may be current,
+     *                 or null to patch whatever is stored
+     * @return the patched document
+     * @throws OptimisticLockingFailureException if the stored version is none of
+     *                                           them
      */
-    EntityModel<?> update(String id, Object entity);
+    EntityModel<?> patch(String id, JsonNode patch, List<Long> versions);
 
     /**
      * <p>
-     * Deletes a document by id
+     * Deletes a document by id, pulling it out of the documents that reference
+     * it
      * </p>
      * 
      * @param id the id of the document to delete
@@ -72,7 +139,31 @@ public interface IService {
 
     /**
      * <p>
-     * Deletes all documents
+     * Deletes documents by id in chunks, pulling them out of the documents that
+     * reference them
+     * </p>
+     * 
+     * @param ids the ids of the documents to delete
+     * @return the number of documents deleted
+     */
+    long delete(List<String> ids);
+
+    /**
+     * <p>
+     * Deletes the documents matching the request's filters in chunks, pulling
+     * them out of the documents that reference them. The sort and limit of the
+     * request do not apply.
+     * </p>
+     * 
+     * @param request the search request
+     * @return the number of documents deleted
+     * @throws InvalidRequestException if the request has no filters
+     */
+    long deleteMatching(SearchRequest request);
+
+    /**
+     * <p>
+     * Deletes all documents and empties the references to them
      * </p>
      */
     void deleteAll();
@@ -0,0 +1,264 @@
+package com.betterreads.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mapping.Parameter;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.mapping.model.EntityInstantiators;
+import org.springframework.data.mapping.model.ParameterValueProvider;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.LazyLoadingProxy;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * Resolves the document references of a page of entities in batches
+ * </p>
+ */
+@Component
+@Slf4j
+public class RelationLoader {
+
+    private static final EntityInstantiators INSTANTIATORS = new EntityInstantiators();
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * <p>
+     * Replaces the unresolved references of the entities with the referenced
+     * documents. The ids of each reference property are gathered across all
+     * entities and read with one $in query, so a page costs one query per
+     * reference property however many entities and ids it holds. References of
+     * the loaded documents stay unresolved and are rendered as ids.
+     * </p>
+     * <p>
+     * The entities are modified, so they must not be shared. Resolving twice is
+     * harmless: resolved references are skipped.
+     * </p>
+     *
+     * @param entities the entities, all of the same type
+     * @param <T>      the entity type
+     * @return the entities
+     */
+    public <T> List<T> resolve(List<T> entities) {
+        if (entities.isEmpty()) {
+            return entities;
+        }
+
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(entities.get(0).getClass());
+        int queries = 0;
+
+        for (MongoPersistentProperty property : entity) {
+            if (property.isDocumentReference() && resolve(entity, property, entities)) {
+                queries++;
+            }
+        }
+
+        log.debug("Resolved references of {} {} with {} queries", entities.size(), entity.getCollection(), queries);
+
+        return entities;
+    }
+
+    /**
+     * <p>
+     * Resolves the references of one entity on a shallow copy of it. The entity
+     * may be the instance shared through the cache, which keeps its references
+     * unresolved, so every read sees the referenced documents as they are now.
+     * </p>
+     *
+     * @param entity the entity
+     * @param <T>    the entity type
+     * @return the copy with its references resolved
+     */
+    public <T> T resolve(T entity) {
+        MongoPersistentEntity<?> mapping = mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(entity.getClass());
+
+        return resolve(List.of(copy(mapping, entity))).get(0);
+    }
+
+    /**
+     * <p>
+     * Copies the mapped properties of an entity into a new instance, through the
+     * constructor Spring Data reads documents with
+     * </p>
+     *
+     * @param mapping the entity's mapping
+     * @param entity  the entity
+     * @param <T>     the entity type
+     * @return the copy
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T copy(MongoPersistentEntity<?> mapping, T entity) {
+        PersistentPropertyAccessor<T> source = mapping.getPropertyAccessor(entity);
+        T copy = (T) INSTANTIATORS.getInstantiatorFor(mapping).createInstance(mapping,
+                new ParameterValueProvider<MongoPersistentProperty>() {
+
+                    @Override
+                    public <V> V getParameterValue(Parameter<V, MongoPersistentProperty> parameter) {
+                        return (V) source.getProperty(mapping.getRequiredPersistentProperty(parameter.getName()));
+                    }
+                });
+        PersistentPropertyAccessor<T> target = mapping.getPropertyAccessor(copy);
+
+        for (MongoPersistentProperty property : mapping) {
+            if (!mapping.isCreatorArgument(property)) {
+                target.setProperty(property, source.getProperty(property));
+            }
+        }
+
+        return copy;
+    }
+
+    private boolean resolve(MongoPersistentEntity<?> entity, MongoPersistentProperty property, List<?> entities) {
+        Set<String> ids = ids(entity, property, entities);
+
+        if (ids.isEmpty()) {
+            assign(entity, property, entities, Map.of());
+            return false;
+        }
+
+        MongoPersistentEntity<?> target = mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(property.getActualType());
+
+        assign(entity, property, entities, byId(target, mongoTemplate.find(query(ids), target.getType())));
+
+        return true;
+    }
+
+    /**
+     * <p>
+     * Gathers the ids a reference property points to across entities, in the
+     * order they are first referenced
+     * </p>
+     *
+     * @param entity   the entities' mapping
+     * @param property the reference property
+     * @param entities the entities
+     * @return the referenced ids
+     */
+    public static Set<String> ids(MongoPersistentEntity<?> entity, MongoPersistentProperty property,
+            List<?> entities) {
+        Set<String> ids = new LinkedHashSet<>();
+
+        for (Object item : entities) {
+            ids.addAll(source(entity.getPropertyAccessor(item).getProperty(property)));
+        }
+
+        return ids;
+    }
+
+    /**
+     * <p>
+     * The $in query that loads referenced documents
+     * </p>
+     *
+     * @param ids the referenced ids
+     * @return the query
+     */
+    public static Query query(Collection<String> ids) {
+        return new Query(Criteria.where("id").in(keys(ids)));
+    }
+
+    /**
+     * <p>
+     * Indexes loaded documents by id
+     * </p>
+     *
+     * @param target    the documents' mapping
+     * @param documents the documents
+     * @return the documents by id
+     */
+    public static Map<String, Object> byId(MongoPersistentEntity<?> target, Iterable<?> documents) {
+        Map<String, Object> loaded = new HashMap<>();
+
+        for (Object document : documents) {
+            loaded.put(String.valueOf(target.getIdentifierAccessor(document).getIdentifier()), document);
+        }
+
+        return loaded;
+    }
+
+    /**
+     * <p>
+     * Replaces each unresolved reference with the loaded documents, in stored
+     * order. Ids that were not loaded are dropped, and a reference that was
+     * never stored becomes null.
+     * </p>
+     *
+     * @param entity   the entities' mapping
+     * @param property the reference property
+     * @param entities the entities
+     * @param loaded   the loaded documents by id
+     */
+    public static void assign(MongoPersistentEntity<?> entity, MongoPersistentProperty property, List<?> entities,
+            Map<String, Object> loaded) {
+        for (Object item : entities) {
+            PersistentPropertyAccessor<?> accessor = entity.getPropertyAccessor(item);
+            Object value = accessor.getProperty(property);
+
+            if (!(value instanceof LazyLoadingProxy proxy)) {
+                continue;
+            }
+
+            if (proxy.getSource() == null) {
+                accessor.setProperty(property, null);
+                continue;
+            }
+
+            List<Object> resolved = new ArrayList<>();
+
+            for (String id : source(value)) {
+                if (loaded.containsKey(id)) {
+                    resolved.add(loaded.get(id));
+                }
+            }
+
+            if (property.isCollectionLike()) {
+                accessor.setProperty(property, resolved);
+            } else {
+                accessor.setProperty(property, resolved.isEmpty() ? null : resolved.get(0));
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * Reads the referenced ids out of an unresolved reference without resolving
+     * it. Resolved and empty references have none.
+     * </p>
+     *
+     * @param value the property value
+     * @return the referenced ids
+     */
+    public static List<String> source(Object value) {
+        if (!(value instanceof LazyLoadingProxy proxy) || proxy.getSource() == null) {
+            return List.of();
+        }
+
+        if (proxy.getSource() instanceof Collection<?> ids) {
+            return ids.stream().map(String::valueOf).toList();
+        }
+
+        return List.of(String.valueOf(proxy.getSource()));
+    }
+
+    private static List<Object> keys(Collection<String> ids) {
+        return ids.stream().map(CursorPage::toKey).toList();
+    }
+}
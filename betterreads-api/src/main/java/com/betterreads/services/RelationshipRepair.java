@@ -0,0 +1,157 @@
+package com.betterreads.services;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.betterreads.events.CatalogChangedEvent;
+import com.betterreads.models.Author;
+import com.betterreads.models.Book;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * Reconciles Book.authors and Author.books when they have drifted apart, for
+ * example after writes made outside the services. Every
+ * betterreads.relations.repair.interval one chunk of books and one chunk of
+ * authors are checked, carrying on from where the last run stopped and
+ * starting over after the last document, so a full pass is spread over many
+ * small runs.
+ * </p>
+ * <p>
+ * Book.authors is the side that wins: authors are made to list exactly the
+ * books that list them, and lose the books that no longer exist.
+ * </p>
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "betterreads.relations.repair.enabled", havingValue = "true")
+public class RelationshipRepair {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private RelationshipSync relationshipSync;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Value("${betterreads.relations.repair.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    private String booksCheckpoint;
+
+    private String authorsCheckpoint;
+
+    @Scheduled(fixedDelayString = "${betterreads.relations.repair.interval:PT1M}")
+    public void repair() {
+        booksCheckpoint = mirror(booksCheckpoint);
+        authorsCheckpoint = prune(authorsCheckpoint);
+    }
+
+    /**
+     * <p>
+     * Makes the authors of the next chunk of books list them, and no other
+     * authors list them
+     * </p>
+     *
+     * @param after the id of the last book checked, null to start over
+     * @return the id to carry on after, null after the last book
+     */
+    public String mirror(String after) {
+        List<Document> books = chunk(Book.class, "authors", after);
+        Map<String, Collection<String>> references = new LinkedHashMap<>();
+
+        for (Document book : books) {
+            references.put(book.get("_id").toString(), strings(book.getList("authors", Object.class)));
+        }
+
+        int repaired = relationshipSync.sync(Book.class, references);
+
+        if (repaired > 0) {
+            log.info("Repaired the books of {} authors from {} books", repaired, books.size());
+        }
+
+        return next(books);
+    }
+
+    /**
+     * <p>
+     * Pulls the books that no longer exist out of the next chunk of authors
+     * </p>
+     *
+     * @param after the id of the last author checked, null to start over
+     * @return the id to carry on after, null after the last author
+     */
+    public String prune(String after) {
+        List<Document> authors = chunk(Author.class, "books", after);
+        Set<String> referenced = new LinkedHashSet<>();
+
+        authors.forEach(author -> referenced.addAll(strings(author.getList("books", Object.class))));
+
+        if (!referenced.isEmpty()) {
+            Query existing = new Query(Criteria.where("_id").in(keys(referenced)));
+            existing.fields().include("_id");
+
+            mongoTemplate.find(existing, Document.class, mongoTemplate.getCollectionName(Book.class))
+                    .forEach(book -> referenced.remove(book.get("_id").toString()));
+        }
+
+        if (!referenced.isEmpty()) {
+            List<Object> missing = keys(referenced);
+            List<String> changed = authors.stream()
+                    .filter(author -> strings(author.getList("books", Object.class)).stream()
+                            .anyMatch(referenced::contains))
+                    .map(author -> author.get("_id").toString())
+                    .collect(Collectors.toList());
+
+            mongoTemplate.updateMulti(new Query(Criteria.where("_id").in(keys(changed))),
+                    new Update().pullAll("books", missing.toArray()).inc("version", 1),
+                    mongoTemplate.getCollectionName(Author.class));
+            events.publishEvent(CatalogChangedEvent.of(Author.class, changed.toArray(String[]::new)));
+
+            log.info("Pulled {} missing books out of {} authors", referenced.size(), changed.size());
+        }
+
+        return next(authors);
+    }
+
+    private List<Document> chunk(Class<?> type, String field, String after) {
+        Query query = after == null ? new Query()
+                : new Query(Criteria.where("_id").gt(CursorPage.toKey(after)));
+        query.with(Sort.by("_id")).limit(chunkSize).fields().include(field);
+
+        return mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(type));
+    }
+
+    private String next(List<Document> chunk) {
+        return chunk.size() < chunkSize ? null : chunk.get(chunk.size() - 1).get("_id").toString();
+    }
+
+    private static List<Object> keys(Collection<String> ids) {
+        return ids.stream().map(CursorPage::toKey).collect(Collectors.toList());
+    }
+
+    private static List<String> strings(List<Object> values) {
+        return values == null ? List.of() : values.stream().map(String::valueOf).collect(Collectors.toList());
+    }
+}
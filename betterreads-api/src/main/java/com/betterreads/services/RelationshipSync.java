@@ -0,0 +1,231 @@
+package com.betterreads.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.LazyLoadingProxy;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.betterreads.events.CatalogChangedEvent;
+import com.betterreads.models.Author;
+import com.betterreads.models.Book;
+import com.betterreads.models.Identifiable;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * Keeps both sides of the book-author relationship in step. Book.authors and
+ * Author.books are stored independently, so after either side is written the
+ * other side is brought in line with $addToSet and $pull updates, sent as one
+ * bulk write.
+ * </p>
+ */
+@Component
+@Slf4j
+public class RelationshipSync {
+
+    /**
+     * The reference property of each side, and the property on the other side
+     * that mirrors it
+     */
+    private static final Map<Class<?>, Relation> RELATIONS = Map.of(
+            Book.class, new Relation("authors", Author.class, "books"),
+            Author.class, new Relation("books", Book.class, "authors"));
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Value("${betterreads.batch.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    /**
+     * <p>
+     * Reads the ids out of a reference property's value, whether it is still
+     * unresolved, resolved, or as the client sent it
+     * </p>
+     *
+     * @param value the property value
+     * @return the referenced ids
+     */
+    public static List<String> ids(Object value) {
+        if (value instanceof LazyLoadingProxy) {
+            return RelationLoader.source(value);
+        }
+
+        if (value instanceof Collection<?> references) {
+            return references.stream()
+                    .filter(Identifiable.class::isInstance)
+                    .map(reference -> ((Identifiable) reference).getId())
+                    .filter(id -> id != null)
+                    .collect(Collectors.toList());
+        }
+
+        return List.of();
+    }
+
+    /**
+     * <p>
+     * Mirrors one written document's references on the other side
+     * </p>
+     *
+     * @param type       the entity type of the written document
+     * @param id         the id of the written document
+     * @param references the value of its mirrored reference property
+     */
+    public void sync(Class<?> type, String id, Object references) {
+        sync(type, Map.of(id, ids(references)));
+    }
+
+    /**
+     * <p>
+     * Mirrors the references of documents as they are stored, for writes whose
+     * documents are no longer at hand. The documents are read and mirrored a
+     * chunk at a time.
+     * </p>
+     *
+     * @param type the entity type of the written documents
+     * @param ids  the ids of the written documents
+     */
+    public void sync(Class<?> type, Collection<String> ids) {
+        Relation relation = RELATIONS.get(type);
+
+        if (relation == null || ids.isEmpty()) {
+            return;
+        }
+
+        List<String> all = new ArrayList<>(ids);
+
+        for (int start = 0; start < all.size(); start += chunkSize) {
+            Query query = new Query(Criteria.where("_id").in(keys(all.subList(start,
+                    Math.min(start + chunkSize, all.size())))));
+            query.fields().include(relation.field());
+
+            Map<String, Collection<String>> references = new LinkedHashMap<>();
+
+            for (Document document : mongoTemplate.find(query, Document.class,
+                    mongoTemplate.getCollectionName(type))) {
+                references.put(document.get("_id").toString(),
+                        strings(document.getList(relation.field(), Object.class)));
+            }
+
+            sync(type, references);
+        }
+    }
+
+    /**
+     * <p>
+     * Mirrors the references of documents on the other side. The other side is
+     * read once for the documents that list any of them, and each document
+     * that has to gain or lose a reference is updated with one $addToSet or
+     * $pull, all in one unordered bulk write. Documents already in step are
+     * not written.
+     * </p>
+     *
+     * @param type       the entity type of the written documents
+     * @param references the referenced ids, by the id of the written document
+     * @return the number of documents changed on the other side
+     */
+    public int sync(Class<?> type, Map<String, ? extends Collection<String>> references) {
+        Relation relation = RELATIONS.get(type);
+
+        if (relation == null || references.isEmpty()) {
+            return 0;
+        }
+
+        String collection = mongoTemplate.getCollectionName(relation.inverseType());
+        Map<String, Set<String>> listed = listed(relation, collection, references.keySet());
+        BulkOperations operations = mongoTemplate.bulkOps(BulkMode.UNORDERED, collection);
+        Set<String> changed = new LinkedHashSet<>();
+
+        for (Map.Entry<String, ? extends Collection<String>> entry : references.entrySet()) {
+            Object key = CursorPage.toKey(entry.getKey());
+            Set<String> current = listed.getOrDefault(entry.getKey(), Set.of());
+            List<String> added = entry.getValue().stream().filter(id -> !current.contains(id)).distinct()
+                    .collect(Collectors.toList());
+            List<String> removed = current.stream().filter(id -> !entry.getValue().contains(id))
+                    .collect(Collectors.toList());
+
+            if (!added.isEmpty()) {
+                operations.updateMulti(new Query(Criteria.where("_id").in(keys(added))),
+                        new Update().addToSet(relation.inverseField(), key).inc("version", 1));
+                changed.addAll(added);
+            }
+
+            if (!removed.isEmpty()) {
+                operations.updateMulti(new Query(Criteria.where("_id").in(keys(removed))),
+                        new Update().pull(relation.inverseField(), key).inc("version", 1));
+                changed.addAll(removed);
+            }
+        }
+
+        if (changed.isEmpty()) {
+            return 0;
+        }
+
+        int modified = operations.execute().getModifiedCount();
+        events.publishEvent(CatalogChangedEvent.of(relation.inverseType(), changed.toArray(String[]::new)));
+
+        log.debug("Mirrored {} {} on {} {}", references.size(), mongoTemplate.getCollectionName(type), modified,
+                collection);
+
+        return modified;
+    }
+
+    /**
+     * <p>
+     * Reads which documents on the other side list each of the written
+     * documents
+     * </p>
+     */
+    private Map<String, Set<String>> listed(Relation relation, String collection, Collection<String> ids) {
+        Query query = new Query(Criteria.where(relation.inverseField()).in(keys(ids)));
+        query.fields().include(relation.inverseField());
+
+        Map<String, Set<String>> listed = new HashMap<>();
+
+        for (Document document : mongoTemplate.find(query, Document.class, collection)) {
+            String inverse = document.get("_id").toString();
+
+            for (String id : strings(document.getList(relation.inverseField(), Object.class))) {
+                if (ids.contains(id)) {
+                    listed.computeIfAbsent(id, key -> new LinkedHashSet<>()).add(inverse);
+                }
+            }
+        }
+
+        return listed;
+    }
+
+    private static List<Object> keys(Collection<String> ids) {
+        return ids.stream().map(CursorPage::toKey).collect(Collectors.toList());
+    }
+
+    private static List<String> strings(List<Object> values) {
+        return values == null ? new ArrayList<>()
+                : values.stream().map(String::valueOf).collect(Collectors.toList());
+    }
+
+    private record Relation(String field, Class<?> inverseType, String inverseField) {
+    }
+}
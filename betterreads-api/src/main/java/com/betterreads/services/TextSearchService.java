@@ -0,0 +1,70 @@
+package com.betterreads.services;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.stereotype.Service;
+
+import com.betterreads.assemblers.BookSummariesAssembler;
+import com.betterreads.exceptions.InvalidRequestException;
+import com.betterreads.models.BookSummary;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * Service for ranked full-text search over the book summaries
+ * </p>
+ */
+@Service
+@Slf4j
+public class TextSearchService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private BookSummariesAssembler assembler;
+
+    /**
+     * <p>
+     * Finds the books matching any of the words in the text, best match first.
+     * Matches are scored by the text index weights: title, then author names,
+     * then genres, then publisher name. One extra hit is read to find out
+     * whether another page exists.
+     * </p>
+     * 
+     * @param text the words to search for
+     * @param page the zero-based page number
+     * @param size the page size
+     * @return one page of scored hits
+     */
+    public CollectionModel<EntityModel<?>> search(String text, int page, int size) {
+        if (text == null || text.isBlank()) {
+            throw new InvalidRequestException("q", "Search text is required");
+        }
+
+        if (page < 0) {
+            throw new InvalidRequestException("page", "Page must not be negative");
+        }
+
+        int limit = CursorPage.clamp(size);
+        Query query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(text))
+                .sortByScore()
+                .skip((long) page * limit)
+                .limit(limit + 1);
+
+        List<BookSummary> hits = mongoTemplate.find(query, BookSummary.class);
+        boolean more = hits.size() > limit;
+
+        log.debug("Text search for '{}' page {} returned {} hits", text, page, Math.min(hits.size(), limit));
+
+        return assembler.toPagedModel(more ? hits.subList(0, limit) : hits, text, page, limit, more);
+    }
+}
@@ -0,0 +1,70 @@
+package com.betterreads.services;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.betterreads.models.Author;
+import com.betterreads.models.Book;
+import com.betterreads.models.Publisher;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * Gives documents stored before versioning a version of 0 at startup. A save
+ * treats a document without a version as new and would insert it again, so
+ * the update endpoints need every stored document to carry one.
+ * </p>
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "betterreads.versions.backfill", havingValue = "true", matchIfMissing = true)
+public class VersionBackfill implements ApplicationRunner {
+
+    /**
+     * The versioned document types
+     */
+    public static final List<Class<?>> TYPES = List.of(Book.class, Author.class, Publisher.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        backfill();
+    }
+
+    /**
+     * <p>
+     * Sets the version of every unversioned document
+     * </p>
+     *
+     * @return the number of documents that were versioned
+     */
+    public long backfill() {
+        long total = 0;
+
+        for (Class<?> type : TYPES) {
+            long modified = mongoTemplate.updateMulti(new Query(Criteria.where("version").exists(false)),
+                    new Update().set("version", 0L), type).getModifiedCount();
+
+            if (modified > 0) {
+                log.info("Set the version of {} unversioned documents in {}", modified,
+                        mongoTemplate.getCollectionName(type));
+            }
+
+            total += modified;
+        }
+
+        return total;
+    }
+}
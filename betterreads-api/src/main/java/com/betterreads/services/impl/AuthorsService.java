@@ -1,19 +1,48 @@
 package com.betterreads.services.impl;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Example;
-import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.stereotype.Service;
 
 import com.betterreads.assemblers.AuthorsAssembler;
+import com.betterreads.catalog.InMemoryCatalog;
+import com.betterreads.events.CatalogChangedEvent;
+import com.betterreads.exceptions.InvalidRequestException;
 import com.betterreads.exceptions.ItemNotFoundException;
+import com.betterreads.models.BatchResult;
+import com.betterreads.models.SearchExplanation;
+import com.betterreads.models.SearchRequest;
+import com.betterreads.queries.MergePatchCompiler;
+import com.betterreads.queries.Projection;
+import com.betterreads.queries.ProjectionParser;
+import com.betterreads.queries.QueryExplainer;
+import com.betterreads.queries.SearchFields;
+import com.betterreads.queries.SearchQueryCompiler;
 import com.betterreads.models.Author;
 import com.betterreads.repositories.AuthorsRepository;
+import com.betterreads.services.BatchWriter;
+import com.betterreads.services.CascadeDeleter;
+import com.betterreads.services.CursorPage;
+import com.betterreads.services.DocumentExporter;
 import com.betterreads.services.IService;
+import com.betterreads.services.RelationLoader;
+import com.betterreads.services.RelationshipSync;
+import com.fasterxml.jackson.databind.JsonNode;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -32,16 +61,68 @@ public class AuthorsService implements IService {
     @Autowired
     private AuthorsAssembler assembler;
 
+    @Autowired
+    private DocumentExporter exporter;
+
+    @Autowired
+    private BatchWriter batchWriter;
+
+    @Autowired
+    private CascadeDeleter deleter;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private SearchQueryCompiler compiler;
+
+    @Autowired
+    private QueryExplainer explainer;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Autowired
+    private RelationLoader relations;
+
+    @Autowired
+    private RelationshipSync relationshipSync;
+
+    @Autowired
+    private InMemoryCatalog catalog;
+
+    @Autowired
+    private ProjectionParser projections;
+
+    @Autowired
+    private MergePatchCompiler patches;
+
     /**
      * <p>
-     * Gets all authors
+     * Gets one page of authors
      * </p>
      * 
+     * @param after  the id to read after, may be null
+     * @param before the id to read before, may be null
+     * @param size   the page size
+     * @param fields the comma-separated fields to read, may be null for all
      * @return The authors
      */
     @Override
-    public List<EntityModel<?>> getAll() {
-        return repository.findAll().stream().map(assembler::toModel).collect(Collectors.toList());
+    public CollectionModel<EntityModel<?>> getAll(String after, String before, int size, String fields) {
+        Projection projection = projections.parse(fields, Author.class);
+
+        if (catalog.isReady()) {
+            return assembler.toPagedModel(catalog.page(Author.class, projection, after, before, size),
+                    projection.toParameter());
+        }
+
+        CursorPage<Author> page = projection.isAll()
+                ? CursorPage.fetch(repository, after, before, size)
+                : CursorPage.fetch(mongoTemplate, Author.class, projection, after, before, size);
+        relations.resolve(page.getContent());
+
+        return assembler.toPagedModel(page, projection.toParameter());
     }
 
     /**
@@ -49,31 +130,78 @@ public class AuthorsService implements IService {
      * Gets author by id
      * </p>
      * 
-     * @param id the author's id in the database
+     * @param id     the author's id in the database
+     * @param fields the comma-separated fields to read, may be null for all
      * @return The author
      */
     @Override
-    public EntityModel<?> getById(String id) {
-        Author author = repository.findById(id).orElseThrow(() -> new ItemNotFoundException(id));
+    public EntityModel<?> getById(String id, String fields) {
+        Projection projection = projections.parse(fields, Author.class);
+
+        if (catalog.isReady()) {
+            return assembler.toModel(catalog.findById(Author.class, id, projection)
+                    .orElseThrow(() -> new ItemNotFoundException(id)));
+        }
+
+        // whole authors are served from the cache, projected ones read only the named fields
+        Optional<Author> found = projection.isAll()
+                ? repository.findById(id)
+                : Optional.ofNullable(mongoTemplate.findOne(projection.apply(new Query(Criteria.where("id").is(id))),
+                        Author.class));
+        Author author = found.orElseThrow(() -> new ItemNotFoundException(id));
 
-        return assembler.toModel(author);
+        return assembler.toModel(relations.resolve(author));
     }
 
     /**
      * <p>
-     * Searches for an author with the given parameters
+     * Searches for authors matching the request's filters
      * <p>
      * 
      * @param request The search request
+     * @param fields  the comma-separated fields to read, may be null for all
      * @return List of authors
      */
     @Override
-    public List<EntityModel<?>> search(Object request) {
-        Author author = (Author) request;
-        ExampleMatcher matcher = ExampleMatcher.matchingAny().withIgnoreCase();
-        Example<Author> example = Example.of(author, matcher);
+    public List<EntityModel<?>> search(SearchRequest request, String fields) {
+        Projection projection = projections.parse(fields, Author.class);
+        Query query = projection.apply(compiler.compile(request, SearchFields.AUTHORS));
 
-        return repository.findAll(example).stream().map(assembler::toModel).collect(Collectors.toList());
+        List<Author> authors = catalog.isReady()
+                ? catalog.search(Author.class, request, SearchFields.AUTHORS, query.getLimit(), projection)
+                : relations.resolve(mongoTemplate.find(query, Author.class));
+
+        return authors.stream().map(assembler::toModel).collect(Collectors.toList());
+    }
+
+    /**
+     * <p>
+     * Explains how a author search would be served
+     * </p>
+     * 
+     * @param request The search request
+     * @return the winning plan and the index it uses
+     */
+    @Override
+    public SearchExplanation explain(SearchRequest request) {
+        Query query = compiler.compile(request, SearchFields.AUTHORS);
+
+        return explainer.explain(query, Author.class);
+    }
+
+    /**
+     * <p>
+     * Streams all authors as newline-delimited JSON
+     * </p>
+     * 
+     * @param out the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    @Override
+    public void export(OutputStream out) throws IOException {
+        long count = exporter.export(Author.class, out);
+
+        log.info("Exported {} authors", count);
     }
 
     /**
@@ -87,66 +215,182 @@ public class AuthorsService implements IService {
     @Override
     public EntityModel<?> add(Object entity) {
         Author saved = repository.save((Author) entity);
+        events.publishEvent(CatalogChangedEvent.of(Author.class, saved.getId()));
+        relationshipSync.sync(Author.class, saved.getId(), saved.getBooks());
 
-        log.info("Saved author with id " + saved.getId());
+        log.info("Saved author with id {}", saved.getId());
 
         return assembler.toModel(saved);
     }
 
+    /**
+     * <p>
+     * Creates or replaces a batch of authors
+     * </p>
+     * 
+     * @param entities the authors to write
+     * @return one result per author, in request order
+     */
+    @Override
+    public List<BatchResult> addAll(Iterator<?> entities) {
+        List<BatchResult> results = batchWriter.write(Author.class, entities);
+        CatalogChangedEvent written = CatalogChangedEvent.written(Author.class, results);
+        events.publishEvent(written);
+        relationshipSync.sync(Author.class, written.getIds());
+
+        log.info("Wrote batch of {} authors", results.size());
+
+        return results;
+    }
+
     /**
      * <p>
      * Updates an author
      * </p>
      * 
-     * @param id     the id of the author to update
-     * @param entity the updated author
+     * @param id       the id of the author to update
+     * @param entity   the updated author
+     * @param versions the versions the client read, any of which may be current,
+     *                 or null for an unconditional update
      * @return the updated author
      */
     @Override
-    public EntityModel<?> update(String id, Object entity) {
+    public EntityModel<?> update(String id, Object entity, List<Long> versions) {
         Author update = (Author) entity;
-        Author updated = repository.findById(id).map(author -> {
-            author.setFirstName(update.getFirstName());
-            author.setMiddleName(update.getMiddleName());
-            author.setLastName(update.getLastName());
-            author.setSuffix(update.getSuffix());
-            author.setGender(update.getGender());
-            author.setDateOfBirth(update.getDateOfBirth());
-            author.setCity(update.getCity());
-            author.setState(update.getState());
-            author.setBooks(update.getBooks());
-            return repository.save(author);
-        }).orElseThrow(() -> new ItemNotFoundException(id));
-
-        log.info("Updated author with id " + id);
+        // the cached author may hold an old version, so the stored version is read from Mongo
+        Query stored = new Query(Criteria.where("id").is(id));
+        stored.fields().include("version");
+        Author existing = Optional.ofNullable(mongoTemplate.findOne(stored, Author.class))
+                .orElseThrow(() -> new ItemNotFoundException(id));
+
+        if (versions != null && !versions.contains(existing.getVersion())) {
+            throw new OptimisticLockingFailureException("Author " + id + " is not at version " + versions);
+        }
+
+        update.setId(id);
+        // saving checks the version again, in case the author changed since it was read
+        update.setVersion(existing.getVersion());
+        Author updated = repository.save(update);
+        events.publishEvent(CatalogChangedEvent.of(Author.class, id));
+        relationshipSync.sync(Author.class, id, updated.getBooks());
+
+        log.info("Updated author with id {}", id);
 
         return assembler.toModel(updated);
     }
 
     /**
      * <p>
-     * Deletes an author by id
+     * Patches a author with a single findAndModify that sets and unsets only the
+     * fields named in the patch
+     * </p>
+     * 
+     * @param id       the id of the author to patch
+     * @param patch    the merge patch
+     * @param versions the versions the client read, any of which may be current,
+     *                 or null for an unconditional patch
+     * @return the patched author
+     */
+    @Override
+    public EntityModel<?> patch(String id, JsonNode patch, List<Long> versions) {
+        Update update = patches.compile(patch, Author.class);
+        Query query = new Query(Criteria.where("id").is(id));
+
+        if (versions != null) {
+            query.addCriteria(Criteria.where("version").in(versions));
+        }
+
+        // Mongo rejects an update without operators, and an empty patch changes nothing
+        boolean changed = !update.getUpdateObject().isEmpty();
+        Author patched = changed
+                ? mongoTemplate.findAndModify(query, update.inc("version", 1),
+                        FindAndModifyOptions.options().returnNew(true), Author.class)
+                : mongoTemplate.findOne(query, Author.class);
+
+        if (patched == null && versions != null
+                && mongoTemplate.exists(new Query(Criteria.where("id").is(id)), Author.class)) {
+            throw new OptimisticLockingFailureException("Author " + id + " is not at version " + versions);
+        }
+
+        if (patched == null) {
+            throw new ItemNotFoundException(id);
+        }
+
+        if (changed) {
+            events.publishEvent(CatalogChangedEvent.of(Author.class, id));
+
+            if (patch.has("books")) {
+                relationshipSync.sync(Author.class, id, patched.getBooks());
+            }
+
+            log.info("Patched author with id {}", id);
+        }
+
+        return assembler.toModel(relations.resolve(patched));
+    }
+
+    /**
+     * <p>
+     * Deletes an author by id and pulls it out of the documents that reference it
      * </p>
      * 
      * @param id the id of the author to delete
      */
     @Override
     public void delete(String id) {
-        log.info("Deleted author with id " + id);
+        log.info("Deleted author with id {}", id);
+
+        deleter.delete(Author.class, List.of(id));
+    }
+
+    /**
+     * <p>
+     * Deletes authors by id in chunks
+     * </p>
+     * 
+     * @param ids the ids of the authors to delete
+     * @return the number of authors deleted
+     */
+    @Override
+    public long delete(List<String> ids) {
+        long deleted = deleter.delete(Author.class, ids);
+
+        log.info("Deleted {} authors by id", deleted);
+
+        return deleted;
+    }
+
+    /**
+     * <p>
+     * Deletes the authors matching the request's filters in chunks
+     * </p>
+     * 
+     * @param request the search request
+     * @return the number of authors deleted
+     */
+    @Override
+    public long deleteMatching(SearchRequest request) {
+        if (request.getFilters() == null || request.getFilters().isEmpty()) {
+            throw new InvalidRequestException("filters", "At least one filter is required");
+        }
+
+        long deleted = deleter.delete(Author.class, compiler.compile(request, SearchFields.AUTHORS));
+
+        log.info("Deleted {} authors matching a search", deleted);
 
-        repository.deleteById(id);
+        return deleted;
     }
 
     /**
      * <p>
-     * Deletes all authors
+     * Deletes all authors and empties the references to them
      * </p>
      */
     @Override
     public void deleteAll() {
         log.info("Deleted all authors");
 
-        repository.deleteAll();
+        deleter.deleteAll(Author.class);
     }
 
 }
@@ -1,19 +1,48 @@
 package com.betterreads.services.impl;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Example;
-import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.stereotype.Service;
 
 import com.betterreads.assemblers.BooksAssembler;
+import com.betterreads.catalog.InMemoryCatalog;
+import com.betterreads.events.CatalogChangedEvent;
+import com.betterreads.exceptions.InvalidRequestException;
 import com.betterreads.exceptions.ItemNotFoundException;
+import com.betterreads.models.BatchResult;
+import com.betterreads.models.SearchExplanation;
+import com.betterreads.models.SearchRequest;
+import com.betterreads.queries.MergePatchCompiler;
+import com.betterreads.queries.Projection;
+import com.betterreads.queries.ProjectionParser;
+import com.betterreads.queries.QueryExplainer;
+import com.betterreads.queries.SearchFields;
+import com.betterreads.queries.SearchQueryCompiler;
 import com.betterreads.repositories.BooksRepository;
 import com.betterreads.models.Book;
+import com.betterreads.services.BatchWriter;
+import com.betterreads.services.CascadeDeleter;
+import com.betterreads.services.CursorPage;
+import com.betterreads.services.DocumentExporter;
 import com.betterreads.services.IService;
+import com.betterreads.services.RelationLoader;
+import com.betterreads.services.RelationshipSync;
+import com.fasterxml.jackson.databind.JsonNode;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -32,16 +61,68 @@ public class BooksService implements IService {
     @Autowired
     private BooksAssembler assembler;
 
+    @Autowired
+    private DocumentExporter exporter;
+
+    @Autowired
+    private BatchWriter batchWriter;
+
+    @Autowired
+    private CascadeDeleter deleter;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private SearchQueryCompiler compiler;
+
+    @Autowired
+    private QueryExplainer explainer;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Autowired
+    private RelationLoader relations;
+
+    @Autowired
+    private RelationshipSync relationshipSync;
+
+    @Autowired
+    private InMemoryCatalog catalog;
+
+    @Autowired
+    private ProjectionParser projections;
+
+    @Autowired
+    private MergePatchCompiler patches;
+
     /**
      * <p>
-     * Gets all books
+     * Gets one page of books
      * </p>
      * 
+     * @param after  the id to read after, may be null
+     * @param before the id to read before, may be null
+     * @param size   the page size
+     * @param fields the comma-separated fields to read, may be null for all
      * @return The books
      */
     @Override
-    public List<EntityModel<?>> getAll() {
-        return repository.findAll().stream().map(assembler::toModel).collect(Collectors.toList());
+    public CollectionModel<EntityModel<?>> getAll(String after, String before, int size, String fields) {
+        Projection projection = projections.parse(fields, Book.class);
+
+        if (catalog.isReady()) {
+            return assembler.toPagedModel(catalog.page(Book.class, projection, after, before, size),
+                    projection.toParameter());
+        }
+
+        CursorPage<Book> page = projection.isAll()
+                ? CursorPage.fetch(repository, after, before, size)
+                : CursorPage.fetch(mongoTemplate, Book.class, projection, after, before, size);
+        relations.resolve(page.getContent());
+
+        return assembler.toPagedModel(page, projection.toParameter());
     }
 
     /**
@@ -49,31 +130,78 @@ public class BooksService implements IService {
      * Gets book by id
      * </p>
      * 
-     * @param id the books's id in the database
+     * @param id     the books's id in the database
+     * @param fields the comma-separated fields to read, may be null for all
      * @return The book
      */
     @Override
-    public EntityModel<?> getById(String id) {
-        Book book = repository.findById(id).orElseThrow(() -> new ItemNotFoundException(id));
+    public EntityModel<?> getById(String id, String fields) {
+        Projection projection = projections.parse(fields, Book.class);
+
+        if (catalog.isReady()) {
+            return assembler.toModel(catalog.findById(Book.class, id, projection)
+                    .orElseThrow(() -> new ItemNotFoundException(id)));
+        }
+
+        // whole books are served from the cache, projected ones read only the named fields
+        Optional<Book> found = projection.isAll()
+                ? repository.findById(id)
+                : Optional.ofNullable(mongoTemplate.findOne(projection.apply(new Query(Criteria.where("id").is(id))),
+                        Book.class));
+        Book book = found.orElseThrow(() -> new ItemNotFoundException(id));
 
-        return assembler.toModel(book);
+        return assembler.toModel(relations.resolve(book));
     }
 
     /**
      * <p>
-     * Searches for a book with the given parameters
+     * Searches for books matching the request's filters
      * <p>
      * 
      * @param request The search request
+     * @param fields  the comma-separated fields to read, may be null for all
      * @return List of books
      */
     @Override
-    public List<EntityModel<?>> search(Object request) {
-        Book book = (Book) request;
-        ExampleMatcher matcher = ExampleMatcher.matchingAny().withIgnoreCase();
-        Example<Book> example = Example.of(book, matcher);
+    public List<EntityModel<?>> search(SearchRequest request, String fields) {
+        Projection projection = projections.parse(fields, Book.class);
+        Query query = projection.apply(compiler.compile(request, SearchFields.BOOKS));
 
-        return repository.findAll(example).stream().map(assembler::toModel).collect(Collectors.toList());
+        List<Book> books = catalog.isReady()
+                ? catalog.search(Book.class, request, SearchFields.BOOKS, query.getLimit(), projection)
+                : relations.resolve(mongoTemplate.find(query, Book.class));
+
+        return books.stream().map(assembler::toModel).collect(Collectors.toList());
+    }
+
+    /**
+     * <p>
+     * Explains how a book search would be served
+     * </p>
+     * 
+     * @param request The search request
+     * @return the winning plan and the index it uses
+     */
+    @Override
+    public SearchExplanation explain(SearchRequest request) {
+        Query query = compiler.compile(request, SearchFields.BOOKS);
+
+        return explainer.explain(query, Book.class);
+    }
+
+    /**
+     * <p>
+     * Streams all books as newline-delimited JSON
+     * </p>
+     * 
+     * @param out the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    @Override
+    public void export(OutputStream out) throws IOException {
+        long count = exporter.export(Book.class, out);
+
+        log.info("Exported {} books", count);
     }
 
     /**
@@ -87,65 +215,182 @@ public class BooksService implements IService {
     @Override
     public EntityModel<?> add(Object entity) {
         Book saved = repository.save((Book) entity);
+        events.publishEvent(CatalogChangedEvent.of(Book.class, saved.getId()));
+        relationshipSync.sync(Book.class, saved.getId(), saved.getAuthors());
 
-        log.info("Saved book with id " + saved.getId());
+        log.info("Saved book with id {}", saved.getId());
 
         return assembler.toModel(saved);
     }
 
+    /**
+     * <p>
+     * Creates or replaces a batch of books
+     * </p>
+     * 
+     * @param entities the books to write
+     * @return one result per book, in request order
+     */
+    @Override
+    public List<BatchResult> addAll(Iterator<?> entities) {
+        List<BatchResult> results = batchWriter.write(Book.class, entities);
+        CatalogChangedEvent written = CatalogChangedEvent.written(Book.class, results);
+        events.publishEvent(written);
+        relationshipSync.sync(Book.class, written.getIds());
+
+        log.info("Wrote batch of {} books", results.size());
+
+        return results;
+    }
+
     /**
      * <p>
      * Updates a book
      * </p>
      * 
-     * @param id     the id of the book to update
-     * @param entity the updated book
+     * @param id       the id of the book to update
+     * @param entity   the updated book
+     * @param versions the versions the client read, any of which may be current,
+     *                 or null for an unconditional update
      * @return the updated book
      */
     @Override
-    public EntityModel<?> update(String id, Object entity) {
+    public EntityModel<?> update(String id, Object entity, List<Long> versions) {
         Book update = (Book) entity;
-        Book updated = repository.findById(id).map(book -> {
-            book.setAuthors(update.getAuthors());
-            book.setTitle(update.getTitle());
-            book.setIsbn(update.getIsbn());
-            book.setGenres(update.getGenres());
-            book.setPages(update.getPages());
-            book.setPublishedDate(update.getPublishedDate());
-            book.setPublisher(update.getPublisher());
-            book.setLanguage(update.getLanguage());
-            return repository.save(book);
-        }).orElseThrow(() -> new ItemNotFoundException(id));
-
-        log.info("Updated book with id " + id);
+        // the cached book may hold an old version, so the stored version is read from Mongo
+        Query stored = new Query(Criteria.where("id").is(id));
+        stored.fields().include("version");
+        Book existing = Optional.ofNullable(mongoTemplate.findOne(stored, Book.class))
+                .orElseThrow(() -> new ItemNotFoundException(id));
+
+        if (versions != null && !versions.contains(existing.getVersion())) {
+            throw new OptimisticLockingFailureException("Book " + id + " is not at version " + versions);
+        }
+
+        update.setId(id);
+        // saving checks the version again, in case the book changed since it was read
+        update.setVersion(existing.getVersion());
+        Book updated = repository.save(update);
+        events.publishEvent(CatalogChangedEvent.of(Book.class, id));
+        relationshipSync.sync(Book.class, id, updated.getAuthors());
+
+        log.info("Updated book with id {}", id);
 
         return assembler.toModel(updated);
     }
 
     /**
      * <p>
-     * Deletes a book by id
+     * Patches a book with a single findAndModify that sets and unsets only the
+     * fields named in the patch
+     * </p>
+     * 
+     * @param id       the id of the book to patch
+     * @param patch    the merge patch
+     * @param versions the versions the client read, any of which may be current,
+     *                 or null for an unconditional patch
+     * @return the patched book
+     */
+    @Override
+    public EntityModel<?> patch(String id, JsonNode patch, List<Long> versions) {
+        Update update = patches.compile(patch, Book.class);
+        Query query = new Query(Criteria.where("id").is(id));
+
+        if (versions != null) {
+            query.addCriteria(Criteria.where("version").in(versions));
+        }
+
+        // Mongo rejects an update without operators, and an empty patch changes nothing
+        boolean changed = !update.getUpdateObject().isEmpty();
+        Book patched = changed
+                ? mongoTemplate.findAndModify(query, update.inc("version", 1),
+                        FindAndModifyOptions.options().returnNew(true), Book.class)
+                : mongoTemplate.findOne(query, Book.class);
+
+        if (patched == null && versions != null
+                && mongoTemplate.exists(new Query(Criteria.where("id").is(id)), Book.class)) {
+            throw new OptimisticLockingFailureException("Book " + id + " is not at version " + versions);
+        }
+
+        if (patched == null) {
+            throw new ItemNotFoundException(id);
+        }
+
+        if (changed) {
+            events.publishEvent(CatalogChangedEvent.of(Book.class, id));
+
+            if (patch.has("authors")) {
+                relationshipSync.sync(Book.class, id, patched.getAuthors());
+            }
+
+            log.info("Patched book with id {}", id);
+        }
+
+        return assembler.toModel(relations.resolve(patched));
+    }
+
+    /**
+     * <p>
+     * Deletes a book by id and pulls it out of the documents that reference it
      * </p>
      * 
      * @param id the id of the book to delete
      */
     @Override
     public void delete(String id) {
-        log.info("Deleted book with id " + id);
+        log.info("Deleted book with id {}", id);
+
+        deleter.delete(Book.class, List.of(id));
+    }
+
+    /**
+     * <p>
+     * Deletes books by id in chunks
+     * </p>
+     * 
+     * @param ids the ids of the books to delete
+     * @return the number of books deleted
+     */
+    @Override
+    public long delete(List<String> ids) {
+        long deleted = deleter.delete(Book.class, ids);
+
+        log.info("Deleted {} books by id", deleted);
+
+        return deleted;
+    }
+
+    /**
+     * <p>
+     * Deletes the books matching the request's filters in chunks
+     * </p>
+     * 
+     * @param request the search request
+     * @return the number of books deleted
+     */
+    @Override
+    public long deleteMatching(SearchRequest request) {
+        if (request.getFilters() == null || request.getFilters().isEmpty()) {
+            throw new InvalidRequestException("filters", "At least one filter is required");
+        }
+
+        long deleted = deleter.delete(Book.class, compiler.compile(request, SearchFields.BOOKS));
+
+        log.info("Deleted {} books matching a search", deleted);
 
-        repository.deleteById(id);
+        return deleted;
     }
 
     /**
      * <p>
-     * Deletes all books
+     * Deletes all books and empties the references to them
      * </p>
      */
     @Override
     public void deleteAll() {
         log.info("Deleted all books");
 
-        repository.deleteAll();
+        deleter.deleteAll(Book.class);
     }
 
 }
@@ -1,19 +1,47 @@
 package com.betterreads.services.impl;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Example;
-import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.stereotype.Service;
 
 import com.betterreads.assemblers.PublishersAssembler;
+import com.betterreads.catalog.InMemoryCatalog;
+import com.betterreads.events.CatalogChangedEvent;
+import com.betterreads.exceptions.InvalidRequestException;
 import com.betterreads.exceptions.ItemNotFoundException;
+import com.betterreads.models.BatchResult;
+import com.betterreads.models.SearchExplanation;
+import com.betterreads.models.SearchRequest;
+import com.betterreads.queries.MergePatchCompiler;
+import com.betterreads.queries.Projection;
+import com.betterreads.queries.ProjectionParser;
+import com.betterreads.queries.QueryExplainer;
+import com.betterreads.queries.SearchFields;
+import com.betterreads.queries.SearchQueryCompiler;
 import com.betterreads.repositories.PublishersRepository;
 import com.betterreads.models.Publisher;
+import com.betterreads.services.BatchWriter;
+import com.betterreads.services.CascadeDeleter;
+import com.betterreads.services.CursorPage;
+import com.betterreads.services.DocumentExporter;
 import com.betterreads.services.IService;
+import com.betterreads.services.RelationLoader;
+import com.fasterxml.jackson.databind.JsonNode;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -32,16 +60,65 @@ public class PublishersService implements IService {
     @Autowired
     private PublishersAssembler assembler;
 
+    @Autowired
+    private DocumentExporter exporter;
+
+    @Autowired
+    private BatchWriter batchWriter;
+
+    @Autowired
+    private CascadeDeleter deleter;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private SearchQueryCompiler compiler;
+
+    @Autowired
+    private QueryExplainer explainer;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Autowired
+    private RelationLoader relations;
+
+    @Autowired
+    private InMemoryCatalog catalog;
+
+    @Autowired
+    private ProjectionParser projections;
+
+    @Autowired
+    private MergePatchCompiler patches;
+
     /**
      * <p>
-     * Gets all publishers
+     * Gets one page of publishers
      * </p>
      * 
+     * @param after  the id to read after, may be null
+     * @param before the id to read before, may be null
+     * @param size   the page size
+     * @param fields the comma-separated fields to read, may be null for all
      * @return The publishers
      */
     @Override
-    public List<EntityModel<?>> getAll() {
-        return repository.findAll().stream().map(assembler::toModel).collect(Collectors.toList());
+    public CollectionModel<EntityModel<?>> getAll(String after, String before, int size, String fields) {
+        Projection projection = projections.parse(fields, Publisher.class);
+
+        if (catalog.isReady()) {
+            return assembler.toPagedModel(catalog.page(Publisher.class, projection, after, before, size),
+                    projection.toParameter());
+        }
+
+        CursorPage<Publisher> page = projection.isAll()
+                ? CursorPage.fetch(repository, after, before, size)
+                : CursorPage.fetch(mongoTemplate, Publisher.class, projection, after, before, size);
+        relations.resolve(page.getContent());
+
+        return assembler.toPagedModel(page, projection.toParameter());
     }
 
     /**
@@ -49,31 +126,78 @@ public class PublishersService implements IService {
      * Gets publisher by id
      * </p>
      * 
-     * @param id the publishers's id in the database
+     * @param id     the publishers's id in the database
+     * @param fields the comma-separated fields to read, may be null for all
      * @return The publisher
      */
     @Override
-    public EntityModel<?> getById(String id) {
-        Publisher publisher = repository.findById(id).orElseThrow(() -> new ItemNotFoundException(id));
+    public EntityModel<?> getById(String id, String fields) {
+        Projection projection = projections.parse(fields, Publisher.class);
+
+        if (catalog.isReady()) {
+            return assembler.toModel(catalog.findById(Publisher.class, id, projection)
+                    .orElseThrow(() -> new ItemNotFoundException(id)));
+        }
+
+        // whole publishers are served from the cache, projected ones read only the named fields
+        Optional<Publisher> found = projection.isAll()
+                ? repository.findById(id)
+                : Optional.ofNullable(mongoTemplate.findOne(projection.apply(new Query(Criteria.where("id").is(id))),
+                        Publisher.class));
+        Publisher publisher = found.orElseThrow(() -> new ItemNotFoundException(id));
 
-        return assembler.toModel(publisher);
+        return assembler.toModel(relations.resolve(publisher));
     }
 
     /**
      * <p>
-     * Searches for a publisher with the given parameters
+     * Searches for publishers matching the request's filters
      * <p>
      * 
      * @param request The search request
+     * @param fields  the comma-separated fields to read, may be null for all
      * @return List of publishers
      */
     @Override
-    public List<EntityModel<?>> search(Object request) {
-        Publisher publisher = (Publisher) request;
-        ExampleMatcher matcher = ExampleMatcher.matchingAny().withIgnoreCase();
-        Example<Publisher> example = Example.of(publisher, matcher);
+    public List<EntityModel<?>> search(SearchRequest request, String fields) {
+        Projection projection = projections.parse(fields, Publisher.class);
+        Query query = projection.apply(compiler.compile(request, SearchFields.PUBLISHERS));
+
+        List<Publisher> publishers = catalog.isReady()
+                ? catalog.search(Publisher.class, request, SearchFields.PUBLISHERS, query.getLimit(), projection)
+                : relations.resolve(mongoTemplate.find(query, Publisher.class));
+
+        return publishers.stream().map(assembler::toModel).collect(Collectors.toList());
+    }
+
+    /**
+     * <p>
+     * Explains how a publisher search would be served
+     * </p>
+     * 
+     * @param request The search request
+     * @return the winning plan and the index it uses
+     */
+    @Override
+    public SearchExplanation explain(SearchRequest request) {
+        Query query = compiler.compile(request, SearchFields.PUBLISHERS);
+
+        return explainer.explain(query, Publisher.class);
+    }
+
+    /**
+     * <p>
+     * Streams all publishers as newline-delimited JSON
+     * </p>
+     * 
+     * @param out the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    @Override
+    public void export(OutputStream out) throws IOException {
+        long count = exporter.export(Publisher.class, out);
 
-        return repository.findAll(example).stream().map(assembler::toModel).collect(Collectors.toList());
+        log.info("Exported {} publishers", count);
     }
 
     /**
@@ -87,59 +211,173 @@ public class PublishersService implements IService {
     @Override
     public EntityModel<?> add(Object entity) {
         Publisher saved = repository.save((Publisher) entity);
+        events.publishEvent(CatalogChangedEvent.of(Publisher.class, saved.getId()));
 
-        log.info("Saved publisher with id " + saved.getId());
+        log.info("Saved publisher with id {}", saved.getId());
 
         return assembler.toModel(saved);
     }
 
+    /**
+     * <p>
+     * Creates or replaces a batch of publishers
+     * </p>
+     * 
+     * @param entities the publishers to write
+     * @return one result per publisher, in request order
+     */
+    @Override
+    public List<BatchResult> addAll(Iterator<?> entities) {
+        List<BatchResult> results = batchWriter.write(Publisher.class, entities);
+        events.publishEvent(CatalogChangedEvent.written(Publisher.class, results));
+
+        log.info("Wrote batch of {} publishers", results.size());
+
+        return results;
+    }
+
     /**
      * <p>
      * Updates a publisher
      * </p>
      * 
-     * @param id     the id of the publisher to update
-     * @param entity the updated publisher
+     * @param id       the id of the publisher to update
+     * @param entity   the updated publisher
+     * @param versions the versions the client read, any of which may be current,
+     *                 or null for an unconditional update
      * @return the updated publisher
      */
     @Override
-    public EntityModel<?> update(String id, Object entity) {
+    public EntityModel<?> update(String id, Object entity, List<Long> versions) {
         Publisher update = (Publisher) entity;
-        Publisher updated = repository.findById(id).map(publisher -> {
-            publisher.setName(update.getName());
-            publisher.setBooks(update.getBooks());
-            return repository.save(publisher);
-        }).orElseThrow(() -> new ItemNotFoundException(id));
+        // the cached publisher may hold an old version, so the stored version is read from Mongo
+        Query stored = new Query(Criteria.where("id").is(id));
+        stored.fields().include("version");
+        Publisher existing = Optional.ofNullable(mongoTemplate.findOne(stored, Publisher.class))
+                .orElseThrow(() -> new ItemNotFoundException(id));
+
+        if (versions != null && !versions.contains(existing.getVersion())) {
+            throw new OptimisticLockingFailureException("Publisher " + id + " is not at version " + versions);
+        }
+
+        update.setId(id);
+        // saving checks the version again, in case the publisher changed since it was read
+        update.setVersion(existing.getVersion());
+        Publisher updated = repository.save(update);
+        events.publishEvent(CatalogChangedEvent.of(Publisher.class, id));
 
-        log.info("Updated publisher with id " + id);
+        log.info("Updated publisher with id {}", id);
 
         return assembler.toModel(updated);
     }
 
     /**
      * <p>
-     * Deletes a publisher by id
+     * Patches a publisher with a single findAndModify that sets and unsets only the
+     * fields named in the patch
+     * </p>
+     * 
+     * @param id       the id of the publisher to patch
+     * @param patch    the merge patch
+     * @param versions the versions the client read, any of which may be current,
+     *                 or null for an unconditional patch
+     * @return the patched publisher
+     */
+    @Override
+    public EntityModel<?> patch(String id, JsonNode patch, List<Long> versions) {
+        Update update = patches.compile(patch, Publisher.class);
+        Query query = new Query(Criteria.where("id").is(id));
+
+        if (versions != null) {
+            query.addCriteria(Criteria.where("version").in(versions));
+        }
+
+        // Mongo rejects an update without operators, and an empty patch changes nothing
+        boolean changed = !update.getUpdateObject().isEmpty();
+        Publisher patched = changed
+                ? mongoTemplate.findAndModify(query, update.inc("version", 1),
+                        FindAndModifyOptions.options().returnNew(true), Publisher.class)
+                : mongoTemplate.findOne(query, Publisher.class);
+
+        if (patched == null && versions != null
+                && mongoTemplate.exists(new Query(Criteria.where("id").is(id)), Publisher.class)) {
+            throw new OptimisticLockingFailureException("Publisher " + id + " is not at version " + versions);
+        }
+
+        if (patched == null) {
+            throw new ItemNotFoundException(id);
+        }
+
+        if (changed) {
+            events.publishEvent(CatalogChangedEvent.of(Publisher.class, id));
+            log.info("Patched publisher with id {}", id);
+        }
+
+        return assembler.toModel(relations.resolve(patched));
+    }
+
+    /**
+     * <p>
+     * Deletes a publisher by id and pulls it out of the documents that reference it
      * </p>
      * 
      * @param id the id of the publisher to delete
      */
     @Override
     public void delete(String id) {
-        log.info("Deleted publisher with id " + id);
+        log.info("Deleted publisher with id {}", id);
+
+        deleter.delete(Publisher.class, List.of(id));
+    }
+
+    /**
+     * <p>
+     * Deletes publishers by id in chunks
+     * </p>
+     * 
+     * @param ids the ids of the publishers to delete
+     * @return the number of publishers deleted
+     */
+    @Override
+    public long delete(List<String> ids) {
+        long deleted = deleter.delete(Publisher.class, ids);
+
+        log.info("Deleted {} publishers by id", deleted);
+
+        return deleted;
+    }
+
+    /**
+     * <p>
+     * Deletes the publishers matching the request's filters in chunks
+     * </p>
+     * 
+     * @param request the search request
+     * @return the number of publishers deleted
+     */
+    @Override
+    public long deleteMatching(SearchRequest request) {
+        if (request.getFilters() == null || request.getFilters().isEmpty()) {
+            throw new InvalidRequestException("filters", "At least one filter is required");
+        }
+
+        long deleted = deleter.delete(Publisher.class, compiler.compile(request, SearchFields.PUBLISHERS));
+
+        log.info("Deleted {} publishers matching a search", deleted);
 
-        repository.deleteById(id);
+        return deleted;
     }
 
     /**
      * <p>
-     * Deletes all publishers
+     * Deletes all publishers and empties the references to them
      * </p>
      */
     @Override
     public void deleteAll() {
         log.info("Deleted all publishers");
 
-        repository.deleteAll();
+        deleter.deleteAll(Publisher.class);
     }
 
 }
@@ -0,0 +1,145 @@
+package com.betterreads.services.reactive;
+
+import java.util.List;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+
+import com.betterreads.models.BatchResult;
+import com.betterreads.models.SearchExplanation;
+import com.betterreads.models.SearchRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * <p>
+ * Interface for services that provide basic CRUD operations without blocking
+ * the calling thread
+ * </p>
+ */
+public interface IReactiveService {
+
+    /**
+     * <p>
+     * Gets one page of documents ordered by id
+     * </p>
+     * 
+     * @param after  the id to read after, may be null
+     * @param before the id to read before, may be null
+     * @param size   the page size
+     * @param fields the comma-separated fields to read, may be null for all
+     * @return The documents with next and prev links
+     */
+    Mono<CollectionModel<EntityModel<?>>> getAll(String after, String before, int size, String fields);
+
+    /**
+     * <p>
+     * Gets document by id
+     * </p>
+     * 
+     * @param id     the document's id in the database
+     * @param fields the comma-separated fields to read, may be null for all
+     * @return The document, or an ItemNotFoundException error
+     */
+    Mono<EntityModel<?>> getById(String id, String fields);
+
+    /**
+     * <p>
+     * Searches for documents matching the request's filters
+     * <p>
+     * 
+     * @param request The search request
+     * @param fields  the comma-separated fields to read, may be null for all
+     * @return The documents
+     */
+    Flux<EntityModel<?>> search(SearchRequest request, String fields);
+
+    /**
+     * <p>
+     * Explains how a search would be served, without running it
+     * </p>
+     * 
+     * @param request The search request
+     * @return the winning plan and the index it uses
+     */
+    Mono<SearchExplanation> explain(SearchRequest request);
+
+    /**
+     * <p>
+     * Streams all documents as newline-delimited JSON
+     * </p>
+     * 
+     * @return one buffer per document
+     */
+    Flux<DataBuffer> export();
+
+    /**
+     * <p>
+     * Creates a document
+     * </p>
+     * 
+     * @param entity the document to create
+     * @return The created document
+     */
+    Mono<EntityModel<?>> add(Object entity);
+
+    /**
+     * <p>
+     * Creates or replaces a batch of documents
+     * </p>
+     * 
+     * @param entities the documents to write
+     * @return one result per document, in request order
+     */
+    Mono<List<BatchResult>> addAll(Flux<?> entities);
+
+    /**
+     * <p>
+     * Updates a document
+     * </p>
+     * 
+     * @param id       the id of the document to update
+     * @param entity   the updated document
+     * @param versions the versions the client read, any of which may be current,
+     *                 or null to replace whatever is stored
+     * @return the updated document, or an ItemNotFoundException or
+     *         OptimisticLockingFailureException error
+     */
+    Mono<EntityModel<?>> update(String id, Object entity, List<Long> versions);
+
+    /**
+     * <p>
+     * Changes only the fields named in a JSON Merge Patch
+     * </p>
+     * 
+     * @param id       the id of the document to patch
+     * @param patch    the merge patch
+     * @param versions the versions the client read, any of which may be current,
+     *                 or null to patch whatever is stored
+     * @return the patched document, or an ItemNotFoundException or
+     *         OptimisticLockingFailureException error
+     */
+    Mono<EntityModel<?>> patch(String id, JsonNode patch, List<Long> versions);
+
+    /**
+     * <p>
+     * Deletes a document by id
+     * </p>
+     * 
+     * @param id the id of the document to delete
+     * @return completes once the document is deleted
+     */
+    Mono<Void> delete(String id);
+
+    /**
+     * <p>
+     * Deletes all documents
+     * </p>
+     * 
+     * @return completes once the documents are deleted
+     */
+    Mono<Void> deleteAll();
+}
@@ -0,0 +1,49 @@
+package com.betterreads.services.reactive;
+
+import java.nio.charset.StandardCharsets;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.betterreads.services.DocumentExporter;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * <p>
+ * Streams a collection as newline-delimited JSON from a reactive Mongo cursor
+ * </p>
+ */
+@Component
+@Profile("reactive")
+public class ReactiveDocumentExporter {
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
+    /**
+     * <p>
+     * Emits every document of the entity's collection as one line of JSON, in the
+     * same format as {@link DocumentExporter}. The cursor is drained only as fast
+     * as the response is written, so a slow reader holds back the next batch
+     * rather than a thread.
+     * </p>
+     *
+     * @param type the entity type of the collection
+     * @return one buffer per document
+     */
+    public Flux<DataBuffer> export(Class<?> type) {
+        Query query = new Query().cursorBatchSize(DocumentExporter.BATCH_SIZE);
+        query.fields().exclude("_class");
+
+        return mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(type))
+                .map(document -> DefaultDataBufferFactory.sharedInstance
+                        .wrap((document.toJson(DocumentExporter.SETTINGS) + "\n").getBytes(StandardCharsets.UTF_8)));
+    }
+}
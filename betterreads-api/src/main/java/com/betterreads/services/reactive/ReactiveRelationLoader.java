@@ -0,0 +1,92 @@
+package com.betterreads.services.reactive;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.stereotype.Component;
+
+import com.betterreads.services.RelationLoader;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * <p>
+ * Resolves the document references of a page of entities in batches through
+ * the reactive driver, like {@link RelationLoader}
+ * </p>
+ */
+@Component
+@Profile("reactive")
+@Slf4j
+public class ReactiveRelationLoader {
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
+    /**
+     * <p>
+     * Replaces the unresolved references of the entities with the referenced
+     * documents, with one $in query per reference property. The queries of the
+     * different properties run concurrently.
+     * </p>
+     *
+     * @param entities the entities, all of the same type
+     * @param <T>      the entity type
+     * @return the entities, once every reference is resolved
+     */
+    public <T> Mono<List<T>> resolve(List<T> entities) {
+        if (entities.isEmpty()) {
+            return Mono.just(entities);
+        }
+
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(entities.get(0).getClass());
+        List<Mono<?>> loads = new ArrayList<>();
+
+        for (MongoPersistentProperty property : entity) {
+            if (!property.isDocumentReference()) {
+                continue;
+            }
+
+            Set<String> ids = RelationLoader.ids(entity, property, entities);
+
+            if (ids.isEmpty()) {
+                RelationLoader.assign(entity, property, entities, Map.of());
+                continue;
+            }
+
+            MongoPersistentEntity<?> target = mongoTemplate.getConverter().getMappingContext()
+                    .getRequiredPersistentEntity(property.getActualType());
+
+            loads.add(mongoTemplate.find(RelationLoader.query(ids), target.getType()).collectList()
+                    .doOnNext(documents -> RelationLoader.assign(entity, property, entities,
+                            RelationLoader.byId(target, documents))));
+        }
+
+        log.debug("Resolving references of {} {} with {} queries", entities.size(), entity.getCollection(),
+                loads.size());
+
+        return Mono.when(loads).thenReturn(entities);
+    }
+
+    /**
+     * <p>
+     * Resolves the references of one entity
+     * </p>
+     *
+     * @param entity the entity
+     * @param <T>    the entity type
+     * @return the entity, once every reference is resolved
+     */
+    public <T> Mono<T> resolve(T entity) {
+        return resolve(List.of(entity)).map(entities -> entities.get(0));
+    }
+}
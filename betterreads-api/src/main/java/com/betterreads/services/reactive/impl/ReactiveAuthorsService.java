@@ -0,0 +1,337 @@
+package com.betterreads.services.reactive.impl;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.stereotype.Service;
+
+import com.betterreads.assemblers.reactive.ReactiveAuthorsAssembler;
+import com.betterreads.events.CatalogChangedEvent;
+import com.betterreads.exceptions.ItemNotFoundException;
+import com.betterreads.models.Author;
+import com.betterreads.models.BatchResult;
+import com.betterreads.models.SearchExplanation;
+import com.betterreads.models.SearchRequest;
+import com.betterreads.queries.MergePatchCompiler;
+import com.betterreads.queries.Projection;
+import com.betterreads.queries.ProjectionParser;
+import com.betterreads.queries.QueryExplainer;
+import com.betterreads.queries.SearchFields;
+import com.betterreads.queries.SearchQueryCompiler;
+import com.betterreads.repositories.reactive.ReactiveAuthorsRepository;
+import com.betterreads.services.BatchWriter;
+import com.betterreads.services.CursorPage;
+import com.betterreads.services.reactive.IReactiveService;
+import com.betterreads.services.reactive.ReactiveDocumentExporter;
+import com.betterreads.services.reactive.ReactiveRelationLoader;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * <p>
+ * Reactive service for Authors CRUD operations. Reads go straight to the reactive
+ * driver and skip the getById cache; the batch writer, the explain command and
+ * the change event listeners are blocking and run on the bounded elastic
+ * scheduler.
+ * </p>
+ */
+@Service
+@Profile("reactive")
+@Slf4j
+public class ReactiveAuthorsService implements IReactiveService {
+
+    @Autowired
+    private ReactiveAuthorsRepository repository;
+
+    @Autowired
+    private ReactiveAuthorsAssembler assembler;
+
+    @Autowired
+    private ReactiveDocumentExporter exporter;
+
+    @Autowired
+    private BatchWriter batchWriter;
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Autowired
+    private SearchQueryCompiler compiler;
+
+    @Autowired
+    private QueryExplainer explainer;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Autowired
+    private ReactiveRelationLoader relations;
+
+    @Autowired
+    private ProjectionParser projections;
+
+    @Autowired
+    private MergePatchCompiler patches;
+
+    /**
+     * <p>
+     * Gets one page of authors
+     * </p>
+     * 
+     * @param after  the id to read after, may be null
+     * @param before the id to read before, may be null
+     * @param size   the page size
+     * @param fields the comma-separated fields to read, may be null for all
+     * @return The authors
+     */
+    @Override
+    public Mono<CollectionModel<EntityModel<?>>> getAll(String after, String before, int size, String fields) {
+        return Mono.fromCallable(() -> projections.parse(fields, Author.class)).flatMap(projection -> {
+            Mono<CursorPage<Author>> page = projection.isAll()
+                    ? CursorPage.fetch(repository, after, before, size)
+                    : CursorPage.fetch(mongoTemplate, Author.class, projection, after, before, size);
+
+            return page.flatMap(authors -> relations.resolve(authors.getContent())
+                    .then(assembler.toPagedModel(authors, projection.toParameter())));
+        });
+    }
+
+    /**
+     * <p>
+     * Gets author by id
+     * </p>
+     * 
+     * @param id     the author's id in the database
+     * @param fields the comma-separated fields to read, may be null for all
+     * @return The author
+     */
+    @Override
+    public Mono<EntityModel<?>> getById(String id, String fields) {
+        return Mono.fromCallable(() -> projections.parse(fields, Author.class))
+                .flatMap(projection -> find(id, projection))
+                .switchIfEmpty(Mono.error(() -> new ItemNotFoundException(id)))
+                .flatMap(relations::resolve)
+                .flatMap(assembler::toModel);
+    }
+
+    /**
+     * <p>
+     * Searches for authors matching the request's filters
+     * <p>
+     * 
+     * @param request The search request
+     * @param fields  the comma-separated fields to read, may be null for all
+     * @return The authors
+     */
+    @Override
+    public Flux<EntityModel<?>> search(SearchRequest request, String fields) {
+        return Mono.fromCallable(
+                () -> projections.parse(fields, Author.class).apply(compiler.compile(request, SearchFields.AUTHORS)))
+                .flatMap(query -> mongoTemplate.find(query, Author.class).collectList())
+                .flatMap(relations::resolve)
+                .flatMapIterable(authors -> authors)
+                .concatMap(assembler::toModel);
+    }
+
+    /**
+     * <p>
+     * Explains how a author search would be served
+     * </p>
+     * 
+     * @param request The search request
+     * @return the winning plan and the index it uses
+     */
+    @Override
+    public Mono<SearchExplanation> explain(SearchRequest request) {
+        return Mono.fromCallable(() -> explainer.explain(compiler.compile(request, SearchFields.AUTHORS), Author.class))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * <p>
+     * Streams all authors as newline-delimited JSON
+     * </p>
+     * 
+     * @return one buffer per author
+     */
+    @Override
+    public Flux<DataBuffer> export() {
+        return exporter.export(Author.class);
+    }
+
+    /**
+     * <p>
+     * Creates an author
+     * </p>
+     * 
+     * @param entity the author to create
+     * @return The created author
+     */
+    @Override
+    public Mono<EntityModel<?>> add(Object entity) {
+        return repository.save((Author) entity)
+                .flatMap(saved -> publish(CatalogChangedEvent.of(Author.class, saved.getId())).thenReturn(saved))
+                .doOnNext(saved -> log.info("Saved author with id {}", saved.getId()))
+                .flatMap(assembler::toModel);
+    }
+
+    /**
+     * <p>
+     * Creates or replaces a batch of authors
+     * </p>
+     * 
+     * @param entities the authors to write
+     * @return one result per author, in request order
+     */
+    @Override
+    public Mono<List<BatchResult>> addAll(Flux<?> entities) {
+        return entities.collectList()
+                .publishOn(Schedulers.boundedElastic())
+                .map(authors -> {
+                    List<BatchResult> results = batchWriter.write(Author.class, authors.iterator());
+                    events.publishEvent(CatalogChangedEvent.written(Author.class, results));
+
+                    log.info("Wrote batch of {} authors", results.size());
+
+                    return results;
+                });
+    }
+
+    /**
+     * <p>
+     * Updates an author
+     * </p>
+     * 
+     * @param id       the id of the author to update
+     * @param entity   the updated author
+     * @param versions the versions the client read, any of which may be current,
+     *                 or null for an unconditional update
+     * @return the updated author
+     */
+    @Override
+    public Mono<EntityModel<?>> update(String id, Object entity, List<Long> versions) {
+        Author update = (Author) entity;
+
+        return repository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ItemNotFoundException(id)))
+                .flatMap(existing -> {
+                    if (versions != null && !versions.contains(existing.getVersion())) {
+                        return Mono.error(new OptimisticLockingFailureException(
+                                "Author " + id + " is not at version " + versions));
+                    }
+
+                    update.setId(existing.getId());
+                    // saving checks the version again, in case the author changed since it was read
+                    update.setVersion(existing.getVersion());
+                    return repository.save(update);
+                })
+                .flatMap(updated -> publish(CatalogChangedEvent.of(Author.class, id)).thenReturn(updated))
+                .doOnNext(updated -> log.info("Updated author with id {}", id))
+                .flatMap(assembler::toModel);
+    }
+
+    /**
+     * <p>
+     * Patches an author with a single findAndModify that sets and unsets only the
+     * fields named in the patch
+     * </p>
+     * 
+     * @param id       the id of the author to patch
+     * @param patch    the merge patch
+     * @param versions the versions the client read, any of which may be current,
+     *                 or null for an unconditional patch
+     * @return the patched author
+     */
+    @Override
+    public Mono<EntityModel<?>> patch(String id, JsonNode patch, List<Long> versions) {
+        return Mono.fromCallable(() -> patches.compile(patch, Author.class))
+                .flatMap(update -> {
+                    Query query = new Query(Criteria.where("id").is(id));
+
+                    if (versions != null) {
+                        query.addCriteria(Criteria.where("version").in(versions));
+                    }
+
+                    // Mongo rejects an update without operators, and an empty patch changes nothing
+                    if (update.getUpdateObject().isEmpty()) {
+                        return mongoTemplate.findOne(query, Author.class);
+                    }
+
+                    return mongoTemplate.findAndModify(query, update.inc("version", 1),
+                            FindAndModifyOptions.options().returnNew(true), Author.class)
+                            .flatMap(patched -> publish(CatalogChangedEvent.of(Author.class, id)).thenReturn(patched))
+                            .doOnNext(patched -> log.info("Patched author with id {}", id));
+                })
+                .switchIfEmpty(Mono.defer(() -> missing(id, versions)))
+                .flatMap(relations::resolve)
+                .flatMap(assembler::toModel);
+    }
+
+    /**
+     * <p>
+     * Deletes an author by id
+     * </p>
+     * 
+     * @param id the id of the author to delete
+     * @return completes once the author is deleted
+     */
+    @Override
+    public Mono<Void> delete(String id) {
+        return repository.deleteById(id)
+                .then(publish(CatalogChangedEvent.of(Author.class, id)))
+                .doOnSuccess(done -> log.info("Deleted author with id {}", id));
+    }
+
+    /**
+     * <p>
+     * Deletes all authors
+     * </p>
+     * 
+     * @return completes once the authors are deleted
+     */
+    @Override
+    public Mono<Void> deleteAll() {
+        return repository.deleteAll()
+                .then(publish(CatalogChangedEvent.all(Author.class)))
+                .doOnSuccess(done -> log.info("Deleted all authors"));
+    }
+
+    private Mono<Author> find(String id, Projection projection) {
+        // the reactive runtime has no cache in front of the repository
+        return projection.isAll()
+                ? repository.findById(id)
+                : mongoTemplate.findOne(projection.apply(new Query(Criteria.where("id").is(id))), Author.class);
+    }
+
+    private Mono<Author> missing(String id, List<Long> versions) {
+        if (versions == null) {
+            return Mono.error(new ItemNotFoundException(id));
+        }
+
+        // a conditional write matches nothing both when the author is gone and when it moved on
+        return mongoTemplate.exists(new Query(Criteria.where("id").is(id)), Author.class)
+                .flatMap(exists -> Mono.error(exists
+                        ? new OptimisticLockingFailureException("Author " + id + " is not at version " + versions)
+                        : new ItemNotFoundException(id)));
+    }
+
+    private Mono<Void> publish(CatalogChangedEvent event) {
+        // listeners write to Mongo and the caches with blocking calls
+        return Mono.fromRunnable(() -> events.publishEvent(event)).subscribeOn(Schedulers.boundedElastic()).then();
+    }
+
+}
@@ -0,0 +1,337 @@
+package com.betterreads.services.reactive.impl;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.stereotype.Service;
+
+import com.betterreads.assemblers.reactive.ReactiveBooksAssembler;
+import com.betterreads.events.CatalogChangedEvent;
+import com.betterreads.exceptions.ItemNotFoundException;
+import com.betterreads.models.BatchResult;
+import com.betterreads.models.Book;
+import com.betterreads.models.SearchExplanation;
+import com.betterreads.models.SearchRequest;
+import com.betterreads.queries.MergePatchCompiler;
+import com.betterreads.queries.Projection;
+import com.betterreads.queries.ProjectionParser;
+import com.betterreads.queries.QueryExplainer;
+import com.betterreads.queries.SearchFields;
+import com.betterreads.queries.SearchQueryCompiler;
+import com.betterreads.repositories.reactive.ReactiveBooksRepository;
+import com.betterreads.services.BatchWriter;
+import com.betterreads.services.CursorPage;
+import com.betterreads.services.reactive.IReactiveService;
+import com.betterreads.services.reactive.ReactiveDocumentExporter;
+import com.betterreads.services.reactive.ReactiveRelationLoader;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * <p>
+ * Reactive service for Books CRUD operations. Reads go straight to the reactive
+ * driver and skip the getById cache; the batch writer, the explain command and
+ * the change event listeners are blocking and run on the bounded elastic
+ * scheduler.
+ * </p>
+ */
+@Service
+@Profile("reactive")
+@Slf4j
+public class ReactiveBooksService implements IReactiveService {
+
+    @Autowired
+    private ReactiveBooksRepository repository;
+
+    @Autowired
+    private ReactiveBooksAssembler assembler;
+
+    @Autowired
+    private ReactiveDocumentExporter exporter;
+
+    @Autowired
+    private BatchWriter batchWriter;
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Autowired
+    private SearchQueryCompiler compiler;
+
+    @Autowired
+    private QueryExplainer explainer;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Autowired
+    private ReactiveRelationLoader relations;
+
+    @Autowired
+    private ProjectionParser projections;
+
+    @Autowired
+    private MergePatchCompiler patches;
+
+    /**
+     * <p>
+     * Gets one page of books
+     * </p>
+     * 
+     * @param after  the id to read after, may be null
+     * @param before the id to read before, may be null
+     * @param size   the page size
+     * @param fields the comma-separated fields to read, may be null for all
+     * @return The books
+     */
+    @Override
+    public Mono<CollectionModel<EntityModel<?>>> getAll(String after, String before, int size, String fields) {
+        return Mono.fromCallable(() -> projections.parse(fields, Book.class)).flatMap(projection -> {
+            Mono<CursorPage<Book>> page = projection.isAll()
+                    ? CursorPage.fetch(repository, after, before, size)
+                    : CursorPage.fetch(mongoTemplate, Book.class, projection, after, before, size);
+
+            return page.flatMap(books -> relations.resolve(books.getContent())
+                    .then(assembler.toPagedModel(books, projection.toParameter())));
+        });
+    }
+
+    /**
+     * <p>
+     * Gets book by id
+     * </p>
+     * 
+     * @param id     the book's id in the database
+     * @param fields the comma-separated fields to read, may be null for all
+     * @return The book
+     */
+    @Override
+    public Mono<EntityModel<?>> getById(String id, String fields) {
+        return Mono.fromCallable(() -> projections.parse(fields, Book.class))
+                .flatMap(projection -> find(id, projection))
+                .switchIfEmpty(Mono.error(() -> new ItemNotFoundException(id)))
+                .flatMap(relations::resolve)
+                .flatMap(assembler::toModel);
+    }
+
+    /**
+     * <p>
+     * Searches for books matching the request's filters
+     * <p>
+     * 
+     * @param request The search request
+     * @param fields  the comma-separated fields to read, may be null for all
+     * @return The books
+     */
+    @Override
+    public Flux<EntityModel<?>> search(SearchRequest request, String fields) {
+        return Mono.fromCallable(
+                () -> projections.parse(fields, Book.class).apply(compiler.compile(request, SearchFields.BOOKS)))
+                .flatMap(query -> mongoTemplate.find(query, Book.class).collectList())
+                .flatMap(relations::resolve)
+                .flatMapIterable(books -> books)
+                .concatMap(assembler::toModel);
+    }
+
+    /**
+     * <p>
+     * Explains how a book search would be served
+     * </p>
+     * 
+     * @param request The search request
+     * @return the winning plan and the index it uses
+     */
+    @Override
+    public Mono<SearchExplanation> explain(SearchRequest request) {
+        return Mono.fromCallable(() -> explainer.explain(compiler.compile(request, SearchFields.BOOKS), Book.class))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * <p>
+     * Streams all books as newline-delimited JSON
+     * </p>
+     * 
+     * @return one buffer per book
+     */
+    @Override
+    public Flux<DataBuffer> export() {
+        return exporter.export(Book.class);
+    }
+
+    /**
+     * <p>
+     * Creates a book
+     * </p>
+     * 
+     * @param entity the book to create
+     * @return The created book
+     */
+    @Override
+    public Mono<EntityModel<?>> add(Object entity) {
+        return repository.save((Book) entity)
+                .flatMap(saved -> publish(CatalogChangedEvent.of(Book.class, saved.getId())).thenReturn(saved))
+                .doOnNext(saved -> log.info("Saved book with id {}", saved.getId()))
+                .flatMap(assembler::toModel);
+    }
+
+    /**
+     * <p>
+     * Creates or replaces a batch of books
+     * </p>
+     * 
+     * @param entities the books to write
+     * @return one result per book, in request order
+     */
+    @Override
+    public Mono<List<BatchResult>> addAll(Flux<?> entities) {
+        return entities.collectList()
+                .publishOn(Schedulers.boundedElastic())
+                .map(books -> {
+                    List<BatchResult> results = batchWriter.write(Book.class, books.iterator());
+                    events.publishEvent(CatalogChangedEvent.written(Book.class, results));
+
+                    log.info("Wrote batch of {} books", results.size());
+
+                    return results;
+                });
+    }
+
+    /**
+     * <p>
+     * Updates a book
+     * </p>
+     * 
+     * @param id       the id of the book to update
+     * @param entity   the updated book
+     * @param versions the versions the client read, any of which may be current,
+     *                 or null for an unconditional update
+     * @return the updated book
+     */
+    @Override
+    public Mono<EntityModel<?>> update(String id, Object entity, List<Long> versions) {
+        Book update = (Book) entity;
+
+        return repository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ItemNotFoundException(id)))
+                .flatMap(existing -> {
+                    if (versions != null && !versions.contains(existing.getVersion())) {
+                        return Mono.error(new OptimisticLockingFailureException(
+                                "Book " + id + " is not at version " + versions));
+                    }
+
+                    update.setId(existing.getId());
+                    // saving checks the version again, in case the book changed since it was read
+                    update.setVersion(existing.getVersion());
+                    return repository.save(update);
+                })
+                .flatMap(updated -> publish(CatalogChangedEvent.of(Book.class, id)).thenReturn(updated))
+                .doOnNext(updated -> log.info("Updated book with id {}", id))
+                .flatMap(assembler::toModel);
+    }
+
+    /**
+     * <p>
+     * Patches a book with a single findAndModify that sets and unsets only the
+     * fields named in the patch
+     * </p>
+     * 
+     * @param id       the id of the book to patch
+     * @param patch    the merge patch
+     * @param versions the versions the client read, any of which may be current,
+     *                 or null for an unconditional patch
+     * @return the patched book
+     */
+    @Override
+    public Mono<EntityModel<?>> patch(String id, JsonNode patch, List<Long> versions) {
+        return Mono.fromCallable(() -> patches.compile(patch, Book.class))
+                .flatMap(update -> {
+                    Query query = new Query(Criteria.where("id").is(id));
+
+                    if (versions != null) {
+                        query.addCriteria(Criteria.where("version").in(versions));
+                    }
+
+                    // Mongo rejects an update without operators, and an empty patch changes nothing
+                    if (update.getUpdateObject().isEmpty()) {
+                        return mongoTemplate.findOne(query, Book.class);
+                    }
+
+                    return mongoTemplate.findAndModify(query, update.inc("version", 1),
+                            FindAndModifyOptions.options().returnNew(true), Book.class)
+                            .flatMap(patched -> publish(CatalogChangedEvent.of(Book.class, id)).thenReturn(patched))
+                            .doOnNext(patched -> log.info("Patched book with id {}", id));
+                })
+                .switchIfEmpty(Mono.defer(() -> missing(id, versions)))
+                .flatMap(relations::resolve)
+                .flatMap(assembler::toModel);
+    }
+
+    /**
+     * <p>
+     * Deletes a book by id
+     * </p>
+     * 
+     * @param id the id of the book to delete
+     * @return completes once the book is deleted
+     */
+    @Override
+    public Mono<Void> delete(String id) {
+        return repository.deleteById(id)
+                .then(publish(CatalogChangedEvent.of(Book.class, id)))
+                .doOnSuccess(done -> log.info("Deleted book with id {}", id));
+    }
+
+    /**
+     * <p>
+     * Deletes all books
+     * </p>
+     * 
+     * @return completes once the books are deleted
+     */
+    @Override
+    public Mono<Void> deleteAll() {
+        return repository.deleteAll()
+                .then(publish(CatalogChangedEvent.all(Book.class)))
+                .doOnSuccess(done -> log.info("Deleted all books"));
+    }
+
+    private Mono<Book> find(String id, Projection projection) {
+        // the reactive runtime has no cache in front of the repository
+        return projection.isAll()
+                ? repository.findById(id)
+                : mongoTemplate.findOne(projection.apply(new Query(Criteria.where("id").is(id))), Book.class);
+    }
+
+    private Mono<Book> missing(String id, List<Long> versions) {
+        if (versions == null) {
+            return Mono.error(new ItemNotFoundException(id));
+        }
+
+        // a conditional write matches nothing both when the book is gone and when it moved on
+        return mongoTemplate.exists(new Query(Criteria.where("id").is(id)), Book.class)
+                .flatMap(exists -> Mono.error(exists
+                        ? new OptimisticLockingFailureException("Book " + id + " is not at version " + versions)
+                        : new ItemNotFoundException(id)));
+    }
+
+    private Mono<Void> publish(CatalogChangedEvent event) {
+        // listeners write to Mongo and the caches with blocking calls
+        return Mono.fromRunnable(() -> events.publishEvent(event)).subscribeOn(Schedulers.boundedElastic()).then();
+    }
+
+}
@@ -0,0 +1,337 @@
+package com.betterreads.services.reactive.impl;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.stereotype.Service;
+
+import com.betterreads.assemblers.reactive.ReactivePublishersAssembler;
+import com.betterreads.events.CatalogChangedEvent;
+import com.betterreads.exceptions.ItemNotFoundException;
+import com.betterreads.models.BatchResult;
+import com.betterreads.models.Publisher;
+import com.betterreads.models.SearchExplanation;
+import com.betterreads.models.SearchRequest;
+import com.betterreads.queries.MergePatchCompiler;
+import com.betterreads.queries.Projection;
+import com.betterreads.queries.ProjectionParser;
+import com.betterreads.queries.QueryExplainer;
+import com.betterreads.queries.SearchFields;
+import com.betterreads.queries.SearchQueryCompiler;
+import com.betterreads.repositories.reactive.ReactivePublishersRepository;
+import com.betterreads.services.BatchWriter;
+import com.betterreads.services.CursorPage;
+import com.betterreads.services.reactive.IReactiveService;
+import com.betterreads.services.reactive.ReactiveDocumentExporter;
+import com.betterreads.services.reactive.ReactiveRelationLoader;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * <p>
+ * Reactive service for Publishers CRUD operations. Reads go straight to the reactive
+ * driver and skip the getById cache; the batch writer, the explain command and
+ * the change event listeners are blocking and run on the bounded elastic
+ * scheduler.
+ * </p>
+ */
+@Service
+@Profile("reactive")
+@Slf4j
+public class ReactivePublishersService implements IReactiveService {
+
+    @Autowired
+    private ReactivePublishersRepository repository;
+
+    @Autowired
+    private ReactivePublishersAssembler assembler;
+
+    @Autowired
+    private ReactiveDocumentExporter exporter;
+
+    @Autowired
+    private BatchWriter batchWriter;
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Autowired
+    private SearchQueryCompiler compiler;
+
+    @Autowired
+    private QueryExplainer explainer;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Autowired
+    private ReactiveRelationLoader relations;
+
+    @Autowired
+    private ProjectionParser projections;
+
+    @Autowired
+    private MergePatchCompiler patches;
+
+    /**
+     * <p>
+     * Gets one page of publishers
+     * </p>
+     * 
+     * @param after  the id to read after, may be null
+     * @param before the id to read before, may be null
+     * @param size   the page size
+     * @param fields the comma-separated fields to read, may be null for all
+     * @return The publishers
+     */
+    @Override
+    public Mono<CollectionModel<EntityModel<?>>> getAll(String after, String before, int size, String fields) {
+        return Mono.fromCallable(() -> projections.parse(fields, Publisher.class)).flatMap(projection -> {
+            Mono<CursorPage<Publisher>> page = projection.isAll()
+                    ? CursorPage.fetch(repository, after, before, size)
+                    : CursorPage.fetch(mongoTemplate, Publisher.class, projection, after, before, size);
+
+            return page.flatMap(publishers -> relations.resolve(publishers.getContent())
+                    .then(assembler.toPagedModel(publishers, projection.toParameter())));
+        });
+    }
+
+    /**
+     * <p>
+     * Gets publisher by id
+     * </p>
+     * 
+     * @param id     the publisher's id in the database
+     * @param fields the comma-separated fields to read, may be null for all
+     * @return The publisher
+     */
+    @Override
+    public Mono<EntityModel<?>> getById(String id, String fields) {
+        return Mono.fromCallable(() -> projections.parse(fields, Publisher.class))
+                .flatMap(projection -> find(id, projection))
+                .switchIfEmpty(Mono.error(() -> new ItemNotFoundException(id)))
+                .flatMap(relations::resolve)
+                .flatMap(assembler::toModel);
+    }
+
+    /**
+     * <p>
+     * Searches for publishers matching the request's filters
+     * <p>
+     * 
+     * @param request The search request
+     * @param fields  the comma-separated fields to read, may be null for all
+     * @return The publishers
+     */
+    @Override
+    public Flux<EntityModel<?>> search(SearchRequest request, String fields) {
+        return Mono.fromCallable(
+                () -> projections.parse(fields, Publisher.class).apply(compiler.compile(request, SearchFields.PUBLISHERS)))
+                .flatMap(query -> mongoTemplate.find(query, Publisher.class).collectList())
+                .flatMap(relations::resolve)
+                .flatMapIterable(publishers -> publishers)
+                .concatMap(assembler::toModel);
+    }
+
+    /**
+     * <p>
+     * Explains how a publisher search would be served
+     * </p>
+     * 
+     * @param request The search request
+     * @return the winning plan and the index it uses
+     */
+    @Override
+    public Mono<SearchExplanation> explain(SearchRequest request) {
+        return Mono.fromCallable(() -> explainer.explain(compiler.compile(request, SearchFields.PUBLISHERS), Publisher.class))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * <p>
+     * Streams all publishers as newline-delimited JSON
+     * </p>
+     * 
+     * @return one buffer per publisher
+     */
+    @Override
+    public Flux<DataBuffer> export() {
+        return exporter.export(Publisher.class);
+    }
+
+    /**
+     * <p>
+     * Creates a publisher
+     * </p>
+     * 
+     * @param entity the publisher to create
+     * @return The created publisher
+     */
+    @Override
+    public Mono<EntityModel<?>> add(Object entity) {
+        return repository.save((Publisher) entity)
+                .flatMap(saved -> publish(CatalogChangedEvent.of(Publisher.class, saved.getId())).thenReturn(saved))
+                .doOnNext(saved -> log.info("Saved publisher with id {}", saved.getId()))
+                .flatMap(assembler::toModel);
+    }
+
+    /**
+     * <p>
+     * Creates or replaces a batch of publishers
+     * </p>
+     * 
+     * @param entities the publishers to write
+     * @return one result per publisher, in request order
+     */
+    @Override
+    public Mono<List<BatchResult>> addAll(Flux<?> entities) {
+        return entities.collectList()
+                .publishOn(Schedulers.boundedElastic())
+                .map(publishers -> {
+                    List<BatchResult> results = batchWriter.write(Publisher.class, publishers.iterator());
+                    events.publishEvent(CatalogChangedEvent.written(Publisher.class, results));
+
+                    log.info("Wrote batch of {} publishers", results.size());
+
+                    return results;
+                });
+    }
+
+    /**
+     * <p>
+     * Updates a publisher
+     * </p>
+     * 
+     * @param id       the id of the publisher to update
+     * @param entity   the updated publisher
+     * @param versions the versions the client read, any of which may be current,
+     *                 or null for an unconditional update
+     * @return the updated publisher
+     */
+    @Override
+    public Mono<EntityModel<?>> update(String id, Object entity, List<Long> versions) {
+        Publisher update = (Publisher) entity;
+
+        return repository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ItemNotFoundException(id)))
+                .flatMap(existing -> {
+                    if (versions != null && !versions.contains(existing.getVersion())) {
+                        return Mono.error(new OptimisticLockingFailureException(
+                                "Publisher " + id + " is not at version " + versions));
+                    }
+
+                    update.setId(existing.getId());
+                    // saving checks the version again, in case the publisher changed since it was read
+                    update.setVersion(existing.getVersion());
+                    return repository.save(update);
+                })
+                .flatMap(updated -> publish(CatalogChangedEvent.of(Publisher.class, id)).thenReturn(updated))
+                .doOnNext(updated -> log.info("Updated publisher with id {}", id))
+                .flatMap(assembler::toModel);
+    }
+
+    /**
+     * <p>
+     * Patches a publisher with a single findAndModify that sets and unsets only the
+     * fields named in the patch
+     * </p>
+     * 
+     * @param id       the id of the publisher to patch
+     * @param patch    the merge patch
+     * @param versions the versions the client read, any of which may be current,
+     *                 or null for an unconditional patch
+     * @return the patched publisher
+     */
+    @Override
+    public Mono<EntityModel<?>> patch(String id, JsonNode patch, List<Long> versions) {
+        return Mono.fromCallable(() -> patches.compile(patch, Publisher.class))
+                .flatMap(update -> {
+                    Query query = new Query(Criteria.where("id").is(id));
+
+                    if (versions != null) {
+                        query.addCriteria(Criteria.where("version").in(versions));
+                    }
+
+                    // Mongo rejects an update without operators, and an empty patch changes nothing
+                    if (update.getUpdateObject().isEmpty()) {
+                        return mongoTemplate.findOne(query, Publisher.class);
+                    }
+
+                    return mongoTemplate.findAndModify(query, update.inc("version", 1),
+                            FindAndModifyOptions.options().returnNew(true), Publisher.class)
+                            .flatMap(patched -> publish(CatalogChangedEvent.of(Publisher.class, id)).thenReturn(patched))
+                            .doOnNext(patched -> log.info("Patched publisher with id {}", id));
+                })
+                .switchIfEmpty(Mono.defer(() -> missing(id, versions)))
+                .flatMap(relations::resolve)
+                .flatMap(assembler::toModel);
+    }
+
+    /**
+     * <p>
+     * Deletes a publisher by id
+     * </p>
+     * 
+     * @param id the id of the publisher to delete
+     * @return completes once the publisher is deleted
+     */
+    @Override
+    public Mono<Void> delete(String id) {
+        return repository.deleteById(id)
+                .then(publish(CatalogChangedEvent.of(Publisher.class, id)))
+                .doOnSuccess(done -> log.info("Deleted publisher with id {}", id));
+    }
+
+    /**
+     * <p>
+     * Deletes all publishers
+     * </p>
+     * 
+     * @return completes once the publishers are deleted
+     */
+    @Override
+    public Mono<Void> deleteAll() {
+        return repository.deleteAll()
+                .then(publish(CatalogChangedEvent.all(Publisher.class)))
+                .doOnSuccess(done -> log.info("Deleted all publishers"));
+    }
+
+    private Mono<Publisher> find(String id, Projection projection) {
+        // the reactive runtime has no cache in front of the repository
+        return projection.isAll()
+                ? repository.findById(id)
+                : mongoTemplate.findOne(projection.apply(new Query(Criteria.where("id").is(id))), Publisher.class);
+    }
+
+    private Mono<Publisher> missing(String id, List<Long> versions) {
+        if (versions == null) {
+            return Mono.error(new ItemNotFoundException(id));
+        }
+
+        // a conditional write matches nothing both when the publisher is gone and when it moved on
+        return mongoTemplate.exists(new Query(Criteria.where("id").is(id)), Publisher.class)
+                .flatMap(exists -> Mono.error(exists
+                        ? new OptimisticLockingFailureException("Publisher " + id + " is not at version " + versions)
+                        : new ItemNotFoundException(id)));
+    }
+
+    private Mono<Void> publish(CatalogChangedEvent event) {
+        // listeners write to Mongo and the caches with blocking calls
+        return Mono.fromRunnable(() -> events.publishEvent(event)).subscribeOn(Schedulers.boundedElastic()).then();
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.betterreads.unit.assemblers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+
+import com.betterreads.assemblers.AuthorStatsAssembler;
+import com.betterreads.models.AuthorStats;
+
+public class AuthorStatsAssemblerTest {
+
+    private AuthorStatsAssembler assembler;
+
+    @BeforeEach
+    public void setupTests() {
+        assembler = new AuthorStatsAssembler();
+    }
+
+    @Test
+    public void whenToModel_thenCorrectResponse() {
+        AuthorStats stats = AuthorStats.builder().id("1").bookCount(4).build();
+
+        EntityModel<AuthorStats> entity = assembler.toModel(stats);
+
+        assertEquals(4, entity.getContent().getBookCount());
+        assertEquals("/v1/authors/1/stats", entity.getRequiredLink(IanaLinkRelations.SELF).getHref());
+        assertEquals("/v1/authors/1", entity.getLinks().getLink("v1/author").get().getHref());
+    }
+
+    @Test
+    public void whenToCollectionModel_thenCorrectResponse() {
+        CollectionModel<EntityModel<?>> model = assembler.toCollectionModel(
+                List.of(AuthorStats.builder().id("1").build()), List.of("1", "2"));
+
+        assertEquals(1, model.getContent().size());
+        assertEquals("/v1/authors/stats?ids=1&ids=2", model.getRequiredLink(IanaLinkRelations.SELF).getHref());
+    }
+
+    @Test
+    public void whenToTopModel_thenCorrectResponse() {
+        CollectionModel<EntityModel<?>> model = assembler.toTopModel(List.of(), 5);
+
+        assertEquals(0, model.getContent().size());
+        assertEquals("/v1/authors/stats/top?size=5", model.getRequiredLink(IanaLinkRelations.SELF).getHref());
+    }
+}
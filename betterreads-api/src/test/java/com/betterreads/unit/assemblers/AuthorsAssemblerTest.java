@@ -2,19 +2,23 @@ package com.betterreads.unit.assemblers;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.IanaLinkRelations;
 
 import com.betterreads.assemblers.AuthorsAssembler;
 import com.betterreads.models.Author;
 import com.betterreads.models.Book;
+import com.betterreads.services.CursorPage;
 
 public class AuthorsAssemblerTest {
 
@@ -58,4 +62,28 @@ public class AuthorsAssemblerTest {
         assertEquals("/v1/authors/1", entity.getLinks().getLink(IanaLinkRelations.SELF).get().getHref());
         assertEquals("/v1/authors", entity.getLinks().getLink("v1/authors").get().getHref());
     }
+
+    @Test
+    public void whenToPagedModel_thenCorrectResponse() {
+        Author author = Author.builder().id("2").build();
+        CursorPage<Author> page = new CursorPage<>(Collections.singletonList(author), "1", null, 10, "2", "2");
+
+        CollectionModel<EntityModel<?>> model = assembler.toPagedModel(page, null);
+
+        assertEquals(1, model.getContent().size());
+        assertEquals("/v1/authors?after=1&size=10", model.getRequiredLink(IanaLinkRelations.SELF).getHref());
+        assertEquals("/v1/authors?after=2&size=10", model.getRequiredLink(IanaLinkRelations.NEXT).getHref());
+        assertEquals("/v1/authors?before=2&size=10", model.getRequiredLink(IanaLinkRelations.PREV).getHref());
+    }
+
+    @Test
+    public void whenToPagedModel_lastPage_thenNoNextOrPrevLinks() {
+        CursorPage<Author> page = new CursorPage<>(Collections.emptyList(), null, null, 10, null, null);
+
+        CollectionModel<EntityModel<?>> model = assembler.toPagedModel(page, null);
+
+        assertTrue(model.getContent().isEmpty());
+        assertTrue(model.getLink(IanaLinkRelations.NEXT).isEmpty());
+        assertTrue(model.getLink(IanaLinkRelations.PREV).isEmpty());
+    }
 }
@@ -0,0 +1,102 @@
+package com.betterreads.unit.assemblers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+
+import com.betterreads.assemblers.BookSummariesAssembler;
+import com.betterreads.models.BookSummary;
+import com.betterreads.services.CursorPage;
+
+public class BookSummariesAssemblerTest {
+
+    private BookSummariesAssembler assembler;
+
+    @BeforeEach
+    public void setupTests() {
+        assembler = new BookSummariesAssembler();
+    }
+
+    @Test
+    public void whenToModel_thenCorrectResponse() {
+        BookSummary summary = BookSummary.builder().id("1").title("The Hobbit").build();
+
+        EntityModel<BookSummary> entity = assembler.toModel(summary);
+
+        assertEquals("The Hobbit", entity.getContent().getTitle());
+        assertEquals(1, entity.getLinks().toList().size());
+        assertEquals("/v1/books/1", entity.getLinks().getLink("v1/book").get().getHref());
+    }
+
+    @Test
+    public void whenToPagedModel_thenCorrectResponse() {
+        BookSummary summary = BookSummary.builder().id("1").build();
+
+        CollectionModel<EntityModel<?>> model = assembler.toPagedModel(Collections.singletonList(summary), "hobbit", 1,
+                10, true);
+
+        assertEquals(1, model.getContent().size());
+        assertEquals("/v1/search?q=hobbit&page=1&size=10", model.getRequiredLink(IanaLinkRelations.SELF).getHref());
+        assertEquals("/v1/search?q=hobbit&page=2&size=10", model.getRequiredLink(IanaLinkRelations.NEXT).getHref());
+        assertEquals("/v1/search?q=hobbit&page=0&size=10", model.getRequiredLink(IanaLinkRelations.PREV).getHref());
+    }
+
+    @Test
+    public void whenToPagedModel_onlyPage_thenNoNextOrPrevLinks() {
+        CollectionModel<EntityModel<?>> model = assembler.toPagedModel(Collections.emptyList(), "hobbit", 0, 10,
+                false);
+
+        assertTrue(model.getContent().isEmpty());
+        assertTrue(model.getLink(IanaLinkRelations.NEXT).isEmpty());
+        assertTrue(model.getLink(IanaLinkRelations.PREV).isEmpty());
+    }
+
+    @Test
+    public void whenToPagedModelOfList_thenLinksKeepFilters() {
+        BookSummary summary = BookSummary.builder().id("2").build();
+        CursorPage<BookSummary> page = new CursorPage<>(List.of(summary), "1", null, 10, "2", "2");
+
+        CollectionModel<EntityModel<?>> model = assembler.toPagedModel(page, "Fiction", null, "Penguin");
+
+        assertEquals(1, model.getContent().size());
+        assertEquals("/v1/summaries?after=1&size=10&genre=Fiction&publisher=Penguin",
+                model.getRequiredLink(IanaLinkRelations.SELF).getHref());
+        assertEquals("/v1/summaries?after=2&size=10&genre=Fiction&publisher=Penguin",
+                model.getRequiredLink(IanaLinkRelations.NEXT).getHref());
+        assertEquals("/v1/summaries?before=2&size=10&genre=Fiction&publisher=Penguin",
+                model.getRequiredLink(IanaLinkRelations.PREV).getHref());
+    }
+
+    @Test
+    public void whenToPagedModelOfList_onlyPage_thenNoNextOrPrevLinks() {
+        CursorPage<BookSummary> page = new CursorPage<>(List.of(), null, null, 10, null, null);
+
+        CollectionModel<EntityModel<?>> model = assembler.toPagedModel(page, null, null, null);
+
+        assertEquals("/v1/summaries?size=10", model.getRequiredLink(IanaLinkRelations.SELF).getHref());
+        assertTrue(model.getLink(IanaLinkRelations.NEXT).isEmpty());
+        assertTrue(model.getLink(IanaLinkRelations.PREV).isEmpty());
+    }
+
+    @Test
+    public void whenToBooksPagedModel_thenLinksStayInSummaryView() {
+        BookSummary summary = BookSummary.builder().id("2").build();
+        CursorPage<BookSummary> page = new CursorPage<>(List.of(summary), "1", null, 10, "2", "2");
+
+        CollectionModel<EntityModel<?>> model = assembler.toBooksPagedModel(page);
+
+        assertEquals(1, model.getContent().size());
+        assertEquals("/v1/books?after=1&size=10&view=summary", model.getRequiredLink(IanaLinkRelations.SELF).getHref());
+        assertEquals("/v1/books?after=2&size=10&view=summary", model.getRequiredLink(IanaLinkRelations.NEXT).getHref());
+        assertEquals("/v1/books?before=2&size=10&view=summary",
+                model.getRequiredLink(IanaLinkRelations.PREV).getHref());
+    }
+}
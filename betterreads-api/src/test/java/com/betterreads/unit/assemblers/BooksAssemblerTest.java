@@ -1,17 +1,20 @@
 package com.betterreads.unit.assemblers;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Collections;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.IanaLinkRelations;
 
 import com.betterreads.assemblers.BooksAssembler;
 import com.betterreads.models.Author;
 import com.betterreads.models.Book;
+import com.betterreads.services.CursorPage;
 import com.betterreads.models.Publisher;
 
 public class BooksAssemblerTest {
@@ -57,4 +60,41 @@ public class BooksAssemblerTest {
         assertEquals("/v1/books/1", entity.getLinks().getLink(IanaLinkRelations.SELF).get().getHref());
         assertEquals("/v1/books", entity.getLinks().getLink("v1/books").get().getHref());
     }
+
+    @Test
+    public void whenToPagedModel_thenCorrectResponse() {
+        Book book = Book.builder().id("2").build();
+        CursorPage<Book> page = new CursorPage<>(Collections.singletonList(book), "1", null, 10, "2", "2");
+
+        CollectionModel<EntityModel<?>> model = assembler.toPagedModel(page, null);
+
+        assertEquals(1, model.getContent().size());
+        assertEquals("/v1/books?after=1&size=10", model.getRequiredLink(IanaLinkRelations.SELF).getHref());
+        assertEquals("/v1/books?after=2&size=10", model.getRequiredLink(IanaLinkRelations.NEXT).getHref());
+        assertEquals("/v1/books?before=2&size=10", model.getRequiredLink(IanaLinkRelations.PREV).getHref());
+    }
+
+    @Test
+    public void whenToPagedModel_withFields_thenLinksKeepFields() {
+        CursorPage<Book> page = new CursorPage<>(Collections.emptyList(), null, null, 10, "2", "1");
+
+        CollectionModel<EntityModel<?>> model = assembler.toPagedModel(page, "title,isbn");
+
+        assertEquals("/v1/books?size=10&fields=title%2Cisbn", model.getRequiredLink(IanaLinkRelations.SELF).getHref());
+        assertEquals("/v1/books?after=2&size=10&fields=title%2Cisbn",
+                model.getRequiredLink(IanaLinkRelations.NEXT).getHref());
+        assertEquals("/v1/books?before=1&size=10&fields=title%2Cisbn",
+                model.getRequiredLink(IanaLinkRelations.PREV).getHref());
+    }
+
+    @Test
+    public void whenToPagedModel_lastPage_thenNoNextOrPrevLinks() {
+        CursorPage<Book> page = new CursorPage<>(Collections.emptyList(), null, null, 10, null, null);
+
+        CollectionModel<EntityModel<?>> model = assembler.toPagedModel(page, null);
+
+        assertTrue(model.getContent().isEmpty());
+        assertTrue(model.getLink(IanaLinkRelations.NEXT).isEmpty());
+        assertTrue(model.getLink(IanaLinkRelations.PREV).isEmpty());
+    }
 }
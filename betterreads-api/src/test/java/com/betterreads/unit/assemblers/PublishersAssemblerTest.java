@@ -1,14 +1,19 @@
 package com.betterreads.unit.assemblers;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.IanaLinkRelations;
 
 import com.betterreads.assemblers.PublishersAssembler;
 import com.betterreads.models.Publisher;
+import com.betterreads.services.CursorPage;
 
 public class PublishersAssemblerTest {
 
@@ -36,4 +41,28 @@ public class PublishersAssemblerTest {
         assertEquals("/v1/publishers/1", entity.getLinks().getLink(IanaLinkRelations.SELF).get().getHref());
         assertEquals("/v1/publishers", entity.getLinks().getLink("v1/publishers").get().getHref());
     }
+
+    @Test
+    public void whenToPagedModel_thenCorrectResponse() {
+        Publisher publisher = Publisher.builder().id("2").build();
+        CursorPage<Publisher> page = new CursorPage<>(Collections.singletonList(publisher), "1", null, 10, "2", "2");
+
+        CollectionModel<EntityModel<?>> model = assembler.toPagedModel(page, null);
+
+        assertEquals(1, model.getContent().size());
+        assertEquals("/v1/publishers?after=1&size=10", model.getRequiredLink(IanaLinkRelations.SELF).getHref());
+        assertEquals("/v1/publishers?after=2&size=10", model.getRequiredLink(IanaLinkRelations.NEXT).getHref());
+        assertEquals("/v1/publishers?before=2&size=10", model.getRequiredLink(IanaLinkRelations.PREV).getHref());
+    }
+
+    @Test
+    public void whenToPagedModel_lastPage_thenNoNextOrPrevLinks() {
+        CursorPage<Publisher> page = new CursorPage<>(Collections.emptyList(), null, null, 10, null, null);
+
+        CollectionModel<EntityModel<?>> model = assembler.toPagedModel(page, null);
+
+        assertTrue(model.getContent().isEmpty());
+        assertTrue(model.getLink(IanaLinkRelations.NEXT).isEmpty());
+        assertTrue(model.getLink(IanaLinkRelations.PREV).isEmpty());
+    }
 }
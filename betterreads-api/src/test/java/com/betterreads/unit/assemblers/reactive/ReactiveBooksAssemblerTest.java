@@ -0,0 +1,87 @@
+package com.betterreads.unit.assemblers.reactive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.filter.reactive.ServerWebExchangeContextFilter;
+
+import com.betterreads.assemblers.reactive.ReactiveBooksAssembler;
+import com.betterreads.models.Book;
+import com.betterreads.services.CursorPage;
+
+import reactor.test.StepVerifier;
+
+public class ReactiveBooksAssemblerTest {
+
+    private ReactiveBooksAssembler assembler;
+
+    @BeforeEach
+    public void setupTests() {
+        assembler = new ReactiveBooksAssembler();
+    }
+
+    @Test
+    public void whenToModel_thenCorrectResponse() {
+        Book book = Book.builder().id("1").title("Caged Wisdom").build();
+
+        StepVerifier.create(assembler.toModel(book))
+                .assertNext(entity -> {
+                    assertEquals(book, entity.getContent());
+                    assertEquals(2, entity.getLinks().toList().size());
+                    assertEquals("/v1/books/1", entity.getRequiredLink(IanaLinkRelations.SELF).getHref());
+                    assertEquals("/v1/books", entity.getRequiredLink("v1/books").getHref());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    public void whenToModel_inExchange_thenLinksUseRequestHost() {
+        MockServerWebExchange exchange = MockServerWebExchange
+                .from(MockServerHttpRequest.get("http://example.org:8080/v1/books"));
+
+        StepVerifier.create(assembler.toModel(Book.builder().id("1").build())
+                .contextWrite(context -> context.put(ServerWebExchangeContextFilter.EXCHANGE_CONTEXT_ATTRIBUTE,
+                        exchange)))
+                .assertNext(entity -> assertEquals("http://example.org:8080/v1/books/1",
+                        entity.getRequiredLink(IanaLinkRelations.SELF).getHref()))
+                .verifyComplete();
+    }
+
+    @Test
+    public void whenToPagedModel_thenCorrectResponse() {
+        Book book = Book.builder().id("2").build();
+        CursorPage<Book> page = new CursorPage<>(Collections.singletonList(book), "1", null, 10, "2", "2");
+
+        StepVerifier.create(assembler.toPagedModel(page, null))
+                .assertNext(model -> {
+                    assertEquals(1, model.getContent().size());
+                    assertEquals("/v1/books?after=1&size=10", model.getRequiredLink(IanaLinkRelations.SELF).getHref());
+                    assertEquals("/v1/books?after=2&size=10", model.getRequiredLink(IanaLinkRelations.NEXT).getHref());
+                    assertEquals("/v1/books?before=2&size=10",
+                            model.getRequiredLink(IanaLinkRelations.PREV).getHref());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    public void whenToPagedModel_lastPage_thenNoNextLink() {
+        CursorPage<Book> page = new CursorPage<>(Collections.emptyList(), null, null, 10, null, null);
+
+        StepVerifier.create(assembler.toPagedModel(page, "title"))
+                .assertNext(model -> {
+                    assertTrue(model.getContent().isEmpty());
+                    assertEquals("/v1/books?size=10&fields=title",
+                            model.getRequiredLink(IanaLinkRelations.SELF).getHref());
+                    assertTrue(model.getLink(IanaLinkRelations.NEXT).isEmpty());
+                    assertTrue(model.getLink(IanaLinkRelations.PREV).isEmpty());
+                })
+                .verifyComplete();
+    }
+}
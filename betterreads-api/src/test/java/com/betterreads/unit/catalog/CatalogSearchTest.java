@@ -0,0 +1,137 @@
+package com.betterreads.unit.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import com.betterreads.catalog.CatalogRow;
+import com.betterreads.catalog.CatalogSearch;
+import com.betterreads.catalog.CatalogTable;
+import com.betterreads.catalog.CompactBook;
+import com.betterreads.models.SearchFilter;
+import com.betterreads.models.SearchFilter.Operator;
+import com.betterreads.models.SearchRequest;
+import com.betterreads.models.SearchSort;
+import com.betterreads.queries.SearchFields;
+
+public class CatalogSearchTest {
+
+    private static final String FIRST = "650000000000000000000001";
+    private static final String SECOND = "650000000000000000000002";
+    private static final String THIRD = "650000000000000000000003";
+    private static final String AUTHOR = "650000000000000000000009";
+
+    private final CatalogTable<CompactBook> books = CatalogTable.of(List.of(
+            book(FIRST, "Tale", 120, "2001-09-11", new String[] { "Fiction", "Drama" }, "English",
+                    new String[] { AUTHOR }),
+            book(SECOND, "other", 300, null, new String[] { "fiction" }, null, null),
+            book(THIRD, "Épée", CatalogRow.NONE, "1999-01-01", null, "French", new String[] {})));
+
+    @Test
+    public void whenStringsCompared_thenCaseIgnoredButNotAccents() {
+        assertEquals(List.of(FIRST, SECOND), search(filter("genres", Operator.EQ, "FICTION")));
+        assertEquals(List.of(SECOND), search(filter("title", Operator.EQ, "OTHER")));
+        assertEquals(List.of(), search(filter("title", Operator.EQ, "epee")));
+        assertEquals(List.of(THIRD), search(filter("title", Operator.EQ, "ÉPÉE")));
+    }
+
+    @Test
+    public void whenMissingField_thenOnlyEqualToNull() {
+        assertEquals(List.of(SECOND), search(filter("language", Operator.EQ, null)));
+        assertEquals(List.of(SECOND, THIRD), search(filter("language", Operator.NE, "english")));
+        assertEquals(List.of(FIRST), search(filter("pages", Operator.LT, 200)));
+        assertEquals(List.of(FIRST, SECOND), search(filter("pages", Operator.GTE, 120)));
+    }
+
+    @Test
+    public void whenDatesAndReferences_thenComparedAsStored() {
+        assertEquals(List.of(THIRD), search(filter("publishedDate", Operator.LT, "2000-01-01")));
+        assertEquals(List.of(FIRST), search(filter("publishedDate", Operator.EQ, "2001-09-11")));
+        assertEquals(List.of(FIRST), search(filter("authors", Operator.IN, List.of(AUTHOR, THIRD))));
+        assertEquals(List.of(SECOND, THIRD), search(filter("authors", Operator.NIN, List.of(AUTHOR))));
+        assertEquals(List.of(SECOND), search(filter("id", Operator.EQ, SECOND)));
+    }
+
+    @Test
+    public void whenSeveralIndexedFilters_thenEveryOneApplied() {
+        SearchRequest request = SearchRequest.builder()
+                .filters(List.of(filter("genres", Operator.IN, List.of("drama", "FICTION")),
+                        filter("pages", Operator.LTE, 300), filter("title", Operator.NE, "tale")))
+                .build();
+
+        assertEquals(List.of(SECOND), ids(new CatalogSearch(SearchFields.BOOKS).search(books, request, 50)));
+        assertEquals(List.of(), search(filter("title", Operator.GT, null)));
+        assertEquals(List.of(SECOND), search(filter("language", Operator.IN, Arrays.asList("german", null))));
+    }
+
+    @Test
+    public void whenTableChanged_thenSearchSeesTheChange() {
+        assertEquals(List.of(SECOND), search(filter("title", Operator.EQ, "other")));
+
+        CatalogTable<CompactBook> changed = books.with(
+                List.of(book(SECOND, "Zebra", 300, null, null, null, null)), List.of(THIRD));
+        SearchRequest request = SearchRequest.builder().filters(List.of(filter("title", Operator.GTE, "t"))).build();
+
+        assertEquals(List.of(FIRST, SECOND), ids(new CatalogSearch(SearchFields.BOOKS).search(changed, request, 50)));
+        assertEquals(List.of(FIRST), search(filter("title", Operator.GTE, "t")));
+    }
+
+    @Test
+    public void whenMatchAny_thenEitherFilter() {
+        SearchRequest request = SearchRequest.builder()
+                .filters(List.of(filter("pages", Operator.GT, 200), filter("language", Operator.EQ, "french")))
+                .match(SearchRequest.Match.ANY)
+                .build();
+
+        assertEquals(List.of(SECOND, THIRD), ids(new CatalogSearch(SearchFields.BOOKS).search(books, request, 50)));
+    }
+
+    @Test
+    public void whenSorted_thenMissingFirstAndArraysByTheirBounds() {
+        assertEquals(List.of(THIRD, SECOND, FIRST), sorted("title", Sort.Direction.ASC, 50));
+        assertEquals(List.of(SECOND, FIRST, THIRD), sorted("pages", Sort.Direction.DESC, 50));
+        assertEquals(List.of(THIRD, FIRST, SECOND), sorted("genres", Sort.Direction.ASC, 50));
+        assertEquals(List.of(THIRD, SECOND), sorted("title", Sort.Direction.ASC, 2));
+    }
+
+    @Test
+    public void whenUnsorted_thenIdOrderUpToLimit() {
+        SearchRequest request = SearchRequest.builder().build();
+
+        assertEquals(List.of(FIRST, SECOND), ids(new CatalogSearch(SearchFields.BOOKS).search(books, request, 2)));
+    }
+
+    private List<String> search(SearchFilter filter) {
+        SearchRequest request = SearchRequest.builder().filters(List.of(filter)).build();
+
+        return ids(new CatalogSearch(SearchFields.BOOKS).search(books, request, 50));
+    }
+
+    private List<String> sorted(String field, Sort.Direction direction, int limit) {
+        SearchRequest request = SearchRequest.builder()
+                .sort(List.of(SearchSort.builder().field(field).direction(direction).build()))
+                .build();
+
+        return ids(new CatalogSearch(SearchFields.BOOKS).search(books, request, limit));
+    }
+
+    private static SearchFilter filter(String field, Operator operator, Object value) {
+        return SearchFilter.builder().field(field).operator(operator).value(value).build();
+    }
+
+    private static CompactBook book(String id, String title, int pages, String published, String[] genres,
+            String language, String[] authors) {
+        return new CompactBook(id, 0, "isbn-" + id, title, authors,
+                published == null ? CatalogRow.NONE : (int) LocalDate.parse(published).toEpochDay(), genres, pages,
+                null, language);
+    }
+
+    private static List<String> ids(List<? extends CatalogRow> rows) {
+        return rows.stream().map(CatalogRow::id).toList();
+    }
+}
@@ -0,0 +1,106 @@
+package com.betterreads.unit.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.betterreads.catalog.CatalogRow;
+import com.betterreads.catalog.CatalogSnapshot;
+import com.betterreads.catalog.CatalogSnapshotFormat;
+import com.betterreads.catalog.CatalogTable;
+import com.betterreads.catalog.CompactAuthor;
+import com.betterreads.catalog.CompactBook;
+import com.betterreads.catalog.CompactPublisher;
+import com.betterreads.catalog.StringPool;
+
+public class CatalogSnapshotFormatTest {
+
+    private static final String BOOK = "650000000000000000000001";
+    private static final String AUTHOR = "650000000000000000000002";
+    private static final String PUBLISHER = "650000000000000000000003";
+
+    @Test
+    public void whenWrittenAndRead_thenSameRows() throws IOException {
+        CatalogSnapshot snapshot = new CatalogSnapshot(
+                CatalogTable.of(List.of(
+                        new CompactBook(BOOK, 4, "978-0", "Tintenherz", new String[] { AUTHOR }, 12_000,
+                                new String[] { "Fantasy", "Jugendbuch" }, 576, PUBLISHER, "German"),
+                        new CompactBook("custom", CatalogRow.NONE, null, "Ünïcödé", new String[] {}, CatalogRow.NONE,
+                                null, CatalogRow.NONE, null, null))),
+                CatalogTable.of(List.of(new CompactAuthor(AUTHOR, 1, "Cornelia", null, "Funke", null, -3_000,
+                        "Female", "Dorsten", null, new String[] { BOOK }))),
+                CatalogTable.of(List.of(new CompactPublisher(PUBLISHER, 0, "Dressler", null))));
+
+        CatalogSnapshot read = roundTrip(snapshot, new StringPool());
+
+        assertEquals(List.of("custom", BOOK), read.books().rows().stream().map(CatalogRow::id).toList());
+
+        CompactBook book = read.books().get(BOOK);
+        assertEquals(4, book.version());
+        assertEquals("Tintenherz", book.title());
+        assertArrayEquals(new String[] { AUTHOR }, book.authors());
+        assertEquals(12_000, book.publishedDay());
+        assertArrayEquals(new String[] { "Fantasy", "Jugendbuch" }, book.genres());
+        assertEquals(576, book.pages());
+        assertEquals(PUBLISHER, book.publisher());
+
+        CompactBook empty = read.books().get("custom");
+        assertEquals(CatalogRow.NONE, empty.version());
+        assertEquals("Ünïcödé", empty.title());
+        assertArrayEquals(new String[] {}, empty.authors());
+        assertNull(empty.genres());
+        assertNull(empty.isbn());
+
+        CompactAuthor author = read.authors().get(AUTHOR);
+        assertEquals(-3_000, author.dateOfBirth());
+        assertEquals("Dorsten", author.city());
+        assertNull(author.middleName());
+        assertArrayEquals(new String[] { BOOK }, author.books());
+
+        assertEquals("Dressler", read.publishers().get(PUBLISHER).name());
+        assertNull(read.publishers().get(PUBLISHER).books());
+    }
+
+    @Test
+    public void whenRead_thenStringsSharedThroughPool() throws IOException {
+        StringPool pool = new StringPool();
+        String german = pool.intern("German");
+        CatalogSnapshot snapshot = new CatalogSnapshot(
+                CatalogTable.of(List.of(new CompactBook(BOOK, 0, null, null, new String[] { AUTHOR },
+                        CatalogRow.NONE, null, CatalogRow.NONE, null, "German"))),
+                CatalogTable.of(List.of(new CompactAuthor(AUTHOR, 0, null, null, null, null, CatalogRow.NONE, null,
+                        null, null, null))),
+                CatalogTable.of(List.of()));
+
+        CatalogSnapshot read = roundTrip(snapshot, pool);
+
+        assertSame(german, read.books().get(BOOK).language());
+        assertSame(read.authors().rows().get(0).id(), read.books().get(BOOK).authors()[0]);
+    }
+
+    @Test
+    public void whenOtherFormatVersion_thenRefused() {
+        ByteBuffer buffer = ByteBuffer.allocate(12).putInt(CatalogSnapshotFormat.MAGIC)
+                .putInt(CatalogSnapshotFormat.FORMAT_VERSION + 1).putInt(0).flip();
+
+        assertThrows(IllegalArgumentException.class, () -> CatalogSnapshotFormat.read(buffer, new StringPool()));
+        assertThrows(IllegalArgumentException.class,
+                () -> CatalogSnapshotFormat.read(ByteBuffer.wrap(new byte[12]), new StringPool()));
+    }
+
+    private static CatalogSnapshot roundTrip(CatalogSnapshot snapshot, StringPool pool) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CatalogSnapshotFormat.write(snapshot, out);
+
+        return CatalogSnapshotFormat.read(ByteBuffer.wrap(out.toByteArray()), pool);
+    }
+}
@@ -0,0 +1,91 @@
+package com.betterreads.unit.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.betterreads.catalog.CatalogIndex;
+import com.betterreads.catalog.CatalogRow;
+import com.betterreads.catalog.CatalogTable;
+import com.betterreads.catalog.CompactPublisher;
+import com.betterreads.queries.FieldType;
+
+public class CatalogTableTest {
+
+    private static final String FIRST = "650000000000000000000001";
+    private static final String SECOND = "650000000000000000000002";
+    private static final String THIRD = "650000000000000000000003";
+
+    @Test
+    public void whenBuilt_thenOrderedLikeMongoIds() {
+        CatalogTable<CompactPublisher> table = CatalogTable.of(List.of(publisher(THIRD, "C"), publisher(FIRST, "A"),
+                publisher("custom", "Z"), publisher(SECOND, "B")));
+
+        assertEquals(List.of("custom", FIRST, SECOND, THIRD), ids(table.rows()));
+        assertEquals("B", table.get(SECOND).name());
+        assertNull(table.get("650000000000000000000009"));
+    }
+
+    @Test
+    public void whenSameIdTwice_thenLastKept() {
+        CatalogTable<CompactPublisher> table = CatalogTable.of(List.of(publisher(FIRST, "Old"),
+                publisher(FIRST, "New")));
+
+        assertEquals(1, table.size());
+        assertEquals("New", table.get(FIRST).name());
+    }
+
+    @Test
+    public void whenWindow_thenKeysetLikeCursorPage() {
+        CatalogTable<CompactPublisher> table = CatalogTable.of(List.of(publisher(FIRST, "A"), publisher(SECOND, "B"),
+                publisher(THIRD, "C")));
+
+        assertEquals(List.of(FIRST, SECOND), ids(table.window(null, null, 2)));
+        assertEquals(List.of(SECOND, THIRD), ids(table.window(FIRST, null, 5)));
+        assertEquals(List.of(SECOND, FIRST), ids(table.window(null, THIRD, 5)));
+    }
+
+    @Test
+    public void whenChanged_thenNewTableAndOldUntouched() {
+        CompactPublisher kept = publisher(FIRST, "A");
+        CatalogTable<CompactPublisher> table = CatalogTable.of(List.of(kept, publisher(SECOND, "B")));
+
+        CatalogTable<CompactPublisher> changed = table.with(List.of(publisher(SECOND, "B2"), publisher(THIRD, "C")),
+                Set.of(FIRST));
+
+        assertEquals(List.of(SECOND, THIRD), ids(changed.rows()));
+        assertEquals("B2", changed.get(SECOND).name());
+        assertEquals(List.of(FIRST, SECOND), ids(table.rows()));
+        assertSame(kept, table.get(FIRST));
+        assertSame(table, table.with(List.of(), List.of()));
+    }
+
+    @Test
+    public void whenChangedAfterIndexing_thenUnchangedKeysReused() {
+        CatalogTable<CompactPublisher> table = CatalogTable.of(List.of(publisher(FIRST, "A"), publisher(SECOND, "B")));
+        CatalogIndex index = table.index("name", FieldType.STRING);
+
+        CatalogTable<CompactPublisher> changed = table.with(List.of(publisher(SECOND, "B2"), publisher(THIRD, "C")),
+                Set.of());
+        CatalogIndex reindexed = changed.index("name", FieldType.STRING);
+
+        assertSame(index.key(0), reindexed.key(0));
+        assertEquals(3, reindexed.find(null, false, null, false).cardinality());
+        assertEquals(1, reindexed.find(CatalogIndex.key(FieldType.STRING, "b2"), true,
+                CatalogIndex.key(FieldType.STRING, "B2"), true).cardinality());
+        assertSame(index, table.index("name", FieldType.STRING));
+    }
+
+    private static CompactPublisher publisher(String id, String name) {
+        return new CompactPublisher(id, CatalogRow.NONE, name, null);
+    }
+
+    private static List<String> ids(List<? extends CatalogRow> rows) {
+        return rows.stream().map(CatalogRow::id).toList();
+    }
+}
@@ -0,0 +1,272 @@
+package com.betterreads.unit.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoExceptionTranslator;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.convert.LazyLoadingProxy;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.betterreads.catalog.CatalogRow;
+import com.betterreads.catalog.CatalogSnapshot;
+import com.betterreads.catalog.CatalogSnapshotFile;
+import com.betterreads.catalog.CatalogTable;
+import com.betterreads.catalog.CompactAuthor;
+import com.betterreads.catalog.CompactBook;
+import com.betterreads.catalog.CompactPublisher;
+import com.betterreads.catalog.InMemoryCatalog;
+import com.betterreads.catalog.StringPool;
+import com.betterreads.events.CatalogChangedEvent;
+import com.betterreads.models.Author;
+import com.betterreads.models.Book;
+import com.betterreads.models.Publisher;
+import com.betterreads.models.SearchFilter;
+import com.betterreads.models.SearchRequest;
+import com.betterreads.queries.Projection;
+import com.betterreads.queries.SearchFields;
+import com.betterreads.services.CursorPage;
+
+public class InMemoryCatalogTest {
+
+    private static final String BOOK = "650000000000000000000001";
+    private static final String AUTHOR = "650000000000000000000002";
+    private static final String PUBLISHER = "650000000000000000000003";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private CatalogSnapshotFile snapshotFile;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @InjectMocks
+    private InMemoryCatalog catalog;
+
+    @BeforeEach
+    public void setupTests() {
+        MockitoAnnotations.openMocks(this);
+
+        MongoDatabaseFactory factory = mock(MongoDatabaseFactory.class);
+        when(factory.getExceptionTranslator()).thenReturn(new MongoExceptionTranslator());
+
+        MongoMappingContext context = new MongoMappingContext();
+        context.afterPropertiesSet();
+
+        MappingMongoConverter converter = new MappingMongoConverter(new DefaultDbRefResolver(factory), context);
+        converter.afterPropertiesSet();
+
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        when(mongoTemplate.getCollectionName(Book.class)).thenReturn("books");
+        when(mongoTemplate.getCollectionName(Author.class)).thenReturn("authors");
+        when(mongoTemplate.getCollectionName(Publisher.class)).thenReturn("publishers");
+
+        stored("books", new Document("_id", new ObjectId(BOOK)).append("version", 2L).append("isbn", "000-1")
+                .append("title", "Tale").append("authors", List.of(new ObjectId(AUTHOR)))
+                .append("publisher", new ObjectId(PUBLISHER)).append("genres", List.of("Fiction"))
+                .append("pages", 120).append("publishedDate", new Date(1_000_166_400_000L))
+                .append("_class", "com.betterreads.models.Book"));
+        stored("authors", new Document("_id", new ObjectId(AUTHOR)).append("lastName", "Funke")
+                .append("books", List.of(new ObjectId(BOOK))));
+        stored("publishers", new Document("_id", new ObjectId(PUBLISHER)).append("name", "McGraw"));
+
+        ReflectionTestUtils.setField(catalog, "enabled", true);
+    }
+
+    @Test
+    public void whenDisabled_thenNotLoaded() {
+        ReflectionTestUtils.setField(catalog, "enabled", false);
+
+        catalog.run(null);
+        catalog.onCatalogChanged(CatalogChangedEvent.of(Book.class, BOOK));
+
+        assertFalse(catalog.applyChanges());
+        assertFalse(catalog.isReady());
+        verify(mongoTemplate, never()).stream(any(Query.class), eq(Document.class), any(String.class));
+    }
+
+    @Test
+    public void whenLoaded_thenServedWithReferencesResolved() {
+        catalog.run(null);
+
+        Book book = catalog.findById(Book.class, BOOK, Projection.ALL).orElseThrow();
+
+        assertTrue(catalog.isReady());
+        assertEquals("Tale", book.getTitle());
+        assertEquals(2L, book.getVersion());
+        assertEquals(120, book.getPages());
+        assertEquals(new Date(1_000_166_400_000L), book.getPublishedDate());
+        assertEquals("Funke", book.getAuthors().get(0).getLastName());
+        assertEquals("McGraw", book.getPublisher().getName());
+        assertTrue(catalog.findById(Book.class, AUTHOR, Projection.ALL).isEmpty());
+    }
+
+    @Test
+    public void whenReferencedDocumentsRead_thenTheirReferencesStayLazy() {
+        catalog.run(null);
+
+        Author author = catalog.findById(Book.class, BOOK, Projection.ALL).orElseThrow().getAuthors().get(0);
+
+        assertTrue(author.getBooks() instanceof LazyLoadingProxy);
+        assertEquals(List.of(new ObjectId(BOOK)), ((LazyLoadingProxy) author.getBooks()).getSource());
+        assertEquals("Tale", author.getBooks().get(0).getTitle());
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Document.class), eq("books"));
+    }
+
+    @Test
+    public void whenProjected_thenOnlyNamedFields() {
+        catalog.run(null);
+
+        CursorPage<Book> page = catalog.page(Book.class, new Projection(Set.of("title")), null, null, 20);
+        Book book = page.getContent().get(0);
+
+        assertEquals(BOOK, book.getId());
+        assertEquals("Tale", book.getTitle());
+        assertNull(book.getAuthors());
+        assertNull(book.getPages());
+        assertNull(page.getNext());
+    }
+
+    @Test
+    public void whenSearched_thenMatchesFromMemory() {
+        catalog.run(null);
+
+        SearchRequest request = SearchRequest.builder().filters(List.of(SearchFilter.builder().field("genres")
+                .operator(SearchFilter.Operator.EQ).value("fiction").build())).build();
+
+        List<Book> books = catalog.search(Book.class, request, SearchFields.BOOKS, 50, Projection.ALL);
+
+        assertEquals(List.of(BOOK), books.stream().map(Book::getId).toList());
+    }
+
+    @Test
+    public void whenChanged_thenChangedDocumentsReloaded() {
+        catalog.run(null);
+
+        Query changed = new Query(Criteria.where("_id").in(List.of(new ObjectId(PUBLISHER))));
+        when(mongoTemplate.find(changed, Document.class, "publishers"))
+                .thenReturn(List.of(new Document("_id", new ObjectId(PUBLISHER)).append("name", "Penguin")));
+
+        catalog.onCatalogChanged(CatalogChangedEvent.of(Publisher.class, PUBLISHER));
+
+        verify(mongoTemplate, never()).find(changed, Document.class, "publishers");
+        assertEquals("McGraw", catalog.findById(Publisher.class, PUBLISHER, Projection.ALL).orElseThrow().getName());
+
+        assertTrue(catalog.applyChanges());
+        assertFalse(catalog.applyChanges());
+        assertEquals("Penguin", catalog.findById(Publisher.class, PUBLISHER, Projection.ALL).orElseThrow().getName());
+        assertEquals("Penguin",
+                catalog.findById(Book.class, BOOK, Projection.ALL).orElseThrow().getPublisher().getName());
+    }
+
+    @Test
+    public void whenDeleted_thenRemoved() {
+        catalog.run(null);
+
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("authors"))).thenReturn(List.of());
+
+        catalog.onCatalogChanged(CatalogChangedEvent.of(Author.class, AUTHOR));
+        catalog.applyChanges();
+
+        assertTrue(catalog.findById(Author.class, AUTHOR, Projection.ALL).isEmpty());
+        assertTrue(catalog.findById(Book.class, BOOK, Projection.ALL).orElseThrow().getAuthors().isEmpty());
+    }
+
+    @Test
+    public void whenAllChanged_thenTableReloadedInBackground() {
+        catalog.run(null);
+
+        doAnswer(invocation -> Stream.of(new Document("_id", new ObjectId(PUBLISHER)).append("name", "Penguin")))
+                .when(mongoTemplate).stream(any(Query.class), eq(Document.class), eq("publishers"));
+
+        catalog.onCatalogChanged(CatalogChangedEvent.of(Publisher.class, PUBLISHER));
+        catalog.onCatalogChanged(CatalogChangedEvent.all(Publisher.class));
+
+        verify(mongoTemplate, times(1)).stream(any(Query.class), eq(Document.class), eq("publishers"));
+
+        assertTrue(catalog.applyChanges());
+
+        verify(mongoTemplate, times(2)).stream(any(Query.class), eq(Document.class), eq("publishers"));
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Document.class), eq("publishers"));
+        assertEquals("Penguin", catalog.findById(Publisher.class, PUBLISHER, Projection.ALL).orElseThrow().getName());
+    }
+
+    @Test
+    public void whenSnapshotFile_thenOnlyChangedDocumentsRead() {
+        String deleted = "650000000000000000000009";
+        Cache books = mock(Cache.class);
+
+        when(snapshotFile.read(any(StringPool.class))).thenReturn(Optional.of(new CatalogSnapshot(
+                CatalogTable.of(List.of(new CompactBook(BOOK, 2, "000-1", "From file", null, CatalogRow.NONE, null,
+                        CatalogRow.NONE, null, null))),
+                CatalogTable.of(List.of(new CompactAuthor(deleted, 0, null, null, "Gone", null, CatalogRow.NONE,
+                        null, null, null, null))),
+                CatalogTable.of(List.of(new CompactPublisher(PUBLISHER, 7, "Old name", null))))));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("authors")))
+                .thenReturn(List.of(new Document("_id", new ObjectId(AUTHOR)).append("lastName", "Funke")));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("publishers")))
+                .thenReturn(List.of(new Document("_id", new ObjectId(PUBLISHER)).append("name", "McGraw")));
+        when(cacheManager.getCache("books")).thenReturn(books);
+        ReflectionTestUtils.setField(catalog, "prefillCaches", true);
+        ReflectionTestUtils.setField(catalog, "prefillSize", 10);
+
+        catalog.run(null);
+
+        assertEquals("From file", catalog.findById(Book.class, BOOK, Projection.ALL).orElseThrow().getTitle());
+        assertEquals("Funke", catalog.findById(Author.class, AUTHOR, Projection.ALL).orElseThrow().getLastName());
+        assertTrue(catalog.findById(Author.class, deleted, Projection.ALL).isEmpty());
+        assertEquals("McGraw", catalog.findById(Publisher.class, PUBLISHER, Projection.ALL).orElseThrow().getName());
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Document.class), eq("books"));
+        verify(books).put(eq(BOOK), any(Book.class));
+    }
+
+    @Test
+    public void whenWritingSnapshot_thenServedCatalogWritten() {
+        when(snapshotFile.isEnabled()).thenReturn(true);
+        catalog.run(null);
+
+        catalog.writeSnapshot();
+
+        verify(snapshotFile).write(argThat(written -> written.books().size() == 1
+                && written.authors().size() == 1 && written.publishers().size() == 1));
+    }
+
+    private void stored(String collection, Document... documents) {
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq(collection)))
+                .thenAnswer(invocation -> Stream.of(documents));
+    }
+}
@@ -0,0 +1,86 @@
+package com.betterreads.unit.controllers;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.Map;
+
+import org.hamcrest.core.Is;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.betterreads.controllers.AuthorStatsController;
+import com.betterreads.models.AuthorStats;
+import com.betterreads.services.AuthorStatsService;
+
+@WebMvcTest(AuthorStatsController.class)
+@AutoConfigureMockMvc
+public class AuthorStatsControllerTest {
+
+    private static final String BASE_URL = "/v1/authors";
+
+    @MockBean
+    private AuthorStatsService authorStatsService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void whenGetById_thenCorrectResponse() throws Exception {
+        AuthorStats stats = AuthorStats.builder()
+                .id("1")
+                .bookCount(3)
+                .totalPages(900)
+                .genres(Map.of("Fantasy", 3))
+                .build();
+
+        doReturn(EntityModel.of(stats)).when(authorStatsService).getById("1");
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + "/1/stats")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.bookCount", Is.is(3)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.genres.Fantasy", Is.is(3)));
+    }
+
+    @Test
+    public void whenGetByIdUnknown_thenNotFound() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + "/1/stats")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    @Test
+    public void whenGetAll_thenCorrectResponse() throws Exception {
+        doReturn(CollectionModel.of(List.of(EntityModel.of(AuthorStats.builder().id("1").bookCount(2).build()))))
+                .when(authorStatsService).getAll(List.of("1", "2"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + "/stats")
+                .param("ids", "1,2")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$._embedded.authorStats[0].bookCount", Is.is(2)));
+    }
+
+    @Test
+    public void whenGetTop_thenCorrectResponse() throws Exception {
+        doReturn(CollectionModel.empty()).when(authorStatsService).getTop(5);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + "/stats/top")
+                .param("size", "5")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        verify(authorStatsService).getTop(5);
+    }
+}
@@ -1,13 +1,26 @@
 package com.betterreads.unit.controllers;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 import static org.hamcrest.Matchers.*;
 
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.GregorianCalendar;
-import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
@@ -17,21 +30,31 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import com.betterreads.controllers.AuthorsController;
+import com.betterreads.exceptions.InvalidRequestException;
+import com.betterreads.models.BatchResult;
 import com.betterreads.models.Author;
+import com.betterreads.models.SearchExplanation;
+import com.betterreads.models.SearchFilter;
+import com.betterreads.models.SearchRequest;
 import com.betterreads.services.IService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
-@WebMvcTest
+@WebMvcTest(AuthorsController.class)
 @AutoConfigureMockMvc
 public class AuthorsControllerTest {
 
@@ -55,7 +78,9 @@ public class AuthorsControllerTest {
         List<EntityModel<Author>> Authors = new ArrayList<>();
         Authors.add(entity);
 
-        doReturn(Authors).when(authorsService).getAll();
+        doReturn(CollectionModel.of(Authors,
+                linkTo(methodOn(AuthorsController.class).getAll(null, null, null, null)).withSelfRel()))
+                .when(authorsService).getAll(null, null, 20, null);
 
         mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL)
                 .contentType(MediaType.APPLICATION_JSON))
@@ -65,12 +90,42 @@ public class AuthorsControllerTest {
                         Is.is(author.getFirstName())));
     }
 
+    @Test
+    public void whenGetAllAuthorsWithCursor_thenCorrectResponse() throws Exception {
+        doReturn(CollectionModel.empty()).when(authorsService).getAll("2", null, 5, null);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL)
+                .param("after", "2")
+                .param("size", "5")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        verify(authorsService).getAll("2", null, 5, null);
+    }
+
+    @Test
+    public void whenExportAuthors_thenCorrectResponse() throws Exception {
+        doAnswer(invocation -> {
+            invocation.getArgument(0, OutputStream.class).write("{\"_id\": \"1\"}\n".getBytes());
+            return null;
+        }).when(authorsService).export(any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + "/export"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(MockMvcResultMatchers.content().string("{\"_id\": \"1\"}\n"));
+    }
+
     @Test
     public void whenGetAuthorById_thenCorrectResponse() throws Exception {
         Author author = getMockAuthor();
         EntityModel<Author> entity = getMockEntityModel(author);
 
-        doReturn(entity).when(authorsService).getById("1");
+        doReturn(entity).when(authorsService).getById("1", null);
 
         mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + "/1")
                 .contentType(MediaType.APPLICATION_JSON))
@@ -80,13 +135,77 @@ public class AuthorsControllerTest {
 
     @Test
     public void whenGetAuthorById_notFound_thenCorrectResponse() throws Exception {
-        doReturn(null).when(authorsService).getById("1");
+        doReturn(null).when(authorsService).getById("1", null);
 
         mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + "/1")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(MockMvcResultMatchers.status().isNotFound());
     }
 
+    @Test
+    public void whenGetAuthorById_thenETagOfVersion() throws Exception {
+        Author author = getMockAuthor();
+        author.setVersion(3L);
+
+        doReturn(getMockEntityModel(author)).when(authorsService).getById("1", null);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + "/1"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"3\""));
+    }
+
+    @Test
+    public void whenGetAuthorById_withCurrentETag_thenNotModified() throws Exception {
+        Author author = getMockAuthor();
+        author.setVersion(3L);
+
+        doReturn(getMockEntityModel(author)).when(authorsService).getById("1", null);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + "/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"2\", W/\"3\""))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(MockMvcResultMatchers.content().string(""));
+    }
+
+    @Test
+    public void whenGetAuthorById_withStaleETag_thenCorrectResponse() throws Exception {
+        Author author = getMockAuthor();
+        author.setVersion(3L);
+
+        doReturn(getMockEntityModel(author)).when(authorsService).getById("1", null);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + "/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.version", Is.is(3)));
+    }
+
+    @Test
+    public void whenGetAuthorById_withFields_thenOnlyNamedFields() throws Exception {
+        Author author = Author.builder().id("1").lastName("Bluth").build();
+
+        doReturn(getMockEntityModel(author)).when(authorsService).getById("1", "id,lastName");
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + "/1")
+                .param("fields", "id,lastName")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.lastName", Is.is(author.getLastName())))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.books").doesNotExist());
+    }
+
+    @Test
+    public void whenGetAuthorById_withUnknownField_thenBadRequest() throws Exception {
+        doThrow(new InvalidRequestException("fields", "Unknown field nope")).when(authorsService).getById("1", "nope");
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + "/1")
+                .param("fields", "nope")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.fields", Is.is("Unknown field nope")));
+    }
+
     @Test
     public void whenSearchAuthors_thenCorrectResponse() throws Exception {
         Author author = getMockAuthor();
@@ -94,9 +213,15 @@ public class AuthorsControllerTest {
         List<EntityModel<Author>> Authors = new ArrayList<>();
         Authors.add(entity);
 
-        Author search = Author.builder().city("modesto").build();
+        SearchRequest search = SearchRequest.builder()
+                .filters(List.of(SearchFilter.builder()
+                        .field("city")
+                        .operator(SearchFilter.Operator.EQ)
+                        .value("modesto")
+                        .build()))
+                .build();
 
-        doReturn(Authors).when(authorsService).search(search);
+        doReturn(Authors).when(authorsService).search(search, null);
 
         String searchJson = new ObjectMapper().writeValueAsString(search);
 
@@ -108,6 +233,43 @@ public class AuthorsControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$._embedded.authors[0].city", Is.is(author.getCity())));
     }
 
+    @Test
+    public void whenSearchAuthorsWithExplain_thenReturnsPlan() throws Exception {
+        SearchRequest search = SearchRequest.builder().explain(true).build();
+        SearchExplanation explanation = SearchExplanation.builder()
+                .collection("authors")
+                .indexName("city_1")
+                .stages(List.of("FETCH", "IXSCAN"))
+                .build();
+
+        doReturn(explanation).when(authorsService).explain(search);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + "/search")
+                .content(new ObjectMapper().writeValueAsString(search))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.indexName", Is.is("city_1")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.stages[1]", Is.is("IXSCAN")));
+
+        verify(authorsService, never()).search(any(), any());
+    }
+
+    @Test
+    public void whenSearchAuthorsWithUnknownField_thenBadRequest() throws Exception {
+        SearchRequest search = SearchRequest.builder()
+                .filters(List.of(SearchFilter.builder().field("unknown").operator(SearchFilter.Operator.EQ).build()))
+                .build();
+
+        doThrow(new InvalidRequestException("filters[0].field", "Unknown field 'unknown'"))
+                .when(authorsService).search(search, null);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + "/search")
+                .content(new ObjectMapper().writeValueAsString(search))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$['filters[0].field']", Is.is("Unknown field 'unknown'")));
+    }
+
     @Test
     public void whenAddAuthorWithValidRequest_thenCorrectResponse() throws Exception {
         Author author = getMockAuthor();
@@ -138,6 +300,65 @@ public class AuthorsControllerTest {
                 .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON_VALUE));
     }
 
+    @Test
+    public void whenAddAllAuthors_thenCorrectResponse() throws Exception {
+        List<BatchResult> results = Collections.singletonList(
+                BatchResult.builder().index(0).id("1").status(BatchResult.Status.CREATED).build());
+        List<Object> received = new ArrayList<>();
+
+        doAnswer(invocation -> {
+            invocation.<Iterator<?>>getArgument(0).forEachRemaining(received::add);
+            return results;
+        }).when(authorsService).addAll(any());
+
+        String body = new ObjectMapper().writeValueAsString(Arrays.asList(getMockAuthor(), getMockAuthor()));
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + "/batch")
+                .content(body)
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].status", Is.is("CREATED")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id", Is.is("1")));
+
+        assertEquals(2, received.size());
+        assertEquals(getMockAuthor().getId(), ((Author) received.get(0)).getId());
+    }
+
+    @Test
+    public void whenAddAllAuthorsAsNdjson_thenCorrectResponse() throws Exception {
+        List<Object> received = new ArrayList<>();
+
+        doAnswer(invocation -> {
+            invocation.<Iterator<?>>getArgument(0).forEachRemaining(received::add);
+            return Collections.emptyList();
+        }).when(authorsService).addAll(any());
+
+        ObjectMapper mapper = new ObjectMapper();
+        String body = mapper.writeValueAsString(getMockAuthor()) + "\n" + mapper.writeValueAsString(getMockAuthor()) + "\n";
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + "/batch")
+                .content(body)
+                .contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        assertEquals(2, received.size());
+    }
+
+    @Test
+    public void whenAddAllAuthorsWithMalformedBody_thenBadRequest() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<Iterator<?>>getArgument(0).forEachRemaining(item -> {
+            });
+            return Collections.emptyList();
+        }).when(authorsService).addAll(any());
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + "/batch")
+                .content("[{\"id\": \"1\"}, {")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.body", notNullValue()));
+    }
+
     @Test
     public void whenUpdateAuthorWithValidRequest_thenCorrectResponse() throws Exception {
         Author author = getMockAuthor();
@@ -145,7 +366,7 @@ public class AuthorsControllerTest {
 
         EntityModel<Author> expected = getMockEntityModel(author);
 
-        doReturn(expected).when(authorsService).update("1", author);
+        doReturn(expected).when(authorsService).update("1", author, null);
 
         mockMvc.perform(MockMvcRequestBuilders.put(BASE_URL + "/1")
                 .content(authorJson)
@@ -168,6 +389,73 @@ public class AuthorsControllerTest {
                 .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON_VALUE));
     }
 
+    @Test
+    public void whenPatchAuthor_thenCorrectResponse() throws Exception {
+        Author author = getMockAuthor();
+
+        doReturn(getMockEntityModel(author)).when(authorsService).patch(eq("1"), any(JsonNode.class), isNull());
+
+        mockMvc.perform(MockMvcRequestBuilders.patch(BASE_URL + "/1")
+                .content("{\"city\": \"Newport Beach\"}")
+                .contentType("application/merge-patch+json"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MEDIA_TYPE_APPLICATION_HAL_JSON));
+
+        verify(authorsService).patch("1", new ObjectMapper().readTree("{\"city\": \"Newport Beach\"}"), null);
+    }
+
+    @Test
+    public void whenPatchAuthorWithUnknownField_thenBadRequest() throws Exception {
+        doThrow(new InvalidRequestException("nope", "Unknown field nope")).when(authorsService).patch(eq("1"),
+                any(JsonNode.class), isNull());
+
+        mockMvc.perform(MockMvcRequestBuilders.patch(BASE_URL + "/1")
+                .content("{\"nope\": 1}")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nope", Is.is("Unknown field nope")));
+    }
+
+    @Test
+    public void whenPatchAuthorWithIfMatch_thenVersionChecked() throws Exception {
+        Author author = getMockAuthor();
+        author.setVersion(4L);
+
+        doReturn(getMockEntityModel(author)).when(authorsService).patch(eq("1"), any(JsonNode.class), eq(List.of(3L)));
+
+        mockMvc.perform(MockMvcRequestBuilders.patch(BASE_URL + "/1")
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .content("{\"lastName\": \"Funke\"}")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"4\""));
+    }
+
+    @Test
+    public void whenPatchStaleAuthor_thenPreconditionFailed() throws Exception {
+        doThrow(new OptimisticLockingFailureException("stale")).when(authorsService).patch(eq("1"), any(JsonNode.class),
+                eq(List.of(3L)));
+
+        mockMvc.perform(MockMvcRequestBuilders.patch(BASE_URL + "/1")
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .content("{\"lastName\": \"Funke\"}")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isPreconditionFailed())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.version",
+                        Is.is("The document was changed since it was read")));
+    }
+
+    @Test
+    public void whenUpdateAuthorWithUnknownIfMatch_thenPreconditionFailed() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.put(BASE_URL + "/1")
+                .header(HttpHeaders.IF_MATCH, "\"abc\", W/\"3\"")
+                .content(new ObjectMapper().writeValueAsString(getMockAuthor()))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+
+        verify(authorsService, never()).update(any(String.class), any(Author.class), anyList());
+    }
+
     @Test
     public void whenDeleteAuthorWithId_thenCorrectResponse() throws Exception {
         doNothing().when(authorsService).delete("1");
@@ -186,6 +474,50 @@ public class AuthorsControllerTest {
                 .andExpect(MockMvcResultMatchers.status().isNoContent());
     }
 
+    @Test
+    public void whenDeleteAuthorsByIds_thenCountReturned() throws Exception {
+        doReturn(2L).when(authorsService).delete(List.of("1", "2"));
+
+        mockMvc.perform(MockMvcRequestBuilders.delete(BASE_URL)
+                .param("ids", "1", "2")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.deleted", Is.is(2)));
+
+        verify(authorsService, never()).deleteAll();
+    }
+
+    @Test
+    public void whenDeleteMatchingAuthors_thenCountReturned() throws Exception {
+        SearchRequest search = SearchRequest.builder()
+                .filters(List.of(SearchFilter.builder()
+                        .field("id")
+                        .operator(SearchFilter.Operator.IN)
+                        .value(List.of("1", "2", "3"))
+                        .build()))
+                .build();
+
+        doReturn(3L).when(authorsService).deleteMatching(search);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + "/delete")
+                .content(new ObjectMapper().writeValueAsString(search))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.deleted", Is.is(3)));
+    }
+
+    @Test
+    public void whenDeleteMatchingAuthorsWithoutFilters_thenBadRequest() throws Exception {
+        doThrow(new InvalidRequestException("filters", "At least one filter is required"))
+                .when(authorsService).deleteMatching(new SearchRequest());
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + "/delete")
+                .content("{}")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.filters", Is.is("At least one filter is required")));
+    }
+
     private Author getMockAuthor() {
         return Author.builder()
                 .id("1")
@@ -199,7 +531,7 @@ public class AuthorsControllerTest {
     }
 
     public EntityModel<Author> getMockEntityModel(Author entity) {
-        return EntityModel.of(entity, linkTo(methodOn(AuthorsController.class).getById(entity.getId())).withSelfRel(),
-                linkTo(methodOn(AuthorsController.class).getAll()).withRel("v1/Authors"));
+        return EntityModel.of(entity, linkTo(methodOn(AuthorsController.class).getById(entity.getId(), null, null)).withSelfRel(),
+                linkTo(methodOn(AuthorsController.class).getAll(null, null, null, null)).withRel("v1/Authors"));
     }
 }
@@ -0,0 +1,99 @@
+package com.betterreads.unit.controllers;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+
+import java.util.List;
+
+import org.hamcrest.core.Is;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.betterreads.controllers.BookFacetsController;
+import com.betterreads.exceptions.InvalidRequestException;
+import com.betterreads.models.BookFacets;
+import com.betterreads.models.FacetCount;
+import com.betterreads.models.SearchFilter;
+import com.betterreads.models.SearchRequest;
+import com.betterreads.services.BookFacetsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@WebMvcTest(BookFacetsController.class)
+@AutoConfigureMockMvc
+public class BookFacetsControllerTest {
+
+    private static final String BASE_URL = "/v1/books/facets";
+
+    @MockBean
+    private BookFacetsService bookFacetsService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void whenGetFacets_thenAllBooksCounted() throws Exception {
+        doReturn(getMockFacets()).when(bookFacetsService).getFacets(new SearchRequest());
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL)
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.total", Is.is(3)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.genres[0].value", Is.is("Fiction")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.genres[0].count", Is.is(2)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.publishers[0].label", Is.is("Penguin")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.decades[0].value", Is.is("1990")));
+    }
+
+    @Test
+    public void whenSearchFacets_thenMatchingBooksCounted() throws Exception {
+        SearchRequest search = SearchRequest.builder()
+                .filters(List.of(SearchFilter.builder()
+                        .field("language")
+                        .operator(SearchFilter.Operator.EQ)
+                        .value("English")
+                        .build()))
+                .build();
+
+        doReturn(getMockFacets()).when(bookFacetsService).getFacets(search);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL)
+                .content(new ObjectMapper().writeValueAsString(search))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.total", Is.is(3)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.languages[0].value", Is.is("English")));
+    }
+
+    @Test
+    public void whenSearchFacetsWithUnknownField_thenBadRequest() throws Exception {
+        SearchRequest search = SearchRequest.builder()
+                .filters(List.of(SearchFilter.builder().field("unknown").operator(SearchFilter.Operator.EQ).build()))
+                .build();
+
+        doThrow(new InvalidRequestException("filters[0].field", "Unknown field 'unknown'"))
+                .when(bookFacetsService).getFacets(search);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL)
+                .content(new ObjectMapper().writeValueAsString(search))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$['filters[0].field']", Is.is("Unknown field 'unknown'")));
+    }
+
+    private static BookFacets getMockFacets() {
+        return BookFacets.builder()
+                .total(3)
+                .genres(List.of(new FacetCount("Fiction", null, 2)))
+                .languages(List.of(new FacetCount("English", null, 3)))
+                .publishers(List.of(new FacetCount("64f1c0a2b3d4e5f6a7b8c9d0", "Penguin", 3)))
+                .decades(List.of(new FacetCount("1990", null, 3)))
+                .build();
+    }
+}
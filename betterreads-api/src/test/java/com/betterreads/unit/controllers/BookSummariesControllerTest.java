@@ -0,0 +1,116 @@
+package com.betterreads.unit.controllers;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+
+import org.hamcrest.core.Is;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.betterreads.controllers.BookSummariesController;
+import com.betterreads.models.BookSummary;
+import com.betterreads.models.SearchFilter;
+import com.betterreads.models.SearchRequest;
+import com.betterreads.services.BookSummariesService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@WebMvcTest(BookSummariesController.class)
+@AutoConfigureMockMvc
+public class BookSummariesControllerTest {
+
+    private static final String BASE_URL = "/v1/summaries";
+
+    @MockBean
+    private BookSummariesService bookSummariesService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void whenGetAll_thenCorrectResponse() throws Exception {
+        BookSummary summary = BookSummary.builder()
+                .id("1")
+                .title("The Hobbit")
+                .authorNames(List.of("Tolkien, John Ronald Reuel"))
+                .publisherName("Allen & Unwin")
+                .build();
+
+        doReturn(CollectionModel.of(List.of(EntityModel.of(summary))))
+                .when(bookSummariesService).getAll(null, null, 20, null, null, null);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL)
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$._embedded.bookSummaries[0].title", Is.is("The Hobbit")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$._embedded.bookSummaries[0].publisherName",
+                        Is.is("Allen & Unwin")));
+    }
+
+    @Test
+    public void whenGetAllWithFilters_thenCorrectResponse() throws Exception {
+        doReturn(CollectionModel.empty()).when(bookSummariesService).getAll("1", null, 5, "Fiction", "Tolkien, J",
+                "Penguin");
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL)
+                .param("after", "1")
+                .param("size", "5")
+                .param("genre", "Fiction")
+                .param("author", "Tolkien, J")
+                .param("publisher", "Penguin")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        verify(bookSummariesService).getAll("1", null, 5, "Fiction", "Tolkien, J", "Penguin");
+    }
+
+    @Test
+    public void whenGetBooksInSummaryView_thenSummaries() throws Exception {
+        BookSummary summary = BookSummary.builder().id("1").title("The Hobbit").build();
+
+        doReturn(CollectionModel.of(List.of(EntityModel.of(summary))))
+                .when(bookSummariesService).getBooks("1", null, 5);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/v1/books")
+                .param("after", "1")
+                .param("size", "5")
+                .param("view", "summary")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$._embedded.bookSummaries[0].title", Is.is("The Hobbit")));
+    }
+
+    @Test
+    public void whenSearchBooksInSummaryView_thenSummaries() throws Exception {
+        BookSummary summary = BookSummary.builder().id("1").publisherName("Allen & Unwin").build();
+        SearchRequest search = SearchRequest.builder()
+                .filters(List.of(SearchFilter.builder()
+                        .field("publisherName")
+                        .operator(SearchFilter.Operator.EQ)
+                        .value("Allen & Unwin")
+                        .build()))
+                .build();
+
+        doReturn(List.of(EntityModel.of(summary))).when(bookSummariesService).search(search);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/v1/books/search")
+                .param("view", "summary")
+                .content(new ObjectMapper().writeValueAsString(search))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$._embedded.bookSummaries[0].publisherName",
+                        Is.is("Allen & Unwin")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$._links.self.href",
+                        Is.is("http://localhost/v1/books/search?view=summary")));
+    }
+}
@@ -1,16 +1,27 @@
 package com.betterreads.unit.controllers;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 import static org.hamcrest.Matchers.*;
 
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
 import java.util.GregorianCalendar;
-import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
@@ -20,23 +31,35 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import com.betterreads.assemblers.BooksAssembler;
 import com.betterreads.controllers.BooksController;
+import com.betterreads.exceptions.InvalidRequestException;
 import com.betterreads.models.Author;
+import com.betterreads.models.BatchResult;
 import com.betterreads.models.Book;
+import com.betterreads.models.SearchExplanation;
+import com.betterreads.models.SearchFilter;
+import com.betterreads.models.SearchRequest;
 import com.betterreads.models.Publisher;
+import com.betterreads.services.CursorPage;
 import com.betterreads.services.IService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
-@WebMvcTest
+@WebMvcTest(BooksController.class)
 @AutoConfigureMockMvc
 public class BooksControllerTest {
 
@@ -60,7 +83,9 @@ public class BooksControllerTest {
         List<EntityModel<Book>> books = new ArrayList<>();
         books.add(entity);
 
-        doReturn(books).when(booksService).getAll();
+        doReturn(CollectionModel.of(books,
+                linkTo(methodOn(BooksController.class).getAll(null, null, null, null)).withSelfRel()))
+                .when(booksService).getAll(null, null, 20, null);
 
         mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL)
                 .contentType(MediaType.APPLICATION_JSON))
@@ -69,12 +94,69 @@ public class BooksControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$._embedded.books[0].title", Is.is(book.getTitle())));
     }
 
+    @Test
+    public void whenGetAllBooks_thenStreamedAsHal() throws Exception {
+        CursorPage<Book> page = new CursorPage<>(List.of(getMockBook(), Book.builder().id("2").title("Other").build()),
+                null, null, 2, "2", null);
+
+        doAnswer(invocation -> {
+            CollectionModel<EntityModel<?>> streamed = new BooksAssembler().toPagedModel(page, null);
+
+            return CollectionModel.of(new ArrayList<>(streamed.getContent()), streamed.getLinks());
+        }).when(booksService).getAll(null, null, 2, null);
+
+        String expected = mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL).param("size", "2"))
+                .andReturn().getResponse().getContentAsString();
+
+        doAnswer(invocation -> new BooksAssembler().toPagedModel(page, null)).when(booksService)
+                .getAll(null, null, 2, null);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL).param("size", "2"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MEDIA_TYPE_APPLICATION_HAL_JSON))
+                .andExpect(MockMvcResultMatchers.content().string(expected))
+                .andExpect(MockMvcResultMatchers.jsonPath("$._embedded.books[1]._links.self.href",
+                        Is.is("http://localhost/v1/books/2")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$._links.next.href",
+                        Is.is("http://localhost/v1/books?after=2&size=2")));
+    }
+
+    @Test
+    public void whenGetAllBooksWithCursor_thenCorrectResponse() throws Exception {
+        doReturn(CollectionModel.empty()).when(booksService).getAll("2", null, 5, null);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL)
+                .param("after", "2")
+                .param("size", "5")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        verify(booksService).getAll("2", null, 5, null);
+    }
+
+    @Test
+    public void whenExportBooks_thenCorrectResponse() throws Exception {
+        doAnswer(invocation -> {
+            invocation.getArgument(0, OutputStream.class).write("{\"_id\": \"1\"}\n".getBytes());
+            return null;
+        }).when(booksService).export(any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + "/export"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(MockMvcResultMatchers.content().string("{\"_id\": \"1\"}\n"));
+    }
+
     @Test
     public void whenGetBookById_thenCorrectResponse() throws Exception {
         Book book = getMockBook();
         EntityModel<Book> entity = getMockEntityModel(book);
 
-        doReturn(entity).when(booksService).getById("1");
+        doReturn(entity).when(booksService).getById("1", null);
 
         mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + "/1")
                 .contentType(MediaType.APPLICATION_JSON))
@@ -84,13 +166,77 @@ public class BooksControllerTest {
 
     @Test
     public void whenGetBookById_notFound_thenCorrectResponse() throws Exception {
-        doReturn(null).when(booksService).getById("1");
+        doReturn(null).when(booksService).getById("1", null);
 
         mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + "/1")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(MockMvcResultMatchers.status().isNotFound());
     }
 
+    @Test
+    public void whenGetBookById_thenETagOfVersion() throws Exception {
+        Book book = getMockBook();
+        book.setVersion(3L);
+
+        doReturn(getMockEntityModel(book)).when(booksService).getById("1", null);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + "/1"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"3\""));
+    }
+
+    @Test
+    public void whenGetBookById_withCurrentETag_thenNotModified() throws Exception {
+        Book book = getMockBook();
+        book.setVersion(3L);
+
+        doReturn(getMockEntityModel(book)).when(booksService).getById("1", null);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + "/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"2\", W/\"3\""))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(MockMvcResultMatchers.content().string(""));
+    }
+
+    @Test
+    public void whenGetBookById_withStaleETag_thenCorrectResponse() throws Exception {
+        Book book = getMockBook();
+        book.setVersion(3L);
+
+        doReturn(getMockEntityModel(book)).when(booksService).getById("1", null);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + "/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.version", Is.is(3)));
+    }
+
+    @Test
+    public void whenGetBookById_withFields_thenOnlyNamedFields() throws Exception {
+        Book book = Book.builder().id("1").title("My Awesome Book").build();
+
+        doReturn(getMockEntityModel(book)).when(booksService).getById("1", "id,title");
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + "/1")
+                .param("fields", "id,title")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.title", Is.is(book.getTitle())))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.pages").doesNotExist());
+    }
+
+    @Test
+    public void whenGetBookById_withUnknownField_thenBadRequest() throws Exception {
+        doThrow(new InvalidRequestException("fields", "Unknown field nope")).when(booksService).getById("1", "nope");
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + "/1")
+                .param("fields", "nope")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.fields", Is.is("Unknown field nope")));
+    }
+
     @Test
     public void whenSearchBooks_thenCorrectResponse() throws Exception {
         Book book = getMockBook();
@@ -98,9 +244,15 @@ public class BooksControllerTest {
         List<EntityModel<Book>> books = new ArrayList<>();
         books.add(entity);
 
-        Book search = Book.builder().title("awesome").build();
+        SearchRequest search = SearchRequest.builder()
+                .filters(List.of(SearchFilter.builder()
+                        .field("title")
+                        .operator(SearchFilter.Operator.EQ)
+                        .value("awesome")
+                        .build()))
+                .build();
 
-        doReturn(books).when(booksService).search(search);
+        doReturn(books).when(booksService).search(search, null);
 
         String searchJson = new ObjectMapper().writeValueAsString(search);
 
@@ -112,6 +264,43 @@ public class BooksControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$._embedded.books[0].title", Is.is(book.getTitle())));
     }
 
+    @Test
+    public void whenSearchBooksWithExplain_thenReturnsPlan() throws Exception {
+        SearchRequest search = SearchRequest.builder().explain(true).build();
+        SearchExplanation explanation = SearchExplanation.builder()
+                .collection("books")
+                .indexName("title_1")
+                .stages(List.of("FETCH", "IXSCAN"))
+                .build();
+
+        doReturn(explanation).when(booksService).explain(search);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + "/search")
+                .content(new ObjectMapper().writeValueAsString(search))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.indexName", Is.is("title_1")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.stages[1]", Is.is("IXSCAN")));
+
+        verify(booksService, never()).search(any(), any());
+    }
+
+    @Test
+    public void whenSearchBooksWithUnknownField_thenBadRequest() throws Exception {
+        SearchRequest search = SearchRequest.builder()
+                .filters(List.of(SearchFilter.builder().field("unknown").operator(SearchFilter.Operator.EQ).build()))
+                .build();
+
+        doThrow(new InvalidRequestException("filters[0].field", "Unknown field 'unknown'"))
+                .when(booksService).search(search, null);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + "/search")
+                .content(new ObjectMapper().writeValueAsString(search))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$['filters[0].field']", Is.is("Unknown field 'unknown'")));
+    }
+
     @Test
     public void whenAddBookWithValidRequest_thenCorrectResponse() throws Exception {
         Book book = getMockBook();
@@ -142,6 +331,65 @@ public class BooksControllerTest {
                 .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON_VALUE));
     }
 
+    @Test
+    public void whenAddAllBooks_thenCorrectResponse() throws Exception {
+        List<BatchResult> results = Collections.singletonList(
+                BatchResult.builder().index(0).id("1").status(BatchResult.Status.CREATED).build());
+        List<Object> received = new ArrayList<>();
+
+        doAnswer(invocation -> {
+            invocation.<Iterator<?>>getArgument(0).forEachRemaining(received::add);
+            return results;
+        }).when(booksService).addAll(any());
+
+        String body = new ObjectMapper().writeValueAsString(Arrays.asList(getMockBook(), getMockBook()));
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + "/batch")
+                .content(body)
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].status", Is.is("CREATED")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id", Is.is("1")));
+
+        assertEquals(2, received.size());
+        assertEquals(getMockBook().getId(), ((Book) received.get(0)).getId());
+    }
+
+    @Test
+    public void whenAddAllBooksAsNdjson_thenCorrectResponse() throws Exception {
+        List<Object> received = new ArrayList<>();
+
+        doAnswer(invocation -> {
+            invocation.<Iterator<?>>getArgument(0).forEachRemaining(received::add);
+            return Collections.emptyList();
+        }).when(booksService).addAll(any());
+
+        ObjectMapper mapper = new ObjectMapper();
+        String body = mapper.writeValueAsString(getMockBook()) + "\n" + mapper.writeValueAsString(getMockBook()) + "\n";
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + "/batch")
+                .content(body)
+                .contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        assertEquals(2, received.size());
+    }
+
+    @Test
+    public void whenAddAllBooksWithMalformedBody_thenBadRequest() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<Iterator<?>>getArgument(0).forEachRemaining(item -> {
+            });
+            return Collections.emptyList();
+        }).when(booksService).addAll(any());
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + "/batch")
+                .content("[{\"id\": \"1\"}, {")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.body", notNullValue()));
+    }
+
     @Test
     public void whenUpdateBookWithValidRequest_thenCorrectResponse() throws Exception {
         Book book = getMockBook();
@@ -149,7 +397,7 @@ public class BooksControllerTest {
 
         EntityModel<Book> expected = getMockEntityModel(book);
 
-        doReturn(expected).when(booksService).update("1", book);
+        doReturn(expected).when(booksService).update("1", book, null);
 
         mockMvc.perform(MockMvcRequestBuilders.put(BASE_URL + "/1")
                 .content(bookJson)
@@ -172,6 +420,101 @@ public class BooksControllerTest {
                 .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON_VALUE));
     }
 
+    @Test
+    public void whenPatchBook_thenCorrectResponse() throws Exception {
+        Book book = getMockBook();
+
+        doReturn(getMockEntityModel(book)).when(booksService).patch(eq("1"), any(JsonNode.class), isNull());
+
+        mockMvc.perform(MockMvcRequestBuilders.patch(BASE_URL + "/1")
+                .content("{\"pages\": 320}")
+                .contentType("application/merge-patch+json"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MEDIA_TYPE_APPLICATION_HAL_JSON));
+
+        verify(booksService).patch("1", new ObjectMapper().readTree("{\"pages\": 320}"), null);
+    }
+
+    @Test
+    public void whenPatchBookWithUnknownField_thenBadRequest() throws Exception {
+        doThrow(new InvalidRequestException("nope", "Unknown field nope")).when(booksService).patch(eq("1"),
+                any(JsonNode.class), isNull());
+
+        mockMvc.perform(MockMvcRequestBuilders.patch(BASE_URL + "/1")
+                .content("{\"nope\": 1}")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nope", Is.is("Unknown field nope")));
+    }
+
+    @Test
+    public void whenPatchBookWithIfMatch_thenVersionChecked() throws Exception {
+        Book book = getMockBook();
+        book.setVersion(4L);
+
+        doReturn(getMockEntityModel(book)).when(booksService).patch(eq("1"), any(JsonNode.class), eq(List.of(3L)));
+
+        mockMvc.perform(MockMvcRequestBuilders.patch(BASE_URL + "/1")
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .content("{\"pages\": 320}")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"4\""));
+    }
+
+    @Test
+    public void whenPatchStaleBook_thenPreconditionFailed() throws Exception {
+        doThrow(new OptimisticLockingFailureException("stale")).when(booksService).patch(eq("1"), any(JsonNode.class),
+                eq(List.of(3L)));
+
+        mockMvc.perform(MockMvcRequestBuilders.patch(BASE_URL + "/1")
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .content("{\"pages\": 320}")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isPreconditionFailed())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.version",
+                        Is.is("The document was changed since it was read")));
+    }
+
+    @Test
+    public void whenUpdateBookWithUnknownIfMatch_thenPreconditionFailed() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.put(BASE_URL + "/1")
+                .header(HttpHeaders.IF_MATCH, "\"abc\", W/\"3\"")
+                .content(new ObjectMapper().writeValueAsString(getMockBook()))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+
+        verify(booksService, never()).update(any(String.class), any(Book.class), anyList());
+    }
+
+    @Test
+    public void whenUpdateBookWithIfMatchList_thenStrongTagsCompared() throws Exception {
+        Book book = getMockBook();
+        book.setVersion(5L);
+
+        doReturn(getMockEntityModel(book)).when(booksService).update(eq("1"), any(Book.class),
+                eq(List.of(2L, 4L)));
+
+        mockMvc.perform(MockMvcRequestBuilders.put(BASE_URL + "/1")
+                .header(HttpHeaders.IF_MATCH, "\"2\", W/\"3\",\"4\"")
+                .content(new ObjectMapper().writeValueAsString(getMockBook()))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"5\""));
+    }
+
+    @Test
+    public void whenUpdateBookWithMalformedIfMatch_thenBadRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.put(BASE_URL + "/1")
+                .header(HttpHeaders.IF_MATCH, "3")
+                .content(new ObjectMapper().writeValueAsString(getMockBook()))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$['If-Match']", Is.is("Malformed entity tag 3")));
+
+        verify(booksService, never()).update(any(String.class), any(Book.class), anyList());
+    }
+
     @Test
     public void whenDeleteBookWithId_thenCorrectResponse() throws Exception {
         doNothing().when(booksService).delete("1");
@@ -190,6 +533,50 @@ public class BooksControllerTest {
                 .andExpect(MockMvcResultMatchers.status().isNoContent());
     }
 
+    @Test
+    public void whenDeleteBooksByIds_thenCountReturned() throws Exception {
+        doReturn(2L).when(booksService).delete(List.of("1", "2"));
+
+        mockMvc.perform(MockMvcRequestBuilders.delete(BASE_URL)
+                .param("ids", "1", "2")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.deleted", Is.is(2)));
+
+        verify(booksService, never()).deleteAll();
+    }
+
+    @Test
+    public void whenDeleteMatchingBooks_thenCountReturned() throws Exception {
+        SearchRequest search = SearchRequest.builder()
+                .filters(List.of(SearchFilter.builder()
+                        .field("id")
+                        .operator(SearchFilter.Operator.IN)
+                        .value(List.of("1", "2", "3"))
+                        .build()))
+                .build();
+
+        doReturn(3L).when(booksService).deleteMatching(search);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + "/delete")
+                .content(new ObjectMapper().writeValueAsString(search))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.deleted", Is.is(3)));
+    }
+
+    @Test
+    public void whenDeleteMatchingBooksWithoutFilters_thenBadRequest() throws Exception {
+        doThrow(new InvalidRequestException("filters", "At least one filter is required"))
+                .when(booksService).deleteMatching(new SearchRequest());
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + "/delete")
+                .content("{}")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.filters", Is.is("At least one filter is required")));
+    }
+
     private Book getMockBook() {
         Author author = Author.builder()
                 .id("1")
@@ -214,7 +601,7 @@ public class BooksControllerTest {
     }
 
     public EntityModel<Book> getMockEntityModel(Book entity) {
-        return EntityModel.of(entity, linkTo(methodOn(BooksController.class).getById(entity.getId())).withSelfRel(),
-                linkTo(methodOn(BooksController.class).getAll()).withRel("v1/books"));
+        return EntityModel.of(entity, linkTo(methodOn(BooksController.class).getById(entity.getId(), null, null)).withSelfRel(),
+                linkTo(methodOn(BooksController.class).getAll(null, null, null, null)).withRel("v1/books"));
     }
 }
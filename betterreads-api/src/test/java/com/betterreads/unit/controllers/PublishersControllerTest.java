@@ -1,11 +1,24 @@
 package com.betterreads.unit.controllers;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 import static org.hamcrest.Matchers.*;
 
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
@@ -15,21 +28,31 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import com.betterreads.controllers.PublishersController;
+import com.betterreads.exceptions.InvalidRequestException;
+import com.betterreads.models.BatchResult;
 import com.betterreads.models.Publisher;
+import com.betterreads.models.SearchExplanation;
+import com.betterreads.models.SearchFilter;
+import com.betterreads.models.SearchRequest;
 import com.betterreads.services.IService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
-@WebMvcTest
+@WebMvcTest(PublishersController.class)
 @AutoConfigureMockMvc
 public class PublishersControllerTest {
 
@@ -53,7 +76,9 @@ public class PublishersControllerTest {
         List<EntityModel<Publisher>> publishers = new ArrayList<>();
         publishers.add(entity);
 
-        doReturn(publishers).when(publishersService).getAll();
+        doReturn(CollectionModel.of(publishers,
+                linkTo(methodOn(PublishersController.class).getAll(null, null, null, null)).withSelfRel()))
+                .when(publishersService).getAll(null, null, 20, null);
 
         mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL)
                 .contentType(MediaType.APPLICATION_JSON))
@@ -63,12 +88,42 @@ public class PublishersControllerTest {
                         MockMvcResultMatchers.jsonPath("$._embedded.publishers[0].name", Is.is(publisher.getName())));
     }
 
+    @Test
+    public void whenGetAllPublishersWithCursor_thenCorrectResponse() throws Exception {
+        doReturn(CollectionModel.empty()).when(publishersService).getAll("2", null, 5, null);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL)
+                .param("after", "2")
+                .param("size", "5")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        verify(publishersService).getAll("2", null, 5, null);
+    }
+
+    @Test
+    public void whenExportPublishers_thenCorrectResponse() throws Exception {
+        doAnswer(invocation -> {
+            invocation.getArgument(0, OutputStream.class).write("{\"_id\": \"1\"}\n".getBytes());
+            return null;
+        }).when(publishersService).export(any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + "/export"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(MockMvcResultMatchers.content().string("{\"_id\": \"1\"}\n"));
+    }
+
     @Test
     public void whenGetPublisherById_thenCorrectResponse() throws Exception {
         Publisher publisher = getMockPublisher();
         EntityModel<Publisher> entity = getMockEntityModel(publisher);
 
-        doReturn(entity).when(publishersService).getById("1");
+        doReturn(entity).when(publishersService).getById("1", null);
 
         mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + "/1")
                 .contentType(MediaType.APPLICATION_JSON))
@@ -78,13 +133,77 @@ public class PublishersControllerTest {
 
     @Test
     public void whenGetPublisherById_notFound_thenCorrectResponse() throws Exception {
-        doReturn(null).when(publishersService).getById("1");
+        doReturn(null).when(publishersService).getById("1", null);
 
         mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + "/1")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(MockMvcResultMatchers.status().isNotFound());
     }
 
+    @Test
+    public void whenGetPublisherById_thenETagOfVersion() throws Exception {
+        Publisher publisher = getMockPublisher();
+        publisher.setVersion(3L);
+
+        doReturn(getMockEntityModel(publisher)).when(publishersService).getById("1", null);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + "/1"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"3\""));
+    }
+
+    @Test
+    public void whenGetPublisherById_withCurrentETag_thenNotModified() throws Exception {
+        Publisher publisher = getMockPublisher();
+        publisher.setVersion(3L);
+
+        doReturn(getMockEntityModel(publisher)).when(publishersService).getById("1", null);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + "/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"2\", W/\"3\""))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(MockMvcResultMatchers.content().string(""));
+    }
+
+    @Test
+    public void whenGetPublisherById_withStaleETag_thenCorrectResponse() throws Exception {
+        Publisher publisher = getMockPublisher();
+        publisher.setVersion(3L);
+
+        doReturn(getMockEntityModel(publisher)).when(publishersService).getById("1", null);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + "/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.version", Is.is(3)));
+    }
+
+    @Test
+    public void whenGetPublisherById_withFields_thenOnlyNamedFields() throws Exception {
+        Publisher publisher = Publisher.builder().id("1").name("McGraw").build();
+
+        doReturn(getMockEntityModel(publisher)).when(publishersService).getById("1", "id,name");
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + "/1")
+                .param("fields", "id,name")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.name", Is.is(publisher.getName())))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.books").doesNotExist());
+    }
+
+    @Test
+    public void whenGetPublisherById_withUnknownField_thenBadRequest() throws Exception {
+        doThrow(new InvalidRequestException("fields", "Unknown field nope")).when(publishersService).getById("1", "nope");
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL + "/1")
+                .param("fields", "nope")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.fields", Is.is("Unknown field nope")));
+    }
+
     @Test
     public void whenSearchPublishers_thenCorrectResponse() throws Exception {
         Publisher publisher = getMockPublisher();
@@ -92,9 +211,15 @@ public class PublishersControllerTest {
         List<EntityModel<Publisher>> publishers = new ArrayList<>();
         publishers.add(entity);
 
-        Publisher search = Publisher.builder().name("pendant").build();
+        SearchRequest search = SearchRequest.builder()
+                .filters(List.of(SearchFilter.builder()
+                        .field("name")
+                        .operator(SearchFilter.Operator.EQ)
+                        .value("pendant")
+                        .build()))
+                .build();
 
-        doReturn(publishers).when(publishersService).search(search);
+        doReturn(publishers).when(publishersService).search(search, null);
 
         String searchJson = new ObjectMapper().writeValueAsString(search);
 
@@ -107,6 +232,43 @@ public class PublishersControllerTest {
                         MockMvcResultMatchers.jsonPath("$._embedded.publishers[0].name", Is.is(publisher.getName())));
     }
 
+    @Test
+    public void whenSearchPublishersWithExplain_thenReturnsPlan() throws Exception {
+        SearchRequest search = SearchRequest.builder().explain(true).build();
+        SearchExplanation explanation = SearchExplanation.builder()
+                .collection("publishers")
+                .indexName("name_1")
+                .stages(List.of("FETCH", "IXSCAN"))
+                .build();
+
+        doReturn(explanation).when(publishersService).explain(search);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + "/search")
+                .content(new ObjectMapper().writeValueAsString(search))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.indexName", Is.is("name_1")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.stages[1]", Is.is("IXSCAN")));
+
+        verify(publishersService, never()).search(any(), any());
+    }
+
+    @Test
+    public void whenSearchPublishersWithUnknownField_thenBadRequest() throws Exception {
+        SearchRequest search = SearchRequest.builder()
+                .filters(List.of(SearchFilter.builder().field("unknown").operator(SearchFilter.Operator.EQ).build()))
+                .build();
+
+        doThrow(new InvalidRequestException("filters[0].field", "Unknown field 'unknown'"))
+                .when(publishersService).search(search, null);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + "/search")
+                .content(new ObjectMapper().writeValueAsString(search))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$['filters[0].field']", Is.is("Unknown field 'unknown'")));
+    }
+
     @Test
     public void whenAddPublisherWithValidRequest_thenCorrectResponse() throws Exception {
         Publisher publisher = getMockPublisher();
@@ -137,6 +299,65 @@ public class PublishersControllerTest {
                 .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON_VALUE));
     }
 
+    @Test
+    public void whenAddAllPublishers_thenCorrectResponse() throws Exception {
+        List<BatchResult> results = Collections.singletonList(
+                BatchResult.builder().index(0).id("1").status(BatchResult.Status.CREATED).build());
+        List<Object> received = new ArrayList<>();
+
+        doAnswer(invocation -> {
+            invocation.<Iterator<?>>getArgument(0).forEachRemaining(received::add);
+            return results;
+        }).when(publishersService).addAll(any());
+
+        String body = new ObjectMapper().writeValueAsString(Arrays.asList(getMockPublisher(), getMockPublisher()));
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + "/batch")
+                .content(body)
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].status", Is.is("CREATED")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id", Is.is("1")));
+
+        assertEquals(2, received.size());
+        assertEquals(getMockPublisher().getId(), ((Publisher) received.get(0)).getId());
+    }
+
+    @Test
+    public void whenAddAllPublishersAsNdjson_thenCorrectResponse() throws Exception {
+        List<Object> received = new ArrayList<>();
+
+        doAnswer(invocation -> {
+            invocation.<Iterator<?>>getArgument(0).forEachRemaining(received::add);
+            return Collections.emptyList();
+        }).when(publishersService).addAll(any());
+
+        ObjectMapper mapper = new ObjectMapper();
+        String body = mapper.writeValueAsString(getMockPublisher()) + "\n" + mapper.writeValueAsString(getMockPublisher()) + "\n";
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + "/batch")
+                .content(body)
+                .contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        assertEquals(2, received.size());
+    }
+
+    @Test
+    public void whenAddAllPublishersWithMalformedBody_thenBadRequest() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<Iterator<?>>getArgument(0).forEachRemaining(item -> {
+            });
+            return Collections.emptyList();
+        }).when(publishersService).addAll(any());
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + "/batch")
+                .content("[{\"id\": \"1\"}, {")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.body", notNullValue()));
+    }
+
     @Test
     public void whenUpdatePublisherWithValidRequest_thenCorrectResponse() throws Exception {
         Publisher publisher = getMockPublisher();
@@ -144,7 +365,7 @@ public class PublishersControllerTest {
 
         EntityModel<Publisher> expected = getMockEntityModel(publisher);
 
-        doReturn(expected).when(publishersService).update("1", publisher);
+        doReturn(expected).when(publishersService).update("1", publisher, null);
 
         mockMvc.perform(MockMvcRequestBuilders.put(BASE_URL + "/1")
                 .content(publisherJson)
@@ -167,6 +388,73 @@ public class PublishersControllerTest {
                 .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON_VALUE));
     }
 
+    @Test
+    public void whenPatchPublisher_thenCorrectResponse() throws Exception {
+        Publisher publisher = getMockPublisher();
+
+        doReturn(getMockEntityModel(publisher)).when(publishersService).patch(eq("1"), any(JsonNode.class), isNull());
+
+        mockMvc.perform(MockMvcRequestBuilders.patch(BASE_URL + "/1")
+                .content("{\"name\": \"Penguin\"}")
+                .contentType("application/merge-patch+json"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MEDIA_TYPE_APPLICATION_HAL_JSON));
+
+        verify(publishersService).patch("1", new ObjectMapper().readTree("{\"name\": \"Penguin\"}"), null);
+    }
+
+    @Test
+    public void whenPatchPublisherWithUnknownField_thenBadRequest() throws Exception {
+        doThrow(new InvalidRequestException("nope", "Unknown field nope")).when(publishersService).patch(eq("1"),
+                any(JsonNode.class), isNull());
+
+        mockMvc.perform(MockMvcRequestBuilders.patch(BASE_URL + "/1")
+                .content("{\"nope\": 1}")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nope", Is.is("Unknown field nope")));
+    }
+
+    @Test
+    public void whenPatchPublisherWithIfMatch_thenVersionChecked() throws Exception {
+        Publisher publisher = getMockPublisher();
+        publisher.setVersion(4L);
+
+        doReturn(getMockEntityModel(publisher)).when(publishersService).patch(eq("1"), any(JsonNode.class), eq(List.of(3L)));
+
+        mockMvc.perform(MockMvcRequestBuilders.patch(BASE_URL + "/1")
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .content("{\"name\": \"Penguin\"}")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"4\""));
+    }
+
+    @Test
+    public void whenPatchStalePublisher_thenPreconditionFailed() throws Exception {
+        doThrow(new OptimisticLockingFailureException("stale")).when(publishersService).patch(eq("1"), any(JsonNode.class),
+                eq(List.of(3L)));
+
+        mockMvc.perform(MockMvcRequestBuilders.patch(BASE_URL + "/1")
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .content("{\"name\": \"Penguin\"}")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isPreconditionFailed())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.version",
+                        Is.is("The document was changed since it was read")));
+    }
+
+    @Test
+    public void whenUpdatePublisherWithUnknownIfMatch_thenPreconditionFailed() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.put(BASE_URL + "/1")
+                .header(HttpHeaders.IF_MATCH, "\"abc\", W/\"3\"")
+                .content(new ObjectMapper().writeValueAsString(getMockPublisher()))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+
+        verify(publishersService, never()).update(any(String.class), any(Publisher.class), anyList());
+    }
+
     @Test
     public void whenDeletePublisherWithId_thenCorrectResponse() throws Exception {
         doNothing().when(publishersService).delete("1");
@@ -185,6 +473,50 @@ public class PublishersControllerTest {
                 .andExpect(MockMvcResultMatchers.status().isNoContent());
     }
 
+    @Test
+    public void whenDeletePublishersByIds_thenCountReturned() throws Exception {
+        doReturn(2L).when(publishersService).delete(List.of("1", "2"));
+
+        mockMvc.perform(MockMvcRequestBuilders.delete(BASE_URL)
+                .param("ids", "1", "2")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.deleted", Is.is(2)));
+
+        verify(publishersService, never()).deleteAll();
+    }
+
+    @Test
+    public void whenDeleteMatchingPublishers_thenCountReturned() throws Exception {
+        SearchRequest search = SearchRequest.builder()
+                .filters(List.of(SearchFilter.builder()
+                        .field("id")
+                        .operator(SearchFilter.Operator.IN)
+                        .value(List.of("1", "2", "3"))
+                        .build()))
+                .build();
+
+        doReturn(3L).when(publishersService).deleteMatching(search);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + "/delete")
+                .content(new ObjectMapper().writeValueAsString(search))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.deleted", Is.is(3)));
+    }
+
+    @Test
+    public void whenDeleteMatchingPublishersWithoutFilters_thenBadRequest() throws Exception {
+        doThrow(new InvalidRequestException("filters", "At least one filter is required"))
+                .when(publishersService).deleteMatching(new SearchRequest());
+
+        mockMvc.perform(MockMvcRequestBuilders.post(BASE_URL + "/delete")
+                .content("{}")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.filters", Is.is("At least one filter is required")));
+    }
+
     private Publisher getMockPublisher() {
 
         return Publisher.builder()
@@ -195,7 +527,7 @@ public class PublishersControllerTest {
 
     public EntityModel<Publisher> getMockEntityModel(Publisher entity) {
         return EntityModel.of(entity,
-                linkTo(methodOn(PublishersController.class).getById(entity.getId())).withSelfRel(),
-                linkTo(methodOn(PublishersController.class).getAll()).withRel("v1/publishers"));
+                linkTo(methodOn(PublishersController.class).getById(entity.getId(), null, null)).withSelfRel(),
+                linkTo(methodOn(PublishersController.class).getAll(null, null, null, null)).withRel("v1/publishers"));
     }
 }
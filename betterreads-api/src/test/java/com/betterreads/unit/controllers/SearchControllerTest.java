@@ -0,0 +1,83 @@
+package com.betterreads.unit.controllers;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+
+import org.hamcrest.core.Is;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.betterreads.controllers.SearchController;
+import com.betterreads.exceptions.InvalidRequestException;
+import com.betterreads.models.BookSummary;
+import com.betterreads.services.TextSearchService;
+
+@WebMvcTest(SearchController.class)
+@AutoConfigureMockMvc
+public class SearchControllerTest {
+
+    private static final String BASE_URL = "/v1/search";
+
+    @MockBean
+    private TextSearchService textSearchService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void whenSearch_thenCorrectResponse() throws Exception {
+        BookSummary summary = BookSummary.builder()
+                .id("1")
+                .title("The Hobbit")
+                .authorNames(List.of("Tolkien, John Ronald Reuel"))
+                .score(7.5F)
+                .build();
+
+        doReturn(CollectionModel.of(List.of(EntityModel.of(summary))))
+                .when(textSearchService).search("tolkien hobbit", 0, 20);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL)
+                .param("q", "tolkien hobbit")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$._embedded.bookSummaries[0].title", Is.is("The Hobbit")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$._embedded.bookSummaries[0].score", Is.is(7.5)));
+    }
+
+    @Test
+    public void whenSearchWithPage_thenCorrectResponse() throws Exception {
+        doReturn(CollectionModel.empty()).when(textSearchService).search("hobbit", 2, 5);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL)
+                .param("q", "hobbit")
+                .param("page", "2")
+                .param("size", "5")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        verify(textSearchService).search("hobbit", 2, 5);
+    }
+
+    @Test
+    public void whenSearchWithoutText_thenBadRequest() throws Exception {
+        doThrow(new InvalidRequestException("q", "Search text is required"))
+                .when(textSearchService).search(null, 0, 20);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(BASE_URL)
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.q", Is.is("Search text is required")));
+    }
+}
@@ -0,0 +1,295 @@
+package com.betterreads.unit.controllers.reactive;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.hateoas.HypermediaAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.betterreads.controllers.reactive.ReactiveAuthorsController;
+import com.betterreads.exceptions.InvalidRequestException;
+import com.betterreads.exceptions.ItemNotFoundException;
+import com.betterreads.models.Author;
+import com.betterreads.models.BatchResult;
+import com.betterreads.models.SearchExplanation;
+import com.betterreads.models.SearchRequest;
+import com.betterreads.services.reactive.IReactiveService;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@WebFluxTest(ReactiveAuthorsController.class)
+@ImportAutoConfiguration(HypermediaAutoConfiguration.class)
+@ActiveProfiles("reactive")
+public class ReactiveAuthorsControllerTest {
+
+    private static final String BASE_URL = "/v1/authors";
+
+    @MockBean
+    private IReactiveService reactiveAuthorsService;
+
+    @Autowired
+    private WebTestClient client;
+
+    @Test
+    public void whenGetAllAuthors_thenCorrectResponse() {
+        Author author = getMockAuthor();
+
+        doReturn(Mono.just(CollectionModel.of(List.of(EntityModel.of(author)), Link.of(BASE_URL))))
+                .when(reactiveAuthorsService).getAll(null, null, 20, null);
+
+        client.get().uri(BASE_URL).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$._embedded.authors[0].lastName").isEqualTo(author.getLastName())
+                .jsonPath("$._links.self.href").isEqualTo(BASE_URL);
+    }
+
+    @Test
+    public void whenGetAllAuthorsWithCursor_thenCorrectResponse() {
+        doReturn(Mono.just(CollectionModel.empty())).when(reactiveAuthorsService).getAll("2", null, 5, "lastName");
+
+        client.get().uri(BASE_URL + "?after=2&size=5&fields=lastName").exchange()
+                .expectStatus().isOk();
+
+        verify(reactiveAuthorsService).getAll("2", null, 5, "lastName");
+    }
+
+    @Test
+    public void whenExportAuthors_thenCorrectResponse() {
+        doReturn(Flux.just(DefaultDataBufferFactory.sharedInstance
+                .wrap("{\"_id\": \"1\"}\n".getBytes(StandardCharsets.UTF_8))))
+                .when(reactiveAuthorsService).export();
+
+        client.get().uri(BASE_URL + "/export").exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class).isEqualTo("{\"_id\": \"1\"}\n");
+    }
+
+    @Test
+    public void whenGetAuthorById_thenCorrectResponse() {
+        Author author = getMockAuthor();
+
+        doReturn(Mono.just(EntityModel.of(author))).when(reactiveAuthorsService).getById("1", null);
+
+        client.get().uri(BASE_URL + "/1").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.lastName").isEqualTo(author.getLastName());
+    }
+
+    @Test
+    public void whenGetAuthorById_notFound_thenCorrectResponse() {
+        doReturn(Mono.error(new ItemNotFoundException("1"))).when(reactiveAuthorsService).getById("1", null);
+
+        client.get().uri(BASE_URL + "/1").exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void whenGetAuthorById_withCurrentETag_thenNotModified() {
+        Author author = getMockAuthor();
+        author.setVersion(3L);
+
+        doReturn(Mono.just(EntityModel.of(author))).when(reactiveAuthorsService).getById("1", null);
+
+        client.get().uri(BASE_URL + "/1").header(HttpHeaders.IF_NONE_MATCH, "\"3\"").exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3\"");
+    }
+
+    @Test
+    public void whenGetAuthorById_withUnknownField_thenBadRequest() {
+        doReturn(Mono.error(new InvalidRequestException("fields", "Unknown field nope")))
+                .when(reactiveAuthorsService).getById("1", "nope");
+
+        client.get().uri(BASE_URL + "/1?fields=nope").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.fields").isEqualTo("Unknown field nope");
+    }
+
+    @Test
+    public void whenSearchAuthors_thenCorrectResponse() {
+        Author author = getMockAuthor();
+
+        doReturn(Flux.just(EntityModel.of(author))).when(reactiveAuthorsService).search(any(SearchRequest.class), isNull());
+
+        client.post().uri(BASE_URL + "/search").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"filters\": []}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$._embedded.authors[0].lastName").isEqualTo(author.getLastName())
+                .jsonPath("$._links.self.href").value(href -> href.toString().endsWith(BASE_URL + "/search"));
+    }
+
+    @Test
+    public void whenSearchAuthorsWithExplain_thenReturnsPlan() {
+        doReturn(Mono.just(SearchExplanation.builder().indexName("lastName_1").build()))
+                .when(reactiveAuthorsService).explain(any(SearchRequest.class));
+
+        client.post().uri(BASE_URL + "/search").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"explain\": true}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.indexName").isEqualTo("lastName_1");
+
+        verify(reactiveAuthorsService, never()).search(any(), any());
+    }
+
+    @Test
+    public void whenAddAuthorWithValidRequest_thenCorrectResponse() {
+        Author author = getMockAuthor();
+
+        doReturn(Mono.just(EntityModel.of(author, Link.of("/v1/authors/1"))))
+                .when(reactiveAuthorsService).add(any(Author.class));
+
+        client.post().uri(BASE_URL).contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"firstName\": \"George\", \"lastName\": \"Bluth\"}")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().location("/v1/authors/1");
+    }
+
+    @Test
+    public void whenAddAuthorWithInvalidRequest_thenCorrectResponse() {
+        client.post().uri(BASE_URL).contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.lastName").isEqualTo("Last Name is required");
+
+        verify(reactiveAuthorsService, never()).add(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void whenAddAllAuthorsAsNdjson_thenCorrectResponse() {
+        List<BatchResult> results = List.of(
+                BatchResult.builder().index(0).id("1").status(BatchResult.Status.CREATED).build(),
+                BatchResult.builder().index(1).id("2").status(BatchResult.Status.CREATED).build());
+        ArgumentCaptor<Flux<Author>> authors = ArgumentCaptor.forClass(Flux.class);
+
+        doReturn(Mono.just(results)).when(reactiveAuthorsService).addAll(authors.capture());
+
+        client.post().uri(BASE_URL + "/batch").contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue("{\"lastName\": \"First\"}\n{\"lastName\": \"Second\"}\n")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[1].id").isEqualTo("2");
+
+        StepVerifier.create(authors.getValue().map(Author::getLastName))
+                .expectNext("First", "Second")
+                .verifyComplete();
+    }
+
+    @Test
+    public void whenUpdateAuthorWithValidRequest_thenCorrectResponse() {
+        Author author = getMockAuthor();
+
+        doReturn(Mono.just(EntityModel.of(author, Link.of("/v1/authors/1"))))
+                .when(reactiveAuthorsService).update(any(String.class), any(Author.class), isNull());
+
+        client.put().uri(BASE_URL + "/1").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"firstName\": \"George\", \"lastName\": \"Bluth\"}")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.lastName").isEqualTo(author.getLastName());
+    }
+
+    @Test
+    public void whenPatchAuthor_thenCorrectResponse() {
+        Author author = getMockAuthor();
+
+        doReturn(Mono.just(EntityModel.of(author))).when(reactiveAuthorsService).patch(eq("1"), any(JsonNode.class),
+                isNull());
+
+        client.patch().uri(BASE_URL + "/1").contentType(MediaType.parseMediaType("application/merge-patch+json"))
+                .bodyValue("{\"lastName\": \"Funke\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.lastName").isEqualTo(author.getLastName());
+    }
+
+    @Test
+    public void whenPatchAuthor_notFound_thenCorrectResponse() {
+        doReturn(Mono.error(new ItemNotFoundException("1"))).when(reactiveAuthorsService).patch(eq("1"),
+                any(JsonNode.class), isNull());
+
+        client.patch().uri(BASE_URL + "/1").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"lastName\": \"Funke\"}")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void whenPatchStaleAuthor_thenPreconditionFailed() {
+        doReturn(Mono.error(new OptimisticLockingFailureException("stale"))).when(reactiveAuthorsService).patch(eq("1"),
+                any(JsonNode.class), eq(List.of(3L)));
+
+        client.patch().uri(BASE_URL + "/1").contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .bodyValue("{\"lastName\": \"Funke\"}")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    public void whenDeleteAuthorWithId_thenCorrectResponse() {
+        doReturn(Mono.empty()).when(reactiveAuthorsService).delete("1");
+
+        client.delete().uri(BASE_URL + "/1").exchange()
+                .expectStatus().isNoContent();
+
+        verify(reactiveAuthorsService).delete("1");
+    }
+
+    @Test
+    public void whenDeleteAllAuthors_thenCorrectResponse() {
+        doReturn(Mono.empty()).when(reactiveAuthorsService).deleteAll();
+
+        client.delete().uri(BASE_URL).exchange()
+                .expectStatus().isNoContent();
+
+        verify(reactiveAuthorsService).deleteAll();
+    }
+
+    private Author getMockAuthor() {
+        return Author.builder()
+                .id("1")
+                .firstName("George")
+                .lastName("Bluth")
+                .build();
+    }
+}
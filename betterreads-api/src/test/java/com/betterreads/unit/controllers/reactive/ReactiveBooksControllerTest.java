@@ -0,0 +1,297 @@
+package com.betterreads.unit.controllers.reactive;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.hateoas.HypermediaAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.betterreads.controllers.reactive.ReactiveBooksController;
+import com.betterreads.exceptions.InvalidRequestException;
+import com.betterreads.exceptions.ItemNotFoundException;
+import com.betterreads.models.BatchResult;
+import com.betterreads.models.Book;
+import com.betterreads.models.SearchExplanation;
+import com.betterreads.models.SearchRequest;
+import com.betterreads.services.reactive.IReactiveService;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@WebFluxTest(ReactiveBooksController.class)
+@ImportAutoConfiguration(HypermediaAutoConfiguration.class)
+@ActiveProfiles("reactive")
+public class ReactiveBooksControllerTest {
+
+    private static final String BASE_URL = "/v1/books";
+
+    @MockBean
+    private IReactiveService reactiveBooksService;
+
+    @Autowired
+    private WebTestClient client;
+
+    @Test
+    public void whenGetAllBooks_thenCorrectResponse() {
+        Book book = getMockBook();
+
+        doReturn(Mono.just(CollectionModel.of(List.of(EntityModel.of(book)), Link.of(BASE_URL))))
+                .when(reactiveBooksService).getAll(null, null, 20, null);
+
+        client.get().uri(BASE_URL).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$._embedded.books[0].title").isEqualTo(book.getTitle())
+                .jsonPath("$._links.self.href").isEqualTo(BASE_URL);
+    }
+
+    @Test
+    public void whenGetAllBooksWithCursor_thenCorrectResponse() {
+        doReturn(Mono.just(CollectionModel.empty())).when(reactiveBooksService).getAll("2", null, 5, "title");
+
+        client.get().uri(BASE_URL + "?after=2&size=5&fields=title").exchange()
+                .expectStatus().isOk();
+
+        verify(reactiveBooksService).getAll("2", null, 5, "title");
+    }
+
+    @Test
+    public void whenExportBooks_thenCorrectResponse() {
+        doReturn(Flux.just(DefaultDataBufferFactory.sharedInstance
+                .wrap("{\"_id\": \"1\"}\n".getBytes(StandardCharsets.UTF_8))))
+                .when(reactiveBooksService).export();
+
+        client.get().uri(BASE_URL + "/export").exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class).isEqualTo("{\"_id\": \"1\"}\n");
+    }
+
+    @Test
+    public void whenGetBookById_thenCorrectResponse() {
+        Book book = getMockBook();
+
+        doReturn(Mono.just(EntityModel.of(book))).when(reactiveBooksService).getById("1", null);
+
+        client.get().uri(BASE_URL + "/1").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.title").isEqualTo(book.getTitle());
+    }
+
+    @Test
+    public void whenGetBookById_notFound_thenCorrectResponse() {
+        doReturn(Mono.error(new ItemNotFoundException("1"))).when(reactiveBooksService).getById("1", null);
+
+        client.get().uri(BASE_URL + "/1").exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void whenGetBookById_withCurrentETag_thenNotModified() {
+        Book book = getMockBook();
+        book.setVersion(3L);
+
+        doReturn(Mono.just(EntityModel.of(book))).when(reactiveBooksService).getById("1", null);
+
+        client.get().uri(BASE_URL + "/1").header(HttpHeaders.IF_NONE_MATCH, "\"3\"").exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3\"");
+    }
+
+    @Test
+    public void whenGetBookById_withUnknownField_thenBadRequest() {
+        doReturn(Mono.error(new InvalidRequestException("fields", "Unknown field nope")))
+                .when(reactiveBooksService).getById("1", "nope");
+
+        client.get().uri(BASE_URL + "/1?fields=nope").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.fields").isEqualTo("Unknown field nope");
+    }
+
+    @Test
+    public void whenSearchBooks_thenCorrectResponse() {
+        Book book = getMockBook();
+
+        doReturn(Flux.just(EntityModel.of(book))).when(reactiveBooksService).search(any(SearchRequest.class), isNull());
+
+        client.post().uri(BASE_URL + "/search").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"filters\": []}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$._embedded.books[0].title").isEqualTo(book.getTitle())
+                .jsonPath("$._links.self.href").value(href -> href.toString().endsWith(BASE_URL + "/search"));
+    }
+
+    @Test
+    public void whenSearchBooksWithExplain_thenReturnsPlan() {
+        doReturn(Mono.just(SearchExplanation.builder().indexName("title_1").build()))
+                .when(reactiveBooksService).explain(any(SearchRequest.class));
+
+        client.post().uri(BASE_URL + "/search").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"explain\": true}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.indexName").isEqualTo("title_1");
+
+        verify(reactiveBooksService, never()).search(any(), any());
+    }
+
+    @Test
+    public void whenAddBookWithValidRequest_thenCorrectResponse() {
+        Book book = getMockBook();
+
+        doReturn(Mono.just(EntityModel.of(book, Link.of("/v1/books/1"))))
+                .when(reactiveBooksService).add(any(Book.class));
+
+        client.post().uri(BASE_URL).contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"isbn\": \"000-5555523\", \"title\": \"My Awesome Book\"}")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().location("/v1/books/1");
+    }
+
+    @Test
+    public void whenAddBookWithInvalidRequest_thenCorrectResponse() {
+        client.post().uri(BASE_URL).contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.isbn").isEqualTo("ISBN is required")
+                .jsonPath("$.title").isEqualTo("Title is required");
+
+        verify(reactiveBooksService, never()).add(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void whenAddAllBooksAsNdjson_thenCorrectResponse() {
+        List<BatchResult> results = List.of(
+                BatchResult.builder().index(0).id("1").status(BatchResult.Status.CREATED).build(),
+                BatchResult.builder().index(1).id("2").status(BatchResult.Status.CREATED).build());
+        ArgumentCaptor<Flux<Book>> books = ArgumentCaptor.forClass(Flux.class);
+
+        doReturn(Mono.just(results)).when(reactiveBooksService).addAll(books.capture());
+
+        client.post().uri(BASE_URL + "/batch").contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue("{\"title\": \"First\"}\n{\"title\": \"Second\"}\n")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[1].id").isEqualTo("2");
+
+        StepVerifier.create(books.getValue().map(Book::getTitle))
+                .expectNext("First", "Second")
+                .verifyComplete();
+    }
+
+    @Test
+    public void whenUpdateBookWithValidRequest_thenCorrectResponse() {
+        Book book = getMockBook();
+
+        doReturn(Mono.just(EntityModel.of(book, Link.of("/v1/books/1"))))
+                .when(reactiveBooksService).update(any(String.class), any(Book.class), isNull());
+
+        client.put().uri(BASE_URL + "/1").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"isbn\": \"000-5555523\", \"title\": \"My Awesome Book\"}")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.title").isEqualTo(book.getTitle());
+    }
+
+    @Test
+    public void whenPatchBook_thenCorrectResponse() {
+        Book book = getMockBook();
+
+        doReturn(Mono.just(EntityModel.of(book))).when(reactiveBooksService).patch(eq("1"), any(JsonNode.class),
+                isNull());
+
+        client.patch().uri(BASE_URL + "/1").contentType(MediaType.parseMediaType("application/merge-patch+json"))
+                .bodyValue("{\"pages\": 320}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.pages").isEqualTo(book.getPages());
+    }
+
+    @Test
+    public void whenPatchBook_notFound_thenCorrectResponse() {
+        doReturn(Mono.error(new ItemNotFoundException("1"))).when(reactiveBooksService).patch(eq("1"),
+                any(JsonNode.class), isNull());
+
+        client.patch().uri(BASE_URL + "/1").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"pages\": 320}")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void whenPatchStaleBook_thenPreconditionFailed() {
+        doReturn(Mono.error(new OptimisticLockingFailureException("stale"))).when(reactiveBooksService).patch(eq("1"),
+                any(JsonNode.class), eq(List.of(3L)));
+
+        client.patch().uri(BASE_URL + "/1").contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .bodyValue("{\"pages\": 320}")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    public void whenDeleteBookWithId_thenCorrectResponse() {
+        doReturn(Mono.empty()).when(reactiveBooksService).delete("1");
+
+        client.delete().uri(BASE_URL + "/1").exchange()
+                .expectStatus().isNoContent();
+
+        verify(reactiveBooksService).delete("1");
+    }
+
+    @Test
+    public void whenDeleteAllBooks_thenCorrectResponse() {
+        doReturn(Mono.empty()).when(reactiveBooksService).deleteAll();
+
+        client.delete().uri(BASE_URL).exchange()
+                .expectStatus().isNoContent();
+
+        verify(reactiveBooksService).deleteAll();
+    }
+
+    private Book getMockBook() {
+        return Book.builder()
+                .id("1")
+                .isbn("000-5555523")
+                .title("My Awesome Book")
+                .pages(351)
+                .build();
+    }
+}
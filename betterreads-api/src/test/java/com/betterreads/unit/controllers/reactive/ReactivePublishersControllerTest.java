@@ -0,0 +1,294 @@
+package com.betterreads.unit.controllers.reactive;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.hateoas.HypermediaAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.betterreads.controllers.reactive.ReactivePublishersController;
+import com.betterreads.exceptions.InvalidRequestException;
+import com.betterreads.exceptions.ItemNotFoundException;
+import com.betterreads.models.BatchResult;
+import com.betterreads.models.Publisher;
+import com.betterreads.models.SearchExplanation;
+import com.betterreads.models.SearchRequest;
+import com.betterreads.services.reactive.IReactiveService;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@WebFluxTest(ReactivePublishersController.class)
+@ImportAutoConfiguration(HypermediaAutoConfiguration.class)
+@ActiveProfiles("reactive")
+public class ReactivePublishersControllerTest {
+
+    private static final String BASE_URL = "/v1/publishers";
+
+    @MockBean
+    private IReactiveService reactivePublishersService;
+
+    @Autowired
+    private WebTestClient client;
+
+    @Test
+    public void whenGetAllPublishers_thenCorrectResponse() {
+        Publisher publisher = getMockPublisher();
+
+        doReturn(Mono.just(CollectionModel.of(List.of(EntityModel.of(publisher)), Link.of(BASE_URL))))
+                .when(reactivePublishersService).getAll(null, null, 20, null);
+
+        client.get().uri(BASE_URL).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$._embedded.publishers[0].name").isEqualTo(publisher.getName())
+                .jsonPath("$._links.self.href").isEqualTo(BASE_URL);
+    }
+
+    @Test
+    public void whenGetAllPublishersWithCursor_thenCorrectResponse() {
+        doReturn(Mono.just(CollectionModel.empty())).when(reactivePublishersService).getAll("2", null, 5, "name");
+
+        client.get().uri(BASE_URL + "?after=2&size=5&fields=name").exchange()
+                .expectStatus().isOk();
+
+        verify(reactivePublishersService).getAll("2", null, 5, "name");
+    }
+
+    @Test
+    public void whenExportPublishers_thenCorrectResponse() {
+        doReturn(Flux.just(DefaultDataBufferFactory.sharedInstance
+                .wrap("{\"_id\": \"1\"}\n".getBytes(StandardCharsets.UTF_8))))
+                .when(reactivePublishersService).export();
+
+        client.get().uri(BASE_URL + "/export").exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class).isEqualTo("{\"_id\": \"1\"}\n");
+    }
+
+    @Test
+    public void whenGetPublisherById_thenCorrectResponse() {
+        Publisher publisher = getMockPublisher();
+
+        doReturn(Mono.just(EntityModel.of(publisher))).when(reactivePublishersService).getById("1", null);
+
+        client.get().uri(BASE_URL + "/1").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo(publisher.getName());
+    }
+
+    @Test
+    public void whenGetPublisherById_notFound_thenCorrectResponse() {
+        doReturn(Mono.error(new ItemNotFoundException("1"))).when(reactivePublishersService).getById("1", null);
+
+        client.get().uri(BASE_URL + "/1").exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void whenGetPublisherById_withCurrentETag_thenNotModified() {
+        Publisher publisher = getMockPublisher();
+        publisher.setVersion(3L);
+
+        doReturn(Mono.just(EntityModel.of(publisher))).when(reactivePublishersService).getById("1", null);
+
+        client.get().uri(BASE_URL + "/1").header(HttpHeaders.IF_NONE_MATCH, "\"3\"").exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3\"");
+    }
+
+    @Test
+    public void whenGetPublisherById_withUnknownField_thenBadRequest() {
+        doReturn(Mono.error(new InvalidRequestException("fields", "Unknown field nope")))
+                .when(reactivePublishersService).getById("1", "nope");
+
+        client.get().uri(BASE_URL + "/1?fields=nope").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.fields").isEqualTo("Unknown field nope");
+    }
+
+    @Test
+    public void whenSearchPublishers_thenCorrectResponse() {
+        Publisher publisher = getMockPublisher();
+
+        doReturn(Flux.just(EntityModel.of(publisher))).when(reactivePublishersService).search(any(SearchRequest.class), isNull());
+
+        client.post().uri(BASE_URL + "/search").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"filters\": []}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$._embedded.publishers[0].name").isEqualTo(publisher.getName())
+                .jsonPath("$._links.self.href").value(href -> href.toString().endsWith(BASE_URL + "/search"));
+    }
+
+    @Test
+    public void whenSearchPublishersWithExplain_thenReturnsPlan() {
+        doReturn(Mono.just(SearchExplanation.builder().indexName("name_1").build()))
+                .when(reactivePublishersService).explain(any(SearchRequest.class));
+
+        client.post().uri(BASE_URL + "/search").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"explain\": true}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.indexName").isEqualTo("name_1");
+
+        verify(reactivePublishersService, never()).search(any(), any());
+    }
+
+    @Test
+    public void whenAddPublisherWithValidRequest_thenCorrectResponse() {
+        Publisher publisher = getMockPublisher();
+
+        doReturn(Mono.just(EntityModel.of(publisher, Link.of("/v1/publishers/1"))))
+                .when(reactivePublishersService).add(any(Publisher.class));
+
+        client.post().uri(BASE_URL).contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\": \"McGraw\"}")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().location("/v1/publishers/1");
+    }
+
+    @Test
+    public void whenAddPublisherWithInvalidRequest_thenCorrectResponse() {
+        client.post().uri(BASE_URL).contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Name is required");
+
+        verify(reactivePublishersService, never()).add(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void whenAddAllPublishersAsNdjson_thenCorrectResponse() {
+        List<BatchResult> results = List.of(
+                BatchResult.builder().index(0).id("1").status(BatchResult.Status.CREATED).build(),
+                BatchResult.builder().index(1).id("2").status(BatchResult.Status.CREATED).build());
+        ArgumentCaptor<Flux<Publisher>> publishers = ArgumentCaptor.forClass(Flux.class);
+
+        doReturn(Mono.just(results)).when(reactivePublishersService).addAll(publishers.capture());
+
+        client.post().uri(BASE_URL + "/batch").contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue("{\"name\": \"First\"}\n{\"name\": \"Second\"}\n")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[1].id").isEqualTo("2");
+
+        StepVerifier.create(publishers.getValue().map(Publisher::getName))
+                .expectNext("First", "Second")
+                .verifyComplete();
+    }
+
+    @Test
+    public void whenUpdatePublisherWithValidRequest_thenCorrectResponse() {
+        Publisher publisher = getMockPublisher();
+
+        doReturn(Mono.just(EntityModel.of(publisher, Link.of("/v1/publishers/1"))))
+                .when(reactivePublishersService).update(any(String.class), any(Publisher.class), isNull());
+
+        client.put().uri(BASE_URL + "/1").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\": \"McGraw\"}")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo(publisher.getName());
+    }
+
+    @Test
+    public void whenPatchPublisher_thenCorrectResponse() {
+        Publisher publisher = getMockPublisher();
+
+        doReturn(Mono.just(EntityModel.of(publisher))).when(reactivePublishersService).patch(eq("1"), any(JsonNode.class),
+                isNull());
+
+        client.patch().uri(BASE_URL + "/1").contentType(MediaType.parseMediaType("application/merge-patch+json"))
+                .bodyValue("{\"name\": \"Penguin\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo(publisher.getName());
+    }
+
+    @Test
+    public void whenPatchPublisher_notFound_thenCorrectResponse() {
+        doReturn(Mono.error(new ItemNotFoundException("1"))).when(reactivePublishersService).patch(eq("1"),
+                any(JsonNode.class), isNull());
+
+        client.patch().uri(BASE_URL + "/1").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\": \"Penguin\"}")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void whenPatchStalePublisher_thenPreconditionFailed() {
+        doReturn(Mono.error(new OptimisticLockingFailureException("stale"))).when(reactivePublishersService).patch(eq("1"),
+                any(JsonNode.class), eq(List.of(3L)));
+
+        client.patch().uri(BASE_URL + "/1").contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .bodyValue("{\"name\": \"Penguin\"}")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    public void whenDeletePublisherWithId_thenCorrectResponse() {
+        doReturn(Mono.empty()).when(reactivePublishersService).delete("1");
+
+        client.delete().uri(BASE_URL + "/1").exchange()
+                .expectStatus().isNoContent();
+
+        verify(reactivePublishersService).delete("1");
+    }
+
+    @Test
+    public void whenDeleteAllPublishers_thenCorrectResponse() {
+        doReturn(Mono.empty()).when(reactivePublishersService).deleteAll();
+
+        client.delete().uri(BASE_URL).exchange()
+                .expectStatus().isNoContent();
+
+        verify(reactivePublishersService).deleteAll();
+    }
+
+    private Publisher getMockPublisher() {
+        return Publisher.builder()
+                .id("1")
+                .name("McGraw")
+                .build();
+    }
+}
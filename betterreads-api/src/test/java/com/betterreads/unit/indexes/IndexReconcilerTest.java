@@ -0,0 +1,207 @@
+package com.betterreads.unit.indexes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition;
+
+import com.betterreads.indexes.IndexCatalog;
+import com.betterreads.indexes.IndexReconciler;
+import com.betterreads.models.Author;
+import com.betterreads.models.Book;
+import com.betterreads.models.BookSummary;
+import com.betterreads.models.IndexDrift;
+import com.betterreads.models.Publisher;
+import com.betterreads.queries.Collations;
+import com.mongodb.client.ListIndexesIterable;
+import com.mongodb.client.MongoCollection;
+
+public class IndexReconcilerTest {
+
+    private static final IndexDefinition TITLE = new Index().on("title", Sort.Direction.ASC).named("title_ci")
+            .collation(Collations.CASE_INSENSITIVE);
+
+    private static final IndexDefinition ISBN = new Index().on("isbn", Sort.Direction.ASC).named("isbn_ci").unique();
+
+    private static final IndexDefinition TEXT = TextIndexDefinition.builder().named("summary_text")
+            .onField("title", 10F).onField("genres").build();
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private MongoCollection<Document> collection;
+
+    @Mock
+    private ListIndexesIterable<Document> listIndexes;
+
+    @Mock
+    private IndexOperations indexOps;
+
+    @InjectMocks
+    private IndexReconciler reconciler;
+
+    @BeforeEach
+    public void setupTests() {
+        MockitoAnnotations.openMocks(this);
+
+        when(mongoTemplate.getCollectionName(Book.class)).thenReturn("books");
+        when(mongoTemplate.getCollection("books")).thenReturn(collection);
+        when(mongoTemplate.indexOps(Book.class)).thenReturn(indexOps);
+        when(collection.listIndexes()).thenReturn(listIndexes);
+    }
+
+    @Test
+    public void whenIndexesMatch_thenNoDrift() {
+        live(index("_id_", new Document("_id", 1)),
+                index("title_ci", new Document("title", 1.0)).append("collation",
+                        new Document("locale", "en").append("strength", 2).append("caseLevel", false)),
+                index("isbn_ci", new Document("isbn", 1)).append("unique", true));
+
+        List<IndexDrift> drift = reconciler.reconcile(Map.of(Book.class, List.of(TITLE, ISBN)));
+
+        assertTrue(drift.isEmpty());
+        verify(indexOps, never()).ensureIndex(any());
+    }
+
+    @Test
+    public void whenIndexMissing_thenCreated() {
+        live(index("_id_", new Document("_id", 1)));
+
+        List<IndexDrift> drift = reconciler.reconcile(Map.of(Book.class, List.of(TITLE)));
+
+        assertEquals(1, drift.size());
+        assertEquals(IndexDrift.Kind.CREATED, drift.get(0).getKind());
+        assertEquals("books", drift.get(0).getCollection());
+        assertEquals("title_ci", drift.get(0).getIndex());
+        assertEquals("{\"title\": 1} collation en/2", drift.get(0).getDetail());
+        verify(indexOps).ensureIndex(TITLE);
+    }
+
+    @Test
+    public void whenIndexCannotBeCreated_thenFailed() {
+        live();
+        doThrow(new DuplicateKeyException("E11000 duplicate key")).when(indexOps).ensureIndex(ISBN);
+
+        List<IndexDrift> drift = reconciler.reconcile(Map.of(Book.class, List.of(ISBN)));
+
+        assertEquals(IndexDrift.Kind.FAILED, drift.get(0).getKind());
+        assertEquals("{\"isbn\": 1} unique: E11000 duplicate key", drift.get(0).getDetail());
+    }
+
+    @Test
+    public void whenIndexDiffers_thenConflicting() {
+        live(index("title_ci", new Document("title", 1)),
+                index("isbn_ci", new Document("isbn", -1)).append("unique", true));
+
+        List<IndexDrift> drift = reconciler.reconcile(Map.of(Book.class, List.of(TITLE, ISBN)));
+
+        assertEquals(2, drift.size());
+        assertEquals(IndexDrift.Kind.CONFLICTING, drift.get(0).getKind());
+        assertEquals("declared {\"title\": 1} collation en/2, found {\"title\": 1}", drift.get(0).getDetail());
+        assertEquals(IndexDrift.Kind.CONFLICTING, drift.get(1).getKind());
+        verify(indexOps, never()).ensureIndex(any());
+    }
+
+    @Test
+    public void whenIndexOptionsDiffer_thenConflicting() {
+        live(index("title_ci", new Document("title", 1)).append("collation",
+                new Document("locale", "en").append("strength", 3)),
+                index("isbn_ci", new Document("isbn", 1)),
+                index("pages_1", new Document("pages", 1).append("title", 1)));
+
+        List<IndexDrift> drift = reconciler.reconcile(Map.of(Book.class, List.of(TITLE, ISBN,
+                new Index().on("pages", Sort.Direction.ASC).named("pages_1"))));
+
+        assertEquals(3, drift.size());
+        assertTrue(drift.stream().allMatch(item -> item.getKind() == IndexDrift.Kind.CONFLICTING));
+    }
+
+    @Test
+    public void whenIndexNotDeclared_thenUndeclared() {
+        live(index("_id_", new Document("_id", 1)), index("language_1", new Document("language", 1)));
+
+        List<IndexDrift> drift = reconciler.reconcile(Map.of(Book.class, List.of()));
+
+        assertEquals(1, drift.size());
+        assertEquals(IndexDrift.Kind.UNDECLARED, drift.get(0).getKind());
+        assertEquals("language_1", drift.get(0).getIndex());
+    }
+
+    @Test
+    public void whenTextIndexMatches_thenNoDrift() {
+        live(index("summary_text", new Document("_fts", "text").append("_ftsx", 1))
+                .append("weights", new Document("genres", 1).append("title", 10)));
+
+        List<IndexDrift> drift = reconciler.reconcile(Map.of(Book.class, List.of(TEXT)));
+
+        assertTrue(drift.isEmpty());
+    }
+
+    @Test
+    public void whenTextIndexWeightsDiffer_thenConflicting() {
+        live(index("summary_text", new Document("_fts", "text").append("_ftsx", 1))
+                .append("weights", new Document("genres", 1).append("title", 5)));
+
+        List<IndexDrift> drift = reconciler.reconcile(Map.of(Book.class, List.of(TEXT)));
+
+        assertEquals(IndexDrift.Kind.CONFLICTING, drift.get(0).getKind());
+        assertEquals("declared {\"title\": \"text\", \"genres\": \"text\"} weights {\"title\": 10.0}, found "
+                + "{\"_fts\": \"text\", \"_ftsx\": 1} weights {\"genres\": 1, \"title\": 5}",
+                drift.get(0).getDetail());
+    }
+
+    @Test
+    public void whenTextIndexFieldsDiffer_thenConflicting() {
+        live(index("summary_text", new Document("_fts", "text").append("_ftsx", 1))
+                .append("weights", new Document("title", 10)));
+
+        List<IndexDrift> drift = reconciler.reconcile(Map.of(Book.class, List.of(TEXT)));
+
+        assertEquals(IndexDrift.Kind.CONFLICTING, drift.get(0).getKind());
+    }
+
+    @Test
+    public void whenCatalogDeclared_thenEveryCollectionCovered() {
+        assertEquals(List.of(Book.class, Author.class, Publisher.class, BookSummary.class),
+                new ArrayList<>(IndexCatalog.INDEXES.keySet()));
+        assertEquals(new Document("locale", "en").append("strength", 2),
+                IndexCatalog.INDEXES.get(Book.class).get(0).getIndexOptions().get("collation"));
+        assertTrue(IndexCatalog.INDEXES.get(Book.class).get(0).getIndexOptions().getBoolean("unique"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void live(Document... indexes) {
+        when(listIndexes.into(any())).thenAnswer(invocation -> {
+            Collection<Document> target = invocation.getArgument(0);
+            target.addAll(List.of(indexes));
+            return target;
+        });
+    }
+
+    private static Document index(String name, Document keys) {
+        return new Document("v", 2).append("key", keys).append("name", name);
+    }
+}
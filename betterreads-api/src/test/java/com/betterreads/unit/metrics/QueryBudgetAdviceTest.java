@@ -0,0 +1,87 @@
+package com.betterreads.unit.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.betterreads.exceptions.QueryBudgetExceededException;
+import com.betterreads.metrics.QueryBudgetAdvice;
+import com.betterreads.metrics.QueryTally;
+
+public class QueryBudgetAdviceTest {
+
+    private final QueryBudgetAdvice advice = new QueryBudgetAdvice();
+
+    private ServletServerHttpResponse response;
+
+    @BeforeEach
+    public void setupTests() {
+        response = new ServletServerHttpResponse(new MockHttpServletResponse());
+    }
+
+    @AfterEach
+    public void cleanupTests() {
+        QueryTally.end();
+    }
+
+    @Test
+    public void whenHeaders_thenTallyAdded() {
+        ReflectionTestUtils.setField(advice, "headers", true);
+        QueryTally tally = QueryTally.begin(1);
+        tally.add(3, 120);
+
+        assertTrue(advice.supports(null, MappingJackson2HttpMessageConverter.class));
+        assertSame("body", write("body"));
+        assertEquals("1", response.getHeaders().getFirst(QueryBudgetAdvice.COMMANDS));
+        assertEquals("3", response.getHeaders().getFirst(QueryBudgetAdvice.DOCUMENTS));
+        assertEquals("120", response.getHeaders().getFirst(QueryBudgetAdvice.BYTES));
+    }
+
+    @Test
+    public void whenNoHeaders_thenNoneAdded() {
+        QueryTally.begin(1).add(3, 120);
+
+        write("body");
+
+        assertFalse(response.getHeaders().containsKey(QueryBudgetAdvice.COMMANDS));
+    }
+
+    @Test
+    public void whenNoTally_thenNoneAdded() {
+        ReflectionTestUtils.setField(advice, "headers", true);
+
+        write("body");
+
+        assertFalse(response.getHeaders().containsKey(QueryBudgetAdvice.COMMANDS));
+    }
+
+    @Test
+    public void whenOverBudgetAndFail_thenThrows() {
+        ReflectionTestUtils.setField(advice, "fail", true);
+        QueryTally tally = QueryTally.begin(1);
+        tally.add(1, 0);
+        tally.add(1, 0);
+
+        QueryBudgetExceededException ex = assertThrows(QueryBudgetExceededException.class, () -> write("body"));
+
+        assertEquals("GET /v1/authors sent 2 Mongo commands, over the budget of 1", ex.getMessage());
+    }
+
+    private Object write(Object body) {
+        return advice.beforeBodyWrite(body, null, MediaType.APPLICATION_JSON, MappingJackson2HttpMessageConverter.class,
+                new ServletServerHttpRequest(new MockHttpServletRequest("GET", "/v1/authors")), response);
+    }
+}
@@ -0,0 +1,67 @@
+package com.betterreads.unit.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.betterreads.metrics.QueryBudgetFilter;
+import com.betterreads.metrics.QueryTally;
+
+import jakarta.servlet.ServletException;
+
+public class QueryBudgetFilterTest {
+
+    private final QueryBudgetFilter filter = new QueryBudgetFilter();
+
+    @BeforeEach
+    public void setupTests() {
+        ReflectionTestUtils.setField(filter, "maxCommands", 1);
+    }
+
+    @Test
+    public void whenRequest_thenTalliedWhileServed() throws ServletException, IOException {
+        QueryTally[] seen = new QueryTally[1];
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/v1/authors"), new MockHttpServletResponse(),
+                (request, response) -> {
+                    seen[0] = QueryTally.current();
+                    seen[0].add(2, 100);
+                    seen[0].add(0, 10);
+                });
+
+        assertEquals(1, seen[0].getBudget());
+        assertTrue(seen[0].isOverBudget());
+        assertNull(QueryTally.current());
+    }
+
+    @Test
+    public void whenSlowRequest_thenTallyEnded() throws ServletException, IOException {
+        ReflectionTestUtils.setField(filter, "slowThreshold", Duration.ZERO);
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/v1/books"), new MockHttpServletResponse(),
+                (request, response) -> QueryTally.current().add(1, 10));
+
+        assertNull(QueryTally.current());
+    }
+
+    @Test
+    public void whenRequestThrows_thenTallyEnded() {
+        assertThrows(IllegalStateException.class,
+                () -> filter.doFilter(new MockHttpServletRequest("GET", "/v1/books"), new MockHttpServletResponse(),
+                        (request, response) -> {
+                            throw new IllegalStateException();
+                        }));
+
+        assertNull(QueryTally.current());
+    }
+}
@@ -0,0 +1,124 @@
+package com.betterreads.unit.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonNull;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.betterreads.metrics.QueryTally;
+import com.betterreads.metrics.QueryTallyListener;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+
+public class QueryTallyListenerTest {
+
+    private final QueryTallyListener listener = new QueryTallyListener();
+
+    @AfterEach
+    public void cleanupTests() {
+        QueryTally.end();
+    }
+
+    @Test
+    public void whenCustomized_thenListenerAdded() {
+        MongoClientSettings.Builder settings = MongoClientSettings.builder();
+        listener.customize(settings);
+
+        assertEquals(1, settings.build().getCommandListeners().size());
+        assertSame(listener, settings.build().getCommandListeners().get(0));
+    }
+
+    @Test
+    public void whenCommandsSucceed_thenDocumentsAndBytesTallied() {
+        QueryTally tally = QueryTally.begin(50);
+        BsonDocument find = new BsonDocument("cursor",
+                new BsonDocument("firstBatch", batch(3)).append("id", new BsonInt32(7)));
+        RawBsonDocument getMore = new RawBsonDocument(
+                new BsonDocument("cursor", new BsonDocument("nextBatch", batch(2))), new BsonDocumentCodec());
+        BsonDocument modified = new BsonDocument("value", new BsonDocument("_id", new BsonInt32(1)));
+        BsonDocument unmodified = new BsonDocument("value", BsonNull.VALUE);
+
+        listener.commandSucceeded(succeeded(find));
+        listener.commandSucceeded(succeeded(getMore));
+        listener.commandSucceeded(succeeded(modified));
+        listener.commandSucceeded(succeeded(unmodified));
+
+        assertSame(tally, QueryTally.current());
+        assertEquals(4, tally.getCommands());
+        assertEquals(6, tally.getDocuments());
+        assertEquals(sizeOf(find) + sizeOf(getMore) + sizeOf(modified) + sizeOf(unmodified), tally.getBytes());
+    }
+
+    @Test
+    public void whenCommandFails_thenCounted() {
+        QueryTally tally = QueryTally.begin(50);
+        listener.commandFailed(mock(CommandFailedEvent.class));
+
+        assertEquals(1, tally.getCommands());
+        assertEquals(0, tally.getDocuments());
+    }
+
+    @Test
+    public void whenNoRequest_thenNothingTallied() {
+        listener.commandSucceeded(succeeded(new BsonDocument()));
+        listener.commandFailed(mock(CommandFailedEvent.class));
+
+        assertNull(QueryTally.current());
+    }
+
+    @Test
+    public void whenEnded_thenNoTally() {
+        QueryTally.begin(50);
+        QueryTally.end();
+
+        assertNull(QueryTally.current());
+    }
+
+    @Test
+    public void whenOverBudget_thenReported() {
+        QueryTally tally = new QueryTally(2);
+        tally.add(0, 0);
+        tally.add(0, 0);
+
+        assertFalse(tally.isOverBudget());
+
+        tally.add(4, 10);
+
+        assertTrue(tally.isOverBudget());
+        assertEquals("commands=3 documents=4 bytes=10", tally.toString());
+    }
+
+    private static BsonArray batch(int size) {
+        BsonArray batch = new BsonArray();
+
+        for (int i = 0; i < size; i++) {
+            batch.add(new BsonDocument("_id", new BsonInt32(i)));
+        }
+
+        return batch;
+    }
+
+    private static int sizeOf(BsonDocument document) {
+        return new RawBsonDocument(document, new BsonDocumentCodec()).getByteBuffer().remaining();
+    }
+
+    private static CommandSucceededEvent succeeded(BsonDocument response) {
+        CommandSucceededEvent event = mock(CommandSucceededEvent.class);
+        when(event.getResponse()).thenReturn(response);
+
+        return event;
+    }
+}
@@ -0,0 +1,94 @@
+package com.betterreads.unit.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.betterreads.exceptions.ItemNotFoundException;
+import com.betterreads.metrics.ServiceMetrics;
+import com.betterreads.models.SearchRequest;
+import com.betterreads.services.IService;
+import com.betterreads.services.impl.BooksService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ServiceMetricsTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @Mock
+    private BooksService target;
+
+    @InjectMocks
+    private ServiceMetrics metrics;
+
+    private IService service;
+
+    @BeforeEach
+    public void setupTests() {
+        MockitoAnnotations.openMocks(this);
+
+        ReflectionTestUtils.setField(metrics, "registry", registry);
+
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(metrics);
+        service = factory.getProxy();
+    }
+
+    @Test
+    public void whenGetAll_thenTimedAndSizeRecorded() {
+        CollectionModel<EntityModel<?>> page = CollectionModel.of(List.of(EntityModel.of("a"), EntityModel.of("b")));
+        when(target.getAll(null, null, 20, null)).thenReturn(page);
+
+        assertSame(page, service.getAll(null, null, 20, null));
+        assertEquals(1, registry.get(ServiceMetrics.CALLS)
+                .tags("service", "BooksService", "method", "getAll", "outcome", "success", "exception", "none")
+                .timer().count());
+        assertEquals(2, registry.get(ServiceMetrics.RESULTS).tags("method", "getAll").summary().totalAmount());
+    }
+
+    @Test
+    public void whenSearch_thenSizeRecorded() {
+        SearchRequest request = new SearchRequest();
+        when(target.search(request, null)).thenReturn(List.of(EntityModel.of("a")));
+
+        service.search(request, null);
+
+        assertEquals(1, registry.get(ServiceMetrics.RESULTS).tags("method", "search").summary().totalAmount());
+    }
+
+    @Test
+    public void whenGetById_thenNoSizeRecorded() {
+        service.getById("1", null);
+
+        assertEquals(1, registry.get(ServiceMetrics.CALLS).tags("method", "getById").timer().count());
+        assertNull(registry.find(ServiceMetrics.RESULTS).summary());
+    }
+
+    @Test
+    public void whenCallThrows_thenCountedAsError() {
+        when(target.getById("1", null)).thenThrow(new ItemNotFoundException("1"));
+
+        assertThrows(ItemNotFoundException.class, () -> service.getById("1", null));
+        assertEquals(1, registry.get(ServiceMetrics.ERRORS)
+                .tags("service", "BooksService", "method", "getById", "exception", "ItemNotFoundException")
+                .counter().count());
+        assertEquals(1, registry.get(ServiceMetrics.CALLS)
+                .tags("outcome", "error", "exception", "ItemNotFoundException").timer().count());
+    }
+}
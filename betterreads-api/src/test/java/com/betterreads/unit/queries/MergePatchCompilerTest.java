@@ -0,0 +1,140 @@
+package com.betterreads.unit.queries;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.betterreads.exceptions.InvalidRequestException;
+import com.betterreads.models.Author;
+import com.betterreads.models.Book;
+import com.betterreads.models.Publisher;
+import com.betterreads.queries.MergePatchCompiler;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+
+import jakarta.validation.Validation;
+
+public class MergePatchCompilerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new ParameterNamesModule());
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private MergePatchCompiler compiler;
+
+    @BeforeEach
+    public void setupTests() {
+        MockitoAnnotations.openMocks(this);
+
+        ReflectionTestUtils.setField(compiler, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(compiler, "validator", Validation.buildDefaultValidatorFactory().getValidator());
+
+        when(mongoTemplate.getConverter())
+                .thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext()));
+    }
+
+    @Test
+    public void whenCompile_thenSetChangedAndUnsetNullFields() throws JsonProcessingException {
+        Update update = compiler.compile(json("{\"pages\": 320, \"genres\": [\"Fiction\"], \"language\": null}"),
+                Book.class);
+
+        assertEquals(new Document("$set", new Document("pages", 320).append("genres", List.of("Fiction")))
+                .append("$unset", new Document("language", 1)), update.getUpdateObject());
+    }
+
+    @Test
+    public void whenCompile_thenValuesReadAsPropertyTypes() throws JsonProcessingException {
+        Update update = compiler.compile(json(
+                "{\"publishedDate\": 0, \"publisher\": {\"id\": \"p1\"}, \"authors\": [{\"id\": \"a1\"}]}"),
+                Book.class);
+        Document set = (Document) update.getUpdateObject().get("$set");
+
+        assertEquals(new Date(0), set.get("publishedDate"));
+        assertEquals(Publisher.builder().id("p1").build(), set.get("publisher"));
+        assertEquals(List.of(Author.builder().id("a1").build()), set.get("authors"));
+    }
+
+    @Test
+    public void whenCompileEmpty_thenEmptyUpdate() throws JsonProcessingException {
+        assertTrue(compiler.compile(json("{}"), Book.class).getUpdateObject().isEmpty());
+    }
+
+    @Test
+    public void whenCompileNotObject_thenInvalidRequest() throws JsonProcessingException {
+        InvalidRequestException ex = assertThrows(InvalidRequestException.class,
+                () -> compiler.compile(json("[]"), Book.class));
+
+        assertEquals("body", ex.getField());
+        assertThrows(InvalidRequestException.class, () -> compiler.compile(null, Book.class));
+    }
+
+    @Test
+    public void whenCompileUnknownField_thenInvalidRequest() throws JsonProcessingException {
+        InvalidRequestException ex = assertThrows(InvalidRequestException.class,
+                () -> compiler.compile(json("{\"title\": \"Emma\"}"), Author.class));
+
+        assertEquals("title", ex.getField());
+        assertEquals("Unknown field title", ex.getMessage());
+    }
+
+    @Test
+    public void whenCompileId_thenInvalidRequest() throws JsonProcessingException {
+        InvalidRequestException ex = assertThrows(InvalidRequestException.class,
+                () -> compiler.compile(json("{\"id\": \"2\"}"), Book.class));
+
+        assertEquals("id", ex.getField());
+        assertEquals("The id cannot be changed", ex.getMessage());
+    }
+
+    @Test
+    public void whenCompileVersion_thenInvalidRequest() throws JsonProcessingException {
+        InvalidRequestException ex = assertThrows(InvalidRequestException.class,
+                () -> compiler.compile(json("{\"version\": 7}"), Publisher.class));
+
+        assertEquals("version", ex.getField());
+        assertEquals("The version is sent in the If-Match header", ex.getMessage());
+    }
+
+    @Test
+    public void whenCompileUnsetRequired_thenInvalidRequest() throws JsonProcessingException {
+        InvalidRequestException ex = assertThrows(InvalidRequestException.class,
+                () -> compiler.compile(json("{\"pages\": 1, \"title\": null}"), Book.class));
+
+        assertEquals("title", ex.getField());
+        assertEquals("Title is required", ex.getMessage());
+    }
+
+    @Test
+    public void whenCompileWrongType_thenInvalidRequest() throws JsonProcessingException {
+        InvalidRequestException ex = assertThrows(InvalidRequestException.class,
+                () -> compiler.compile(json("{\"pages\": \"many\"}"), Book.class));
+
+        assertEquals("pages", ex.getField());
+        assertEquals("Invalid value for pages", ex.getMessage());
+    }
+
+    private JsonNode json(String content) throws JsonProcessingException {
+        return objectMapper.readTree(content);
+    }
+}
@@ -0,0 +1,79 @@
+package com.betterreads.unit.queries;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.betterreads.exceptions.InvalidRequestException;
+import com.betterreads.models.Author;
+import com.betterreads.models.Book;
+import com.betterreads.queries.Projection;
+import com.betterreads.queries.ProjectionParser;
+
+public class ProjectionParserTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private ProjectionParser parser;
+
+    @BeforeEach
+    public void setupTests() {
+        MockitoAnnotations.openMocks(this);
+
+        when(mongoTemplate.getConverter())
+                .thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext()));
+    }
+
+    @Test
+    public void whenParseFields_thenProjectionInOrder() {
+        Projection projection = parser.parse(" title, isbn ,,title", Book.class);
+
+        assertEquals(List.of("title", "isbn"), List.copyOf(projection.getFields()));
+        assertEquals("title,isbn", projection.toParameter());
+        assertEquals(new Document("title", 1).append("isbn", 1), projection.apply(new Query()).getFieldsObject());
+    }
+
+    @Test
+    public void whenParseBlank_thenAllFields() {
+        assertSame(Projection.ALL, parser.parse(null, Book.class));
+        assertSame(Projection.ALL, parser.parse(" ", Book.class));
+        assertTrue(parser.parse(",", Book.class).isAll());
+    }
+
+    @Test
+    public void whenParseUnknownField_thenInvalidRequest() {
+        InvalidRequestException ex = assertThrows(InvalidRequestException.class,
+                () -> parser.parse("lastName,title", Author.class));
+
+        assertEquals("fields", ex.getField());
+        assertEquals("Unknown field title", ex.getMessage());
+    }
+
+    @Test
+    public void whenAll_thenQueryUnchanged() {
+        Query query = new Query();
+
+        assertSame(query, Projection.ALL.apply(query));
+        assertTrue(query.getFieldsObject().isEmpty());
+        assertNull(Projection.ALL.toParameter());
+    }
+}
@@ -0,0 +1,115 @@
+package com.betterreads.unit.queries;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.betterreads.models.Book;
+import com.betterreads.models.SearchExplanation;
+import com.betterreads.queries.Collations;
+import com.betterreads.queries.QueryExplainer;
+import com.mongodb.ExplainVerbosity;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+
+public class QueryExplainerTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private MongoCollection<Document> collection;
+
+    @InjectMocks
+    private QueryExplainer explainer;
+
+    @SuppressWarnings("unchecked")
+    private final FindIterable<Document> find = mock(FindIterable.class, RETURNS_SELF);
+
+    @BeforeEach
+    public void setupTests() {
+        MockitoAnnotations.openMocks(this);
+
+        when(mongoTemplate.getConverter())
+                .thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext()));
+        when(mongoTemplate.getCollectionName(Book.class)).thenReturn("books");
+        when(mongoTemplate.getCollection("books")).thenReturn(collection);
+        when(collection.find(any(Bson.class))).thenReturn(find);
+    }
+
+    @Test
+    public void whenExplainIndexedQuery_thenReportsIndex() {
+        Document winningPlan = new Document("stage", "LIMIT")
+                .append("inputStage", new Document("stage", "FETCH")
+                        .append("inputStage", new Document("stage", "IXSCAN").append("indexName", "title_1")));
+
+        when(find.explain(ExplainVerbosity.QUERY_PLANNER))
+                .thenReturn(new Document("queryPlanner", new Document("winningPlan", winningPlan)));
+
+        Query query = new Query(Criteria.where("id").is("650000000000000000000001"))
+                .with(Sort.by("title"))
+                .collation(Collations.CASE_INSENSITIVE)
+                .limit(50);
+
+        SearchExplanation explanation = explainer.explain(query, Book.class);
+
+        assertEquals("books", explanation.getCollection());
+        assertEquals("title_1", explanation.getIndexName());
+        assertEquals(List.of("LIMIT", "FETCH", "IXSCAN"), explanation.getStages());
+        assertEquals(new Document("_id", new ObjectId("650000000000000000000001")), explanation.getQuery());
+        assertEquals(new Document("title", 1), explanation.getSort());
+        assertEquals(winningPlan, explanation.getWinningPlan());
+
+        verify(find).limit(50);
+        verify(find).collation(Collations.CASE_INSENSITIVE.toMongoCollation());
+    }
+
+    @Test
+    public void whenExplainSlotBasedPlan_thenReportsFirstIndex() {
+        Document winningPlan = new Document("queryPlan", new Document("stage", "OR")
+                .append("inputStages", List.of(
+                        new Document("stage", "IXSCAN").append("indexName", "genres_1"),
+                        new Document("stage", "IXSCAN").append("indexName", "language_1"))));
+
+        when(find.explain(ExplainVerbosity.QUERY_PLANNER))
+                .thenReturn(new Document("queryPlanner", new Document("winningPlan", winningPlan)));
+
+        SearchExplanation explanation = explainer.explain(new Query(), Book.class);
+
+        assertEquals("genres_1", explanation.getIndexName());
+        assertEquals(List.of("OR", "IXSCAN", "IXSCAN"), explanation.getStages());
+    }
+
+    @Test
+    public void whenExplainCollectionScan_thenNoIndex() {
+        when(find.explain(ExplainVerbosity.QUERY_PLANNER)).thenReturn(
+                new Document("queryPlanner", new Document("winningPlan", new Document("stage", "COLLSCAN"))));
+
+        SearchExplanation explanation = explainer.explain(new Query(), Book.class);
+
+        assertNull(explanation.getIndexName());
+        assertEquals(List.of("COLLSCAN"), explanation.getStages());
+    }
+}
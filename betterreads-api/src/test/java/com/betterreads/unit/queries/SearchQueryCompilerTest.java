@@ -0,0 +1,176 @@
+package com.betterreads.unit.queries;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Date;
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.betterreads.exceptions.InvalidRequestException;
+import com.betterreads.models.SearchFilter;
+import com.betterreads.models.SearchRequest;
+import com.betterreads.models.SearchSort;
+import com.betterreads.queries.Collations;
+import com.betterreads.queries.SearchFields;
+import com.betterreads.queries.SearchQueryCompiler;
+
+public class SearchQueryCompilerTest {
+
+    private static final String PUBLISHER_ID = "650000000000000000000001";
+
+    private final SearchQueryCompiler compiler = new SearchQueryCompiler();
+
+    @Test
+    public void whenCompileSingleFilter_thenPlainCondition() {
+        Query query = compiler.compile(request(filter("title", SearchFilter.Operator.EQ, "caged wisdom")),
+                SearchFields.BOOKS);
+
+        assertEquals(new Document("title", "caged wisdom"), query.getQueryObject());
+        assertEquals(Collations.CASE_INSENSITIVE, query.getCollation().get());
+        assertEquals(SearchQueryCompiler.DEFAULT_LIMIT, query.getLimit());
+    }
+
+    @Test
+    public void whenCompileAllFilters_thenAndOfConvertedValues() {
+        SearchRequest request = request(
+                filter("pages", SearchFilter.Operator.GTE, "100"),
+                filter("pages", SearchFilter.Operator.LT, 400),
+                filter("publishedDate", SearchFilter.Operator.GT, "2001-09-11"),
+                filter("publisher", SearchFilter.Operator.NE, PUBLISHER_ID),
+                filter("genres", SearchFilter.Operator.IN, List.of("fantasy", "horror")),
+                filter("language", SearchFilter.Operator.NIN, List.of("german")),
+                filter("isbn", SearchFilter.Operator.LTE, "9"));
+
+        Query query = compiler.compile(request, SearchFields.BOOKS);
+        List<?> and = query.getQueryObject().getList("$and", Object.class);
+
+        assertEquals(7, and.size());
+        assertEquals(new Document("pages", new Document("$gte", 100)), and.get(0));
+        assertEquals(new Document("pages", new Document("$lt", 400)), and.get(1));
+        assertEquals(new Document("publishedDate", new Document("$gt", new Date(1000166400000L))), and.get(2));
+        assertEquals(new Document("publisher", new Document("$ne", new ObjectId(PUBLISHER_ID))), and.get(3));
+        assertEquals(new Document("genres", new Document("$in", List.of("fantasy", "horror"))), and.get(4));
+        assertEquals(new Document("language", new Document("$nin", List.of("german"))), and.get(5));
+        assertEquals(new Document("isbn", new Document("$lte", "9")), and.get(6));
+    }
+
+    @Test
+    public void whenCompileAnyFilters_thenOr() {
+        SearchRequest request = request(
+                filter("lastName", SearchFilter.Operator.EQ, "king"),
+                filter("dateOfBirth", SearchFilter.Operator.LT, "1950-01-01T00:00:00Z"));
+        request.setMatch(SearchRequest.Match.ANY);
+
+        Query query = compiler.compile(request, SearchFields.AUTHORS);
+        List<?> or = query.getQueryObject().getList("$or", Object.class);
+
+        assertEquals(2, or.size());
+        assertEquals(new Document("dateOfBirth", new Document("$lt", new Date(-631152000000L))), or.get(1));
+    }
+
+    @Test
+    public void whenCompileSortAndLimit_thenApplied() {
+        SearchRequest request = SearchRequest.builder()
+                .sort(List.of(SearchSort.builder().field("name").build(),
+                        SearchSort.builder().field("id").direction(Sort.Direction.DESC).build()))
+                .limit(SearchQueryCompiler.MAX_LIMIT)
+                .build();
+
+        Query query = compiler.compile(request, SearchFields.PUBLISHERS);
+
+        assertTrue(query.getQueryObject().isEmpty());
+        assertEquals(new Document("name", 1).append("id", -1), query.getSortObject());
+        assertEquals(SearchQueryCompiler.MAX_LIMIT, query.getLimit());
+    }
+
+    @Test
+    public void whenCompileNullEquality_thenMatchesMissing() {
+        Query query = compiler.compile(request(filter("suffix", SearchFilter.Operator.EQ, null)),
+                SearchFields.AUTHORS);
+
+        assertEquals(new Document("suffix", null), query.getQueryObject());
+    }
+
+    @Test
+    public void whenCompileUnknownField_thenInvalid() {
+        InvalidRequestException ex = assertThrows(InvalidRequestException.class,
+                () -> compiler.compile(request(filter("password", SearchFilter.Operator.EQ, "x")),
+                        SearchFields.PUBLISHERS));
+
+        assertEquals("filters[0].field", ex.getField());
+        assertEquals("Unknown field 'password', expected one of [books, id, name]", ex.getMessage());
+    }
+
+    @Test
+    public void whenCompileUnknownSortField_thenInvalid() {
+        SearchRequest request = SearchRequest.builder().sort(List.of(SearchSort.builder().field("rating").build()))
+                .build();
+
+        InvalidRequestException ex = assertThrows(InvalidRequestException.class,
+                () -> compiler.compile(request, SearchFields.BOOKS));
+
+        assertEquals("sort[0].field", ex.getField());
+    }
+
+    @Test
+    public void whenCompileMissingOperator_thenInvalid() {
+        InvalidRequestException ex = assertThrows(InvalidRequestException.class,
+                () -> compiler.compile(request(filter("title", null, "x")), SearchFields.BOOKS));
+
+        assertEquals("filters[0].operator", ex.getField());
+    }
+
+    @Test
+    public void whenCompileInvalidValues_thenInvalid() {
+        assertEquals("filters[0].value", assertThrows(InvalidRequestException.class,
+                () -> compiler.compile(request(filter("pages", SearchFilter.Operator.EQ, "many")), SearchFields.BOOKS))
+                .getField());
+        assertEquals("filters[0].value", assertThrows(InvalidRequestException.class,
+                () -> compiler.compile(request(filter("pages", SearchFilter.Operator.EQ, 1.5)), SearchFields.BOOKS))
+                .getField());
+        assertEquals("filters[0].value", assertThrows(InvalidRequestException.class,
+                () -> compiler.compile(request(filter("publishedDate", SearchFilter.Operator.GT, "yesterday")),
+                        SearchFields.BOOKS))
+                .getField());
+        assertEquals("filters[0].value", assertThrows(InvalidRequestException.class,
+                () -> compiler.compile(request(filter("title", SearchFilter.Operator.EQ, List.of("a"))),
+                        SearchFields.BOOKS))
+                .getField());
+        assertEquals("filters[0].value", assertThrows(InvalidRequestException.class,
+                () -> compiler.compile(request(filter("authors", SearchFilter.Operator.EQ, 12)), SearchFields.BOOKS))
+                .getField());
+        assertEquals("filters[0].value", assertThrows(InvalidRequestException.class,
+                () -> compiler.compile(request(filter("genres", SearchFilter.Operator.IN, "fantasy")),
+                        SearchFields.BOOKS))
+                .getField());
+        assertEquals("filters[0].value", assertThrows(InvalidRequestException.class,
+                () -> compiler.compile(request(filter("pages", SearchFilter.Operator.GT, null)), SearchFields.BOOKS))
+                .getField());
+    }
+
+    @Test
+    public void whenCompileLimitOutOfRange_thenInvalid() {
+        SearchRequest tooLarge = SearchRequest.builder().limit(SearchQueryCompiler.MAX_LIMIT + 1).build();
+        SearchRequest tooSmall = SearchRequest.builder().limit(0).build();
+
+        assertEquals("limit", assertThrows(InvalidRequestException.class,
+                () -> compiler.compile(tooLarge, SearchFields.BOOKS)).getField());
+        assertEquals("limit", assertThrows(InvalidRequestException.class,
+                () -> compiler.compile(tooSmall, SearchFields.BOOKS)).getField());
+    }
+
+    private static SearchRequest request(SearchFilter... filters) {
+        return SearchRequest.builder().filters(List.of(filters)).build();
+    }
+
+    private static SearchFilter filter(String field, SearchFilter.Operator operator, Object value) {
+        return SearchFilter.builder().field(field).operator(operator).value(value).build();
+    }
+}
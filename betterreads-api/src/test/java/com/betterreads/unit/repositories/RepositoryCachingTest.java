@@ -0,0 +1,132 @@
+package com.betterreads.unit.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import com.betterreads.configurations.CacheConfig;
+import com.betterreads.models.Author;
+import com.betterreads.models.Book;
+import com.betterreads.models.Publisher;
+import com.betterreads.repositories.AuthorsRepository;
+import com.betterreads.repositories.BooksRepository;
+import com.betterreads.repositories.PublishersRepository;
+
+@SpringJUnitConfig(RepositoryCachingTest.Config.class)
+public class RepositoryCachingTest {
+
+    @Configuration
+    @Import(CacheConfig.class)
+    static class Config {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new CaffeineCacheManager(CacheConfig.BOOKS, CacheConfig.AUTHORS, CacheConfig.PUBLISHERS);
+        }
+
+        @Bean
+        BooksRepository booksRepository() {
+            return mock(BooksRepository.class);
+        }
+
+        @Bean
+        AuthorsRepository authorsRepository() {
+            return mock(AuthorsRepository.class);
+        }
+
+        @Bean
+        PublishersRepository publishersRepository() {
+            return mock(PublishersRepository.class);
+        }
+    }
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private BooksRepository booksRepository;
+
+    @Autowired
+    private AuthorsRepository authorsRepository;
+
+    @Autowired
+    private PublishersRepository publishersRepository;
+
+    @BeforeEach
+    public void setupTests() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    public void whenFindBookTwice_thenReadOnce() {
+        Book book = Book.builder().id("1").title("Caged Wisdom").build();
+        BooksRepository target = target(booksRepository);
+
+        when(target.findById("1")).thenReturn(Optional.of(book));
+
+        assertEquals(book, booksRepository.findById("1").get());
+        assertEquals(book, booksRepository.findById("1").get());
+
+        verify(target, times(1)).findById("1");
+        assertEquals(book, cacheManager.getCache(CacheConfig.BOOKS).get("1").get());
+    }
+
+    @Test
+    public void whenFindMissingAuthor_thenNotCached() {
+        AuthorsRepository target = target(authorsRepository);
+
+        when(target.findById("1")).thenReturn(Optional.empty());
+
+        assertTrue(authorsRepository.findById("1").isEmpty());
+        assertTrue(authorsRepository.findById("1").isEmpty());
+
+        verify(target, times(2)).findById("1");
+    }
+
+    @Test
+    public void whenPublisherEvicted_thenReadAgain() {
+        Publisher publisher = Publisher.builder().id("1").name("Pendant").build();
+        PublishersRepository target = target(publishersRepository);
+
+        when(target.findById("1")).thenReturn(Optional.of(publisher));
+
+        publishersRepository.findById("1");
+        cacheManager.getCache(CacheConfig.PUBLISHERS).evict("1");
+        publishersRepository.findById("1");
+
+        verify(target, times(2)).findById("1");
+    }
+
+    /**
+     * <p>
+     * Unwraps the caching proxy, so stubbing and verifying hit the mock itself
+     * </p>
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T target(T proxy) {
+        try {
+            T target = (T) ((Advised) proxy).getTargetSource().getTarget();
+            reset(target);
+            return target;
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
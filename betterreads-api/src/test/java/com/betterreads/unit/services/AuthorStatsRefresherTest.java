@@ -0,0 +1,33 @@
+package com.betterreads.unit.services;
+
+import static org.mockito.Mockito.verify;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.betterreads.services.AuthorStatsRefresher;
+import com.betterreads.services.AuthorStatsService;
+
+public class AuthorStatsRefresherTest {
+
+    @Mock
+    private AuthorStatsService authorStatsService;
+
+    @InjectMocks
+    private AuthorStatsRefresher refresher;
+
+    @BeforeEach
+    public void setupTests() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    public void whenScheduled_thenStatsRefreshed() {
+        refresher.refresh();
+
+        verify(authorStatsService).refresh();
+    }
+}
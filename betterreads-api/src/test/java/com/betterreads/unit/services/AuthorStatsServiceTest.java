@@ -0,0 +1,197 @@
+package com.betterreads.unit.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.betterreads.assemblers.AuthorStatsAssembler;
+import com.betterreads.exceptions.InvalidRequestException;
+import com.betterreads.models.Author;
+import com.betterreads.models.AuthorStats;
+import com.betterreads.models.Book;
+import com.betterreads.services.AuthorStatsService;
+
+public class AuthorStatsServiceTest {
+
+    private static final String ID = "64f1c0a2b3d4e5f6a7b8c9d0";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private AuthorStatsAssembler assembler;
+
+    @InjectMocks
+    private AuthorStatsService service;
+
+    private final ArgumentCaptor<Aggregation> aggregation = ArgumentCaptor.forClass(Aggregation.class);
+
+    @BeforeEach
+    public void setupTests() {
+        MockitoAnnotations.openMocks(this);
+
+        when(mongoTemplate.getCollectionName(Book.class)).thenReturn("books");
+        when(mongoTemplate.getCollectionName(AuthorStats.class)).thenReturn("author_stats");
+    }
+
+    @Test
+    public void whenGetById_thenOneAggregationOverBooks() {
+        AuthorStats stats = AuthorStats.builder().id(ID).bookCount(2).build();
+        EntityModel<AuthorStats> expected = EntityModel.of(stats);
+
+        aggregates(stats);
+        when(assembler.toModel(stats)).thenReturn(expected);
+
+        assertEquals(expected, service.getById(ID));
+
+        List<Document> pipeline = pipeline();
+        Document match = new Document("$match", new Document("authors",
+                new Document("$in", List.of(new ObjectId(ID)))));
+
+        assertEquals(match, pipeline.get(0));
+        assertEquals(new Document("$unwind", "$authors"), pipeline.get(1));
+        assertEquals(match, pipeline.get(2));
+        assertEquals(new Document("_id", "$authors")
+                .append("bookCount", new Document("$sum", 1))
+                .append("totalPages", new Document("$sum", "$pages"))
+                .append("averagePages", new Document("$avg", "$pages"))
+                .append("firstPublished", new Document("$min", "$publishedDate"))
+                .append("lastPublished", new Document("$max", "$publishedDate"))
+                .append("genres", new Document("$push", "$genres")), pipeline.get(3).get("$group"));
+        assertEquals(new Document("$sort", new Document("_id", 1)), pipeline.get(4));
+        assertTrue(pipeline.get(5).get("$addFields", Document.class).get("genres", Document.class)
+                .containsKey("$reduce"));
+        assertTrue(pipeline.get(6).get("$addFields", Document.class).get("genres", Document.class)
+                .containsKey("$arrayToObject"));
+    }
+
+    @Test
+    public void whenGetByIdWithoutBooks_thenZeroStats() {
+        ArgumentCaptor<AuthorStats> stats = ArgumentCaptor.forClass(AuthorStats.class);
+
+        aggregates();
+        when(mongoTemplate.exists(any(Query.class), eq(Author.class))).thenReturn(true);
+        when(assembler.toModel(stats.capture())).thenReturn(EntityModel.of(AuthorStats.builder().build()));
+
+        service.getById(ID);
+
+        assertEquals(ID, stats.getValue().getId());
+        assertEquals(0, stats.getValue().getBookCount());
+        assertEquals(Map.of(), stats.getValue().getGenres());
+    }
+
+    @Test
+    public void whenGetByIdUnknown_thenNull() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+
+        aggregates();
+        when(mongoTemplate.exists(query.capture(), eq(Author.class))).thenReturn(false);
+
+        assertNull(service.getById(ID));
+        assertEquals(new Document("_id", new ObjectId(ID)), query.getValue().getQueryObject());
+    }
+
+    @Test
+    public void whenGetAll_thenOneAggregationForAllIds() {
+        AuthorStats stats = AuthorStats.builder().id(ID).build();
+        CollectionModel<EntityModel<?>> expected = CollectionModel.empty();
+
+        aggregates(stats);
+        when(assembler.toCollectionModel(List.of(stats), List.of(ID, "legacy"))).thenReturn(expected);
+
+        assertEquals(expected, service.getAll(List.of(ID, "legacy")));
+        assertEquals(new Document("authors", new Document("$in", List.of(new ObjectId(ID), "legacy"))),
+                pipeline().get(0).get("$match"));
+    }
+
+    @Test
+    public void whenGetAllWithoutIdsOrTooMany_thenInvalidRequest() {
+        InvalidRequestException ex = assertThrows(InvalidRequestException.class, () -> service.getAll(List.of()));
+
+        assertEquals("ids", ex.getField());
+        assertThrows(InvalidRequestException.class,
+                () -> service.getAll(Collections.nCopies(AuthorStatsService.MAX_IDS + 1, ID)));
+    }
+
+    @Test
+    public void whenGetTop_thenRankedFromBooks() {
+        AuthorStats stats = AuthorStats.builder().id(ID).build();
+        CollectionModel<EntityModel<?>> expected = CollectionModel.empty();
+
+        aggregates(stats);
+        when(assembler.toTopModel(List.of(stats), 5)).thenReturn(expected);
+
+        assertEquals(expected, service.getTop(5));
+
+        List<Document> pipeline = pipeline();
+
+        assertEquals(new Document("$unwind", "$authors"), pipeline.get(0));
+        assertEquals(new Document("$sort", new Document("bookCount", -1).append("_id", 1)), pipeline.get(2));
+        assertEquals(new Document("$limit", 5L), pipeline.get(3));
+    }
+
+    @Test
+    public void whenGetTopMaterialized_thenReadFromStats() {
+        ReflectionTestUtils.setField(service, "materialize", true);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        AuthorStats stats = AuthorStats.builder().id(ID).build();
+
+        when(mongoTemplate.find(query.capture(), eq(AuthorStats.class))).thenReturn(List.of(stats));
+
+        service.getTop(5);
+
+        verify(assembler).toTopModel(List.of(stats), 5);
+        assertEquals(new Document("bookCount", -1).append("id", 1), query.getValue().getSortObject());
+        assertEquals(5, query.getValue().getLimit());
+    }
+
+    @Test
+    public void whenRefresh_thenTopAuthorsWrittenOut() {
+        ReflectionTestUtils.setField(service, "top", 10);
+
+        service.refresh();
+
+        verify(mongoTemplate).aggregate(aggregation.capture(), eq("books"), eq(Document.class));
+
+        List<Document> pipeline = pipeline();
+
+        assertEquals(new Document("$limit", 10L), pipeline.get(3));
+        assertTrue(pipeline.get(6).get("$addFields", Document.class).get("refreshedAt") instanceof Date);
+        assertEquals(new Document("$out", "author_stats"), pipeline.get(7));
+    }
+
+    private void aggregates(AuthorStats... stats) {
+        when(mongoTemplate.aggregate(aggregation.capture(), eq("books"), eq(AuthorStats.class)))
+                .thenReturn(new AggregationResults<>(List.of(stats), new Document()));
+    }
+
+    private List<Document> pipeline() {
+        return aggregation.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+    }
+}
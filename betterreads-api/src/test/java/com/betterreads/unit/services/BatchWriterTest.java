@@ -0,0 +1,171 @@
+package com.betterreads.unit.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.betterreads.models.BatchResult;
+import com.betterreads.models.Book;
+import com.betterreads.services.BatchWriter;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+
+public class BatchWriterTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations operations;
+
+    @InjectMocks
+    private BatchWriter writer;
+
+    @BeforeEach
+    public void setupTests() {
+        MockitoAnnotations.openMocks(this);
+
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        ReflectionTestUtils.setField(writer, "validator", validator);
+        ReflectionTestUtils.setField(writer, "chunkSize", 2);
+
+        when(mongoTemplate.bulkOps(BulkMode.UNORDERED, Book.class)).thenReturn(operations);
+        when(mongoTemplate.getConverter())
+                .thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext()));
+    }
+
+    @Test
+    public void whenWrite_thenResultPerElement() {
+        Book created = Book.builder().isbn("000-1").title("New").build();
+        Book invalid = Book.builder().isbn("000-2").build();
+        Book replaced = Book.builder().id("2").isbn("000-3").title("Replaced").build();
+        Book upserted = Book.builder().id("3").isbn("000-4").title("Upserted").build();
+
+        when(operations.execute())
+                .thenReturn(BulkWriteResult.acknowledged(1, 0, 0, 1, Collections.emptyList(), Collections.emptyList()))
+                .thenReturn(BulkWriteResult.acknowledged(0, 0, 0, 0,
+                        Collections.singletonList(new BulkWriteUpsert(0, new BsonString("3"))),
+                        Collections.emptyList()));
+
+        List<BatchResult> results = writer.write(Book.class,
+                Arrays.asList(created, invalid, replaced, upserted).iterator());
+
+        assertEquals(4, results.size());
+
+        assertEquals(0, results.get(0).getIndex());
+        assertEquals(BatchResult.Status.CREATED, results.get(0).getStatus());
+        assertNotNull(results.get(0).getId());
+        assertEquals(created.getId(), results.get(0).getId());
+        assertEquals(0L, created.getVersion());
+
+        assertEquals(1, results.get(1).getIndex());
+        assertEquals(BatchResult.Status.INVALID, results.get(1).getStatus());
+        assertEquals("Title is required", results.get(1).getErrors().get("title"));
+        assertNull(results.get(1).getId());
+
+        assertEquals(BatchResult.Status.UPDATED, results.get(2).getStatus());
+        assertEquals("2", results.get(2).getId());
+        assertNull(results.get(2).getErrors());
+
+        assertEquals(BatchResult.Status.CREATED, results.get(3).getStatus());
+        assertEquals("3", results.get(3).getId());
+
+        verify(mongoTemplate, times(2)).bulkOps(BulkMode.UNORDERED, Book.class);
+        verify(operations).insert(created);
+        verify(operations, never()).insert(invalid);
+        verify(operations, times(2)).upsert(any(Query.class), any(AggregationUpdate.class));
+        verify(operations, times(2)).execute();
+    }
+
+    @Test
+    public void whenWriteExisting_thenReplaceAndIncrementVersion() {
+        Book replaced = Book.builder().id("2").isbn("000-3").title("Replaced").version(7L).build();
+        ArgumentCaptor<AggregationUpdate> update = ArgumentCaptor.forClass(AggregationUpdate.class);
+
+        when(operations.execute())
+                .thenReturn(BulkWriteResult.acknowledged(0, 1, 0, 1, Collections.emptyList(), Collections.emptyList()));
+
+        writer.write(Book.class, Collections.singletonList(replaced).iterator());
+
+        verify(operations).upsert(any(Query.class), update.capture());
+
+        Document stage = update.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT).get(0);
+        List<?> merged = (List<?>) ((Document) stage.get("$replaceWith")).get("$mergeObjects");
+        Document document = (Document) ((Document) merged.get(0)).get("$literal");
+
+        assertEquals("Replaced", document.get("title"));
+        assertFalse(document.containsKey("version"));
+        assertEquals(new Document("version",
+                new Document("$add", List.of(new Document("$ifNull", List.of("$version", -1)), 1))), merged.get(1));
+    }
+
+    @Test
+    public void whenWriteFails_thenFailedResults() {
+        Book first = Book.builder().id("1").isbn("000-1").title("First").build();
+        Book duplicate = Book.builder().isbn("000-1").title("Duplicate").build();
+
+        BulkWriteResult partial = BulkWriteResult.acknowledged(0, 1, 1, 1, Collections.emptyList(),
+                Collections.emptyList());
+        BulkWriteError error = new BulkWriteError(11000, "duplicate key", new BsonDocument(), 1);
+        MongoBulkWriteException source = new MongoBulkWriteException(partial, Collections.singletonList(error), null,
+                new ServerAddress(), Set.of());
+
+        when(operations.execute()).thenThrow(new BulkOperationException("failed", source));
+
+        List<BatchResult> results = writer.write(Book.class, Arrays.asList(first, duplicate).iterator());
+
+        assertEquals(BatchResult.Status.UPDATED, results.get(0).getStatus());
+        assertEquals(BatchResult.Status.FAILED, results.get(1).getStatus());
+        assertEquals("duplicate key", results.get(1).getErrors().get("write"));
+    }
+
+    @Test
+    public void whenWriteOnlyInvalid_thenNoBulkWrite() {
+        List<BatchResult> results = writer.write(Book.class,
+                Collections.singletonList(Book.builder().title("No ISBN").build()).iterator());
+
+        assertEquals(BatchResult.Status.INVALID, results.get(0).getStatus());
+        assertEquals("ISBN is required", results.get(0).getErrors().get("isbn"));
+
+        verify(mongoTemplate, never()).bulkOps(any(BulkMode.class), eq(Book.class));
+    }
+}
@@ -0,0 +1,139 @@
+package com.betterreads.unit.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.betterreads.models.Book;
+import com.betterreads.models.BookFacets;
+import com.betterreads.models.FacetCount;
+import com.betterreads.models.Publisher;
+import com.betterreads.models.SearchRequest;
+import com.betterreads.queries.Collations;
+import com.betterreads.queries.SearchFields;
+import com.betterreads.queries.SearchQueryCompiler;
+import com.betterreads.services.BookFacetsService;
+
+public class BookFacetsServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private SearchQueryCompiler compiler;
+
+    @InjectMocks
+    private BookFacetsService service;
+
+    private final ArgumentCaptor<Aggregation> aggregation = ArgumentCaptor.forClass(Aggregation.class);
+
+    private final SearchRequest request = new SearchRequest();
+
+    @BeforeEach
+    public void setupTests() {
+        MockitoAnnotations.openMocks(this);
+
+        when(mongoTemplate.getCollectionName(Book.class)).thenReturn("books");
+        when(mongoTemplate.getCollectionName(Publisher.class)).thenReturn("publishers");
+        when(mongoTemplate.getConverter())
+                .thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext()));
+        when(compiler.compile(request, SearchFields.BOOKS))
+                .thenReturn(new Query(Criteria.where("language").is("English")));
+    }
+
+    @Test
+    public void whenGetFacets_thenOneFacetAggregationOverMatchingBooks() {
+        aggregates(new Document("total", List.of())
+                .append("genres", List.of())
+                .append("languages", List.of())
+                .append("publishers", List.of())
+                .append("decades", List.of()));
+
+        service.getFacets(request);
+
+        List<Document> pipeline = aggregation.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+        Document facets = pipeline.get(1).get("$facet", Document.class);
+
+        assertEquals(2, pipeline.size());
+        assertEquals(new Document("$match", new Document("language", "English")), pipeline.get(0));
+        assertEquals(List.of("total", "genres", "languages", "publishers", "decades"),
+                List.copyOf(facets.keySet()));
+        assertEquals(new Document("$limit", BookFacetsService.MAX_VALUES),
+                facets.getList("genres", Document.class).get(3));
+        assertEquals("publishers", facets.getList("publishers", Document.class).get(4)
+                .get("$lookup", Document.class).getString("from"));
+        assertEquals(Collations.CASE_INSENSITIVE, aggregation.getValue().getOptions().getCollation().orElseThrow());
+    }
+
+    @Test
+    public void whenGetFacetsById_thenMatchMappedLikeAQuery() {
+        ObjectId id = new ObjectId();
+        SearchRequest byId = SearchRequest.builder().build();
+
+        when(compiler.compile(byId, SearchFields.BOOKS)).thenReturn(new Query(Criteria.where("id").is(id)
+                .and("publisher").is(id)));
+        aggregates(new Document());
+
+        service.getFacets(byId);
+
+        assertEquals(new Document("$match", new Document("_id", id).append("publisher", id)),
+                aggregation.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT).get(0));
+    }
+
+    @Test
+    public void whenGetFacets_thenCountsMapped() {
+        ObjectId publisher = new ObjectId();
+
+        aggregates(new Document("total", List.of(new Document("_id", null).append("count", 3)))
+                .append("genres", List.of(new Document("_id", "Fiction").append("count", 2)))
+                .append("languages", List.of(new Document("_id", "English").append("count", 3L)))
+                .append("publishers", List.of(new Document("_id", publisher).append("count", 1)
+                        .append("label", "Penguin")))
+                .append("decades", List.of(new Document("_id", 1990).append("count", 2),
+                        new Document("_id", 2000.0).append("count", 1))));
+
+        BookFacets facets = service.getFacets(request);
+
+        assertEquals(3, facets.getTotal());
+        assertEquals(List.of(new FacetCount("Fiction", null, 2)), facets.getGenres());
+        assertEquals(List.of(new FacetCount("English", null, 3)), facets.getLanguages());
+        assertEquals(List.of(new FacetCount(publisher.toHexString(), "Penguin", 1)), facets.getPublishers());
+        assertEquals(List.of(new FacetCount("1990", null, 2), new FacetCount("2000", null, 1)), facets.getDecades());
+    }
+
+    @Test
+    public void whenNoBooksMatch_thenZeroTotal() {
+        when(mongoTemplate.aggregate(aggregation.capture(), eq("books"), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+
+        BookFacets facets = service.getFacets(request);
+
+        assertEquals(0, facets.getTotal());
+        assertEquals(List.of(), facets.getGenres());
+        assertEquals(List.of(), facets.getDecades());
+    }
+
+    private void aggregates(Document result) {
+        when(mongoTemplate.aggregate(aggregation.capture(), eq("books"), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(result), new Document()));
+    }
+}
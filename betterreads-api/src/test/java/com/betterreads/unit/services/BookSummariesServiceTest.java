@@ -0,0 +1,155 @@
+package com.betterreads.unit.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+
+import com.betterreads.assemblers.BookSummariesAssembler;
+import com.betterreads.exceptions.InvalidRequestException;
+import com.betterreads.models.BookSummary;
+import com.betterreads.models.SearchFilter;
+import com.betterreads.models.SearchRequest;
+import com.betterreads.queries.Collations;
+import com.betterreads.queries.SearchQueryCompiler;
+import com.betterreads.services.BookSummariesService;
+import com.betterreads.services.CursorPage;
+
+public class BookSummariesServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BookSummariesAssembler assembler;
+
+    @Spy
+    private SearchQueryCompiler compiler;
+
+    @InjectMocks
+    private BookSummariesService service;
+
+    @BeforeEach
+    public void setupTests() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void whenGetAll_thenOnePageOfSummaries() {
+        BookSummary first = BookSummary.builder().id("1").build();
+        BookSummary second = BookSummary.builder().id("2").build();
+        CollectionModel<EntityModel<?>> expected = CollectionModel.empty();
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<CursorPage<BookSummary>> page = ArgumentCaptor.forClass(CursorPage.class);
+
+        when(mongoTemplate.find(query.capture(), eq(BookSummary.class))).thenReturn(List.of(first, second));
+        when(assembler.toPagedModel(page.capture(), eq(null), eq(null), eq(null))).thenReturn(expected);
+
+        assertEquals(expected, service.getAll(null, null, 1, null, null, null));
+
+        assertTrue(query.getValue().getQueryObject().isEmpty());
+        assertEquals(new Document("id", 1), query.getValue().getSortObject());
+        assertEquals(2, query.getValue().getLimit());
+        assertEquals(List.of(first), page.getValue().getContent());
+        assertEquals("1", page.getValue().getNext());
+        assertFalse(query.getValue().getCollation().isPresent());
+    }
+
+    @Test
+    public void whenGetAllFiltered_thenCaseInsensitiveMatch() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+
+        when(mongoTemplate.find(query.capture(), eq(BookSummary.class))).thenReturn(List.of());
+
+        service.getAll("1", null, 20, "Fiction", "Tolkien, John Ronald Reuel", "Allen & Unwin");
+
+        assertEquals(new Document("genres", "Fiction")
+                .append("authorNames", "Tolkien, John Ronald Reuel")
+                .append("publisherName", "Allen & Unwin")
+                .append("id", new Document("$gt", "1")), query.getValue().getQueryObject());
+        assertEquals(Collations.CASE_INSENSITIVE, query.getValue().getCollation().get());
+        verify(assembler).toPagedModel(any(), eq("Fiction"), eq("Tolkien, John Ronald Reuel"), eq("Allen & Unwin"));
+    }
+
+    @Test
+    public void whenGetAllByGenre_thenOnlyGenreCondition() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+
+        when(mongoTemplate.find(query.capture(), eq(BookSummary.class))).thenReturn(List.of());
+
+        service.getAll(null, null, 20, "Fiction", null, null);
+
+        assertEquals(new Document("genres", "Fiction"), query.getValue().getQueryObject());
+        assertNull(query.getValue().getQueryObject().get("authorNames"));
+    }
+
+    @Test
+    public void whenGetBooks_thenUnfilteredPageInBooksView() {
+        CollectionModel<EntityModel<?>> expected = CollectionModel.empty();
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+
+        when(mongoTemplate.find(query.capture(), eq(BookSummary.class))).thenReturn(List.of());
+        when(assembler.toBooksPagedModel(any())).thenReturn(expected);
+
+        assertEquals(expected, service.getBooks("1", null, 20));
+
+        assertEquals(new Document("id", new Document("$gt", "1")), query.getValue().getQueryObject());
+        assertFalse(query.getValue().getCollation().isPresent());
+    }
+
+    @Test
+    public void whenSearch_thenOneReadOfSummaries() {
+        BookSummary summary = BookSummary.builder().id("1").publisherName("Allen & Unwin").build();
+        EntityModel<BookSummary> expected = EntityModel.of(summary);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        SearchRequest request = SearchRequest.builder()
+                .filters(List.of(SearchFilter.builder()
+                        .field("publisherName")
+                        .operator(SearchFilter.Operator.EQ)
+                        .value("allen & unwin")
+                        .build()))
+                .build();
+
+        when(mongoTemplate.find(query.capture(), eq(BookSummary.class))).thenReturn(List.of(summary));
+        when(assembler.toModel(summary)).thenReturn(expected);
+
+        assertEquals(List.of(expected), service.search(request));
+
+        assertEquals(new Document("publisherName", "allen & unwin"), query.getValue().getQueryObject());
+        assertEquals(Collations.CASE_INSENSITIVE, query.getValue().getCollation().get());
+    }
+
+    @Test
+    public void whenSearchBookOnlyField_thenInvalidRequest() {
+        SearchRequest request = SearchRequest.builder()
+                .filters(List.of(SearchFilter.builder()
+                        .field("isbn")
+                        .operator(SearchFilter.Operator.EQ)
+                        .value("9780261103344")
+                        .build()))
+                .build();
+
+        assertThrows(InvalidRequestException.class, () -> service.search(request));
+    }
+}
@@ -0,0 +1,316 @@
+package com.betterreads.unit.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.betterreads.events.CatalogChangedEvent;
+import com.betterreads.models.Author;
+import com.betterreads.models.Book;
+import com.betterreads.models.BookSummary;
+import com.betterreads.models.Publisher;
+import com.betterreads.services.BookSummaryProjector;
+
+public class BookSummaryProjectorTest {
+
+    private static final ObjectId BOOK = new ObjectId("650000000000000000000001");
+
+    private static final ObjectId MISSING_BOOK = new ObjectId("650000000000000000000002");
+
+    private static final ObjectId AUTHOR = new ObjectId("650000000000000000000003");
+
+    private static final ObjectId PUBLISHER = new ObjectId("650000000000000000000004");
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations operations;
+
+    @InjectMocks
+    private BookSummaryProjector projector;
+
+    @BeforeEach
+    public void setupTests() {
+        MockitoAnnotations.openMocks(this);
+
+        when(mongoTemplate.getCollectionName(Book.class)).thenReturn("books");
+        when(mongoTemplate.getCollectionName(Author.class)).thenReturn("authors");
+        when(mongoTemplate.getCollectionName(Publisher.class)).thenReturn("publishers");
+        when(mongoTemplate.getCollectionName(BookSummary.class)).thenReturn("book_summaries");
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("book_summaries")))
+                .thenAnswer(invocation -> Stream.empty());
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq(BookSummaryProjector.LEASES))).thenReturn(new Document());
+        when(mongoTemplate.bulkOps(BulkMode.UNORDERED, BookSummary.class)).thenReturn(operations);
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("authors"))).thenReturn(List.of(
+                new Document("_id", AUTHOR).append("firstName", "John").append("middleName", "Ronald")
+                        .append("lastName", "Tolkien")));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("publishers")))
+                .thenReturn(List.of(new Document("_id", PUBLISHER).append("name", "Allen & Unwin")));
+    }
+
+    @Test
+    public void whenBooksChanged_thenSummariesReplacedAndRemoved() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+
+        when(mongoTemplate.find(query.capture(), eq(Document.class), eq("books"))).thenReturn(List.of(book()));
+
+        projector.onCatalogChanged(CatalogChangedEvent.of(Book.class, BOOK.toHexString(), MISSING_BOOK.toHexString()));
+
+        assertEquals(new Document("_id", new Document("$in", List.of(BOOK, MISSING_BOOK))),
+                query.getValue().getQueryObject());
+
+        BookSummary summary = replaced(1).get(0);
+
+        assertEquals(BOOK.toHexString(), summary.getId());
+        assertEquals("The Hobbit", summary.getTitle());
+        assertEquals(List.of("fantasy"), summary.getGenres());
+        assertEquals(List.of("Tolkien, John Ronald"), summary.getAuthorNames());
+        assertEquals("Allen & Unwin", summary.getPublisherName());
+        assertNull(summary.getScore());
+
+        verify(operations).execute();
+        verify(mongoTemplate).remove(query.capture(), eq(BookSummary.class));
+        assertEquals(new Document("id", new Document("$in", List.of(MISSING_BOOK))), query.getValue().getQueryObject());
+    }
+
+    @Test
+    public void whenBookWithoutReferences_thenEmptyNames() {
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("books")))
+                .thenReturn(List.of(new Document("_id", BOOK).append("title", "Anonymous")));
+
+        projector.onCatalogChanged(CatalogChangedEvent.of(Book.class, BOOK.toHexString()));
+
+        BookSummary summary = replaced(1).get(0);
+
+        assertEquals(List.of(), summary.getAuthorNames());
+        assertNull(summary.getPublisherName());
+
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Document.class), eq("authors"));
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(BookSummary.class));
+    }
+
+    @Test
+    public void whenAuthorChanged_thenReferencingBooksRebuilt() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+
+        when(mongoTemplate.find(query.capture(), eq(Document.class), eq("books")))
+                .thenReturn(List.of(new Document("_id", BOOK)))
+                .thenReturn(List.of(book()));
+
+        projector.onCatalogChanged(CatalogChangedEvent.of(Author.class, AUTHOR.toHexString()));
+
+        assertEquals(new Document("authors", new Document("$in", List.of(AUTHOR))),
+                query.getAllValues().get(0).getQueryObject());
+        assertEquals(new Document("_id", new Document("$in", List.of(BOOK))),
+                query.getAllValues().get(1).getQueryObject());
+        assertEquals(1, replaced(1).size());
+    }
+
+    @Test
+    public void whenPublisherChanged_thenReferencingBooksRebuilt() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+
+        when(mongoTemplate.find(query.capture(), eq(Document.class), eq("books"))).thenReturn(List.of());
+
+        projector.onCatalogChanged(CatalogChangedEvent.of(Publisher.class, PUBLISHER.toHexString()));
+
+        assertEquals(new Document("publisher", new Document("$in", List.of(PUBLISHER))),
+                query.getValue().getQueryObject());
+        verify(mongoTemplate, never()).bulkOps(BulkMode.UNORDERED, BookSummary.class);
+    }
+
+    @Test
+    public void whenAllBooksChanged_thenRebuiltInBackground() {
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("books"))).thenReturn(Stream.of(book()));
+
+        projector.onCatalogChanged(CatalogChangedEvent.all(Book.class));
+
+        verify(mongoTemplate, never()).stream(any(Query.class), eq(Document.class), eq("books"));
+
+        assertTrue(projector.rebuildIfRequested());
+        assertFalse(projector.rebuildIfRequested());
+
+        verify(mongoTemplate, never()).remove(new Query(), BookSummary.class);
+        assertEquals(1, replaced(1).size());
+    }
+
+    @Test
+    public void whenRebuilt_thenOrphanedSummariesRemoved() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("books"))).thenReturn(Stream.of(book()));
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("book_summaries")))
+                .thenReturn(Stream.of(new Document("_id", BOOK.toHexString()),
+                        new Document("_id", MISSING_BOOK.toHexString())));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("books")))
+                .thenReturn(List.of(new Document("_id", BOOK)));
+
+        projector.rebuildAll();
+
+        verify(mongoTemplate).remove(query.capture(), eq(BookSummary.class));
+        assertEquals(new Document("id", new Document("$in", List.of(MISSING_BOOK))), query.getValue().getQueryObject());
+    }
+
+    @Test
+    public void whenLeaseHeldElsewhere_thenRebuildPostponed() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq(BookSummaryProjector.LEASES)))
+                .thenThrow(new DuplicateKeyException("held"))
+                .thenReturn(new Document());
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("books"))).thenReturn(Stream.of(book()));
+
+        projector.onCatalogChanged(CatalogChangedEvent.all(Publisher.class));
+
+        assertFalse(projector.rebuildIfRequested());
+        verify(mongoTemplate, never()).stream(any(Query.class), eq(Document.class), eq("books"));
+
+        assertTrue(projector.rebuildIfRequested());
+        assertEquals(1, replaced(1).size());
+    }
+
+    @Test
+    public void whenLeaseLostDuringRebuild_thenStoppedWithoutRelease() {
+        Document[] books = new Document[BookSummaryProjector.CHUNK_SIZE + 1];
+
+        for (int i = 0; i < books.length; i++) {
+            books[i] = new Document("_id", new ObjectId());
+        }
+
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq(BookSummaryProjector.LEASES)))
+                .thenReturn(new Document())
+                .thenReturn(null);
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("books"))).thenReturn(Stream.of(books));
+
+        projector.onCatalogChanged(CatalogChangedEvent.all(Book.class));
+
+        assertFalse(projector.rebuildIfRequested());
+
+        verify(operations, times(1)).execute();
+        verify(mongoTemplate, never()).stream(any(Query.class), eq(Document.class), eq("book_summaries"));
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class),
+                eq(BookSummaryProjector.LEASES));
+
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq(BookSummaryProjector.LEASES))).thenReturn(new Document());
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("books"))).thenReturn(Stream.of(books));
+
+        assertTrue(projector.rebuildIfRequested());
+    }
+
+    @Test
+    public void whenAllAuthorsChanged_thenSummariesRebuiltInChunks() {
+        Document[] books = new Document[BookSummaryProjector.CHUNK_SIZE + 1];
+
+        for (int i = 0; i < books.length; i++) {
+            books[i] = new Document("_id", new ObjectId()).append("authors", List.of(AUTHOR));
+        }
+
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("books"))).thenReturn(Stream.of(books));
+
+        assertEquals(books.length, projector.rebuildAll());
+
+        verify(operations, times(2)).execute();
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(BookSummary.class));
+    }
+
+    @Test
+    public void whenOtherTypeChanged_thenIgnored() {
+        projector.onCatalogChanged(CatalogChangedEvent.all(String.class));
+
+        verify(mongoTemplate, never()).stream(any(Query.class), eq(Document.class), eq("books"));
+        verifyNoInteractions(operations);
+    }
+
+    @Test
+    public void whenRemoteChange_thenIgnored() {
+        projector.onCatalogChanged(CatalogChangedEvent.remote(Book.class, List.of("1")));
+
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Document.class), eq("books"));
+        verify(mongoTemplate, never()).bulkOps(BulkMode.UNORDERED, BookSummary.class);
+    }
+
+    @Test
+    public void whenStartedWithMissingSummaries_thenRebuiltInBackground() {
+        when(mongoTemplate.count(new Query(), Book.class)).thenReturn(1L);
+        when(mongoTemplate.count(new Query(), BookSummary.class)).thenReturn(0L);
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("books"))).thenReturn(Stream.of(book()));
+
+        projector.run(null);
+
+        verify(mongoTemplate, never()).stream(any(Query.class), eq(Document.class), eq("books"));
+
+        assertTrue(projector.rebuildIfRequested());
+
+        verify(mongoTemplate, never()).remove(new Query(), BookSummary.class);
+        assertEquals(1, replaced(1).size());
+    }
+
+    @Test
+    public void whenStartedWithSummaries_thenNotRebuilt() {
+        when(mongoTemplate.count(new Query(), Book.class)).thenReturn(1L);
+        when(mongoTemplate.count(new Query(), BookSummary.class)).thenReturn(1L);
+
+        projector.run(null);
+
+        assertFalse(projector.rebuildIfRequested());
+
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(BookSummary.class));
+        verify(mongoTemplate, never()).stream(any(Query.class), eq(Document.class), eq("books"));
+    }
+
+    @Test
+    public void whenNothingRequested_thenNoLease() {
+        assertFalse(projector.rebuildIfRequested());
+
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Document.class), eq(BookSummaryProjector.LEASES));
+    }
+
+    private static Document book() {
+        return new Document("_id", BOOK)
+                .append("title", "The Hobbit")
+                .append("genres", List.of("fantasy"))
+                .append("authors", List.of(AUTHOR))
+                .append("publisher", PUBLISHER);
+    }
+
+    private List<BookSummary> replaced(int times) {
+        ArgumentCaptor<Object> summary = ArgumentCaptor.forClass(Object.class);
+
+        verify(operations, times(times)).replaceOne(any(Query.class), summary.capture(),
+                any(FindAndReplaceOptions.class));
+
+        return summary.getAllValues().stream().map(BookSummary.class::cast).toList();
+    }
+}
@@ -0,0 +1,105 @@
+package com.betterreads.unit.services;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.betterreads.configurations.CacheConfig;
+import com.betterreads.events.CatalogChangedEvent;
+import com.betterreads.models.Book;
+import com.betterreads.models.BookSummary;
+import com.betterreads.models.Publisher;
+import com.betterreads.services.CacheInvalidator;
+
+public class CacheInvalidatorTest {
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private Cache cache;
+
+    @Mock
+    private Cache facets;
+
+    @InjectMocks
+    private CacheInvalidator invalidator;
+
+    @BeforeEach
+    public void setupTests() {
+        MockitoAnnotations.openMocks(this);
+
+        when(mongoTemplate.getCollectionName(Book.class)).thenReturn("books");
+        when(mongoTemplate.getCollectionName(BookSummary.class)).thenReturn("book_summaries");
+        when(cacheManager.getCache("books")).thenReturn(cache);
+        when(cacheManager.getCache(CacheConfig.FACETS)).thenReturn(facets);
+    }
+
+    @Test
+    public void whenDocumentsChanged_thenEvicted() {
+        invalidator.onCatalogChanged(CatalogChangedEvent.of(Book.class, "1", "2"));
+
+        verify(cache).evict("1");
+        verify(cache).evict("2");
+        verify(cache, never()).clear();
+    }
+
+    @Test
+    public void whenRemoteDocumentsChanged_thenEvicted() {
+        invalidator.onCatalogChanged(CatalogChangedEvent.remote(Book.class, List.of("3")));
+
+        verify(cache).evict("3");
+    }
+
+    @Test
+    public void whenCollectionChanged_thenCleared() {
+        invalidator.onCatalogChanged(CatalogChangedEvent.all(Book.class));
+
+        verify(cache).clear();
+    }
+
+    @Test
+    public void whenCollectionNotCached_thenIgnored() {
+        invalidator.onCatalogChanged(CatalogChangedEvent.all(BookSummary.class));
+
+        verifyNoInteractions(cache);
+    }
+
+    @Test
+    public void whenBooksChanged_thenFacetsCleared() {
+        invalidator.onCatalogChanged(CatalogChangedEvent.of(Book.class, "1"));
+
+        verify(facets).clear();
+    }
+
+    @Test
+    public void whenPublishersChanged_thenFacetsCleared() {
+        when(mongoTemplate.getCollectionName(Publisher.class)).thenReturn("publishers");
+
+        invalidator.onCatalogChanged(CatalogChangedEvent.all(Publisher.class));
+
+        verify(facets).clear();
+    }
+
+    @Test
+    public void whenSummariesChanged_thenFacetsKept() {
+        invalidator.onCatalogChanged(CatalogChangedEvent.all(BookSummary.class));
+
+        verifyNoInteractions(facets);
+    }
+}
@@ -0,0 +1,207 @@
+package com.betterreads.unit.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.betterreads.events.CatalogChangedEvent;
+import com.betterreads.models.Author;
+import com.betterreads.models.Book;
+import com.betterreads.models.Publisher;
+import com.betterreads.queries.Collations;
+import com.betterreads.services.CascadeDeleter;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+
+public class CascadeDeleterTest {
+
+    private static final String BOOK = "64f1c0a2b3d4e5f6a7b8c9d0";
+
+    private static final String AUTHOR = "64f1c0a2b3d4e5f6a7b8c9d1";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ApplicationEventPublisher events;
+
+    @InjectMocks
+    private CascadeDeleter deleter;
+
+    @BeforeEach
+    public void setupTests() {
+        MockitoAnnotations.openMocks(this);
+
+        MongoMappingContext context = new MongoMappingContext();
+        context.setInitialEntitySet(Set.of(Book.class, Author.class, Publisher.class));
+        context.afterPropertiesSet();
+
+        when(mongoTemplate.getConverter()).thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, context));
+        when(mongoTemplate.getCollectionName(Book.class)).thenReturn("books");
+        when(mongoTemplate.getCollectionName(Author.class)).thenReturn("authors");
+        when(mongoTemplate.getCollectionName(Publisher.class)).thenReturn("publishers");
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), any(String.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        when(mongoTemplate.remove(any(Query.class), any(String.class)))
+                .thenAnswer(invocation -> DeleteResult.acknowledged(
+                        ((Query) invocation.getArgument(0)).getQueryObject().get("_id", Document.class)
+                                .getList("$in", Object.class).size()));
+    }
+
+    @Test
+    public void whenBookDeleted_thenPulledFromAuthorsAndPublishers() {
+        references("authors", AUTHOR);
+        references("publishers");
+
+        assertEquals(1, deleter.delete(Book.class, List.of(BOOK)));
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        Query query = new Query(Criteria.where("books").in(List.of(new ObjectId(BOOK))));
+
+        verify(mongoTemplate).updateMulti(eq(query), update.capture(), eq("authors"));
+        verify(mongoTemplate, never()).updateMulti(any(Query.class), any(Update.class), eq("publishers"));
+        verify(mongoTemplate).remove(new Query(Criteria.where("_id").in(List.of(new ObjectId(BOOK)))), "books");
+
+        assertEquals(new Document("books", List.of(new ObjectId(BOOK))),
+                update.getValue().getUpdateObject().get("$pullAll"));
+        assertEquals(new Document("version", 1), update.getValue().getUpdateObject().get("$inc"));
+
+        List<CatalogChangedEvent> published = published(2);
+
+        assertEquals(Book.class, published.get(0).getType());
+        assertEquals(List.of(BOOK), published.get(0).getIds());
+        assertEquals(Author.class, published.get(1).getType());
+        assertEquals(List.of(AUTHOR), published.get(1).getIds());
+    }
+
+    @Test
+    public void whenPublisherDeleted_thenUnsetOnBooks() {
+        references("books", BOOK);
+
+        deleter.delete(Publisher.class, List.of(AUTHOR));
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        Query query = new Query(Criteria.where("publisher").in(List.of(new ObjectId(AUTHOR))));
+
+        verify(mongoTemplate).updateMulti(eq(query), update.capture(), eq("books"));
+        assertEquals(new Document("publisher", 1), update.getValue().getUpdateObject().get("$unset"));
+    }
+
+    @Test
+    public void whenManyIdsDeleted_thenSentInChunks() {
+        ReflectionTestUtils.setField(deleter, "chunkSize", 2);
+        references("authors");
+        references("publishers");
+
+        assertEquals(5, deleter.delete(Book.class, List.of("1", "2", "3", "4", "5")));
+
+        verify(mongoTemplate, times(3)).remove(any(Query.class), eq("books"));
+        verify(mongoTemplate, never()).updateMulti(any(Query.class), any(Update.class), any(String.class));
+    }
+
+    @Test
+    public void whenFilterMatches_thenIdsStreamedAndDeletedInChunks() {
+        ReflectionTestUtils.setField(deleter, "chunkSize", 2);
+        references("authors");
+        references("publishers");
+
+        Query filter = new Query(Criteria.where("language").is("Klingon")).limit(10)
+                .collation(Collations.CASE_INSENSITIVE);
+        ArgumentCaptor<Query> streamed = ArgumentCaptor.forClass(Query.class);
+
+        when(mongoTemplate.stream(streamed.capture(), eq(Document.class), eq("books")))
+                .thenReturn(Stream.of("1", "2", "3").map(id -> new Document("_id", id)));
+
+        assertEquals(3, deleter.delete(Book.class, filter));
+
+        verify(mongoTemplate, times(2)).remove(any(Query.class), eq("books"));
+        assertEquals(new Document("language", "Klingon"), streamed.getValue().getQueryObject());
+        assertEquals(0, streamed.getValue().getLimit());
+        assertEquals(Collations.CASE_INSENSITIVE, streamed.getValue().getCollation().orElseThrow());
+    }
+
+    @Test
+    public void whenFilterMatchesId_thenDocumentAndReferencesDeleted() {
+        references("authors", AUTHOR);
+        references("publishers");
+
+        ArgumentCaptor<Query> streamed = ArgumentCaptor.forClass(Query.class);
+
+        when(mongoTemplate.stream(streamed.capture(), eq(Document.class), eq("books")))
+                .thenReturn(Stream.of(new Document("_id", new ObjectId(BOOK))));
+
+        assertEquals(1, deleter.delete(Book.class, new Query(Criteria.where("id").is(BOOK))));
+
+        assertEquals(new Document("_id", new ObjectId(BOOK)), streamed.getValue().getQueryObject());
+        verify(mongoTemplate).remove(new Query(Criteria.where("_id").in(List.of(new ObjectId(BOOK)))), "books");
+        verify(mongoTemplate).updateMulti(eq(new Query(Criteria.where("books").in(List.of(new ObjectId(BOOK))))),
+                any(Update.class), eq("authors"));
+
+        List<CatalogChangedEvent> published = published(2);
+
+        assertEquals(List.of(BOOK), published.get(0).getIds());
+        assertEquals(List.of(AUTHOR), published.get(1).getIds());
+    }
+
+    @Test
+    public void whenAllDeleted_thenReferencesEmptied() {
+        doReturn(DeleteResult.acknowledged(4)).when(mongoTemplate).remove(new Query(), "authors");
+
+        assertEquals(4, deleter.deleteAll(Author.class));
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+
+        verify(mongoTemplate).updateMulti(any(Query.class), update.capture(), eq("books"));
+        assertEquals(new Document("authors", List.of()), update.getValue().getUpdateObject().get("$set"));
+
+        List<CatalogChangedEvent> published = published(2);
+
+        assertTrue(published.get(0).isAll());
+        assertEquals(Author.class, published.get(0).getType());
+        assertEquals(Book.class, published.get(1).getType());
+        assertTrue(published.get(1).isAll());
+    }
+
+    private void references(String collection, String... ids) {
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(collection)))
+                .thenReturn(Stream.of(ids).map(id -> new Document("_id", new ObjectId(id)))
+                        .collect(Collectors.toList()));
+    }
+
+    private List<CatalogChangedEvent> published(int count) {
+        ArgumentCaptor<CatalogChangedEvent> event = ArgumentCaptor.forClass(CatalogChangedEvent.class);
+
+        verify(events, times(count)).publishEvent(event.capture());
+
+        return event.getAllValues();
+    }
+}
@@ -0,0 +1,249 @@
+package com.betterreads.unit.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.betterreads.events.CatalogChangedEvent;
+import com.betterreads.models.Author;
+import com.betterreads.models.Book;
+import com.betterreads.models.Publisher;
+import com.betterreads.services.CatalogChangeStream;
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.MongoNamespace;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+
+public class CatalogChangeStreamTest {
+
+    private static final BsonDocument TOKEN = new BsonDocument("_data", new BsonString("8265"));
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ApplicationEventPublisher events;
+
+    @Mock
+    private MongoCollection<Document> tokens;
+
+    @Mock
+    private MongoCollection<BsonDocument> storedTokens;
+
+    @Mock
+    private FindIterable<BsonDocument> found;
+
+    @Mock
+    private MongoDatabase database;
+
+    @Mock
+    private ChangeStreamIterable<Document> stream;
+
+    @Mock
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor;
+
+    @InjectMocks
+    private CatalogChangeStream changeStream;
+
+    @BeforeEach
+    public void setupTests() {
+        MockitoAnnotations.openMocks(this);
+
+        when(mongoTemplate.getCollectionName(Book.class)).thenReturn("books");
+        when(mongoTemplate.getCollectionName(Author.class)).thenReturn("authors");
+        when(mongoTemplate.getCollectionName(Publisher.class)).thenReturn("publishers");
+        when(mongoTemplate.getCollection(CatalogChangeStream.TOKENS)).thenReturn(tokens);
+        when(tokens.withDocumentClass(BsonDocument.class)).thenReturn(storedTokens);
+        when(storedTokens.find(any(Bson.class))).thenReturn(found);
+        when(mongoTemplate.getDb()).thenReturn(database);
+        when(database.watch(anyList())).thenReturn(stream);
+        when(stream.maxAwaitTime(anyLong(), eq(TimeUnit.SECONDS))).thenReturn(stream);
+        when(stream.resumeAfter(any(BsonDocument.class))).thenReturn(stream);
+        when(stream.cursor()).thenReturn(cursor);
+    }
+
+    @Test
+    public void whenOpenWithStoredToken_thenResumeAfterIt() {
+        when(found.first()).thenReturn(new BsonDocument("_id", new BsonString("local")).append("token", TOKEN));
+
+        assertEquals(cursor, changeStream.open());
+
+        verify(stream).resumeAfter(TOKEN);
+    }
+
+    @Test
+    public void whenOpenWithoutToken_thenStartFromNow() {
+        assertEquals(cursor, changeStream.open());
+
+        verify(stream, never()).resumeAfter(any(BsonDocument.class));
+    }
+
+    @Test
+    public void whenDrain_thenOneRemoteEventPerCollectionAndTokenSaved() {
+        ObjectId bookId = new ObjectId();
+        ChangeStreamDocument<Document> inserted = change(OperationType.INSERT, "books", new BsonObjectId(bookId));
+        ChangeStreamDocument<Document> updated = change(OperationType.UPDATE, "books", new BsonObjectId(bookId));
+        ChangeStreamDocument<Document> deleted = change(OperationType.DELETE, "authors", new BsonString("a1"));
+        ChangeStreamDocument<Document> other = change(OperationType.INSERT, "book_summaries", new BsonString("s1"));
+
+        doReturn(inserted, updated, deleted, other, null).when(cursor).tryNext();
+        when(cursor.getResumeToken()).thenReturn(TOKEN);
+
+        assertEquals(4, changeStream.drain(cursor));
+
+        ArgumentCaptor<CatalogChangedEvent> event = ArgumentCaptor.forClass(CatalogChangedEvent.class);
+        verify(events, times(2)).publishEvent(event.capture());
+
+        assertEquals(Book.class, event.getAllValues().get(0).getType());
+        assertEquals(List.of(bookId.toHexString()), event.getAllValues().get(0).getIds());
+        assertTrue(event.getAllValues().get(0).isRemote());
+        assertEquals(Author.class, event.getAllValues().get(1).getType());
+        assertEquals(List.of("a1"), event.getAllValues().get(1).getIds());
+
+        ArgumentCaptor<Document> saved = ArgumentCaptor.forClass(Document.class);
+        verify(tokens).replaceOne(any(Bson.class), saved.capture(), any(ReplaceOptions.class));
+        assertEquals("local", saved.getValue().get("_id"));
+        assertEquals(TOKEN, saved.getValue().get("token"));
+    }
+
+    @Test
+    public void whenDrainNothing_thenNoEventOrToken() {
+        when(cursor.getResumeToken()).thenReturn(TOKEN);
+
+        assertEquals(0, changeStream.drain(cursor));
+
+        verify(events, never()).publishEvent(any(Object.class));
+        verify(tokens, never()).replaceOne(any(Bson.class), any(Document.class), any(ReplaceOptions.class));
+    }
+
+    @Test
+    public void whenDrainDrop_thenWholeCollectionEvent() {
+        ChangeStreamDocument<Document> updated = change(OperationType.UPDATE, "publishers", new BsonString("p1"));
+        ChangeStreamDocument<Document> dropped = change(OperationType.DROP, "publishers", null);
+
+        doReturn(updated, dropped, null).when(cursor).tryNext();
+
+        changeStream.drain(cursor);
+
+        ArgumentCaptor<CatalogChangedEvent> event = ArgumentCaptor.forClass(CatalogChangedEvent.class);
+        verify(events).publishEvent(event.capture());
+        assertEquals(Publisher.class, event.getValue().getType());
+        assertTrue(event.getValue().isAll());
+    }
+
+    @Test
+    public void whenDrainInvalidate_thenEverythingClearedAndTokenDropped() {
+        ChangeStreamDocument<Document> invalidate = change(OperationType.INVALIDATE, null, null);
+
+        doReturn(invalidate).doReturn(null).when(cursor).tryNext();
+        when(cursor.getResumeToken()).thenReturn(TOKEN);
+
+        changeStream.drain(cursor);
+
+        ArgumentCaptor<CatalogChangedEvent> event = ArgumentCaptor.forClass(CatalogChangedEvent.class);
+        verify(events, times(3)).publishEvent(event.capture());
+        assertTrue(event.getAllValues().stream().allMatch(CatalogChangedEvent::isAll));
+        verify(tokens).deleteOne(any(Bson.class));
+        verify(tokens, never()).replaceOne(any(Bson.class), any(Document.class), any(ReplaceOptions.class));
+    }
+
+    @Test
+    public void whenHistoryLost_thenTokenDroppedEverythingReloadedAndStartedFromNow() {
+        MongoCommandException lost = new MongoCommandException(new BsonDocument("ok", new BsonInt32(0))
+                .append("code", new BsonInt32(286))
+                .append("errmsg", new BsonString("Resume of change stream was not possible")), new ServerAddress());
+
+        when(found.first())
+                .thenReturn(new BsonDocument("_id", new BsonString("local")).append("token", TOKEN))
+                .thenReturn(null);
+        when(stream.cursor()).thenThrow(lost).thenReturn(cursor);
+
+        changeStream.start();
+
+        try {
+            // reopened at once, well within the five second retry delay
+            verify(stream, timeout(2000).times(2)).cursor();
+        } finally {
+            changeStream.stop();
+        }
+
+        verify(stream, times(1)).resumeAfter(TOKEN);
+        verify(tokens).deleteOne(any(Bson.class));
+
+        ArgumentCaptor<CatalogChangedEvent> event = ArgumentCaptor.forClass(CatalogChangedEvent.class);
+        verify(events, times(3)).publishEvent(event.capture());
+        assertEquals(List.of(Book.class, Author.class, Publisher.class),
+                event.getAllValues().stream().map(CatalogChangedEvent::getType).toList());
+        assertTrue(event.getAllValues().stream().allMatch(CatalogChangedEvent::isAll));
+        assertTrue(event.getAllValues().stream().allMatch(CatalogChangedEvent::isRemote));
+    }
+
+    @Test
+    public void whenOtherFailure_thenTokenKept() {
+        assertFalse(changeStream.recover(new MongoException(6, "Host unreachable")));
+
+        verify(tokens, never()).deleteOne(any(Bson.class));
+        verify(events, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void whenStartAndStop_thenRunningFollowsLifecycle() {
+        assertFalse(changeStream.isRunning());
+
+        changeStream.start();
+        assertTrue(changeStream.isRunning());
+
+        changeStream.stop();
+        assertFalse(changeStream.isRunning());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ChangeStreamDocument<Document> change(OperationType type, String collection, BsonValue id) {
+        ChangeStreamDocument<Document> change = mock(ChangeStreamDocument.class);
+
+        when(change.getOperationType()).thenReturn(type);
+        when(change.getNamespace()).thenReturn(collection == null ? null : new MongoNamespace("betterreads", collection));
+        when(change.getDocumentKey()).thenReturn(id == null ? null : new BsonDocument("_id", id));
+
+        return change;
+    }
+}
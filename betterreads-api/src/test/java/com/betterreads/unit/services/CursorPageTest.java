@@ -0,0 +1,246 @@
+package com.betterreads.unit.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.betterreads.models.Book;
+import com.betterreads.queries.Projection;
+import com.betterreads.repositories.BooksRepository;
+import com.betterreads.repositories.reactive.ReactiveBooksRepository;
+import com.betterreads.services.CursorPage;
+
+import reactor.core.publisher.Flux;
+
+public class CursorPageTest {
+
+    private static final String FIRST_ID = "650000000000000000000001";
+
+    @Mock
+    private BooksRepository repository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ReactiveBooksRepository reactiveRepository;
+
+    @Mock
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @BeforeEach
+    public void setupTests() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    public void whenFetchFirstPage_withMore_thenNextCursor() {
+        when(repository.findAllBy(PageRequest.of(0, 3, Sort.by(Sort.Direction.ASC, "id"))))
+                .thenReturn(books("1", "2", "3"));
+
+        CursorPage<Book> page = CursorPage.fetch(repository, null, null, 2);
+
+        assertEquals(2, page.getContent().size());
+        assertEquals("2", page.getNext());
+        assertNull(page.getPrevious());
+        assertEquals(2, page.getSize());
+    }
+
+    @Test
+    public void whenFetchAfter_lastPage_thenOnlyPreviousCursor() {
+        when(repository.findByIdGreaterThan(new ObjectId(FIRST_ID),
+                PageRequest.of(0, 3, Sort.by(Sort.Direction.ASC, "id")))).thenReturn(books("4", "5"));
+
+        CursorPage<Book> page = CursorPage.fetch(repository, FIRST_ID, null, 2);
+
+        assertEquals(Arrays.asList("4", "5"), ids(page));
+        assertNull(page.getNext());
+        assertEquals("4", page.getPrevious());
+        assertEquals(FIRST_ID, page.getAfter());
+    }
+
+    @Test
+    public void whenFetchBefore_withMore_thenContentInAscendingOrder() {
+        when(repository.findByIdLessThan("9", PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "id"))))
+                .thenReturn(books("8", "7", "6"));
+
+        CursorPage<Book> page = CursorPage.fetch(repository, null, "9", 2);
+
+        assertEquals(Arrays.asList("7", "8"), ids(page));
+        assertEquals("8", page.getNext());
+        assertEquals("7", page.getPrevious());
+    }
+
+    @Test
+    public void whenFetchBefore_firstPage_thenNoPreviousCursor() {
+        when(repository.findByIdLessThan("3", PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "id"))))
+                .thenReturn(books("2", "1"));
+
+        CursorPage<Book> page = CursorPage.fetch(repository, null, "3", 2);
+
+        assertEquals(Arrays.asList("1", "2"), ids(page));
+        assertEquals("2", page.getNext());
+        assertNull(page.getPrevious());
+    }
+
+    @Test
+    public void whenFetchEmpty_thenNoCursors() {
+        when(repository.findByIdGreaterThan("9", PageRequest.of(0, 21, Sort.by(Sort.Direction.ASC, "id"))))
+                .thenReturn(Collections.emptyList());
+
+        CursorPage<Book> page = CursorPage.fetch(repository, "9", null, 20);
+
+        assertEquals(0, page.getContent().size());
+        assertNull(page.getNext());
+        assertNull(page.getPrevious());
+        verify(repository).findByIdGreaterThan("9", PageRequest.of(0, 21, Sort.by(Sort.Direction.ASC, "id")));
+    }
+
+    @Test
+    public void whenFetchProjected_thenKeysetQueryWithFields() {
+        when(mongoTemplate.find(any(Query.class), eq(Book.class))).thenReturn(books("8", "7", "6"));
+
+        CursorPage<Book> page = CursorPage.fetch(mongoTemplate, Book.class, new Projection(Set.of("title")), null,
+                FIRST_ID, 2);
+
+        assertEquals(Arrays.asList("7", "8"), ids(page));
+        assertEquals("7", page.getPrevious());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Book.class));
+        assertEquals(new Document("id", new Document("$lt", new ObjectId(FIRST_ID))), query.getValue().getQueryObject());
+        assertEquals(new Document("title", 1), query.getValue().getFieldsObject());
+        assertEquals(new Document("id", -1), query.getValue().getSortObject());
+        assertEquals(3, query.getValue().getLimit());
+    }
+
+    @Test
+    public void whenFetchProjectedAfter_thenGreaterThanCursor() {
+        when(mongoTemplate.find(any(Query.class), eq(Book.class))).thenReturn(books("4"));
+
+        CursorPage<Book> page = CursorPage.fetch(mongoTemplate, Book.class, new Projection(Set.of("title")), "3",
+                null, 2);
+
+        assertEquals("4", page.getPrevious());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Book.class));
+        assertEquals(new Document("id", new Document("$gt", "3")), query.getValue().getQueryObject());
+        assertEquals(new Document("id", 1), query.getValue().getSortObject());
+    }
+
+    @Test
+    public void whenFetchProjectedFirstPage_thenNoCursorCondition() {
+        when(mongoTemplate.find(any(Query.class), eq(Book.class))).thenReturn(books("1"));
+
+        CursorPage.fetch(mongoTemplate, Book.class, new Projection(Set.of("title")), null, null, 2);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Book.class));
+        assertTrue(query.getValue().getQueryObject().isEmpty());
+    }
+
+    @Test
+    public void whenFetchFiltered_thenFilterAndKeysetCondition() {
+        when(mongoTemplate.find(any(Query.class), eq(Book.class))).thenReturn(books("4", "5", "6"));
+
+        CursorPage<Book> page = CursorPage.fetch(mongoTemplate, Book.class,
+                new Query(Criteria.where("genres").is("Fiction")), "3", null, 2);
+
+        assertEquals(Arrays.asList("4", "5"), ids(page));
+        assertEquals("5", page.getNext());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Book.class));
+        assertEquals(new Document("genres", "Fiction").append("id", new Document("$gt", "3")),
+                query.getValue().getQueryObject());
+        assertEquals(new Document("id", 1), query.getValue().getSortObject());
+        assertEquals(3, query.getValue().getLimit());
+    }
+
+    @Test
+    public void whenFetchReactive_thenSameWindowAsBlocking() {
+        when(reactiveRepository.findByIdLessThan("9", PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "id"))))
+                .thenReturn(Flux.fromIterable(books("8", "7", "6")));
+
+        CursorPage<Book> page = CursorPage.fetch(reactiveRepository, null, "9", 2).block();
+
+        assertEquals(Arrays.asList("7", "8"), ids(page));
+        assertEquals("8", page.getNext());
+        assertEquals("7", page.getPrevious());
+    }
+
+    @Test
+    public void whenFetchReactiveAfter_thenGreaterThanCursor() {
+        when(reactiveRepository.findByIdGreaterThan(new ObjectId(FIRST_ID),
+                PageRequest.of(0, 3, Sort.by(Sort.Direction.ASC, "id")))).thenReturn(Flux.empty());
+        when(reactiveRepository.findAllBy(PageRequest.of(0, 3, Sort.by(Sort.Direction.ASC, "id"))))
+                .thenReturn(Flux.fromIterable(books("1")));
+
+        assertTrue(CursorPage.fetch(reactiveRepository, FIRST_ID, null, 2).block().getContent().isEmpty());
+        assertEquals(Arrays.asList("1"), ids(CursorPage.fetch(reactiveRepository, null, null, 2).block()));
+    }
+
+    @Test
+    public void whenFetchReactiveProjected_thenKeysetQueryWithFields() {
+        when(reactiveMongoTemplate.find(any(Query.class), eq(Book.class)))
+                .thenReturn(Flux.fromIterable(books("4", "5", "6")));
+
+        CursorPage<Book> page = CursorPage.fetch(reactiveMongoTemplate, Book.class, new Projection(Set.of("title")),
+                "3", null, 2).block();
+
+        assertEquals(Arrays.asList("4", "5"), ids(page));
+        assertEquals("5", page.getNext());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(reactiveMongoTemplate).find(query.capture(), eq(Book.class));
+        assertEquals(new Document("id", new Document("$gt", "3")), query.getValue().getQueryObject());
+        assertEquals(new Document("title", 1), query.getValue().getFieldsObject());
+        assertEquals(3, query.getValue().getLimit());
+    }
+
+    @Test
+    public void whenClamp_thenBoundedSize() {
+        assertEquals(1, CursorPage.clamp(0));
+        assertEquals(1, CursorPage.clamp(1));
+        assertEquals(CursorPage.MAX_SIZE, CursorPage.clamp(CursorPage.MAX_SIZE));
+        assertEquals(CursorPage.MAX_SIZE, CursorPage.clamp(CursorPage.MAX_SIZE + 1));
+    }
+
+    @Test
+    public void whenToKey_thenObjectIdOrString() {
+        assertEquals(new ObjectId(FIRST_ID), CursorPage.toKey(FIRST_ID));
+        assertEquals("my-id", CursorPage.toKey("my-id"));
+    }
+
+    private List<Book> books(String... ids) {
+        return Arrays.stream(ids).map(id -> Book.builder().id(id).build()).toList();
+    }
+
+    private List<String> ids(CursorPage<Book> page) {
+        return page.getContent().stream().map(Book::getId).toList();
+    }
+}
@@ -0,0 +1,83 @@
+package com.betterreads.unit.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.betterreads.models.Book;
+import com.betterreads.services.DocumentExporter;
+
+public class DocumentExporterTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private DocumentExporter exporter;
+
+    @BeforeEach
+    public void setupTests() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    public void whenExport_thenOneDocumentPerLine() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        Document first = new Document("_id", new ObjectId("650000000000000000000001"))
+                .append("title", "Caged Wisdom")
+                .append("publishedDate", new Date(0));
+        Document second = new Document("_id", new ObjectId("650000000000000000000002")).append("pages", 351);
+
+        when(mongoTemplate.getCollectionName(Book.class)).thenReturn("books");
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("books")))
+                .thenReturn(Stream.of(first, second).onClose(() -> closed.set(true)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = exporter.export(Book.class, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+
+        assertEquals(2, count);
+        assertEquals(2, lines.length);
+        assertEquals("{\"_id\": \"650000000000000000000001\", \"title\": \"Caged Wisdom\", "
+                + "\"publishedDate\": \"1970-01-01T00:00:00Z\"}", lines[0]);
+        assertEquals("{\"_id\": \"650000000000000000000002\", \"pages\": 351}", lines[1]);
+        assertTrue(closed.get());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).stream(query.capture(), eq(Document.class), eq("books"));
+        assertEquals(DocumentExporter.BATCH_SIZE, query.getValue().getMeta().getCursorBatchSize());
+        assertEquals(new Document("_class", 0), query.getValue().getFieldsObject());
+    }
+
+    @Test
+    public void whenExportEmptyCollection_thenNothingWritten() throws Exception {
+        when(mongoTemplate.getCollectionName(Book.class)).thenReturn("books");
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("books"))).thenReturn(Stream.empty());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(0, exporter.export(Book.class, out));
+        assertEquals(0, out.size());
+    }
+}
@@ -0,0 +1,229 @@
+package com.betterreads.unit.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoExceptionTranslator;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.convert.LazyLoadingProxy;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.betterreads.configurations.JacksonConfig;
+import com.betterreads.models.Author;
+import com.betterreads.models.Book;
+import com.betterreads.models.Publisher;
+import com.betterreads.services.RelationLoader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+
+public class RelationLoaderTest {
+
+    private static final String FIRST = "650000000000000000000001";
+    private static final String SECOND = "650000000000000000000002";
+    private static final String PUBLISHER = "650000000000000000000003";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private RelationLoader loader;
+
+    private MappingMongoConverter converter;
+
+    @BeforeEach
+    public void setupTests() {
+        MockitoAnnotations.openMocks(this);
+
+        MongoDatabaseFactory factory = mock(MongoDatabaseFactory.class);
+        when(factory.getExceptionTranslator()).thenReturn(new MongoExceptionTranslator());
+
+        MongoMappingContext context = new MongoMappingContext();
+        context.afterPropertiesSet();
+
+        converter = new MappingMongoConverter(new DefaultDbRefResolver(factory), context);
+        converter.afterPropertiesSet();
+
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+    }
+
+    @Test
+    public void whenResolve_thenOneQueryPerReferenceProperty() {
+        Book first = readBook("1", List.of(FIRST, SECOND));
+        Book second = readBook("2", List.of(SECOND));
+
+        when(mongoTemplate.find(any(Query.class), eq(Author.class))).thenReturn(List.of(
+                Author.builder().id(SECOND).lastName("Bluth").build(),
+                Author.builder().id(FIRST).lastName("Funke").build()));
+        when(mongoTemplate.find(any(Query.class), eq(Publisher.class))).thenReturn(List.of(
+                Publisher.builder().id(PUBLISHER).name("McGraw").build()));
+
+        List<Book> books = List.of(first, second);
+
+        assertSame(books, loader.resolve(books));
+
+        assertEquals(List.of("Funke", "Bluth"), first.getAuthors().stream().map(Author::getLastName).toList());
+        assertEquals(List.of("Bluth"), second.getAuthors().stream().map(Author::getLastName).toList());
+        assertEquals("McGraw", first.getPublisher().getName());
+        assertSame(first.getPublisher(), second.getPublisher());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Author.class));
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Publisher.class));
+
+        assertEquals(new Document("id", new Document("$in", List.of(new ObjectId(FIRST), new ObjectId(SECOND)))),
+                query.getValue().getQueryObject());
+    }
+
+    @Test
+    public void whenResolve_missingDocument_thenSkipped() {
+        Book book = readBook("1", List.of(FIRST, SECOND));
+
+        when(mongoTemplate.find(any(Query.class), eq(Author.class)))
+                .thenReturn(List.of(Author.builder().id(SECOND).lastName("Bluth").build()));
+        when(mongoTemplate.find(any(Query.class), eq(Publisher.class))).thenReturn(Collections.emptyList());
+
+        Book resolved = loader.resolve(book);
+
+        assertEquals(1, resolved.getAuthors().size());
+        assertEquals(SECOND, resolved.getAuthors().get(0).getId());
+        assertNull(resolved.getPublisher());
+    }
+
+    @Test
+    public void whenResolveOne_thenCopyResolvedAndEntityUnchanged() {
+        Book cached = readBook("1", List.of(FIRST));
+
+        when(mongoTemplate.find(any(Query.class), eq(Author.class)))
+                .thenReturn(List.of(Author.builder().id(FIRST).lastName("Funke").build()))
+                .thenReturn(List.of(Author.builder().id(FIRST).lastName("Bluth").build()));
+        when(mongoTemplate.find(any(Query.class), eq(Publisher.class)))
+                .thenReturn(List.of(Publisher.builder().id(PUBLISHER).name("McGraw").build()));
+
+        Book first = loader.resolve(cached);
+        Book second = loader.resolve(cached);
+
+        assertNotSame(cached, first);
+        assertEquals("1", first.getId());
+        assertEquals("Caged Wisdom", first.getTitle());
+        assertEquals(351, first.getPages());
+        assertEquals("Funke", first.getAuthors().get(0).getLastName());
+        assertEquals("Bluth", second.getAuthors().get(0).getLastName());
+        assertEquals("McGraw", second.getPublisher().getName());
+        assertTrue(cached.getAuthors() instanceof LazyLoadingProxy);
+        assertTrue(cached.getPublisher() instanceof LazyLoadingProxy);
+    }
+
+    @Test
+    public void whenResolve_alreadyResolved_thenNoQueries() {
+        Book book = Book.builder()
+                .id("1")
+                .authors(List.of(Author.builder().id(FIRST).build()))
+                .publisher(Publisher.builder().id(PUBLISHER).build())
+                .build();
+
+        assertEquals(FIRST, loader.resolve(book).getAuthors().get(0).getId());
+        verify(mongoTemplate, never()).find(any(Query.class), any());
+    }
+
+    @Test
+    public void whenResolve_neverStored_thenNullWithoutQueries() {
+        Book book = converter.read(Book.class, new Document("_id", "1").append("title", "Caged Wisdom"));
+
+        assertTrue(book.getAuthors() instanceof LazyLoadingProxy);
+
+        Book resolved = loader.resolve(book);
+
+        assertNull(resolved.getAuthors());
+        assertNull(resolved.getPublisher());
+        verify(mongoTemplate, never()).find(any(Query.class), any());
+    }
+
+    @Test
+    public void whenResolve_empty_thenNoQueries() {
+        assertTrue(loader.resolve(Collections.emptyList()).isEmpty());
+
+        verify(mongoTemplate, never()).getConverter();
+    }
+
+    @Test
+    public void whenSource_thenIdsWithoutResolving() {
+        Book book = readBook("1", List.of(FIRST, SECOND));
+
+        assertTrue(book.getAuthors() instanceof LazyLoadingProxy);
+        assertEquals(List.of(FIRST, SECOND), RelationLoader.source(book.getAuthors()));
+        assertEquals(List.of(PUBLISHER), RelationLoader.source(book.getPublisher()));
+        assertEquals(List.of(), RelationLoader.source(Publisher.builder().build()));
+        assertEquals(List.of(), RelationLoader.source(null));
+    }
+
+    @Test
+    public void whenSerialized_thenUnresolvedReferencesWrittenAsIds() throws Exception {
+        Book book = readBook("1", List.of(FIRST));
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JacksonConfig().referenceModule());
+
+        String json = mapper.writeValueAsString(book);
+
+        assertTrue(json.contains("\"authors\":[\"" + FIRST + "\"]"), json);
+        assertTrue(json.contains("\"publisher\":\"" + PUBLISHER + "\""), json);
+        verify(mongoTemplate, never()).find(any(Query.class), any());
+    }
+
+    @Test
+    public void whenResolvedBookSentBack_thenNestedReferencesReadAsIds() throws Exception {
+        Book book = readBook("1", List.of(FIRST));
+        Author author = converter.read(Author.class, new Document("_id", new ObjectId(FIRST))
+                .append("lastName", "Funke").append("books", List.of(new ObjectId(SECOND))));
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json()
+                .modules(new ParameterNamesModule(), new JacksonConfig().referenceModule())
+                .build();
+
+        when(mongoTemplate.find(any(Query.class), eq(Author.class))).thenReturn(List.of(author));
+        when(mongoTemplate.find(any(Query.class), eq(Publisher.class)))
+                .thenReturn(List.of(Publisher.builder().id(PUBLISHER).name("McGraw").build()));
+
+        String json = mapper.writeValueAsString(loader.resolve(book));
+        Book sent = mapper.readValue(json, Book.class);
+
+        assertTrue(json.contains("\"books\":[\"" + SECOND + "\"]"), json);
+        assertEquals("Funke", sent.getAuthors().get(0).getLastName());
+        assertEquals(SECOND, sent.getAuthors().get(0).getBooks().get(0).getId());
+        assertEquals("McGraw", sent.getPublisher().getName());
+        assertEquals(PUBLISHER, mapper.readValue("\"" + PUBLISHER + "\"", Publisher.class).getId());
+    }
+
+    private Book readBook(String id, List<String> authors) {
+        Document document = new Document("_id", id)
+                .append("title", "Caged Wisdom")
+                .append("pages", 351)
+                .append("authors", authors.stream().map(ObjectId::new).toList())
+                .append("publisher", new ObjectId(PUBLISHER));
+
+        return converter.read(Book.class, document);
+    }
+}
@@ -0,0 +1,140 @@
+package com.betterreads.unit.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.betterreads.events.CatalogChangedEvent;
+import com.betterreads.models.Author;
+import com.betterreads.models.Book;
+import com.betterreads.services.RelationshipSync;
+import com.mongodb.bulk.BulkWriteResult;
+
+public class RelationshipSyncTest {
+
+    private static final String BOOK = "64f1c0a2b3d4e5f6a7b8c9d0";
+
+    private static final String KEPT = "64f1c0a2b3d4e5f6a7b8c9d1";
+
+    private static final String ADDED = "64f1c0a2b3d4e5f6a7b8c9d2";
+
+    private static final String REMOVED = "64f1c0a2b3d4e5f6a7b8c9d3";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations operations;
+
+    @Mock
+    private ApplicationEventPublisher events;
+
+    @InjectMocks
+    private RelationshipSync sync;
+
+    @BeforeEach
+    public void setupTests() {
+        MockitoAnnotations.openMocks(this);
+
+        when(mongoTemplate.getCollectionName(Book.class)).thenReturn("books");
+        when(mongoTemplate.getCollectionName(Author.class)).thenReturn("authors");
+        when(mongoTemplate.bulkOps(BulkMode.UNORDERED, "authors")).thenReturn(operations);
+        when(operations.execute())
+                .thenReturn(BulkWriteResult.acknowledged(0, 2, 0, 2, Collections.emptyList(), Collections.emptyList()));
+    }
+
+    @Test
+    public void whenBookAuthorsChanged_thenAuthorsAddedAndPulled() {
+        listedBy(KEPT, REMOVED);
+
+        assertEquals(2, sync.sync(Book.class, Map.of(BOOK, List.of(KEPT, ADDED))));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+
+        verify(operations, times(2)).updateMulti(query.capture(), update.capture());
+        verify(operations).execute();
+
+        assertEquals(new Query(Criteria.where("_id").in(List.of(new ObjectId(ADDED)))), query.getAllValues().get(0));
+        assertEquals(new Document("books", new ObjectId(BOOK)),
+                update.getAllValues().get(0).getUpdateObject().get("$addToSet"));
+        assertEquals(new Query(Criteria.where("_id").in(List.of(new ObjectId(REMOVED)))),
+                query.getAllValues().get(1));
+        assertEquals(new Document("books", new ObjectId(BOOK)),
+                update.getAllValues().get(1).getUpdateObject().get("$pull"));
+        assertEquals(new Document("version", 1), update.getAllValues().get(1).getUpdateObject().get("$inc"));
+
+        ArgumentCaptor<CatalogChangedEvent> event = ArgumentCaptor.forClass(CatalogChangedEvent.class);
+
+        verify(events).publishEvent(event.capture());
+        assertEquals(Author.class, event.getValue().getType());
+        assertEquals(List.of(ADDED, REMOVED), event.getValue().getIds());
+    }
+
+    @Test
+    public void whenAlreadyInStep_thenNothingWritten() {
+        listedBy(KEPT);
+
+        assertEquals(0, sync.sync(Book.class, Map.of(BOOK, List.of(KEPT))));
+
+        verify(operations, never()).updateMulti(any(Query.class), any(Update.class));
+        verify(operations, never()).execute();
+        verify(events, never()).publishEvent(any());
+    }
+
+    @Test
+    public void whenIdsWritten_thenStoredReferencesMirrored() {
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("books")))
+                .thenReturn(List.of(new Document("_id", new ObjectId(BOOK)).append("authors",
+                        List.of(new ObjectId(ADDED)))));
+        listedBy();
+
+        sync.sync(Book.class, List.of(BOOK));
+
+        verify(operations).updateMulti(new Query(Criteria.where("_id").in(List.of(new ObjectId(ADDED)))),
+                new Update().addToSet("books", new ObjectId(BOOK)).inc("version", 1));
+    }
+
+    @Test
+    public void whenReferencesSent_thenIdsRead() {
+        Author author = Author.builder().id(KEPT).build();
+
+        assertEquals(List.of(KEPT), RelationshipSync.ids(List.of(author, Author.builder().build())));
+        assertEquals(List.of(), RelationshipSync.ids(null));
+    }
+
+    private void listedBy(String... authors) {
+        List<Document> listing = new ArrayList<>();
+
+        for (String author : authors) {
+            listing.add(new Document("_id", new ObjectId(author)).append("books", List.of(new ObjectId(BOOK))));
+        }
+
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("authors"))).thenReturn(listing);
+    }
+}
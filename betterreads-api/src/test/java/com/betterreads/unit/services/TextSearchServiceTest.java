@@ -0,0 +1,89 @@
+package com.betterreads.unit.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+
+import com.betterreads.assemblers.BookSummariesAssembler;
+import com.betterreads.exceptions.InvalidRequestException;
+import com.betterreads.models.BookSummary;
+import com.betterreads.services.TextSearchService;
+
+public class TextSearchServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BookSummariesAssembler assembler;
+
+    @InjectMocks
+    private TextSearchService service;
+
+    @BeforeEach
+    public void setupTests() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    public void whenSearch_thenScoredTextQuery() {
+        BookSummary first = BookSummary.builder().id("1").build();
+        BookSummary second = BookSummary.builder().id("2").build();
+        BookSummary third = BookSummary.builder().id("3").build();
+        CollectionModel<EntityModel<?>> expected = CollectionModel.empty();
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+
+        when(mongoTemplate.find(query.capture(), eq(BookSummary.class))).thenReturn(List.of(first, second, third));
+        when(assembler.toPagedModel(List.of(first, second), "tolkien hobbit", 3, 2, true)).thenReturn(expected);
+
+        assertEquals(expected, service.search("tolkien hobbit", 3, 2));
+
+        assertEquals(new Document("$text", new Document("$search", "tolkien hobbit")),
+                query.getValue().getQueryObject());
+        assertEquals(new Document("score", new Document("$meta", "textScore")), query.getValue().getSortObject());
+        assertEquals(6, query.getValue().getSkip());
+        assertEquals(3, query.getValue().getLimit());
+    }
+
+    @Test
+    public void whenSearchLastPage_thenNoMore() {
+        BookSummary hit = BookSummary.builder().id("1").build();
+
+        when(mongoTemplate.find(any(Query.class), eq(BookSummary.class))).thenReturn(List.of(hit));
+
+        service.search("hobbit", 0, 20);
+
+        verify(assembler).toPagedModel(List.of(hit), "hobbit", 0, 20, false);
+    }
+
+    @Test
+    public void whenSearchWithoutText_thenInvalid() {
+        assertEquals("q", assertThrows(InvalidRequestException.class, () -> service.search(" ", 0, 20)).getField());
+        assertEquals("q", assertThrows(InvalidRequestException.class, () -> service.search(null, 0, 20)).getField());
+        assertEquals("page",
+                assertThrows(InvalidRequestException.class, () -> service.search("hobbit", -1, 20)).getField());
+
+        verify(assembler, never()).toPagedModel(any(), anyString(), anyInt(), anyInt(), anyBoolean());
+    }
+}
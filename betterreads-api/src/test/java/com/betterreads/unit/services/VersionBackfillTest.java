@@ -0,0 +1,69 @@
+package com.betterreads.unit.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.bson.BsonInt32;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.betterreads.models.Author;
+import com.betterreads.models.Book;
+import com.betterreads.models.Publisher;
+import com.betterreads.services.VersionBackfill;
+import com.mongodb.client.result.UpdateResult;
+
+public class VersionBackfillTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private VersionBackfill backfill;
+
+    @BeforeEach
+    public void setupTests() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    public void whenRun_thenUnversionedDocumentsSetToZero() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Book.class)))
+                .thenReturn(UpdateResult.acknowledged(3, 3L, null));
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Author.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Publisher.class)))
+                .thenReturn(UpdateResult.acknowledged(2, 2L, new BsonInt32(1)));
+
+        backfill.run(null);
+
+        verify(mongoTemplate).updateMulti(query.capture(), update.capture(), eq(Book.class));
+        verify(mongoTemplate).getCollectionName(Book.class);
+        verify(mongoTemplate).getCollectionName(Publisher.class);
+
+        assertEquals(new Document("version", new Document("$exists", false)), query.getValue().getQueryObject());
+        assertEquals(new Document("$set", new Document("version", 0L)), update.getValue().getUpdateObject());
+    }
+
+    @Test
+    public void whenBackfill_thenTotalModified() {
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), any(Class.class)))
+                .thenReturn(UpdateResult.acknowledged(2, 2L, null));
+
+        assertEquals(6, backfill.backfill());
+    }
+}
@@ -1,28 +1,66 @@
 package com.betterreads.unit.services.impl;
 
+import java.io.ByteArrayOutputStream;
 import java.util.Collections;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
+import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.data.domain.Example;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 
 import com.betterreads.assemblers.AuthorsAssembler;
+import com.betterreads.catalog.InMemoryCatalog;
+import com.betterreads.events.CatalogChangedEvent;
+import com.betterreads.exceptions.InvalidRequestException;
 import com.betterreads.exceptions.ItemNotFoundException;
+import com.betterreads.models.BatchResult;
 import com.betterreads.models.Author;
+import com.betterreads.models.SearchExplanation;
+import com.betterreads.models.SearchFilter;
+import com.betterreads.models.SearchRequest;
+import com.betterreads.queries.MergePatchCompiler;
+import com.betterreads.queries.Projection;
+import com.betterreads.queries.ProjectionParser;
+import com.betterreads.queries.QueryExplainer;
+import com.betterreads.queries.SearchFields;
+import com.betterreads.queries.SearchQueryCompiler;
 import com.betterreads.repositories.AuthorsRepository;
+import com.betterreads.services.BatchWriter;
+import com.betterreads.services.CascadeDeleter;
+import com.betterreads.services.DocumentExporter;
+import com.betterreads.services.RelationLoader;
+import com.betterreads.services.RelationshipSync;
 import com.betterreads.services.impl.AuthorsService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.notNull;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -36,35 +74,69 @@ public class AuthorsServiceTest {
     @Mock
     private AuthorsAssembler assembler;
 
+    @Mock
+    private DocumentExporter exporter;
+
+    @Mock
+    private BatchWriter batchWriter;
+
+    @Mock
+    private CascadeDeleter deleter;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private SearchQueryCompiler compiler;
+
+    @Mock
+    private QueryExplainer explainer;
+
+    @Mock
+    private ApplicationEventPublisher events;
+
+    @Mock
+    private RelationLoader relations;
+
+    @Mock
+    private RelationshipSync relationshipSync;
+
+    @Mock
+    private InMemoryCatalog catalog;
+
+    @Mock
+    private ProjectionParser projections;
+
+    @Mock
+    private MergePatchCompiler patches;
+
     @InjectMocks
     private AuthorsService service;
 
     @BeforeEach
     public void setupTests() {
         MockitoAnnotations.openMocks(this);
+
+        when(relations.resolve(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(relations.resolve(any(Author.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(projections.parse(isNull(), any())).thenReturn(Projection.ALL);
     }
 
     @Test
     public void whenGetAll_thenCorrectResponse() {
         Author author = getMockAuthor();
+        CollectionModel<EntityModel<?>> expected = CollectionModel.of(Collections.singletonList(EntityModel.of(author)));
 
-        when(repository.findAll()).thenReturn(Collections.singletonList(author));
-        when(assembler.toModel(author)).thenReturn(EntityModel.of(author));
+        when(repository.findAllBy(any(Pageable.class))).thenReturn(Collections.singletonList(author));
+        when(assembler.toPagedModel(any(), any())).thenReturn(expected);
 
-        List<EntityModel<?>> actual = service.getAll();
+        CollectionModel<EntityModel<?>> actual = service.getAll(null, null, 20, null);
 
-        Author actualAuthor = (Author) actual.get(0).getContent();
+        assertEquals(expected, actual);
 
-        assertEquals(author.getId(), actualAuthor.getId());
-        assertEquals(author.getFirstName(), actualAuthor.getFirstName());
-        assertEquals(author.getMiddleName(), actualAuthor.getMiddleName());
-        assertEquals(author.getLastName(), actualAuthor.getLastName());
-        assertEquals(author.getSuffix(), actualAuthor.getSuffix());
-        assertEquals(author.getCity(), actualAuthor.getCity());
-        assertEquals(author.getState(), actualAuthor.getState());
-
-        verify(repository).findAll();
-        verify(assembler).toModel(author);
+        verify(repository).findAllBy(PageRequest.of(0, 21, Sort.by(Sort.Direction.ASC, "id")));
+        verify(assembler).toPagedModel(notNull(), isNull());
+        verify(relations).resolve(List.of(author));
     }
 
     @Test
@@ -74,7 +146,7 @@ public class AuthorsServiceTest {
         when(repository.findById("1")).thenReturn(Optional.of(author));
         when(assembler.toModel(author)).thenReturn(EntityModel.of(author));
 
-        EntityModel<?> actual = service.getById("1");
+        EntityModel<?> actual = service.getById("1", null);
         Author actualAuthor = (Author) actual.getContent();
 
         assertEquals(author.getId(), actualAuthor.getId());
@@ -94,7 +166,7 @@ public class AuthorsServiceTest {
         when(repository.findById("1")).thenReturn(Optional.empty());
 
         Exception ex = assertThrows(ItemNotFoundException.class, () -> {
-            service.getById("1");
+            service.getById("1", null);
         });
 
         assertEquals("Could not find item with id 1", ex.getMessage());
@@ -107,12 +179,20 @@ public class AuthorsServiceTest {
     public void whenSearch_thenCorrectResponse() {
         Author author = getMockAuthor();
 
-        when(repository.findAll(isA(Example.class))).thenReturn(Collections.singletonList(author));
-        when(assembler.toModel(author)).thenReturn(EntityModel.of(author));
+        SearchRequest request = SearchRequest.builder()
+                .filters(List.of(SearchFilter.builder()
+                        .field("city")
+                        .operator(SearchFilter.Operator.EQ)
+                        .value("modesto")
+                        .build()))
+                .build();
+        Query query = new Query();
 
-        Author request = Author.builder().city("modesto").build();
+        when(compiler.compile(request, SearchFields.AUTHORS)).thenReturn(query);
+        when(mongoTemplate.find(query, Author.class)).thenReturn(Collections.singletonList(author));
+        when(assembler.toModel(author)).thenReturn(EntityModel.of(author));
 
-        List<EntityModel<?>> actual = service.search(request);
+        List<EntityModel<?>> actual = service.search(request, null);
 
         Author actualAuthor = (Author) actual.get(0).getContent();
 
@@ -124,10 +204,92 @@ public class AuthorsServiceTest {
         assertEquals(author.getCity(), actualAuthor.getCity());
         assertEquals(author.getState(), actualAuthor.getState());
 
-        verify(repository).findAll(isA(Example.class));
+        verify(mongoTemplate).find(query, Author.class);
         verify(assembler).toModel(author);
     }
 
+    @Test
+    public void whenGetAll_withFields_thenProjectedQuery() {
+        Author author = getMockAuthor();
+        Projection projection = new Projection(Set.of("lastName"));
+
+        when(projections.parse("lastName", Author.class)).thenReturn(projection);
+        when(mongoTemplate.find(any(Query.class), eq(Author.class))).thenReturn(Collections.singletonList(author));
+        when(assembler.toPagedModel(any(), any())).thenReturn(CollectionModel.empty());
+
+        service.getAll(null, null, 20, "lastName");
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Author.class));
+        assertEquals(new Document("lastName", 1), query.getValue().getFieldsObject());
+        verify(repository, never()).findAllBy(any(Pageable.class));
+        verify(assembler).toPagedModel(notNull(), eq("lastName"));
+    }
+
+    @Test
+    public void whenGetById_withFields_thenProjectedQuery() {
+        Author author = getMockAuthor();
+        Projection projection = new Projection(Set.of("lastName"));
+
+        when(projections.parse("lastName", Author.class)).thenReturn(projection);
+        when(mongoTemplate.findOne(any(Query.class), eq(Author.class))).thenReturn(author);
+        when(assembler.toModel(author)).thenReturn(EntityModel.of(author));
+
+        assertEquals(author, service.getById("1", "lastName").getContent());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findOne(query.capture(), eq(Author.class));
+        assertEquals(new Document("id", "1"), query.getValue().getQueryObject());
+        assertEquals(new Document("lastName", 1), query.getValue().getFieldsObject());
+        verify(repository, never()).findById("1");
+    }
+
+    @Test
+    public void whenGetById_withFields_notFound_thenCorrectResponse() {
+        when(projections.parse("lastName", Author.class)).thenReturn(new Projection(Set.of("lastName")));
+
+        assertThrows(ItemNotFoundException.class, () -> service.getById("1", "lastName"));
+    }
+
+    @Test
+    public void whenSearch_withFields_thenProjectedQuery() {
+        SearchRequest request = SearchRequest.builder().build();
+        Query query = new Query();
+
+        when(projections.parse("lastName", Author.class)).thenReturn(new Projection(Set.of("lastName")));
+        when(compiler.compile(request, SearchFields.AUTHORS)).thenReturn(query);
+        when(mongoTemplate.find(query, Author.class)).thenReturn(Collections.emptyList());
+
+        assertTrue(service.search(request, "lastName").isEmpty());
+
+        assertEquals(new Document("lastName", 1), query.getFieldsObject());
+    }
+
+    @Test
+    public void whenExplain_thenCorrectResponse() {
+        SearchRequest request = SearchRequest.builder().explain(true).build();
+        Query query = new Query();
+        SearchExplanation expected = SearchExplanation.builder().indexName("city_1").build();
+
+        when(compiler.compile(request, SearchFields.AUTHORS)).thenReturn(query);
+        when(explainer.explain(query, Author.class)).thenReturn(expected);
+
+        assertEquals(expected, service.explain(request));
+
+        verify(explainer).explain(query, Author.class);
+    }
+
+    @Test
+    public void whenExport_thenCorrectResponse() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        when(exporter.export(Author.class, out)).thenReturn(1L);
+
+        service.export(out);
+
+        verify(exporter).export(Author.class, out);
+    }
+
     @Test
     public void whenAdd_thenCorrectResponse() {
         Author author = getMockAuthor();
@@ -148,6 +310,25 @@ public class AuthorsServiceTest {
 
         verify(repository).save(author);
         verify(assembler).toModel(author);
+        assertEquals(List.of(author.getId()), publishedEvent().getIds());
+        verify(relationshipSync).sync(Author.class, author.getId(), author.getBooks());
+    }
+
+    @Test
+    public void whenAddAll_thenCorrectResponse() {
+        Iterator<Author> authors = Collections.singletonList(getMockAuthor()).iterator();
+        List<BatchResult> expected = Collections.singletonList(
+                BatchResult.builder().index(0).id("1").status(BatchResult.Status.UPDATED).build());
+
+        when(batchWriter.write(Author.class, authors)).thenReturn(expected);
+
+        List<BatchResult> actual = service.addAll(authors);
+
+        assertEquals(expected, actual);
+
+        verify(batchWriter).write(Author.class, authors);
+        assertEquals(List.of("1"), publishedEvent().getIds());
+        verify(relationshipSync).sync(Author.class, List.of("1"));
     }
 
     @Test
@@ -157,11 +338,11 @@ public class AuthorsServiceTest {
         Author authorUpdate = author;
         authorUpdate.setCity("Los Angeles");
 
-        when(repository.findById("1")).thenReturn(Optional.of(author));
+        when(mongoTemplate.findOne(any(Query.class), eq(Author.class))).thenReturn(author);
         when(repository.save(author)).thenReturn(author);
         when(assembler.toModel(author)).thenReturn(EntityModel.of(author));
 
-        EntityModel<?> actual = service.update("1", authorUpdate);
+        EntityModel<?> actual = service.update("1", authorUpdate, null);
         Author actualAuthor = (Author) actual.getContent();
 
         assertEquals(author.getId(), actualAuthor.getId());
@@ -173,42 +354,192 @@ public class AuthorsServiceTest {
         assertEquals("Los Angeles", actualAuthor.getCity());
         assertEquals(author.getState(), actualAuthor.getState());
 
-        verify(repository).findById("1");
+        verify(mongoTemplate).findOne(any(Query.class), eq(Author.class));
         verify(repository).save(author);
         verify(assembler).toModel(author);
+        assertEquals(List.of("1"), publishedEvent().getIds());
     }
 
     @Test
     public void whenUpdate_notFound_thenCorrectResponse() {
-        when(repository.findById("1")).thenReturn(Optional.empty());
-
         Exception ex = assertThrows(ItemNotFoundException.class, () -> {
-            service.update("1", getMockAuthor());
+            service.update("1", getMockAuthor(), null);
         });
 
         assertEquals("Could not find item with id 1", ex.getMessage());
 
-        verify(repository).findById("1");
+        verify(mongoTemplate).findOne(any(Query.class), eq(Author.class));
         verify(repository, never()).save(any(Author.class));
         verify(assembler, never()).toModel(any(Author.class));
+        verify(events, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void whenPatch_thenFindAndModifyReturnsNewVersion() {
+        Author author = getMockAuthor();
+        JsonNode patch = JsonNodeFactory.instance.objectNode();
+        Update update = new Update().set("city", "Newport Beach");
+
+        when(patches.compile(patch, Author.class)).thenReturn(update);
+        when(mongoTemplate.findAndModify(any(Query.class), eq(update), any(FindAndModifyOptions.class), eq(Author.class)))
+                .thenReturn(author);
+        when(assembler.toModel(author)).thenReturn(EntityModel.of(author));
+
+        assertEquals(author, service.patch("1", patch, null).getContent());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        verify(mongoTemplate).findAndModify(query.capture(), eq(update), options.capture(), eq(Author.class));
+        assertEquals(new Document("id", "1"), query.getValue().getQueryObject());
+        assertTrue(options.getValue().isReturnNew());
+        verify(relations).resolve(author);
+        assertEquals(List.of("1"), publishedEvent().getIds());
+    }
+
+    @Test
+    public void whenPatchEmpty_thenReadWithoutWrite() {
+        Author author = getMockAuthor();
+        JsonNode patch = JsonNodeFactory.instance.objectNode();
+
+        when(patches.compile(patch, Author.class)).thenReturn(new Update());
+        when(mongoTemplate.findOne(any(Query.class), eq(Author.class))).thenReturn(author);
+        when(assembler.toModel(author)).thenReturn(EntityModel.of(author));
+
+        assertEquals(author, service.patch("1", patch, null).getContent());
+
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Author.class));
+        verify(events, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void whenPatch_notFound_thenCorrectResponse() {
+        JsonNode patch = JsonNodeFactory.instance.objectNode();
+
+        when(patches.compile(patch, Author.class)).thenReturn(new Update().set("city", "Newport Beach"));
+
+        Exception ex = assertThrows(ItemNotFoundException.class, () -> {
+            service.patch("1", patch, null);
+        });
+
+        assertEquals("Could not find item with id 1", ex.getMessage());
+        verify(events, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void whenUpdateWithOtherVersion_thenPreconditionFailed() {
+        Author author = getMockAuthor();
+        author.setVersion(4L);
+        Author authorUpdate = getMockAuthor();
+
+        when(mongoTemplate.findOne(any(Query.class), eq(Author.class))).thenReturn(author);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> service.update("1", authorUpdate, List.of(3L)));
+
+        verify(repository, never()).save(any(Author.class));
+        verify(events, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void whenUpdateWithoutVersion_thenSavedAtStoredVersion() {
+        Author author = getMockAuthor();
+        author.setVersion(4L);
+        Author authorUpdate = getMockAuthor();
+
+        when(mongoTemplate.findOne(any(Query.class), eq(Author.class))).thenReturn(author);
+        when(repository.save(authorUpdate)).thenReturn(authorUpdate);
+
+        service.update("1", authorUpdate, null);
+
+        assertEquals(4L, authorUpdate.getVersion());
+
+        // read past the cache, which may hold an older version
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findOne(query.capture(), eq(Author.class));
+        assertEquals(new Document("id", "1"), query.getValue().getQueryObject());
+        assertEquals(new Document("version", 1), query.getValue().getFieldsObject());
+        verify(repository, never()).findById("1");
+    }
+
+    @Test
+    public void whenPatchStale_thenOptimisticLockingFailure() {
+        JsonNode patch = JsonNodeFactory.instance.objectNode();
+
+        when(patches.compile(patch, Author.class)).thenReturn(new Update().set("lastName", "Funke"));
+        when(mongoTemplate.exists(any(Query.class), eq(Author.class))).thenReturn(true);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> service.patch("1", patch, List.of(3L)));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), any(FindAndModifyOptions.class),
+                eq(Author.class));
+        assertEquals(new Document("id", "1").append("version", new Document("$in", List.of(3L))), query.getValue().getQueryObject());
+        assertEquals(new Document("version", 1), update.getValue().getUpdateObject().get("$inc"));
+        verify(events, never()).publishEvent(any(Object.class));
     }
 
     @Test
-    public void whenDeleteById_thenCorrectResponse() {
-        doNothing().when(repository).deleteById("1");
+    public void whenPatchVersionOfMissing_thenNotFound() {
+        JsonNode patch = JsonNodeFactory.instance.objectNode();
 
+        when(patches.compile(patch, Author.class)).thenReturn(new Update().set("lastName", "Funke"));
+        when(mongoTemplate.exists(any(Query.class), eq(Author.class))).thenReturn(false);
+
+        assertThrows(ItemNotFoundException.class, () -> service.patch("1", patch, List.of(3L)));
+    }
+
+    @Test
+    public void whenDeleteById_thenCascaded() {
         service.delete("1");
 
-        verify(repository).deleteById("1");
+        verify(deleter).delete(Author.class, List.of("1"));
+        verify(repository, never()).deleteById("1");
+    }
+
+    @Test
+    public void whenDeleteByIds_thenCascadedInChunks() {
+        when(deleter.delete(Author.class, List.of("1", "2"))).thenReturn(2L);
+
+        assertEquals(2, service.delete(List.of("1", "2")));
     }
 
     @Test
-    public void whenDeleteAll_thenCorrectResponse() {
-        doNothing().when(repository).deleteAll();
+    public void whenDeleteMatching_thenCompiledFilterDeleted() {
+        SearchRequest request = SearchRequest.builder()
+                .filters(List.of(SearchFilter.builder().field("id").operator(SearchFilter.Operator.EQ).value("1").build()))
+                .build();
+        Query query = new Query();
+
+        when(compiler.compile(request, SearchFields.AUTHORS)).thenReturn(query);
+        when(deleter.delete(Author.class, query)).thenReturn(1L);
+
+        assertEquals(1, service.deleteMatching(request));
+    }
 
+    @Test
+    public void whenDeleteMatchingWithoutFilters_thenInvalidRequest() {
+        InvalidRequestException ex = assertThrows(InvalidRequestException.class,
+                () -> service.deleteMatching(new SearchRequest()));
+
+        assertEquals("filters", ex.getField());
+        verify(deleter, never()).delete(eq(Author.class), any(Query.class));
+    }
+
+    @Test
+    public void whenDeleteAll_thenCascaded() {
         service.deleteAll();
 
-        verify(repository).deleteAll();
+        verify(deleter).deleteAll(Author.class);
+        verify(repository, never()).deleteAll();
+    }
+
+    private CatalogChangedEvent publishedEvent() {
+        ArgumentCaptor<Object> event = ArgumentCaptor.forClass(Object.class);
+
+        verify(events).publishEvent(event.capture());
+
+        return (CatalogChangedEvent) event.getValue();
     }
 
     private Author getMockAuthor() {
@@ -1,32 +1,69 @@
 package com.betterreads.unit.services.impl;
 
+import java.io.ByteArrayOutputStream;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
+import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.data.domain.Example;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 
 import com.betterreads.assemblers.BooksAssembler;
+import com.betterreads.catalog.InMemoryCatalog;
+import com.betterreads.events.CatalogChangedEvent;
+import com.betterreads.exceptions.InvalidRequestException;
 import com.betterreads.exceptions.ItemNotFoundException;
+import com.betterreads.models.BatchResult;
 import com.betterreads.models.Author;
 import com.betterreads.models.Book;
 import com.betterreads.models.Publisher;
+import com.betterreads.models.SearchExplanation;
+import com.betterreads.models.SearchFilter;
+import com.betterreads.models.SearchRequest;
+import com.betterreads.queries.MergePatchCompiler;
+import com.betterreads.queries.Projection;
+import com.betterreads.queries.ProjectionParser;
+import com.betterreads.queries.QueryExplainer;
+import com.betterreads.queries.SearchFields;
+import com.betterreads.queries.SearchQueryCompiler;
 import com.betterreads.repositories.BooksRepository;
+import com.betterreads.services.BatchWriter;
+import com.betterreads.services.CascadeDeleter;
+import com.betterreads.services.DocumentExporter;
+import com.betterreads.services.RelationLoader;
+import com.betterreads.services.RelationshipSync;
 import com.betterreads.services.impl.BooksService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.notNull;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -40,34 +77,69 @@ public class BooksServiceTest {
     @Mock
     private BooksAssembler assembler;
 
+    @Mock
+    private DocumentExporter exporter;
+
+    @Mock
+    private BatchWriter batchWriter;
+
+    @Mock
+    private CascadeDeleter deleter;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private SearchQueryCompiler compiler;
+
+    @Mock
+    private QueryExplainer explainer;
+
+    @Mock
+    private ApplicationEventPublisher events;
+
+    @Mock
+    private RelationLoader relations;
+
+    @Mock
+    private RelationshipSync relationshipSync;
+
+    @Mock
+    private InMemoryCatalog catalog;
+
+    @Mock
+    private ProjectionParser projections;
+
+    @Mock
+    private MergePatchCompiler patches;
+
     @InjectMocks
     private BooksService service;
 
     @BeforeEach
     public void setupTests() {
         MockitoAnnotations.openMocks(this);
+
+        when(relations.resolve(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(relations.resolve(any(Book.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(projections.parse(isNull(), any())).thenReturn(Projection.ALL);
     }
 
     @Test
     public void whenGetAll_thenCorrectResponse() {
         Book book = getMockBook();
+        CollectionModel<EntityModel<?>> expected = CollectionModel.of(Collections.singletonList(EntityModel.of(book)));
 
-        when(repository.findAll()).thenReturn(Collections.singletonList(book));
-        when(assembler.toModel(book)).thenReturn(EntityModel.of(book));
-
-        List<EntityModel<?>> actual = service.getAll();
+        when(repository.findAllBy(any(Pageable.class))).thenReturn(Collections.singletonList(book));
+        when(assembler.toPagedModel(any(), any())).thenReturn(expected);
 
-        Book actualBook = (Book) actual.get(0).getContent();
+        CollectionModel<EntityModel<?>> actual = service.getAll(null, null, 20, null);
 
-        assertEquals(book.getId(), actualBook.getId());
-        assertEquals(book.getIsbn(), actualBook.getIsbn());
-        assertEquals(book.getTitle(), actualBook.getTitle());
-        assertEquals(book.getAuthors().get(0).getId(), actualBook.getAuthors().get(0).getId());
-        assertEquals(book.getPages(), actualBook.getPages());
-        assertEquals(book.getPublisher().getId(), actualBook.getPublisher().getId());
+        assertEquals(expected, actual);
 
-        verify(repository).findAll();
-        verify(assembler).toModel(book);
+        verify(repository).findAllBy(PageRequest.of(0, 21, Sort.by(Sort.Direction.ASC, "id")));
+        verify(assembler).toPagedModel(notNull(), isNull());
+        verify(relations).resolve(List.of(book));
     }
 
     @Test
@@ -77,7 +149,7 @@ public class BooksServiceTest {
         when(repository.findById("1")).thenReturn(Optional.of(book));
         when(assembler.toModel(book)).thenReturn(EntityModel.of(book));
 
-        EntityModel<?> actual = service.getById("1");
+        EntityModel<?> actual = service.getById("1", null);
         Book actualBook = (Book) actual.getContent();
 
         assertEquals(book.getId(), actualBook.getId());
@@ -96,7 +168,7 @@ public class BooksServiceTest {
         when(repository.findById("1")).thenReturn(Optional.empty());
 
         Exception ex = assertThrows(ItemNotFoundException.class, () -> {
-            service.getById("1");
+            service.getById("1", null);
         });
 
         assertEquals("Could not find item with id 1", ex.getMessage());
@@ -109,12 +181,20 @@ public class BooksServiceTest {
     public void whenSearch_thenCorrectResponse() {
         Book book = getMockBook();
 
-        when(repository.findAll(isA(Example.class))).thenReturn(Collections.singletonList(book));
-        when(assembler.toModel(book)).thenReturn(EntityModel.of(book));
+        SearchRequest request = SearchRequest.builder()
+                .filters(List.of(SearchFilter.builder()
+                        .field("title")
+                        .operator(SearchFilter.Operator.EQ)
+                        .value("caged")
+                        .build()))
+                .build();
+        Query query = new Query();
 
-        Book request = Book.builder().title("caged").build();
+        when(compiler.compile(request, SearchFields.BOOKS)).thenReturn(query);
+        when(mongoTemplate.find(query, Book.class)).thenReturn(Collections.singletonList(book));
+        when(assembler.toModel(book)).thenReturn(EntityModel.of(book));
 
-        List<EntityModel<?>> actual = service.search(request);
+        List<EntityModel<?>> actual = service.search(request, null);
 
         Book actualBook = (Book) actual.get(0).getContent();
 
@@ -125,10 +205,92 @@ public class BooksServiceTest {
         assertEquals(book.getPages(), actualBook.getPages());
         assertEquals(book.getPublisher().getId(), actualBook.getPublisher().getId());
 
-        verify(repository).findAll(isA(Example.class));
+        verify(mongoTemplate).find(query, Book.class);
         verify(assembler).toModel(book);
     }
 
+    @Test
+    public void whenGetAll_withFields_thenProjectedQuery() {
+        Book book = getMockBook();
+        Projection projection = new Projection(Set.of("title"));
+
+        when(projections.parse("title", Book.class)).thenReturn(projection);
+        when(mongoTemplate.find(any(Query.class), eq(Book.class))).thenReturn(Collections.singletonList(book));
+        when(assembler.toPagedModel(any(), any())).thenReturn(CollectionModel.empty());
+
+        service.getAll(null, null, 20, "title");
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Book.class));
+        assertEquals(new Document("title", 1), query.getValue().getFieldsObject());
+        verify(repository, never()).findAllBy(any(Pageable.class));
+        verify(assembler).toPagedModel(notNull(), eq("title"));
+    }
+
+    @Test
+    public void whenGetById_withFields_thenProjectedQuery() {
+        Book book = getMockBook();
+        Projection projection = new Projection(Set.of("title"));
+
+        when(projections.parse("title", Book.class)).thenReturn(projection);
+        when(mongoTemplate.findOne(any(Query.class), eq(Book.class))).thenReturn(book);
+        when(assembler.toModel(book)).thenReturn(EntityModel.of(book));
+
+        assertEquals(book, service.getById("1", "title").getContent());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findOne(query.capture(), eq(Book.class));
+        assertEquals(new Document("id", "1"), query.getValue().getQueryObject());
+        assertEquals(new Document("title", 1), query.getValue().getFieldsObject());
+        verify(repository, never()).findById("1");
+    }
+
+    @Test
+    public void whenGetById_withFields_notFound_thenCorrectResponse() {
+        when(projections.parse("title", Book.class)).thenReturn(new Projection(Set.of("title")));
+
+        assertThrows(ItemNotFoundException.class, () -> service.getById("1", "title"));
+    }
+
+    @Test
+    public void whenSearch_withFields_thenProjectedQuery() {
+        SearchRequest request = SearchRequest.builder().build();
+        Query query = new Query();
+
+        when(projections.parse("title", Book.class)).thenReturn(new Projection(Set.of("title")));
+        when(compiler.compile(request, SearchFields.BOOKS)).thenReturn(query);
+        when(mongoTemplate.find(query, Book.class)).thenReturn(Collections.emptyList());
+
+        assertTrue(service.search(request, "title").isEmpty());
+
+        assertEquals(new Document("title", 1), query.getFieldsObject());
+    }
+
+    @Test
+    public void whenExplain_thenCorrectResponse() {
+        SearchRequest request = SearchRequest.builder().explain(true).build();
+        Query query = new Query();
+        SearchExplanation expected = SearchExplanation.builder().indexName("title_1").build();
+
+        when(compiler.compile(request, SearchFields.BOOKS)).thenReturn(query);
+        when(explainer.explain(query, Book.class)).thenReturn(expected);
+
+        assertEquals(expected, service.explain(request));
+
+        verify(explainer).explain(query, Book.class);
+    }
+
+    @Test
+    public void whenExport_thenCorrectResponse() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        when(exporter.export(Book.class, out)).thenReturn(1L);
+
+        service.export(out);
+
+        verify(exporter).export(Book.class, out);
+    }
+
     @Test
     public void whenAdd_thenCorrectResponse() {
         Book book = getMockBook();
@@ -148,6 +310,27 @@ public class BooksServiceTest {
 
         verify(repository).save(book);
         verify(assembler).toModel(book);
+        assertEquals(List.of(book.getId()), publishedEvent().getIds());
+        verify(relationshipSync).sync(Book.class, book.getId(), book.getAuthors());
+    }
+
+    @Test
+    public void whenAddAll_thenCorrectResponse() {
+        Iterator<Book> books = Collections.singletonList(getMockBook()).iterator();
+        List<BatchResult> expected = Arrays.asList(
+                BatchResult.builder().index(0).id("1").status(BatchResult.Status.UPDATED).build(),
+                BatchResult.builder().index(1).id("2").status(BatchResult.Status.FAILED).build(),
+                BatchResult.builder().index(2).status(BatchResult.Status.INVALID).build());
+
+        when(batchWriter.write(Book.class, books)).thenReturn(expected);
+
+        List<BatchResult> actual = service.addAll(books);
+
+        assertEquals(expected, actual);
+
+        verify(batchWriter).write(Book.class, books);
+        assertEquals(List.of("1"), publishedEvent().getIds());
+        verify(relationshipSync).sync(Book.class, List.of("1"));
     }
 
     @Test
@@ -157,11 +340,11 @@ public class BooksServiceTest {
         Book bookUpdate = book;
         bookUpdate.setGenres(Collections.singletonList("Fiction"));
 
-        when(repository.findById("1")).thenReturn(Optional.of(book));
+        when(mongoTemplate.findOne(any(Query.class), eq(Book.class))).thenReturn(book);
         when(repository.save(book)).thenReturn(book);
         when(assembler.toModel(book)).thenReturn(EntityModel.of(book));
 
-        EntityModel<?> actual = service.update("1", bookUpdate);
+        EntityModel<?> actual = service.update("1", bookUpdate, null);
         Book actualBook = (Book) actual.getContent();
 
         assertEquals(book.getId(), actualBook.getId());
@@ -172,42 +355,206 @@ public class BooksServiceTest {
         assertEquals(book.getPublisher().getId(), actualBook.getPublisher().getId());
         assertTrue(actualBook.getGenres().contains("Fiction"));
 
-        verify(repository).findById("1");
+        verify(mongoTemplate).findOne(any(Query.class), eq(Book.class));
         verify(repository).save(book);
         verify(assembler).toModel(book);
+        assertEquals(List.of("1"), publishedEvent().getIds());
     }
 
     @Test
     public void whenUpdate_notFound_thenCorrectResponse() {
-        when(repository.findById("1")).thenReturn(Optional.empty());
-
         Exception ex = assertThrows(ItemNotFoundException.class, () -> {
-            service.update("1", getMockBook());
+            service.update("1", getMockBook(), null);
         });
 
         assertEquals("Could not find item with id 1", ex.getMessage());
 
-        verify(repository).findById("1");
+        verify(mongoTemplate).findOne(any(Query.class), eq(Book.class));
         verify(repository, never()).save(any(Book.class));
         verify(assembler, never()).toModel(any(Book.class));
+        verify(events, never()).publishEvent(any(Object.class));
     }
 
     @Test
-    public void whenDeleteById_thenCorrectResponse() {
-        doNothing().when(repository).deleteById("1");
+    public void whenPatch_thenFindAndModifyReturnsNewVersion() {
+        Book book = getMockBook();
+        JsonNode patch = JsonNodeFactory.instance.objectNode();
+        Update update = new Update().set("pages", 320);
+
+        when(patches.compile(patch, Book.class)).thenReturn(update);
+        when(mongoTemplate.findAndModify(any(Query.class), eq(update), any(FindAndModifyOptions.class), eq(Book.class)))
+                .thenReturn(book);
+        when(assembler.toModel(book)).thenReturn(EntityModel.of(book));
+
+        assertEquals(book, service.patch("1", patch, null).getContent());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        verify(mongoTemplate).findAndModify(query.capture(), eq(update), options.capture(), eq(Book.class));
+        assertEquals(new Document("id", "1"), query.getValue().getQueryObject());
+        assertTrue(options.getValue().isReturnNew());
+        verify(relations).resolve(book);
+        assertEquals(List.of("1"), publishedEvent().getIds());
+    }
+
+    @Test
+    public void whenPatchEmpty_thenReadWithoutWrite() {
+        Book book = getMockBook();
+        JsonNode patch = JsonNodeFactory.instance.objectNode();
+
+        when(patches.compile(patch, Book.class)).thenReturn(new Update());
+        when(mongoTemplate.findOne(any(Query.class), eq(Book.class))).thenReturn(book);
+        when(assembler.toModel(book)).thenReturn(EntityModel.of(book));
+
+        assertEquals(book, service.patch("1", patch, null).getContent());
+
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Book.class));
+        verify(events, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void whenPatch_notFound_thenCorrectResponse() {
+        JsonNode patch = JsonNodeFactory.instance.objectNode();
+
+        when(patches.compile(patch, Book.class)).thenReturn(new Update().set("pages", 320));
+
+        Exception ex = assertThrows(ItemNotFoundException.class, () -> {
+            service.patch("1", patch, null);
+        });
+
+        assertEquals("Could not find item with id 1", ex.getMessage());
+        verify(events, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void whenUpdateWithOtherVersion_thenPreconditionFailed() {
+        Book book = getMockBook();
+        book.setVersion(4L);
+        Book bookUpdate = getMockBook();
+
+        when(mongoTemplate.findOne(any(Query.class), eq(Book.class))).thenReturn(book);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> service.update("1", bookUpdate, List.of(3L)));
+
+        verify(repository, never()).save(any(Book.class));
+        verify(events, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void whenUpdateWithMatchingVersion_thenSavedAtStoredVersion() {
+        Book book = getMockBook();
+        book.setVersion(4L);
+        Book bookUpdate = getMockBook();
+
+        when(mongoTemplate.findOne(any(Query.class), eq(Book.class))).thenReturn(book);
+        when(repository.save(bookUpdate)).thenReturn(bookUpdate);
 
+        service.update("1", bookUpdate, List.of(3L, 4L));
+
+        assertEquals(4L, bookUpdate.getVersion());
+    }
+
+    @Test
+    public void whenUpdateWithoutVersion_thenSavedAtStoredVersion() {
+        Book book = getMockBook();
+        book.setVersion(4L);
+        Book bookUpdate = getMockBook();
+
+        when(mongoTemplate.findOne(any(Query.class), eq(Book.class))).thenReturn(book);
+        when(repository.save(bookUpdate)).thenReturn(bookUpdate);
+
+        service.update("1", bookUpdate, null);
+
+        assertEquals(4L, bookUpdate.getVersion());
+
+        // read past the cache, which may hold an older version
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findOne(query.capture(), eq(Book.class));
+        assertEquals(new Document("id", "1"), query.getValue().getQueryObject());
+        assertEquals(new Document("version", 1), query.getValue().getFieldsObject());
+        verify(repository, never()).findById("1");
+    }
+
+    @Test
+    public void whenPatchStale_thenOptimisticLockingFailure() {
+        JsonNode patch = JsonNodeFactory.instance.objectNode();
+
+        when(patches.compile(patch, Book.class)).thenReturn(new Update().set("pages", 320));
+        when(mongoTemplate.exists(any(Query.class), eq(Book.class))).thenReturn(true);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> service.patch("1", patch, List.of(3L)));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), any(FindAndModifyOptions.class),
+                eq(Book.class));
+        assertEquals(new Document("id", "1").append("version", new Document("$in", List.of(3L))), query.getValue().getQueryObject());
+        assertEquals(new Document("version", 1), update.getValue().getUpdateObject().get("$inc"));
+        verify(events, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void whenPatchVersionOfMissing_thenNotFound() {
+        JsonNode patch = JsonNodeFactory.instance.objectNode();
+
+        when(patches.compile(patch, Book.class)).thenReturn(new Update().set("pages", 320));
+        when(mongoTemplate.exists(any(Query.class), eq(Book.class))).thenReturn(false);
+
+        assertThrows(ItemNotFoundException.class, () -> service.patch("1", patch, List.of(3L)));
+    }
+
+    @Test
+    public void whenDeleteById_thenCascaded() {
         service.delete("1");
 
-        verify(repository).deleteById("1");
+        verify(deleter).delete(Book.class, List.of("1"));
+        verify(repository, never()).deleteById("1");
+    }
+
+    @Test
+    public void whenDeleteByIds_thenCascadedInChunks() {
+        when(deleter.delete(Book.class, List.of("1", "2"))).thenReturn(2L);
+
+        assertEquals(2, service.delete(List.of("1", "2")));
+    }
+
+    @Test
+    public void whenDeleteMatching_thenCompiledFilterDeleted() {
+        SearchRequest request = SearchRequest.builder()
+                .filters(List.of(SearchFilter.builder().field("id").operator(SearchFilter.Operator.EQ).value("1").build()))
+                .build();
+        Query query = new Query();
+
+        when(compiler.compile(request, SearchFields.BOOKS)).thenReturn(query);
+        when(deleter.delete(Book.class, query)).thenReturn(1L);
+
+        assertEquals(1, service.deleteMatching(request));
     }
 
     @Test
-    public void whenDeleteAll_thenCorrectResponse() {
-        doNothing().when(repository).deleteAll();
+    public void whenDeleteMatchingWithoutFilters_thenInvalidRequest() {
+        InvalidRequestException ex = assertThrows(InvalidRequestException.class,
+                () -> service.deleteMatching(new SearchRequest()));
+
+        assertEquals("filters", ex.getField());
+        verify(deleter, never()).delete(eq(Book.class), any(Query.class));
+    }
 
+    @Test
+    public void whenDeleteAll_thenCascaded() {
         service.deleteAll();
 
-        verify(repository).deleteAll();
+        verify(deleter).deleteAll(Book.class);
+        verify(repository, never()).deleteAll();
+    }
+
+    private CatalogChangedEvent publishedEvent() {
+        ArgumentCaptor<Object> event = ArgumentCaptor.forClass(Object.class);
+
+        verify(events).publishEvent(event.capture());
+
+        return (CatalogChangedEvent) event.getValue();
     }
 
     private Book getMockBook() {
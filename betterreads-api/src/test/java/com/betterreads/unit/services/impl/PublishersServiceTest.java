@@ -1,32 +1,68 @@
 package com.betterreads.unit.services.impl;
 
+import java.io.ByteArrayOutputStream;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
+import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.data.domain.Example;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 
 import com.betterreads.assemblers.PublishersAssembler;
+import com.betterreads.catalog.InMemoryCatalog;
+import com.betterreads.events.CatalogChangedEvent;
+import com.betterreads.exceptions.InvalidRequestException;
 import com.betterreads.exceptions.ItemNotFoundException;
+import com.betterreads.models.BatchResult;
 import com.betterreads.models.Author;
 import com.betterreads.models.Publisher;
+import com.betterreads.models.SearchExplanation;
+import com.betterreads.models.SearchFilter;
+import com.betterreads.models.SearchRequest;
+import com.betterreads.queries.MergePatchCompiler;
+import com.betterreads.queries.Projection;
+import com.betterreads.queries.ProjectionParser;
+import com.betterreads.queries.QueryExplainer;
+import com.betterreads.queries.SearchFields;
+import com.betterreads.queries.SearchQueryCompiler;
 import com.betterreads.repositories.PublishersRepository;
+import com.betterreads.services.BatchWriter;
+import com.betterreads.services.CascadeDeleter;
+import com.betterreads.services.DocumentExporter;
+import com.betterreads.services.RelationLoader;
 import com.betterreads.services.impl.PublishersService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.notNull;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -40,30 +76,66 @@ public class PublishersServiceTest {
     @Mock
     private PublishersAssembler assembler;
 
+    @Mock
+    private DocumentExporter exporter;
+
+    @Mock
+    private BatchWriter batchWriter;
+
+    @Mock
+    private CascadeDeleter deleter;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private SearchQueryCompiler compiler;
+
+    @Mock
+    private QueryExplainer explainer;
+
+    @Mock
+    private ApplicationEventPublisher events;
+
+    @Mock
+    private RelationLoader relations;
+
+    @Mock
+    private InMemoryCatalog catalog;
+
+    @Mock
+    private ProjectionParser projections;
+
+    @Mock
+    private MergePatchCompiler patches;
+
     @InjectMocks
     private PublishersService service;
 
     @BeforeEach
     public void setupTests() {
         MockitoAnnotations.openMocks(this);
+
+        when(relations.resolve(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(relations.resolve(any(Publisher.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(projections.parse(isNull(), any())).thenReturn(Projection.ALL);
     }
 
     @Test
     public void whenGetAll_thenCorrectResponse() {
         Publisher publisher = getMockPublisher();
+        CollectionModel<EntityModel<?>> expected = CollectionModel.of(Collections.singletonList(EntityModel.of(publisher)));
 
-        when(repository.findAll()).thenReturn(Collections.singletonList(publisher));
-        when(assembler.toModel(publisher)).thenReturn(EntityModel.of(publisher));
-
-        List<EntityModel<?>> actual = service.getAll();
+        when(repository.findAllBy(any(Pageable.class))).thenReturn(Collections.singletonList(publisher));
+        when(assembler.toPagedModel(any(), any())).thenReturn(expected);
 
-        Publisher actualPublisher = (Publisher) actual.get(0).getContent();
+        CollectionModel<EntityModel<?>> actual = service.getAll(null, null, 20, null);
 
-        assertEquals(publisher.getId(), actualPublisher.getId());
-        assertEquals(publisher.getName(), actualPublisher.getName());
+        assertEquals(expected, actual);
 
-        verify(repository).findAll();
-        verify(assembler).toModel(publisher);
+        verify(repository).findAllBy(PageRequest.of(0, 21, Sort.by(Sort.Direction.ASC, "id")));
+        verify(assembler).toPagedModel(notNull(), isNull());
+        verify(relations).resolve(List.of(publisher));
     }
 
     @Test
@@ -73,7 +145,7 @@ public class PublishersServiceTest {
         when(repository.findById("1")).thenReturn(Optional.of(publisher));
         when(assembler.toModel(publisher)).thenReturn(EntityModel.of(publisher));
 
-        EntityModel<?> actual = service.getById("1");
+        EntityModel<?> actual = service.getById("1", null);
         Publisher actualPublisher = (Publisher) actual.getContent();
 
         assertEquals(publisher.getId(), actualPublisher.getId());
@@ -88,7 +160,7 @@ public class PublishersServiceTest {
         when(repository.findById("1")).thenReturn(Optional.empty());
 
         Exception ex = assertThrows(ItemNotFoundException.class, () -> {
-            service.getById("1");
+            service.getById("1", null);
         });
 
         assertEquals("Could not find item with id 1", ex.getMessage());
@@ -101,22 +173,112 @@ public class PublishersServiceTest {
     public void whenSearch_thenCorrectResponse() {
         Publisher publisher = getMockPublisher();
 
-        when(repository.findAll(isA(Example.class))).thenReturn(Collections.singletonList(publisher));
-        when(assembler.toModel(publisher)).thenReturn(EntityModel.of(publisher));
+        SearchRequest request = SearchRequest.builder()
+                .filters(List.of(SearchFilter.builder()
+                        .field("name")
+                        .operator(SearchFilter.Operator.EQ)
+                        .value("pendant")
+                        .build()))
+                .build();
+        Query query = new Query();
 
-        Publisher request = Publisher.builder().name("pendant").build();
+        when(compiler.compile(request, SearchFields.PUBLISHERS)).thenReturn(query);
+        when(mongoTemplate.find(query, Publisher.class)).thenReturn(Collections.singletonList(publisher));
+        when(assembler.toModel(publisher)).thenReturn(EntityModel.of(publisher));
 
-        List<EntityModel<?>> actual = service.search(request);
+        List<EntityModel<?>> actual = service.search(request, null);
 
         Publisher actualPublisher = (Publisher) actual.get(0).getContent();
 
         assertEquals(publisher.getId(), actualPublisher.getId());
         assertEquals(publisher.getName(), actualPublisher.getName());
 
-        verify(repository).findAll(isA(Example.class));
+        verify(mongoTemplate).find(query, Publisher.class);
         verify(assembler).toModel(publisher);
     }
 
+    @Test
+    public void whenGetAll_withFields_thenProjectedQuery() {
+        Publisher publisher = getMockPublisher();
+        Projection projection = new Projection(Set.of("name"));
+
+        when(projections.parse("name", Publisher.class)).thenReturn(projection);
+        when(mongoTemplate.find(any(Query.class), eq(Publisher.class))).thenReturn(Collections.singletonList(publisher));
+        when(assembler.toPagedModel(any(), any())).thenReturn(CollectionModel.empty());
+
+        service.getAll(null, null, 20, "name");
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Publisher.class));
+        assertEquals(new Document("name", 1), query.getValue().getFieldsObject());
+        verify(repository, never()).findAllBy(any(Pageable.class));
+        verify(assembler).toPagedModel(notNull(), eq("name"));
+    }
+
+    @Test
+    public void whenGetById_withFields_thenProjectedQuery() {
+        Publisher publisher = getMockPublisher();
+        Projection projection = new Projection(Set.of("name"));
+
+        when(projections.parse("name", Publisher.class)).thenReturn(projection);
+        when(mongoTemplate.findOne(any(Query.class), eq(Publisher.class))).thenReturn(publisher);
+        when(assembler.toModel(publisher)).thenReturn(EntityModel.of(publisher));
+
+        assertEquals(publisher, service.getById("1", "name").getContent());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findOne(query.capture(), eq(Publisher.class));
+        assertEquals(new Document("id", "1"), query.getValue().getQueryObject());
+        assertEquals(new Document("name", 1), query.getValue().getFieldsObject());
+        verify(repository, never()).findById("1");
+    }
+
+    @Test
+    public void whenGetById_withFields_notFound_thenCorrectResponse() {
+        when(projections.parse("name", Publisher.class)).thenReturn(new Projection(Set.of("name")));
+
+        assertThrows(ItemNotFoundException.class, () -> service.getById("1", "name"));
+    }
+
+    @Test
+    public void whenSearch_withFields_thenProjectedQuery() {
+        SearchRequest request = SearchRequest.builder().build();
+        Query query = new Query();
+
+        when(projections.parse("name", Publisher.class)).thenReturn(new Projection(Set.of("name")));
+        when(compiler.compile(request, SearchFields.PUBLISHERS)).thenReturn(query);
+        when(mongoTemplate.find(query, Publisher.class)).thenReturn(Collections.emptyList());
+
+        assertTrue(service.search(request, "name").isEmpty());
+
+        assertEquals(new Document("name", 1), query.getFieldsObject());
+    }
+
+    @Test
+    public void whenExplain_thenCorrectResponse() {
+        SearchRequest request = SearchRequest.builder().explain(true).build();
+        Query query = new Query();
+        SearchExplanation expected = SearchExplanation.builder().indexName("name_1").build();
+
+        when(compiler.compile(request, SearchFields.PUBLISHERS)).thenReturn(query);
+        when(explainer.explain(query, Publisher.class)).thenReturn(expected);
+
+        assertEquals(expected, service.explain(request));
+
+        verify(explainer).explain(query, Publisher.class);
+    }
+
+    @Test
+    public void whenExport_thenCorrectResponse() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        when(exporter.export(Publisher.class, out)).thenReturn(1L);
+
+        service.export(out);
+
+        verify(exporter).export(Publisher.class, out);
+    }
+
     @Test
     public void whenAdd_thenCorrectResponse() {
         Publisher publisher = getMockPublisher();
@@ -132,6 +294,23 @@ public class PublishersServiceTest {
 
         verify(repository).save(publisher);
         verify(assembler).toModel(publisher);
+        assertEquals(List.of(publisher.getId()), publishedEvent().getIds());
+    }
+
+    @Test
+    public void whenAddAll_thenCorrectResponse() {
+        Iterator<Publisher> publishers = Collections.singletonList(getMockPublisher()).iterator();
+        List<BatchResult> expected = Collections.singletonList(
+                BatchResult.builder().index(0).id("1").status(BatchResult.Status.UPDATED).build());
+
+        when(batchWriter.write(Publisher.class, publishers)).thenReturn(expected);
+
+        List<BatchResult> actual = service.addAll(publishers);
+
+        assertEquals(expected, actual);
+
+        verify(batchWriter).write(Publisher.class, publishers);
+        assertEquals(List.of("1"), publishedEvent().getIds());
     }
 
     @Test
@@ -141,52 +320,202 @@ public class PublishersServiceTest {
         Publisher publisherUpdate = publisher;
         publisherUpdate.setName("Orbit");
 
-        when(repository.findById("1")).thenReturn(Optional.of(publisher));
+        when(mongoTemplate.findOne(any(Query.class), eq(Publisher.class))).thenReturn(publisher);
         when(repository.save(publisher)).thenReturn(publisher);
         when(assembler.toModel(publisher)).thenReturn(EntityModel.of(publisher));
 
-        EntityModel<?> actual = service.update("1", publisherUpdate);
+        EntityModel<?> actual = service.update("1", publisherUpdate, null);
         Publisher actualPublisher = (Publisher) actual.getContent();
 
         assertEquals(publisher.getId(), actualPublisher.getId());
         assertEquals(publisher.getName(), actualPublisher.getName());
 
-        verify(repository).findById("1");
+        verify(mongoTemplate).findOne(any(Query.class), eq(Publisher.class));
         verify(repository).save(publisher);
         verify(assembler).toModel(publisher);
+        assertEquals(List.of("1"), publishedEvent().getIds());
     }
 
     @Test
     public void whenUpdate_notFound_thenCorrectResponse() {
-        when(repository.findById("1")).thenReturn(Optional.empty());
-
         Exception ex = assertThrows(ItemNotFoundException.class, () -> {
-            service.update("1", getMockPublisher());
+            service.update("1", getMockPublisher(), null);
         });
 
         assertEquals("Could not find item with id 1", ex.getMessage());
 
-        verify(repository).findById("1");
+        verify(mongoTemplate).findOne(any(Query.class), eq(Publisher.class));
         verify(repository, never()).save(any(Publisher.class));
         verify(assembler, never()).toModel(any(Publisher.class));
+        verify(events, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void whenPatch_thenFindAndModifyReturnsNewVersion() {
+        Publisher publisher = getMockPublisher();
+        JsonNode patch = JsonNodeFactory.instance.objectNode();
+        Update update = new Update().set("name", "Penguin");
+
+        when(patches.compile(patch, Publisher.class)).thenReturn(update);
+        when(mongoTemplate.findAndModify(any(Query.class), eq(update), any(FindAndModifyOptions.class), eq(Publisher.class)))
+                .thenReturn(publisher);
+        when(assembler.toModel(publisher)).thenReturn(EntityModel.of(publisher));
+
+        assertEquals(publisher, service.patch("1", patch, null).getContent());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        verify(mongoTemplate).findAndModify(query.capture(), eq(update), options.capture(), eq(Publisher.class));
+        assertEquals(new Document("id", "1"), query.getValue().getQueryObject());
+        assertTrue(options.getValue().isReturnNew());
+        verify(relations).resolve(publisher);
+        assertEquals(List.of("1"), publishedEvent().getIds());
+    }
+
+    @Test
+    public void whenPatchEmpty_thenReadWithoutWrite() {
+        Publisher publisher = getMockPublisher();
+        JsonNode patch = JsonNodeFactory.instance.objectNode();
+
+        when(patches.compile(patch, Publisher.class)).thenReturn(new Update());
+        when(mongoTemplate.findOne(any(Query.class), eq(Publisher.class))).thenReturn(publisher);
+        when(assembler.toModel(publisher)).thenReturn(EntityModel.of(publisher));
+
+        assertEquals(publisher, service.patch("1", patch, null).getContent());
+
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Publisher.class));
+        verify(events, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void whenPatch_notFound_thenCorrectResponse() {
+        JsonNode patch = JsonNodeFactory.instance.objectNode();
+
+        when(patches.compile(patch, Publisher.class)).thenReturn(new Update().set("name", "Penguin"));
+
+        Exception ex = assertThrows(ItemNotFoundException.class, () -> {
+            service.patch("1", patch, null);
+        });
+
+        assertEquals("Could not find item with id 1", ex.getMessage());
+        verify(events, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void whenUpdateWithOtherVersion_thenPreconditionFailed() {
+        Publisher publisher = getMockPublisher();
+        publisher.setVersion(4L);
+        Publisher publisherUpdate = getMockPublisher();
+
+        when(mongoTemplate.findOne(any(Query.class), eq(Publisher.class))).thenReturn(publisher);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> service.update("1", publisherUpdate, List.of(3L)));
+
+        verify(repository, never()).save(any(Publisher.class));
+        verify(events, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void whenUpdateWithoutVersion_thenSavedAtStoredVersion() {
+        Publisher publisher = getMockPublisher();
+        publisher.setVersion(4L);
+        Publisher publisherUpdate = getMockPublisher();
+
+        when(mongoTemplate.findOne(any(Query.class), eq(Publisher.class))).thenReturn(publisher);
+        when(repository.save(publisherUpdate)).thenReturn(publisherUpdate);
+
+        service.update("1", publisherUpdate, null);
+
+        assertEquals(4L, publisherUpdate.getVersion());
+
+        // read past the cache, which may hold an older version
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findOne(query.capture(), eq(Publisher.class));
+        assertEquals(new Document("id", "1"), query.getValue().getQueryObject());
+        assertEquals(new Document("version", 1), query.getValue().getFieldsObject());
+        verify(repository, never()).findById("1");
     }
 
     @Test
-    public void whenDeleteById_thenCorrectResponse() {
-        doNothing().when(repository).deleteById("1");
+    public void whenPatchStale_thenOptimisticLockingFailure() {
+        JsonNode patch = JsonNodeFactory.instance.objectNode();
+
+        when(patches.compile(patch, Publisher.class)).thenReturn(new Update().set("name", "Penguin"));
+        when(mongoTemplate.exists(any(Query.class), eq(Publisher.class))).thenReturn(true);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> service.patch("1", patch, List.of(3L)));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), any(FindAndModifyOptions.class),
+                eq(Publisher.class));
+        assertEquals(new Document("id", "1").append("version", new Document("$in", List.of(3L))), query.getValue().getQueryObject());
+        assertEquals(new Document("version", 1), update.getValue().getUpdateObject().get("$inc"));
+        verify(events, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void whenPatchVersionOfMissing_thenNotFound() {
+        JsonNode patch = JsonNodeFactory.instance.objectNode();
+
+        when(patches.compile(patch, Publisher.class)).thenReturn(new Update().set("name", "Penguin"));
+        when(mongoTemplate.exists(any(Query.class), eq(Publisher.class))).thenReturn(false);
+
+        assertThrows(ItemNotFoundException.class, () -> service.patch("1", patch, List.of(3L)));
+    }
 
+    @Test
+    public void whenDeleteById_thenCascaded() {
         service.delete("1");
 
-        verify(repository).deleteById("1");
+        verify(deleter).delete(Publisher.class, List.of("1"));
+        verify(repository, never()).deleteById("1");
+    }
+
+    @Test
+    public void whenDeleteByIds_thenCascadedInChunks() {
+        when(deleter.delete(Publisher.class, List.of("1", "2"))).thenReturn(2L);
+
+        assertEquals(2, service.delete(List.of("1", "2")));
+    }
+
+    @Test
+    public void whenDeleteMatching_thenCompiledFilterDeleted() {
+        SearchRequest request = SearchRequest.builder()
+                .filters(List.of(SearchFilter.builder().field("id").operator(SearchFilter.Operator.EQ).value("1").build()))
+                .build();
+        Query query = new Query();
+
+        when(compiler.compile(request, SearchFields.PUBLISHERS)).thenReturn(query);
+        when(deleter.delete(Publisher.class, query)).thenReturn(1L);
+
+        assertEquals(1, service.deleteMatching(request));
     }
 
     @Test
-    public void whenDeleteAll_thenCorrectResponse() {
-        doNothing().when(repository).deleteAll();
+    public void whenDeleteMatchingWithoutFilters_thenInvalidRequest() {
+        InvalidRequestException ex = assertThrows(InvalidRequestException.class,
+                () -> service.deleteMatching(new SearchRequest()));
 
+        assertEquals("filters", ex.getField());
+        verify(deleter, never()).delete(eq(Publisher.class), any(Query.class));
+    }
+
+    @Test
+    public void whenDeleteAll_thenCascaded() {
         service.deleteAll();
 
-        verify(repository).deleteAll();
+        verify(deleter).deleteAll(Publisher.class);
+        verify(repository, never()).deleteAll();
+    }
+
+    private CatalogChangedEvent publishedEvent() {
+        ArgumentCaptor<Object> event = ArgumentCaptor.forClass(Object.class);
+
+        verify(events).publishEvent(event.capture());
+
+        return (CatalogChangedEvent) event.getValue();
     }
 
     private Publisher getMockPublisher() {
@@ -0,0 +1,64 @@
+package com.betterreads.unit.services.reactive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.betterreads.models.Book;
+import com.betterreads.services.DocumentExporter;
+import com.betterreads.services.reactive.ReactiveDocumentExporter;
+
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+public class ReactiveDocumentExporterTest {
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private ReactiveDocumentExporter exporter;
+
+    @BeforeEach
+    public void setupTests() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    public void whenExport_thenOneBufferPerLine() {
+        Document first = new Document("_id", new ObjectId("650000000000000000000001"))
+                .append("title", "Caged Wisdom")
+                .append("publishedDate", new Date(0));
+        Document second = new Document("_id", new ObjectId("650000000000000000000002")).append("pages", 351);
+
+        when(mongoTemplate.getCollectionName(Book.class)).thenReturn("books");
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("books"))).thenReturn(Flux.just(first, second));
+
+        StepVerifier.create(exporter.export(Book.class).map(buffer -> buffer.toString(StandardCharsets.UTF_8)))
+                .expectNext("{\"_id\": \"650000000000000000000001\", \"title\": \"Caged Wisdom\", "
+                        + "\"publishedDate\": \"1970-01-01T00:00:00Z\"}\n")
+                .expectNext("{\"_id\": \"650000000000000000000002\", \"pages\": 351}\n")
+                .verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Document.class), eq("books"));
+        assertEquals(new Document("_class", 0), query.getValue().getFieldsObject());
+        assertEquals(DocumentExporter.BATCH_SIZE, query.getValue().getMeta().getCursorBatchSize());
+    }
+}
@@ -0,0 +1,124 @@
+package com.betterreads.unit.services.reactive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoExceptionTranslator;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.betterreads.models.Author;
+import com.betterreads.models.Book;
+import com.betterreads.models.Publisher;
+import com.betterreads.services.reactive.ReactiveRelationLoader;
+
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+public class ReactiveRelationLoaderTest {
+
+    private static final String FIRST = "650000000000000000000001";
+    private static final String SECOND = "650000000000000000000002";
+    private static final String PUBLISHER = "650000000000000000000003";
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private ReactiveRelationLoader loader;
+
+    private MappingMongoConverter converter;
+
+    @BeforeEach
+    public void setupTests() {
+        MockitoAnnotations.openMocks(this);
+
+        MongoDatabaseFactory factory = mock(MongoDatabaseFactory.class);
+        when(factory.getExceptionTranslator()).thenReturn(new MongoExceptionTranslator());
+
+        MongoMappingContext context = new MongoMappingContext();
+        context.afterPropertiesSet();
+
+        converter = new MappingMongoConverter(new DefaultDbRefResolver(factory), context);
+        converter.afterPropertiesSet();
+
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+    }
+
+    @Test
+    public void whenResolve_thenOneQueryPerReferenceProperty() {
+        Book first = readBook("1", List.of(FIRST, SECOND));
+        Book second = readBook("2", List.of(SECOND));
+        List<Book> books = List.of(first, second);
+
+        when(mongoTemplate.find(any(Query.class), eq(Author.class))).thenReturn(Flux.just(
+                Author.builder().id(SECOND).lastName("Bluth").build(),
+                Author.builder().id(FIRST).lastName("Funke").build()));
+        when(mongoTemplate.find(any(Query.class), eq(Publisher.class))).thenReturn(Flux.just(
+                Publisher.builder().id(PUBLISHER).name("McGraw").build()));
+
+        StepVerifier.create(loader.resolve(books))
+                .assertNext(resolved -> assertSame(books, resolved))
+                .verifyComplete();
+
+        assertEquals(List.of("Funke", "Bluth"), first.getAuthors().stream().map(Author::getLastName).toList());
+        assertEquals(List.of("Bluth"), second.getAuthors().stream().map(Author::getLastName).toList());
+        assertSame(first.getPublisher(), second.getPublisher());
+
+        verify(mongoTemplate).find(any(Query.class), eq(Author.class));
+        verify(mongoTemplate).find(any(Query.class), eq(Publisher.class));
+    }
+
+    @Test
+    public void whenResolve_neverStored_thenNullWithoutQueries() {
+        Book book = converter.read(Book.class, new Document("_id", "1").append("title", "Caged Wisdom"));
+
+        StepVerifier.create(loader.resolve(book))
+                .assertNext(resolved -> {
+                    assertNull(resolved.getAuthors());
+                    assertNull(resolved.getPublisher());
+                })
+                .verifyComplete();
+
+        verify(mongoTemplate, never()).find(any(Query.class), any());
+    }
+
+    @Test
+    public void whenResolve_empty_thenNoQueries() {
+        StepVerifier.create(loader.resolve(Collections.emptyList()))
+                .assertNext(resolved -> assertEquals(List.of(), resolved))
+                .verifyComplete();
+
+        verify(mongoTemplate, never()).getConverter();
+    }
+
+    private Book readBook(String id, List<String> authors) {
+        Document document = new Document("_id", id)
+                .append("title", "Caged Wisdom")
+                .append("authors", authors.stream().map(ObjectId::new).toList())
+                .append("publisher", new ObjectId(PUBLISHER));
+
+        return converter.read(Book.class, document);
+    }
+}
@@ -0,0 +1,471 @@
+package com.betterreads.unit.services.reactive.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+
+import com.betterreads.assemblers.reactive.ReactiveBooksAssembler;
+import com.betterreads.events.CatalogChangedEvent;
+import com.betterreads.exceptions.InvalidRequestException;
+import com.betterreads.exceptions.ItemNotFoundException;
+import com.betterreads.models.Author;
+import com.betterreads.models.BatchResult;
+import com.betterreads.models.Book;
+import com.betterreads.models.Publisher;
+import com.betterreads.models.SearchExplanation;
+import com.betterreads.models.SearchRequest;
+import com.betterreads.queries.MergePatchCompiler;
+import com.betterreads.queries.Projection;
+import com.betterreads.queries.ProjectionParser;
+import com.betterreads.queries.QueryExplainer;
+import com.betterreads.queries.SearchFields;
+import com.betterreads.queries.SearchQueryCompiler;
+import com.betterreads.repositories.reactive.ReactiveBooksRepository;
+import com.betterreads.services.BatchWriter;
+import com.betterreads.services.reactive.ReactiveDocumentExporter;
+import com.betterreads.services.reactive.ReactiveRelationLoader;
+import com.betterreads.services.reactive.impl.ReactiveBooksService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.notNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ReactiveBooksServiceTest {
+
+    @Mock
+    private ReactiveBooksRepository repository;
+
+    @Mock
+    private ReactiveBooksAssembler assembler;
+
+    @Mock
+    private ReactiveDocumentExporter exporter;
+
+    @Mock
+    private BatchWriter batchWriter;
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Mock
+    private SearchQueryCompiler compiler;
+
+    @Mock
+    private QueryExplainer explainer;
+
+    @Mock
+    private ApplicationEventPublisher events;
+
+    @Mock
+    private ReactiveRelationLoader relations;
+
+    @Mock
+    private ProjectionParser projections;
+
+    @Mock
+    private MergePatchCompiler patches;
+
+    @InjectMocks
+    private ReactiveBooksService service;
+
+    @BeforeEach
+    public void setupTests() {
+        MockitoAnnotations.openMocks(this);
+
+        when(relations.resolve(anyList())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(relations.resolve(any(Book.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(assembler.toModel(any(Book.class))).thenAnswer(invocation -> Mono.just(EntityModel.of(invocation.getArgument(0))));
+        when(projections.parse(isNull(), any())).thenReturn(Projection.ALL);
+    }
+
+    @Test
+    public void whenGetAll_thenCorrectResponse() {
+        Book book = getMockBook();
+        CollectionModel<EntityModel<?>> expected = CollectionModel.of(Collections.singletonList(EntityModel.of(book)));
+
+        when(repository.findAllBy(any(Pageable.class))).thenReturn(Flux.just(book));
+        when(assembler.toPagedModel(any(), any())).thenReturn(Mono.just(expected));
+
+        StepVerifier.create(service.getAll(null, null, 20, null))
+                .assertNext(actual -> assertEquals(expected, actual))
+                .verifyComplete();
+
+        verify(repository).findAllBy(PageRequest.of(0, 21, Sort.by(Sort.Direction.ASC, "id")));
+        verify(assembler).toPagedModel(notNull(), isNull());
+        verify(relations).resolve(List.of(book));
+    }
+
+    @Test
+    public void whenGetAll_withFields_thenProjectedQuery() {
+        Book book = getMockBook();
+
+        when(projections.parse("title", Book.class)).thenReturn(new Projection(Set.of("title")));
+        when(mongoTemplate.find(any(Query.class), eq(Book.class))).thenReturn(Flux.just(book));
+        when(assembler.toPagedModel(any(), any())).thenReturn(Mono.just(CollectionModel.empty()));
+
+        StepVerifier.create(service.getAll(null, null, 20, "title"))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Book.class));
+        assertEquals(new Document("title", 1), query.getValue().getFieldsObject());
+        verify(repository, never()).findAllBy(any(Pageable.class));
+        verify(assembler).toPagedModel(notNull(), eq("title"));
+    }
+
+    @Test
+    public void whenGetAll_withUnknownField_thenError() {
+        when(projections.parse("nope", Book.class)).thenThrow(new InvalidRequestException("fields", "Unknown field nope"));
+
+        StepVerifier.create(service.getAll(null, null, 20, "nope"))
+                .verifyError(InvalidRequestException.class);
+    }
+
+    @Test
+    public void whenGetById_thenCorrectResponse() {
+        Book book = getMockBook();
+
+        when(repository.findById("1")).thenReturn(Mono.just(book));
+
+        StepVerifier.create(service.getById("1", null))
+                .assertNext(actual -> assertEquals(book, actual.getContent()))
+                .verifyComplete();
+
+        verify(relations).resolve(book);
+        verify(assembler).toModel(book);
+    }
+
+    @Test
+    public void whenGetById_notFound_thenCorrectResponse() {
+        when(repository.findById("1")).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.getById("1", null))
+                .verifyErrorMessage("Could not find item with id 1");
+
+        verify(assembler, never()).toModel(any(Book.class));
+    }
+
+    @Test
+    public void whenGetById_withFields_thenProjectedQuery() {
+        Book book = getMockBook();
+
+        when(projections.parse("title", Book.class)).thenReturn(new Projection(Set.of("title")));
+        when(mongoTemplate.findOne(any(Query.class), eq(Book.class))).thenReturn(Mono.just(book));
+
+        StepVerifier.create(service.getById("1", "title"))
+                .assertNext(actual -> assertEquals(book, actual.getContent()))
+                .verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findOne(query.capture(), eq(Book.class));
+        assertEquals(new Document("id", "1"), query.getValue().getQueryObject());
+        assertEquals(new Document("title", 1), query.getValue().getFieldsObject());
+        verify(repository, never()).findById("1");
+    }
+
+    @Test
+    public void whenSearch_thenCorrectResponse() {
+        Book book = getMockBook();
+        SearchRequest request = SearchRequest.builder().build();
+        Query query = new Query();
+
+        when(compiler.compile(request, SearchFields.BOOKS)).thenReturn(query);
+        when(mongoTemplate.find(query, Book.class)).thenReturn(Flux.just(book));
+
+        StepVerifier.create(service.search(request, null))
+                .assertNext(actual -> assertEquals(book, actual.getContent()))
+                .verifyComplete();
+
+        verify(relations).resolve(List.of(book));
+    }
+
+    @Test
+    public void whenExplain_thenCorrectResponse() {
+        SearchRequest request = SearchRequest.builder().explain(true).build();
+        Query query = new Query();
+        SearchExplanation expected = SearchExplanation.builder().indexName("title_1").build();
+
+        when(compiler.compile(request, SearchFields.BOOKS)).thenReturn(query);
+        when(explainer.explain(query, Book.class)).thenReturn(expected);
+
+        StepVerifier.create(service.explain(request))
+                .expectNext(expected)
+                .verifyComplete();
+    }
+
+    @Test
+    public void whenExport_thenCorrectResponse() {
+        DataBuffer line = DefaultDataBufferFactory.sharedInstance.wrap("{}\n".getBytes(StandardCharsets.UTF_8));
+
+        when(exporter.export(Book.class)).thenReturn(Flux.just(line));
+
+        StepVerifier.create(service.export())
+                .expectNext(line)
+                .verifyComplete();
+    }
+
+    @Test
+    public void whenAdd_thenCorrectResponse() {
+        Book book = getMockBook();
+
+        when(repository.save(book)).thenReturn(Mono.just(book));
+
+        StepVerifier.create(service.add(book))
+                .assertNext(actual -> assertEquals(book, actual.getContent()))
+                .verifyComplete();
+
+        assertEquals(List.of(book.getId()), publishedEvent().getIds());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void whenAddAll_thenCorrectResponse() {
+        Book book = getMockBook();
+        List<BatchResult> expected = List.of(
+                BatchResult.builder().index(0).id("1").status(BatchResult.Status.UPDATED).build());
+
+        when(batchWriter.write(eq(Book.class), any(Iterator.class))).thenReturn(expected);
+
+        StepVerifier.create(service.addAll(Flux.just(book)))
+                .expectNext(expected)
+                .verifyComplete();
+
+        ArgumentCaptor<Iterator<?>> written = ArgumentCaptor.forClass(Iterator.class);
+        verify(batchWriter).write(eq(Book.class), written.capture());
+        assertEquals(book, written.getValue().next());
+        assertEquals(List.of("1"), publishedEvent().getIds());
+    }
+
+    @Test
+    public void whenUpdate_thenCorrectResponse() {
+        Book book = getMockBook();
+        Book update = getMockBook();
+        update.setId(null);
+        update.setGenres(Collections.singletonList("Fiction"));
+
+        when(repository.findById("1")).thenReturn(Mono.just(book));
+        when(repository.save(update)).thenReturn(Mono.just(update));
+
+        StepVerifier.create(service.update("1", update, null))
+                .assertNext(actual -> assertTrue(((Book) actual.getContent()).getGenres().contains("Fiction")))
+                .verifyComplete();
+
+        assertEquals("1", update.getId());
+        assertEquals(List.of("1"), publishedEvent().getIds());
+    }
+
+    @Test
+    public void whenUpdate_notFound_thenCorrectResponse() {
+        when(repository.findById("1")).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.update("1", getMockBook(), null))
+                .verifyError(ItemNotFoundException.class);
+
+        verify(repository, never()).save(any(Book.class));
+        verify(events, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void whenPatch_thenFindAndModifyReturnsNewVersion() {
+        Book book = getMockBook();
+        JsonNode patch = JsonNodeFactory.instance.objectNode();
+        Update update = new Update().set("pages", 320);
+
+        when(patches.compile(patch, Book.class)).thenReturn(update);
+        when(mongoTemplate.findAndModify(any(Query.class), eq(update), any(FindAndModifyOptions.class), eq(Book.class)))
+                .thenReturn(Mono.just(book));
+
+        StepVerifier.create(service.patch("1", patch, null))
+                .assertNext(actual -> assertEquals(book, actual.getContent()))
+                .verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        verify(mongoTemplate).findAndModify(query.capture(), eq(update), options.capture(), eq(Book.class));
+        assertEquals(new Document("id", "1"), query.getValue().getQueryObject());
+        assertTrue(options.getValue().isReturnNew());
+        verify(relations).resolve(book);
+        assertEquals(List.of("1"), publishedEvent().getIds());
+    }
+
+    @Test
+    public void whenPatchEmpty_thenReadWithoutWrite() {
+        Book book = getMockBook();
+        JsonNode patch = JsonNodeFactory.instance.objectNode();
+
+        when(patches.compile(patch, Book.class)).thenReturn(new Update());
+        when(mongoTemplate.findOne(any(Query.class), eq(Book.class))).thenReturn(Mono.just(book));
+
+        StepVerifier.create(service.patch("1", patch, null))
+                .assertNext(actual -> assertEquals(book, actual.getContent()))
+                .verifyComplete();
+
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Book.class));
+        verify(events, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void whenPatch_notFound_thenCorrectResponse() {
+        JsonNode patch = JsonNodeFactory.instance.objectNode();
+
+        when(patches.compile(patch, Book.class)).thenReturn(new Update().set("pages", 320));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Book.class))).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.patch("1", patch, null))
+                .verifyError(ItemNotFoundException.class);
+
+        verify(events, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void whenUpdateWithOtherVersion_thenPreconditionFailed() {
+        Book book = getMockBook();
+        book.setVersion(4L);
+        Book bookUpdate = getMockBook();
+
+        when(repository.findById("1")).thenReturn(Mono.just(book));
+
+        StepVerifier.create(service.update("1", bookUpdate, List.of(3L)))
+                .verifyError(OptimisticLockingFailureException.class);
+
+        verify(repository, never()).save(any(Book.class));
+        verify(events, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void whenUpdateWithMatchingVersion_thenSavedAtStoredVersion() {
+        Book book = getMockBook();
+        book.setVersion(4L);
+        Book bookUpdate = getMockBook();
+
+        when(repository.findById("1")).thenReturn(Mono.just(book));
+        when(repository.save(bookUpdate)).thenReturn(Mono.just(bookUpdate));
+
+        StepVerifier.create(service.update("1", bookUpdate, List.of(3L, 4L)))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertEquals(4L, bookUpdate.getVersion());
+    }
+
+    @Test
+    public void whenPatchStale_thenOptimisticLockingFailure() {
+        JsonNode patch = JsonNodeFactory.instance.objectNode();
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+
+        when(patches.compile(patch, Book.class)).thenReturn(new Update().set("pages", 320));
+        when(mongoTemplate.findAndModify(query.capture(), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Book.class))).thenReturn(Mono.empty());
+        when(mongoTemplate.exists(any(Query.class), eq(Book.class))).thenReturn(Mono.just(true));
+
+        StepVerifier.create(service.patch("1", patch, List.of(3L)))
+                .verifyError(OptimisticLockingFailureException.class);
+
+        assertEquals(new Document("id", "1").append("version", new Document("$in", List.of(3L))), query.getValue().getQueryObject());
+        verify(events, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void whenPatchVersionOfMissing_thenNotFound() {
+        JsonNode patch = JsonNodeFactory.instance.objectNode();
+
+        when(patches.compile(patch, Book.class)).thenReturn(new Update().set("pages", 320));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Book.class))).thenReturn(Mono.empty());
+        when(mongoTemplate.exists(any(Query.class), eq(Book.class))).thenReturn(Mono.just(false));
+
+        StepVerifier.create(service.patch("1", patch, List.of(3L)))
+                .verifyError(ItemNotFoundException.class);
+    }
+
+    @Test
+    public void whenDeleteById_thenCorrectResponse() {
+        when(repository.deleteById("1")).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.delete("1"))
+                .verifyComplete();
+
+        verify(repository).deleteById("1");
+        assertEquals(List.of("1"), publishedEvent().getIds());
+    }
+
+    @Test
+    public void whenDeleteAll_thenCorrectResponse() {
+        when(repository.deleteAll()).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.deleteAll())
+                .verifyComplete();
+
+        verify(repository).deleteAll();
+        assertTrue(publishedEvent().isAll());
+    }
+
+    private CatalogChangedEvent publishedEvent() {
+        ArgumentCaptor<Object> event = ArgumentCaptor.forClass(Object.class);
+
+        verify(events).publishEvent(event.capture());
+
+        return (CatalogChangedEvent) event.getValue();
+    }
+
+    private Book getMockBook() {
+        Author author = Author.builder()
+                .id("1")
+                .firstName("George")
+                .middleName("Michael")
+                .lastName("Bluth")
+                .build();
+
+        return Book.builder()
+                .id("1")
+                .isbn("000-5555523")
+                .title("My Awesome Book")
+                .authors(Collections.singletonList(author))
+                .pages(351)
+                .genres(Arrays.asList("non-fiction", "autobiography"))
+                .publishedDate(new Date())
+                .publisher(Publisher.builder().id("1").name("McGraw").build())
+                .build();
+    }
+}
@@ -0,0 +1,438 @@
+package com.betterreads.unit.services.reactive.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+
+import com.betterreads.assemblers.reactive.ReactivePublishersAssembler;
+import com.betterreads.events.CatalogChangedEvent;
+import com.betterreads.exceptions.InvalidRequestException;
+import com.betterreads.exceptions.ItemNotFoundException;
+import com.betterreads.models.BatchResult;
+import com.betterreads.models.Publisher;
+import com.betterreads.models.SearchExplanation;
+import com.betterreads.models.SearchRequest;
+import com.betterreads.queries.MergePatchCompiler;
+import com.betterreads.queries.Projection;
+import com.betterreads.queries.ProjectionParser;
+import com.betterreads.queries.QueryExplainer;
+import com.betterreads.queries.SearchFields;
+import com.betterreads.queries.SearchQueryCompiler;
+import com.betterreads.repositories.reactive.ReactivePublishersRepository;
+import com.betterreads.services.BatchWriter;
+import com.betterreads.services.reactive.ReactiveDocumentExporter;
+import com.betterreads.services.reactive.ReactiveRelationLoader;
+import com.betterreads.services.reactive.impl.ReactivePublishersService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.notNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ReactivePublishersServiceTest {
+
+    @Mock
+    private ReactivePublishersRepository repository;
+
+    @Mock
+    private ReactivePublishersAssembler assembler;
+
+    @Mock
+    private ReactiveDocumentExporter exporter;
+
+    @Mock
+    private BatchWriter batchWriter;
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Mock
+    private SearchQueryCompiler compiler;
+
+    @Mock
+    private QueryExplainer explainer;
+
+    @Mock
+    private ApplicationEventPublisher events;
+
+    @Mock
+    private ReactiveRelationLoader relations;
+
+    @Mock
+    private ProjectionParser projections;
+
+    @Mock
+    private MergePatchCompiler patches;
+
+    @InjectMocks
+    private ReactivePublishersService service;
+
+    @BeforeEach
+    public void setupTests() {
+        MockitoAnnotations.openMocks(this);
+
+        when(relations.resolve(anyList())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(relations.resolve(any(Publisher.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(assembler.toModel(any(Publisher.class))).thenAnswer(invocation -> Mono.just(EntityModel.of(invocation.getArgument(0))));
+        when(projections.parse(isNull(), any())).thenReturn(Projection.ALL);
+    }
+
+    @Test
+    public void whenGetAll_thenCorrectResponse() {
+        Publisher publisher = getMockPublisher();
+        CollectionModel<EntityModel<?>> expected = CollectionModel.of(Collections.singletonList(EntityModel.of(publisher)));
+
+        when(repository.findAllBy(any(Pageable.class))).thenReturn(Flux.just(publisher));
+        when(assembler.toPagedModel(any(), any())).thenReturn(Mono.just(expected));
+
+        StepVerifier.create(service.getAll(null, null, 20, null))
+                .assertNext(actual -> assertEquals(expected, actual))
+                .verifyComplete();
+
+        verify(repository).findAllBy(PageRequest.of(0, 21, Sort.by(Sort.Direction.ASC, "id")));
+        verify(assembler).toPagedModel(notNull(), isNull());
+        verify(relations).resolve(List.of(publisher));
+    }
+
+    @Test
+    public void whenGetAll_withFields_thenProjectedQuery() {
+        Publisher publisher = getMockPublisher();
+
+        when(projections.parse("name", Publisher.class)).thenReturn(new Projection(Set.of("name")));
+        when(mongoTemplate.find(any(Query.class), eq(Publisher.class))).thenReturn(Flux.just(publisher));
+        when(assembler.toPagedModel(any(), any())).thenReturn(Mono.just(CollectionModel.empty()));
+
+        StepVerifier.create(service.getAll(null, null, 20, "name"))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Publisher.class));
+        assertEquals(new Document("name", 1), query.getValue().getFieldsObject());
+        verify(repository, never()).findAllBy(any(Pageable.class));
+        verify(assembler).toPagedModel(notNull(), eq("name"));
+    }
+
+    @Test
+    public void whenGetAll_withUnknownField_thenError() {
+        when(projections.parse("nope", Publisher.class)).thenThrow(new InvalidRequestException("fields", "Unknown field nope"));
+
+        StepVerifier.create(service.getAll(null, null, 20, "nope"))
+                .verifyError(InvalidRequestException.class);
+    }
+
+    @Test
+    public void whenGetById_thenCorrectResponse() {
+        Publisher publisher = getMockPublisher();
+
+        when(repository.findById("1")).thenReturn(Mono.just(publisher));
+
+        StepVerifier.create(service.getById("1", null))
+                .assertNext(actual -> assertEquals(publisher, actual.getContent()))
+                .verifyComplete();
+
+        verify(relations).resolve(publisher);
+        verify(assembler).toModel(publisher);
+    }
+
+    @Test
+    public void whenGetById_notFound_thenCorrectResponse() {
+        when(repository.findById("1")).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.getById("1", null))
+                .verifyErrorMessage("Could not find item with id 1");
+
+        verify(assembler, never()).toModel(any(Publisher.class));
+    }
+
+    @Test
+    public void whenGetById_withFields_thenProjectedQuery() {
+        Publisher publisher = getMockPublisher();
+
+        when(projections.parse("name", Publisher.class)).thenReturn(new Projection(Set.of("name")));
+        when(mongoTemplate.findOne(any(Query.class), eq(Publisher.class))).thenReturn(Mono.just(publisher));
+
+        StepVerifier.create(service.getById("1", "name"))
+                .assertNext(actual -> assertEquals(publisher, actual.getContent()))
+                .verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findOne(query.capture(), eq(Publisher.class));
+        assertEquals(new Document("id", "1"), query.getValue().getQueryObject());
+        assertEquals(new Document("name", 1), query.getValue().getFieldsObject());
+        verify(repository, never()).findById("1");
+    }
+
+    @Test
+    public void whenSearch_thenCorrectResponse() {
+        Publisher publisher = getMockPublisher();
+        SearchRequest request = SearchRequest.builder().build();
+        Query query = new Query();
+
+        when(compiler.compile(request, SearchFields.PUBLISHERS)).thenReturn(query);
+        when(mongoTemplate.find(query, Publisher.class)).thenReturn(Flux.just(publisher));
+
+        StepVerifier.create(service.search(request, null))
+                .assertNext(actual -> assertEquals(publisher, actual.getContent()))
+                .verifyComplete();
+
+        verify(relations).resolve(List.of(publisher));
+    }
+
+    @Test
+    public void whenExplain_thenCorrectResponse() {
+        SearchRequest request = SearchRequest.builder().explain(true).build();
+        Query query = new Query();
+        SearchExplanation expected = SearchExplanation.builder().indexName("name_1").build();
+
+        when(compiler.compile(request, SearchFields.PUBLISHERS)).thenReturn(query);
+        when(explainer.explain(query, Publisher.class)).thenReturn(expected);
+
+        StepVerifier.create(service.explain(request))
+                .expectNext(expected)
+                .verifyComplete();
+    }
+
+    @Test
+    public void whenExport_thenCorrectResponse() {
+        DataBuffer line = DefaultDataBufferFactory.sharedInstance.wrap("{}\n".getBytes(StandardCharsets.UTF_8));
+
+        when(exporter.export(Publisher.class)).thenReturn(Flux.just(line));
+
+        StepVerifier.create(service.export())
+                .expectNext(line)
+                .verifyComplete();
+    }
+
+    @Test
+    public void whenAdd_thenCorrectResponse() {
+        Publisher publisher = getMockPublisher();
+
+        when(repository.save(publisher)).thenReturn(Mono.just(publisher));
+
+        StepVerifier.create(service.add(publisher))
+                .assertNext(actual -> assertEquals(publisher, actual.getContent()))
+                .verifyComplete();
+
+        assertEquals(List.of(publisher.getId()), publishedEvent().getIds());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void whenAddAll_thenCorrectResponse() {
+        Publisher publisher = getMockPublisher();
+        List<BatchResult> expected = List.of(
+                BatchResult.builder().index(0).id("1").status(BatchResult.Status.UPDATED).build());
+
+        when(batchWriter.write(eq(Publisher.class), any(Iterator.class))).thenReturn(expected);
+
+        StepVerifier.create(service.addAll(Flux.just(publisher)))
+                .expectNext(expected)
+                .verifyComplete();
+
+        ArgumentCaptor<Iterator<?>> written = ArgumentCaptor.forClass(Iterator.class);
+        verify(batchWriter).write(eq(Publisher.class), written.capture());
+        assertEquals(publisher, written.getValue().next());
+        assertEquals(List.of("1"), publishedEvent().getIds());
+    }
+
+    @Test
+    public void whenUpdate_thenCorrectResponse() {
+        Publisher publisher = getMockPublisher();
+        Publisher update = getMockPublisher();
+        update.setId(null);
+        update.setName("Orbit");
+
+        when(repository.findById("1")).thenReturn(Mono.just(publisher));
+        when(repository.save(update)).thenReturn(Mono.just(update));
+
+        StepVerifier.create(service.update("1", update, null))
+                .assertNext(actual -> assertEquals("Orbit", ((Publisher) actual.getContent()).getName()))
+                .verifyComplete();
+
+        assertEquals("1", update.getId());
+        assertEquals(List.of("1"), publishedEvent().getIds());
+    }
+
+    @Test
+    public void whenUpdate_notFound_thenCorrectResponse() {
+        when(repository.findById("1")).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.update("1", getMockPublisher(), null))
+                .verifyError(ItemNotFoundException.class);
+
+        verify(repository, never()).save(any(Publisher.class));
+        verify(events, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void whenPatch_thenFindAndModifyReturnsNewVersion() {
+        Publisher publisher = getMockPublisher();
+        JsonNode patch = JsonNodeFactory.instance.objectNode();
+        Update update = new Update().set("name", "Penguin");
+
+        when(patches.compile(patch, Publisher.class)).thenReturn(update);
+        when(mongoTemplate.findAndModify(any(Query.class), eq(update), any(FindAndModifyOptions.class), eq(Publisher.class)))
+                .thenReturn(Mono.just(publisher));
+
+        StepVerifier.create(service.patch("1", patch, null))
+                .assertNext(actual -> assertEquals(publisher, actual.getContent()))
+                .verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        verify(mongoTemplate).findAndModify(query.capture(), eq(update), options.capture(), eq(Publisher.class));
+        assertEquals(new Document("id", "1"), query.getValue().getQueryObject());
+        assertTrue(options.getValue().isReturnNew());
+        verify(relations).resolve(publisher);
+        assertEquals(List.of("1"), publishedEvent().getIds());
+    }
+
+    @Test
+    public void whenPatchEmpty_thenReadWithoutWrite() {
+        Publisher publisher = getMockPublisher();
+        JsonNode patch = JsonNodeFactory.instance.objectNode();
+
+        when(patches.compile(patch, Publisher.class)).thenReturn(new Update());
+        when(mongoTemplate.findOne(any(Query.class), eq(Publisher.class))).thenReturn(Mono.just(publisher));
+
+        StepVerifier.create(service.patch("1", patch, null))
+                .assertNext(actual -> assertEquals(publisher, actual.getContent()))
+                .verifyComplete();
+
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Publisher.class));
+        verify(events, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void whenPatch_notFound_thenCorrectResponse() {
+        JsonNode patch = JsonNodeFactory.instance.objectNode();
+
+        when(patches.compile(patch, Publisher.class)).thenReturn(new Update().set("name", "Penguin"));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Publisher.class))).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.patch("1", patch, null))
+                .verifyError(ItemNotFoundException.class);
+
+        verify(events, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void whenUpdateWithOtherVersion_thenPreconditionFailed() {
+        Publisher publisher = getMockPublisher();
+        publisher.setVersion(4L);
+        Publisher publisherUpdate = getMockPublisher();
+
+        when(repository.findById("1")).thenReturn(Mono.just(publisher));
+
+        StepVerifier.create(service.update("1", publisherUpdate, List.of(3L)))
+                .verifyError(OptimisticLockingFailureException.class);
+
+        verify(repository, never()).save(any(Publisher.class));
+        verify(events, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void whenPatchStale_thenOptimisticLockingFailure() {
+        JsonNode patch = JsonNodeFactory.instance.objectNode();
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+
+        when(patches.compile(patch, Publisher.class)).thenReturn(new Update().set("name", "Penguin"));
+        when(mongoTemplate.findAndModify(query.capture(), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Publisher.class))).thenReturn(Mono.empty());
+        when(mongoTemplate.exists(any(Query.class), eq(Publisher.class))).thenReturn(Mono.just(true));
+
+        StepVerifier.create(service.patch("1", patch, List.of(3L)))
+                .verifyError(OptimisticLockingFailureException.class);
+
+        assertEquals(new Document("id", "1").append("version", new Document("$in", List.of(3L))), query.getValue().getQueryObject());
+        verify(events, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void whenPatchVersionOfMissing_thenNotFound() {
+        JsonNode patch = JsonNodeFactory.instance.objectNode();
+
+        when(patches.compile(patch, Publisher.class)).thenReturn(new Update().set("name", "Penguin"));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Publisher.class))).thenReturn(Mono.empty());
+        when(mongoTemplate.exists(any(Query.class), eq(Publisher.class))).thenReturn(Mono.just(false));
+
+        StepVerifier.create(service.patch("1", patch, List.of(3L)))
+                .verifyError(ItemNotFoundException.class);
+    }
+
+    @Test
+    public void whenDeleteById_thenCorrectResponse() {
+        when(repository.deleteById("1")).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.delete("1"))
+                .verifyComplete();
+
+        verify(repository).deleteById("1");
+        assertEquals(List.of("1"), publishedEvent().getIds());
+    }
+
+    @Test
+    public void whenDeleteAll_thenCorrectResponse() {
+        when(repository.deleteAll()).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.deleteAll())
+                .verifyComplete();
+
+        verify(repository).deleteAll();
+        assertTrue(publishedEvent().isAll());
+    }
+
+    private CatalogChangedEvent publishedEvent() {
+        ArgumentCaptor<Object> event = ArgumentCaptor.forClass(Object.class);
+
+        verify(events).publishEvent(event.capture());
+
+        return (CatalogChangedEvent) event.getValue();
+    }
+
+    private Publisher getMockPublisher() {
+        return Publisher.builder()
+                .id("1")
+                .name("Pendant Publishing")
+                .build();
+    }
+}